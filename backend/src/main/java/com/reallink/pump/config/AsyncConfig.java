@@ -0,0 +1,23 @@
+package com.reallink.pump.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+
+/**
+ * Enables {@code @Async}. With {@code spring.threads.virtual.enabled=true} the
+ * auto-configured executor runs each task on its own virtual thread; the
+ * decorator below carries the caller's tenant and security context into the
+ * task and clears both when it finishes.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    @Bean
+    public TaskDecorator tenantContextTaskDecorator() {
+        return task -> new DelegatingSecurityContextRunnable(PumpSecurityContextHolder.wrap(task));
+    }
+}
@@ -0,0 +1,90 @@
+package com.reallink.pump.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * With {@code replica-datasource.enabled=true}, replaces the single
+ * auto-configured pool with a primary pool, a replica pool and a
+ * {@link ReplicaRoutingDataSource} in front of them. Services keep choosing
+ * where they run through {@code @Transactional(readOnly = true)}; nothing else
+ * changes for them. Requires {@code spring.jpa.open-in-view=false}.
+ *
+ * Disabled by default, in which case Spring Boot's own DataSource is used.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "replica-datasource", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    /**
+     * The primary pool, with {@code spring.datasource.hikari.*} applied as it
+     * is to the auto-configured pool.
+     */
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties, ReplicaDataSourceConfig config) {
+        if (config.getUrl() == null || config.getUrl().isBlank()) {
+            throw new IllegalStateException("replica-datasource.url must be set when replica-datasource.enabled=true");
+        }
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(config.getUrl());
+        dataSource.setUsername(config.getUsername());
+        dataSource.setPassword(config.getPassword());
+        dataSource.setMaximumPoolSize(config.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * Spring initializes the router once its targets are set.
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            ReplicaDataSourceConfig config, JpaProperties jpaProperties) {
+        // With open-in-view, a request's first transaction keeps its
+        // connection for the rest of the request, so a write after a read
+        // would run on the read-only replica connection
+        if (!Boolean.FALSE.equals(jpaProperties.getOpenInView())) {
+            throw new IllegalStateException(
+                    "spring.jpa.open-in-view must be false when replica-datasource.enabled=true");
+        }
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(config);
+        routingDataSource.setTargets(primaryDataSource, replicaDataSource);
+        return routingDataSource;
+    }
+
+    /**
+     * The DataSource everything else uses. The lazy proxy defers fetching a
+     * physical connection until the first statement, by which time the
+     * transaction's read-only flag is known to the router.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
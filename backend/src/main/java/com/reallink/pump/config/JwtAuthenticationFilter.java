@@ -1,9 +1,12 @@
 package com.reallink.pump.config;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.util.Collection;
+import java.util.Collections;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -11,6 +14,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.reallink.pump.security.UserPrincipalCache;
 import com.reallink.pump.services.CustomUserDetailsService;
 
 import io.jsonwebtoken.ExpiredJwtException;
@@ -26,65 +30,108 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final UserPrincipalCache principalCache;
+    private final JwtConfig jwtConfig;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
 
-        final String requestTokenHeader = request.getHeader("Authorization");
+        try {
+            final String requestTokenHeader = request.getHeader("Authorization");
+
+            JwtPrincipal principal = null;
+
+            // JWT Token is in the form "Bearer token". Remove Bearer word and get only the Token
+            if (StringUtils.hasText(requestTokenHeader) && requestTokenHeader.startsWith("Bearer ")) {
+                String jwtToken = requestTokenHeader.substring(7);
+                try {
+                    // Parse and verify the token once; everything below works off the parsed claims
+                    JwtPrincipal parsed = jwtUtil.parseToken(jwtToken);
+
+                    // Check if this is a refresh token - refresh tokens should not be used for authentication
+                    if (parsed.isRefreshToken()) {
+                        request.setAttribute("authError", "REFRESH_TOKEN_NOT_ALLOWED");
+                        logger.error("Refresh token cannot be used for authentication");
+                    } else {
+                        principal = parsed;
+                        request.setAttribute("pumpMasterId", principal.getPumpMasterId());
+                        PumpSecurityContextHolder.setPumpMasterId(principal.getPumpMasterId());
+                    }
+                } catch (ExpiredJwtException e) {
+                    request.setAttribute("authError", "EXPIRED_TOKEN");
+                    logger.error("JWT Token has expired");
+                } catch (Exception e) {
+                    request.setAttribute("authError", "INVALID_TOKEN");
+                    logger.error("Unable to get JWT Token");
+                }
+            } else {
+                request.setAttribute("authError", "MISSING_TOKEN");
+            }
+
+            // Once we get the token validate it.
+            if (principal != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-        String username = null;
-        String jwtToken = null;
+                Collection<? extends GrantedAuthority> authorities = jwtConfig.isStatelessAuth()
+                        ? authoritiesFromClaims(principal)
+                        : authoritiesFromDatabase(principal);
 
-        // JWT Token is in the form "Bearer token". Remove Bearer word and get only the Token
-        if (StringUtils.hasText(requestTokenHeader) && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
-            try {
-                // Check if this is a refresh token - refresh tokens should not be used for authentication
-                if (jwtUtil.isRefreshToken(jwtToken)) {
-                    request.setAttribute("authError", "REFRESH_TOKEN_NOT_ALLOWED");
-                    logger.error("Refresh token cannot be used for authentication");
+                if (authorities != null && !principal.isExpired()) {
+
+                    UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken
+                            = new UsernamePasswordAuthenticationToken(principal, null, authorities);
+                    usernamePasswordAuthenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                    // After setting the Authentication in the context, we specify
+                    // that the current user is authenticated. So it passes the Spring Security Configurations successfully.
+                    SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
                 } else {
-                    username = jwtUtil.extractUsername(jwtToken);
-                    UUID pumpMasterId = jwtUtil.extractPumpMasterIdFromSubject(jwtToken);
-                    request.setAttribute("pumpMasterId", pumpMasterId);
-                    PumpSecurityContextHolder.setPumpMasterId(pumpMasterId);
+                    request.setAttribute("authError", "INVALID_TOKEN");
                 }
-            } catch (ExpiredJwtException e) {
-                request.setAttribute("authError", "EXPIRED_TOKEN");
-                logger.error("JWT Token has expired");
-            } catch (Exception e) {
-                request.setAttribute("authError", "INVALID_TOKEN");
-                logger.error("Unable to get JWT Token");
             }
-        } else {
-            request.setAttribute("authError", "MISSING_TOKEN");
+            filterChain.doFilter(request, response);
+        } finally {
+            // The tenant is request-scoped: never let it outlive the request on a reused thread
+            PumpSecurityContextHolder.clear();
         }
+    }
 
-        // Once we get the token validate it.
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-            // if token is valid configure Spring Security to manually set authentication
-            if (jwtUtil.isTokenValid(jwtToken, userDetails.getUsername())) {
-
-                // Extract pumpMasterId and store in request attribute to avoid re-parsing in controllers
-                UUID pumpMasterId = jwtUtil.extractPumpMasterId(jwtToken);
-                request.setAttribute("pumpMasterId", pumpMasterId);
+    /**
+     * Trust the role claim of the token. The principal cache only guards
+     * against users that were deleted, disabled or re-roled since the token
+     * was issued, and hits the database at most once per user until
+     * invalidated or expired. A cached entry that disagrees with the claims
+     * may be older than the token, so it is reloaded before the token is
+     * rejected. Returns null if the token should be rejected.
+     */
+    private Collection<? extends GrantedAuthority> authoritiesFromClaims(JwtPrincipal principal) {
+        UserPrincipalCache.CachedUser user = principalCache.get(principal.getUserId());
+        if (user != null && !matches(user, principal)) {
+            user = principalCache.reload(principal.getUserId());
+        }
+        if (user == null || !matches(user, principal)) {
+            return null;
+        }
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + principal.getRole()));
+    }
 
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken
-                        = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                usernamePasswordAuthenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+    private static boolean matches(UserPrincipalCache.CachedUser user, JwtPrincipal principal) {
+        return user.isEnabled()
+                && user.getUsername().equals(principal.getUsername())
+                && user.getPumpMasterId().equals(principal.getPumpMasterId())
+                && user.getRole().equals(principal.getRole());
+    }
 
-                // After setting the Authentication in the context, we specify
-                // that the current user is authenticated. So it passes the Spring Security Configurations successfully.
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
-            } else {
-                request.setAttribute("authError", "INVALID_TOKEN");
-            }
+    /**
+     * Load the user on every request (the behaviour when stateless auth is
+     * disabled). Returns null if the token should be rejected.
+     */
+    private Collection<? extends GrantedAuthority> authoritiesFromDatabase(JwtPrincipal principal) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(principal.getUsername());
+        if (!userDetails.getUsername().equals(principal.getUsername())) {
+            return null;
         }
-        filterChain.doFilter(request, response);
+        return userDetails.getAuthorities();
     }
 }
@@ -11,6 +11,18 @@ public class JwtConfig {
     private long expiration;
     private long refreshExpiration;
 
+    /**
+     * When true, requests are authenticated from the role and userId claims in
+     * the access token, checked against the per-node principal cache instead
+     * of loading the user on every request.
+     */
+    private boolean statelessAuth = true;
+
+    /**
+     * Maximum number of users kept in the per-node principal cache.
+     */
+    private int principalCacheSize = 10000;
+
     public String getSecret() {
         return secret;
     }
@@ -34,4 +46,20 @@ public class JwtConfig {
     public void setRefreshExpiration(long refreshExpiration) {
         this.refreshExpiration = refreshExpiration;
     }
+
+    public boolean isStatelessAuth() {
+        return statelessAuth;
+    }
+
+    public void setStatelessAuth(boolean statelessAuth) {
+        this.statelessAuth = statelessAuth;
+    }
+
+    public int getPrincipalCacheSize() {
+        return principalCacheSize;
+    }
+
+    public void setPrincipalCacheSize(int principalCacheSize) {
+        this.principalCacheSize = principalCacheSize;
+    }
 }
@@ -0,0 +1,47 @@
+package com.reallink.pump.config;
+
+import java.security.Principal;
+import java.util.Date;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Claims of a verified JWT, parsed once per request and kept as the
+ * authentication principal so that nothing downstream has to re-parse or
+ * re-verify the token.
+ */
+@Getter
+@AllArgsConstructor
+public class JwtPrincipal implements Principal {
+
+    private final UUID userId;
+    private final String username;
+    private final UUID pumpMasterId;
+    private final String role;
+    private final String tokenType;
+    private final Date expiration;
+
+    public boolean isRefreshToken() {
+        return "refresh".equals(tokenType);
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+
+    /**
+     * Returns the username, so that {@code Authentication.getName()} keeps
+     * returning the same value it did with a {@code UserDetails} principal.
+     */
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return username + "@" + pumpMasterId;
+    }
+}
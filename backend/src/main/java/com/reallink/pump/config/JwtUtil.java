@@ -10,6 +10,7 @@ import java.util.function.Function;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -20,13 +21,20 @@ public class JwtUtil {
 
     private final JwtConfig jwtConfig;
 
+    // Built once at startup; both are immutable and thread-safe
+    private final Key signInKey;
+    private final JwtParser jwtParser;
+
     public JwtUtil(JwtConfig jwtConfig) {
         this.jwtConfig = jwtConfig;
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtConfig.getSecret()));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
     }
 
     private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtConfig.getSecret());
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signInKey;
     }
 
     public String generateToken(UUID userId, String username, UUID pumpMasterId, String role, String mobileNumber,
@@ -65,6 +73,28 @@ public class JwtUtil {
                 .compact();
     }
 
+    /**
+     * Parse and verify a token once, returning all claims needed for
+     * authentication. Throws the usual {@code JwtException} subtypes (including
+     * {@code ExpiredJwtException}) when the token is not usable.
+     */
+    public JwtPrincipal parseToken(String token) {
+        Claims claims = extractAllClaims(token);
+        String[] subjectParts = claims.getSubject().split("@");
+        String userId = claims.get("userId", String.class);
+        String pumpMasterId = claims.get("pumpMasterId", String.class);
+        if (pumpMasterId == null && subjectParts.length == 2) {
+            pumpMasterId = subjectParts[1];
+        }
+        return new JwtPrincipal(
+                userId != null ? UUID.fromString(userId) : null,
+                subjectParts[0],
+                pumpMasterId != null ? UUID.fromString(pumpMasterId) : null,
+                claims.get("role", String.class),
+                claims.get("tokenType", String.class),
+                claims.getExpiration());
+    }
+
     public boolean isRefreshToken(String token) {
         String tokenType = extractClaim(token, claims -> claims.get("tokenType", String.class));
         return "refresh".equals(tokenType);
@@ -132,10 +162,6 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 }
@@ -1,7 +1,16 @@
 package com.reallink.pump.config;
 
 import java.util.UUID;
+import java.util.concurrent.Callable;
 
+/**
+ * Holds the tenant (pump master) of the current request. The value is bound
+ * by {@link JwtAuthenticationFilter} for the duration of the request and
+ * always cleared on exit, so a pooled or virtual thread never carries a stale
+ * pumpMasterId into the next request. Work handed off to other threads must be
+ * wrapped with {@link #wrap(Runnable)} / {@link #wrap(Callable)} (the async
+ * executor does this automatically).
+ */
 public class PumpSecurityContextHolder {
 
     private static final ThreadLocal<UUID> pumpMasterId = new ThreadLocal<>();
@@ -17,4 +26,45 @@ public class PumpSecurityContextHolder {
     public static void clear() {
         pumpMasterId.remove();
     }
-}
\ No newline at end of file
+
+    /**
+     * Capture the current tenant and return a task that runs with it bound,
+     * restoring whatever the executing thread had before.
+     */
+    public static Runnable wrap(Runnable task) {
+        UUID captured = pumpMasterId.get();
+        return () -> {
+            UUID previous = pumpMasterId.get();
+            bind(captured);
+            try {
+                task.run();
+            } finally {
+                bind(previous);
+            }
+        };
+    }
+
+    /**
+     * Callable variant of {@link #wrap(Runnable)}.
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        UUID captured = pumpMasterId.get();
+        return () -> {
+            UUID previous = pumpMasterId.get();
+            bind(captured);
+            try {
+                return task.call();
+            } finally {
+                bind(previous);
+            }
+        };
+    }
+
+    private static void bind(UUID id) {
+        if (id == null) {
+            pumpMasterId.remove();
+        } else {
+            pumpMasterId.set(id);
+        }
+    }
+}
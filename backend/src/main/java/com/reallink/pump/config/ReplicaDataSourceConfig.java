@@ -0,0 +1,104 @@
+package com.reallink.pump.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "replica-datasource")
+public class ReplicaDataSourceConfig {
+
+    /**
+     * When false, every transaction uses the primary from spring.datasource.*.
+     */
+    private boolean enabled = false;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private int maximumPoolSize = 10;
+
+    /**
+     * Reads fall back to the primary while the replica is further behind than
+     * this, or while its lag cannot be determined.
+     */
+    private long maxLagSeconds = 5;
+
+    /**
+     * How often the replica's lag is checked.
+     */
+    private long lagCheckIntervalMs = 5000;
+
+    /**
+     * After a pump commits a write, its reads stay on the primary for at least
+     * this long so that it always sees its own changes. The effective window
+     * is never shorter than the largest lag the replica is allowed to have.
+     */
+    private long readYourWritesMs = 10000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public long getMaxLagSeconds() {
+        return maxLagSeconds;
+    }
+
+    public void setMaxLagSeconds(long maxLagSeconds) {
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    public long getLagCheckIntervalMs() {
+        return lagCheckIntervalMs;
+    }
+
+    public void setLagCheckIntervalMs(long lagCheckIntervalMs) {
+        this.lagCheckIntervalMs = lagCheckIntervalMs;
+    }
+
+    public long getReadYourWritesMs() {
+        return readYourWritesMs;
+    }
+
+    public void setReadYourWritesMs(long readYourWritesMs) {
+        this.readYourWritesMs = readYourWritesMs;
+    }
+}
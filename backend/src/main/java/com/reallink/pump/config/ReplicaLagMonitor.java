@@ -0,0 +1,66 @@
+package com.reallink.pump.config;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Measures how far the replica is behind the primary and feeds it to
+ * {@link ReplicaRoutingDataSource}. Until the first check succeeds the
+ * replica is not used.
+ */
+@Component
+@ConditionalOnProperty(prefix = "replica-datasource", name = "enabled", havingValue = "true")
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    public ReplicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+            ReplicaRoutingDataSource routingDataSource) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Scheduled(fixedDelayString = "${replica-datasource.lagCheckIntervalMs:5000}")
+    public void checkLag() {
+        routingDataSource.updateReplicaLag(measureLagSeconds());
+    }
+
+    /**
+     * Seconds the replica's SQL thread is behind, or null when replication is
+     * stopped, the replica cannot be reached, or the server is not replicating
+     * from anywhere and so cannot be trusted to have the primary's data.
+     */
+    private Long measureLagSeconds() {
+        try {
+            List<Long> lag;
+            try {
+                lag = replicaJdbcTemplate.query("SHOW REPLICA STATUS",
+                        (rs, rowNum) -> rs.getObject("Seconds_Behind_Source", Long.class));
+            } catch (BadSqlGrammarException e) {
+                // MySQL before 8.0.22
+                lag = replicaJdbcTemplate.query("SHOW SLAVE STATUS",
+                        (rs, rowNum) -> rs.getObject("Seconds_Behind_Master", Long.class));
+            }
+            if (lag.isEmpty()) {
+                return null;
+            }
+            return lag.get(0);
+        } catch (DataAccessException e) {
+            log.warn("Could not read replica status: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.reallink.pump.config;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything
+ * else to the primary. A read goes to the primary instead when:
+ * <ul>
+ * <li>the replica is lagging by more than the allowed maximum, or its lag is
+ * unknown (see {@link ReplicaLagMonitor});</li>
+ * <li>the current pump committed a write within the read-your-writes window,
+ * so a request that reads right after a write sees its own changes.</li>
+ * </ul>
+ *
+ * The routing key is read when a physical connection is first needed, so this
+ * must sit behind a {@code LazyConnectionDataSourceProxy}: the transaction's
+ * read-only flag is only bound after the transaction manager has asked for a
+ * connection.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final long maxLagSeconds;
+    private final long stickyMs;
+    private final LongSupplier clock;
+    private final Map<UUID, Long> lastWriteAt = new ConcurrentHashMap<>();
+
+    private volatile boolean replicaAvailable = false;
+
+    public ReplicaRoutingDataSource(ReplicaDataSourceConfig config) {
+        this(config, System::currentTimeMillis);
+    }
+
+    ReplicaRoutingDataSource(ReplicaDataSourceConfig config, LongSupplier clock) {
+        this.maxLagSeconds = config.getMaxLagSeconds();
+        // A write must stay on the primary until a replica that is allowed to
+        // route reads could have applied it
+        this.stickyMs = Math.max(config.getReadYourWritesMs(),
+                config.getMaxLagSeconds() * 1000 + config.getLagCheckIntervalMs());
+        this.clock = clock;
+    }
+
+    /**
+     * Set the pools to route between. Call before the data source is
+     * initialized.
+     */
+    public void setTargets(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return route();
+    }
+
+    Route route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit();
+            return Route.PRIMARY;
+        }
+        if (!replicaAvailable) {
+            return Route.PRIMARY;
+        }
+        UUID pumpMasterId = PumpSecurityContextHolder.getPumpMasterId();
+        if (pumpMasterId != null) {
+            Long wroteAt = lastWriteAt.get(pumpMasterId);
+            if (wroteAt != null && clock.getAsLong() - wroteAt < stickyMs) {
+                return Route.PRIMARY;
+            }
+        }
+        return Route.REPLICA;
+    }
+
+    /**
+     * Remember when the current pump's read-write transaction commits.
+     */
+    private void recordWriteOnCommit() {
+        UUID pumpMasterId = PumpSecurityContextHolder.getPumpMasterId();
+        if (pumpMasterId == null
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWriteAt.put(pumpMasterId, clock.getAsLong());
+            }
+        });
+    }
+
+    /**
+     * Record the replica's lag as last measured; null means it could not be
+     * determined and the replica is not used.
+     */
+    public void updateReplicaLag(Long lagSeconds) {
+        boolean available = lagSeconds != null && lagSeconds <= maxLagSeconds;
+        if (available != replicaAvailable) {
+            if (available) {
+                log.info("Replica lag {}s, routing read-only transactions to the replica", lagSeconds);
+            } else {
+                log.warn("Replica lag {}s exceeds {}s or is unknown, routing all transactions to the primary",
+                        lagSeconds, maxLagSeconds);
+            }
+        }
+        replicaAvailable = available;
+        // Drop pumps whose window has passed so the map stays small
+        long now = clock.getAsLong();
+        lastWriteAt.values().removeIf(wroteAt -> now - wroteAt >= stickyMs);
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+}
@@ -0,0 +1,51 @@
+package com.reallink.pump.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "report-cache")
+public class ReportCacheConfig {
+
+    /**
+     * When false, every report is computed on request.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of report results kept in the per-node cache; the least
+     * recently used result is dropped beyond this.
+     */
+    private int maxEntries = 1000;
+
+    /**
+     * Seconds a result is served before it is computed again. Evictions only
+     * reach the node that made the write, so this bounds how long another
+     * node can serve a result that a write has since changed.
+     */
+    private long ttlSeconds = 300;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+}
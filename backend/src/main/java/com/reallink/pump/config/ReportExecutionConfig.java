@@ -0,0 +1,50 @@
+package com.reallink.pump.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "report-execution")
+public class ReportExecutionConfig {
+
+    /**
+     * Maximum number of report queries running at once across all pumps.
+     * Keep it below the connection pool size so reports never starve writes.
+     */
+    private int maxConcurrentQueries = 8;
+
+    /**
+     * Maximum number of report queries one pump can run at once, so a single
+     * tenant cannot take every slot.
+     */
+    private int maxConcurrentQueriesPerPump = 4;
+
+    /**
+     * Time a single report query may take, including time waiting for a slot.
+     */
+    private long queryTimeoutMs = 15000;
+
+    public int getMaxConcurrentQueries() {
+        return maxConcurrentQueries;
+    }
+
+    public void setMaxConcurrentQueries(int maxConcurrentQueries) {
+        this.maxConcurrentQueries = maxConcurrentQueries;
+    }
+
+    public int getMaxConcurrentQueriesPerPump() {
+        return maxConcurrentQueriesPerPump;
+    }
+
+    public void setMaxConcurrentQueriesPerPump(int maxConcurrentQueriesPerPump) {
+        this.maxConcurrentQueriesPerPump = maxConcurrentQueriesPerPump;
+    }
+
+    public long getQueryTimeoutMs() {
+        return queryTimeoutMs;
+    }
+
+    public void setQueryTimeoutMs(long queryTimeoutMs) {
+        this.queryTimeoutMs = queryTimeoutMs;
+    }
+}
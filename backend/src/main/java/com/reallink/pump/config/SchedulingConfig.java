@@ -0,0 +1,12 @@
+package com.reallink.pump.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} jobs such as the month-end balance checkpoints.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -2,6 +2,7 @@ package com.reallink.pump.controllers;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,8 +24,10 @@ import com.reallink.pump.dto.request.CreateBankTransactionRequest;
 import com.reallink.pump.dto.request.UpdateBankAccountRequest;
 import com.reallink.pump.dto.response.BankAccountResponse;
 import com.reallink.pump.dto.response.BankTransactionResponse;
+import com.reallink.pump.dto.response.StatementResponse;
 import com.reallink.pump.services.BankAccountService;
 import com.reallink.pump.services.BankTransactionService;
+import com.reallink.pump.services.StatementService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -40,6 +43,7 @@ public class BankAccountController {
 
     private final BankAccountService service;
     private final BankTransactionService transactionService;
+    private final StatementService statementService;
 
     private UUID extractPumpMasterId(HttpServletRequest request) {
         Object pumpMasterIdObj = request.getAttribute("pumpMasterId");
@@ -146,6 +150,20 @@ public class BankAccountController {
         return ResponseEntity.ok(transactions);
     }
 
+    @GetMapping("/{bankAccountId}/statement")
+    @Operation(summary = "Get one page of a bank account statement with running balances")
+    public ResponseEntity<StatementResponse> getStatement(
+            @PathVariable UUID bankAccountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate,
+            @RequestParam(required = false) UUID afterId,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest request) {
+        UUID pumpMasterId = extractPumpMasterId(request);
+        return ResponseEntity.ok(statementService.getBankStatement(bankAccountId, pumpMasterId, fromDate, toDate, afterDate, afterId, limit));
+    }
+
     @PostMapping("/{bankAccountId}/credit")
     @Operation(summary = "Credit amount to bank account")
     public ResponseEntity<BankTransactionResponse> creditAccount(@PathVariable UUID bankAccountId,
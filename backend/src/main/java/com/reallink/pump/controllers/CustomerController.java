@@ -1,8 +1,12 @@
 package com.reallink.pump.controllers;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -17,7 +21,11 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.reallink.pump.dto.request.CreateCustomerRequest;
 import com.reallink.pump.dto.request.UpdateCustomerRequest;
+import com.reallink.pump.dto.response.CreditCheckResponse;
+import com.reallink.pump.dto.response.CustomerLedgerResponse;
 import com.reallink.pump.dto.response.CustomerResponse;
+import com.reallink.pump.services.CustomerLedgerService;
+import com.reallink.pump.services.CustomerReceivableService;
 import com.reallink.pump.services.CustomerService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -33,6 +41,8 @@ import lombok.RequiredArgsConstructor;
 public class CustomerController {
 
     private final CustomerService service;
+    private final CustomerLedgerService ledgerService;
+    private final CustomerReceivableService receivableService;
 
     private UUID extractPumpMasterId(HttpServletRequest request) {
         Object pumpMasterIdObj = request.getAttribute("pumpMasterId");
@@ -49,6 +59,30 @@ public class CustomerController {
         return ResponseEntity.ok(service.getById(id));
     }
 
+    @GetMapping("/{id}/ledger")
+    @Operation(summary = "Get one page of a customer ledger with opening balance and running balances")
+    public ResponseEntity<CustomerLedgerResponse> getCustomerLedger(
+            @PathVariable UUID id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate,
+            @RequestParam(required = false) UUID afterId,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest request) {
+        UUID pumpMasterId = extractPumpMasterId(request);
+        return ResponseEntity.ok(ledgerService.getLedger(id, pumpMasterId, fromDate, toDate, afterDate, afterId, limit));
+    }
+
+    @GetMapping("/{id}/credit-check")
+    @Operation(summary = "Check a customer's outstanding balance against the credit limit")
+    public ResponseEntity<CreditCheckResponse> checkCustomerCredit(
+            @PathVariable UUID id,
+            @RequestParam(required = false) BigDecimal amount,
+            HttpServletRequest request) {
+        UUID pumpMasterId = extractPumpMasterId(request);
+        return ResponseEntity.ok(receivableService.getCreditCheck(id, pumpMasterId, amount));
+    }
+
     @GetMapping
     @Operation(summary = "Get customers by pump master ID")
     public ResponseEntity<List<CustomerResponse>> getCustomersByPumpMasterId(HttpServletRequest request) {
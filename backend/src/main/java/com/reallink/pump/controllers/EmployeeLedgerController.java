@@ -14,10 +14,12 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.reallink.pump.dto.response.EmployeeLedgerResponse;
+import com.reallink.pump.dto.response.EmployeePayablesSummaryResponse;
 import com.reallink.pump.services.EmployeeLedgerService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -29,13 +31,33 @@ public class EmployeeLedgerController {
 
     private final EmployeeLedgerService employeeLedgerService;
 
+    private UUID extractPumpMasterId(HttpServletRequest request) {
+        Object pumpMasterIdObj = request.getAttribute("pumpMasterId");
+        if (!(pumpMasterIdObj instanceof UUID)) {
+            throw new RuntimeException("Pump master ID not found in request");
+        }
+        return (UUID) pumpMasterIdObj;
+    }
+
+    @GetMapping("/payables")
+    @Operation(summary = "Get net payable of every employee of the pump as of a date")
+    public ResponseEntity<EmployeePayablesSummaryResponse> getPayablesSummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate,
+            HttpServletRequest request) {
+        UUID pumpMasterId = extractPumpMasterId(request);
+        LocalDate date = asOfDate != null ? asOfDate : LocalDate.now();
+        return ResponseEntity.ok(employeeLedgerService.getPayablesSummary(pumpMasterId, date));
+    }
+
     @GetMapping("/{userId}/ledger")
     @Operation(summary = "Get employee salary ledger with date range filtering")
     public ResponseEntity<EmployeeLedgerResponse> getEmployeeLedger(
             @PathVariable UUID userId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
-        EmployeeLedgerResponse ledger = employeeLedgerService.getEmployeeLedger(userId, fromDate, toDate);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        EmployeeLedgerResponse ledger = employeeLedgerService.getEmployeeLedger(userId, fromDate, toDate, page, size);
         return ResponseEntity.ok(ledger);
     }
 
@@ -0,0 +1,118 @@
+package com.reallink.pump.controllers;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.reallink.pump.enums.ExportFormat;
+import com.reallink.pump.services.ExportService;
+import com.reallink.pump.services.ExportService.ExportTarget;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/exports")
+@RequiredArgsConstructor
+@Tag(name = "Exports", description = "Streamed CSV and NDJSON exports of transactions and ledgers")
+@PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+public class ExportController {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final ExportService exportService;
+
+    private UUID extractPumpMasterId(HttpServletRequest request) {
+        Object pumpMasterIdObj = request.getAttribute("pumpMasterId");
+        if (pumpMasterIdObj instanceof UUID uuid) {
+            return uuid;
+        }
+        throw new RuntimeException("Pump master ID not found in request");
+    }
+
+    @GetMapping("/{dataset}")
+    @Operation(summary = "Export bills, purchases, fuel-purchases, shifts, bank-transactions or tank-transactions for a date range")
+    public void exportDataset(
+            @PathVariable String dataset,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        UUID pumpMasterId = extractPumpMasterId(request);
+        ExportFormat exportFormat = ExportFormat.from(format);
+        String fileName = dataset + "_" + fromDate + "_" + toDate;
+        exportService.exportDataset(dataset, pumpMasterId, fromDate, toDate, exportFormat,
+                target(request, response, exportFormat, fileName));
+    }
+
+    @GetMapping("/customers/{customerId}/ledger")
+    @Operation(summary = "Export a customer's ledger for a date range")
+    public void exportCustomerLedger(
+            @PathVariable UUID customerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        UUID pumpMasterId = extractPumpMasterId(request);
+        ExportFormat exportFormat = ExportFormat.from(format);
+        String fileName = "customer-ledger_" + customerId + "_" + fromDate + "_" + toDate;
+        exportService.exportCustomerLedger(customerId, pumpMasterId, fromDate, toDate, exportFormat,
+                target(request, response, exportFormat, fileName));
+    }
+
+    @GetMapping("/suppliers/{supplierId}/ledger")
+    @Operation(summary = "Export a supplier's ledger for a date range")
+    public void exportSupplierLedger(
+            @PathVariable UUID supplierId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        UUID pumpMasterId = extractPumpMasterId(request);
+        ExportFormat exportFormat = ExportFormat.from(format);
+        String fileName = "supplier-ledger_" + supplierId + "_" + fromDate + "_" + toDate;
+        exportService.exportSupplierLedger(supplierId, pumpMasterId, fromDate, toDate, exportFormat,
+                target(request, response, exportFormat, fileName));
+    }
+
+    /**
+     * Sets the download headers and opens the response body, gzip-compressed
+     * when the client accepts it. Called by the service only once the export
+     * has been validated, so errors before that still get a JSON response.
+     */
+    private ExportTarget target(HttpServletRequest request, HttpServletResponse response,
+            ExportFormat format, String fileName) {
+        return () -> {
+            response.setContentType(format.getContentType() + ";charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(fileName + "." + format.getExtension())
+                    .build()
+                    .toString());
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            OutputStream out = response.getOutputStream();
+            String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+            if (acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip")) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                return new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+            }
+            return out;
+        };
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.reallink.pump.dto.response.ProfitReportResponse;
+import com.reallink.pump.dto.response.ReportCacheStatsResponse;
 import com.reallink.pump.services.ProfitReportService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -108,6 +109,13 @@ public class ProfitReportController {
         return ResponseEntity.ok(profitReportService.getProfitByDateRange(pumpMasterId, start, end));
     }
 
+    @GetMapping("/cache-stats")
+    @Operation(summary = "Get report cache statistics",
+            description = "Returns hits, misses, evictions and size of the per-node report result cache")
+    public ResponseEntity<ReportCacheStatsResponse> getCacheStats() {
+        return ResponseEntity.ok(profitReportService.getCacheStats());
+    }
+
     @GetMapping
     @Operation(summary = "Get profit report with parameters",
             description = "Generic endpoint to get profit report with period type and optional date")
@@ -0,0 +1,71 @@
+package com.reallink.pump.controllers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.reallink.pump.dto.response.ProductSalesVolumeResponse;
+import com.reallink.pump.dto.response.TankSalesVolumeResponse;
+import com.reallink.pump.services.SalesVolumeService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/reports/sales-volume")
+@RequiredArgsConstructor
+@Tag(name = "Sales Volume", description = "Litres of fuel sold, measured from nozzle meter readings")
+@PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+public class SalesVolumeController {
+
+    private final SalesVolumeService salesVolumeService;
+
+    private UUID extractPumpMasterId(HttpServletRequest request) {
+        Object pumpMasterIdObj = request.getAttribute("pumpMasterId");
+        if (pumpMasterIdObj instanceof UUID uuid) {
+            return uuid;
+        }
+        throw new RuntimeException("Pump master ID not found in request");
+    }
+
+    @GetMapping("/daily")
+    @Operation(summary = "Get litres sold per product and day")
+    public ResponseEntity<List<ProductSalesVolumeResponse>> getDailyProductVolumes(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            HttpServletRequest request) {
+        UUID pumpMasterId = extractPumpMasterId(request);
+        return ResponseEntity.ok(salesVolumeService.getDailyProductVolumes(pumpMasterId, fromDate, toDate));
+    }
+
+    @GetMapping("/products")
+    @Operation(summary = "Get litres sold per product over a date range")
+    public ResponseEntity<List<ProductSalesVolumeResponse>> getProductVolumes(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            HttpServletRequest request) {
+        UUID pumpMasterId = extractPumpMasterId(request);
+        return ResponseEntity.ok(salesVolumeService.getProductVolumes(pumpMasterId, fromDate, toDate));
+    }
+
+    @GetMapping("/tanks")
+    @Operation(summary = "Get litres sold per tank over a date range, for reconciling dip readings")
+    public ResponseEntity<List<TankSalesVolumeResponse>> getTankVolumes(
+            @RequestParam(required = false) UUID tankId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            HttpServletRequest request) {
+        UUID pumpMasterId = extractPumpMasterId(request);
+        return ResponseEntity.ok(salesVolumeService.getTankVolumes(pumpMasterId, tankId, fromDate, toDate));
+    }
+}
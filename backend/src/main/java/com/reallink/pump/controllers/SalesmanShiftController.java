@@ -1,7 +1,10 @@
 package com.reallink.pump.controllers;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -22,20 +25,25 @@ import org.springframework.web.bind.annotation.RestController;
 import com.reallink.pump.dto.shift.AddNozzleRequest;
 import com.reallink.pump.dto.shift.CloseNozzleRequest;
 import com.reallink.pump.dto.shift.CloseShiftRequest;
+import com.reallink.pump.dto.shift.CloseShiftWithNozzlesRequest;
 import com.reallink.pump.dto.shift.CreateNozzleTestRequest;
 import com.reallink.pump.dto.shift.CreateShiftAccountingRequest;
 import com.reallink.pump.dto.shift.NozzleAssignmentResponse;
 import com.reallink.pump.dto.shift.NozzleTestResponse;
 import com.reallink.pump.dto.shift.ShiftDetailsResponse;
 import com.reallink.pump.dto.shift.ShiftResponse;
+import com.reallink.pump.dto.shift.ShiftTotalsView;
 import com.reallink.pump.dto.shift.StartShiftRequest;
+import com.reallink.pump.dto.shift.StartShiftWithNozzlesRequest;
 import com.reallink.pump.entities.NozzleAssignment;
 import com.reallink.pump.entities.NozzleTest;
 import com.reallink.pump.entities.SalesmanShift;
 import com.reallink.pump.entities.SalesmanShiftAccounting;
 import com.reallink.pump.security.SecurityHelper;
+import com.reallink.pump.services.ForecourtStateService;
 import com.reallink.pump.services.SalesmanShiftAccountingService;
 import com.reallink.pump.services.SalesmanShiftService;
+import com.reallink.pump.services.ShiftTotalsService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -54,6 +62,7 @@ public class SalesmanShiftController {
     private final SalesmanShiftService salesmanShiftService;
     private final SalesmanShiftAccountingService accountingService;
     private final SecurityHelper securityHelper;
+    private final ShiftTotalsService shiftTotalsService;
 
     /**
      * Start a new shift for a salesman. POST /api/v1/salesman-shifts
@@ -73,6 +82,35 @@ public class SalesmanShiftController {
                 .body(ShiftResponse.from(shift));
     }
 
+    /**
+     * Start a shift with its nozzles in one call. POST
+     * /api/v1/salesman-shifts/with-nozzles
+     */
+    @PostMapping("/with-nozzles")
+    @PreAuthorize("hasAnyRole('SALESMAN', 'MANAGER', 'ADMIN')")
+    public ResponseEntity<ShiftDetailsResponse> startShiftWithNozzles(
+            @Valid @RequestBody StartShiftWithNozzlesRequest request) {
+        log.info("Starting new shift for salesman {} with {} nozzle(s)",
+                request.getSalesmanId(), request.getNozzles().size());
+
+        Map<UUID, BigDecimal> nozzleOpenings = new LinkedHashMap<>();
+        for (AddNozzleRequest nozzle : request.getNozzles()) {
+            if (nozzleOpenings.put(nozzle.getNozzleId(), nozzle.getOpeningBalance()) != null) {
+                throw new IllegalArgumentException("Nozzle " + nozzle.getNozzleId() + " is listed more than once");
+            }
+        }
+
+        SalesmanShift shift = salesmanShiftService.startShiftWithNozzles(
+                request.getSalesmanId(),
+                request.getOpeningCash(),
+                request.getStartDatetime(),
+                nozzleOpenings
+        );
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ShiftDetailsResponse.fromEntity(shift));
+    }
+
     /**
      * Get all shifts with optional filters. GET /api/v1/salesman-shifts
      *
@@ -107,8 +145,13 @@ public class SalesmanShiftController {
         List<SalesmanShift> shifts = salesmanShiftService.getAllShifts(
                 salesmanId, shiftStatus, fromDate, toDate, isAccountingDone);
 
+        // Totals of every listed shift in one aggregate query
+        Map<UUID, ShiftTotalsView> totals = shiftTotalsService.getTotals(shifts.stream()
+                .map(SalesmanShift::getId)
+                .collect(Collectors.toList()));
+
         List<ShiftResponse> response = shifts.stream()
-                .map(ShiftResponse::fromMinimal)
+                .map(shift -> ShiftResponse.from(shift, totals.get(shift.getId())))
                 .collect(Collectors.toList());
 
         return ResponseEntity.ok(response);
@@ -122,7 +165,7 @@ public class SalesmanShiftController {
     public ResponseEntity<ShiftDetailsResponse> getShiftById(@PathVariable UUID id) {
         log.info("Fetching shift details: {}", id);
 
-        SalesmanShift shift = salesmanShiftService.getShiftById(id);
+        SalesmanShift shift = salesmanShiftService.getShiftDetails(id);
 
         return ResponseEntity.ok(ShiftDetailsResponse.fromEntity(shift));
     }
@@ -138,7 +181,7 @@ public class SalesmanShiftController {
 
         SalesmanShift shift = salesmanShiftService.getOpenShiftForSalesman(salesmanId);
 
-        return ResponseEntity.ok(ShiftResponse.from(shift));
+        return ResponseEntity.ok(ShiftResponse.from(shift, shiftTotalsService.getTotals(shift.getId())));
     }
 
     /**
@@ -150,10 +193,20 @@ public class SalesmanShiftController {
     public ResponseEntity<List<ShiftResponse>> getAllOpenShifts() {
         log.info("Fetching all open shifts");
 
-        List<SalesmanShift> shifts = salesmanShiftService.getAllOpenShifts();
+        List<ForecourtStateService.OpenShift> shifts = salesmanShiftService.getAllOpenShifts();
 
         List<ShiftResponse> response = shifts.stream()
-                .map(ShiftResponse::fromMinimal)
+                .map(shift -> ShiftResponse.builder()
+                        .id(shift.getShiftId())
+                        .salesmanId(shift.getSalesmanId())
+                        .salesmanUsername(shift.getSalesmanUsername())
+                        .salesmanFullName(shift.getSalesmanUsername())
+                        .pumpMasterId(shift.getPumpMasterId())
+                        .startDatetime(shift.getStartDatetime())
+                        .openingCash(shift.getOpeningCash())
+                        .status(SalesmanShift.ShiftStatus.OPEN.name())
+                        .isAccountingDone(false)
+                        .build())
                 .collect(Collectors.toList());
 
         return ResponseEntity.ok(response);
@@ -202,7 +255,42 @@ public class SalesmanShiftController {
 
         SalesmanShift shift = salesmanShiftService.closeShift(id, endDatetime);
 
-        return ResponseEntity.ok(ShiftResponse.from(shift));
+        return ResponseEntity.ok(ShiftResponse.from(shift, shiftTotalsService.getTotals(shift.getId())));
+    }
+
+    /**
+     * Close all open nozzles of a shift and the shift itself in one call. PUT
+     * /api/v1/salesman-shifts/{id}/close-all Only ADMIN/MANAGER can set custom
+     * endDatetime, salesmen will use current time.
+     */
+    @PutMapping("/{id}/close-all")
+    @PreAuthorize("hasAnyRole('SALESMAN', 'MANAGER', 'ADMIN')")
+    public ResponseEntity<ShiftResponse> closeShiftWithNozzles(
+            @PathVariable UUID id,
+            @Valid @RequestBody CloseShiftWithNozzlesRequest request) {
+        log.info("Closing shift {} with {} nozzle(s)", id, request.getNozzles().size());
+
+        // Only allow ADMIN/MANAGER to set custom endDatetime
+        LocalDateTime endDatetime = null;
+        if (request.getEndDatetime() != null) {
+            if (securityHelper.isAdminOrManager()) {
+                endDatetime = request.getEndDatetime();
+                log.info("Custom end datetime set by admin/manager: {}", endDatetime);
+            } else {
+                log.warn("Non-admin user attempted to set custom end datetime, ignoring");
+            }
+        }
+
+        Map<UUID, BigDecimal> closingBalances = new LinkedHashMap<>();
+        for (CloseShiftWithNozzlesRequest.NozzleClosing closing : request.getNozzles()) {
+            if (closingBalances.put(closing.getAssignmentId(), closing.getClosingBalance()) != null) {
+                throw new IllegalArgumentException("Assignment " + closing.getAssignmentId() + " is listed more than once");
+            }
+        }
+
+        SalesmanShift shift = salesmanShiftService.closeShiftWithNozzles(id, closingBalances, endDatetime);
+
+        return ResponseEntity.ok(ShiftResponse.from(shift, shiftTotalsService.getTotals(shift.getId())));
     }
 
     /**
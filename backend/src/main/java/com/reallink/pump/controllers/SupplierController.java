@@ -1,9 +1,16 @@
 package com.reallink.pump.controllers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,14 +22,20 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.reallink.pump.dto.request.CreateSupplierRequest;
 import com.reallink.pump.dto.request.UpdateSupplierRequest;
+import com.reallink.pump.dto.response.SupplierLedgerEntryResponse;
+import com.reallink.pump.dto.response.SupplierLedgerSummaryResponse;
 import com.reallink.pump.dto.response.SupplierResponse;
+import com.reallink.pump.services.SupplierLedgerService;
 import com.reallink.pump.services.SupplierService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -33,6 +46,8 @@ import lombok.RequiredArgsConstructor;
 public class SupplierController {
 
     private final SupplierService service;
+    private final SupplierLedgerService ledgerService;
+    private final ObjectMapper objectMapper;
 
     private UUID extractPumpMasterId(HttpServletRequest request) {
         Object pumpMasterIdObj = request.getAttribute("pumpMasterId");
@@ -49,6 +64,20 @@ public class SupplierController {
         return ResponseEntity.ok(service.getById(id));
     }
 
+    @GetMapping(value = "/{id}/ledger", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Stream a supplier ledger with opening balance and running payable")
+    public void getSupplierLedger(
+            @PathVariable UUID id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        UUID pumpMasterId = extractPumpMasterId(request);
+        JsonLedgerWriter writer = new JsonLedgerWriter(response, id, fromDate, toDate);
+        ledgerService.streamLedger(id, pumpMasterId, fromDate, toDate, writer);
+        writer.close();
+    }
+
     @GetMapping
     @Operation(summary = "Get suppliers by pump master ID")
     public ResponseEntity<List<SupplierResponse>> getSuppliersByPumpMasterId(HttpServletRequest request) {
@@ -129,4 +158,73 @@ public class SupplierController {
     // public ResponseEntity<List<String>> getDistinctContactPersonNames() {
     // return ResponseEntity.ok(service.getDistinctContactPersonNames());
     // }
+
+    /**
+     * Writes the ledger to the response as it is produced. The response is only
+     * opened once the opening balance arrives, so validation errors still reach
+     * the exception handlers.
+     */
+    private final class JsonLedgerWriter implements SupplierLedgerService.LedgerSink {
+
+        private final HttpServletResponse response;
+        private final UUID supplierId;
+        private final LocalDate fromDate;
+        private final LocalDate toDate;
+        private JsonGenerator json;
+
+        private JsonLedgerWriter(HttpServletResponse response, UUID supplierId, LocalDate fromDate, LocalDate toDate) {
+            this.response = response;
+            this.supplierId = supplierId;
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+        }
+
+        @Override
+        public void opening(BigDecimal openingBalance) {
+            try {
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                json = objectMapper.getFactory().createGenerator(response.getOutputStream());
+                json.writeStartObject();
+                json.writeObjectField("supplierId", supplierId);
+                json.writeObjectField("fromDate", fromDate);
+                json.writeObjectField("toDate", toDate);
+                json.writeObjectField("openingBalance", openingBalance);
+                json.writeArrayFieldStart("entries");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void entry(SupplierLedgerEntryResponse entry) {
+            try {
+                json.writeObject(entry);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void closing(SupplierLedgerSummaryResponse summary) {
+            try {
+                json.writeEndArray();
+                json.writeObjectField("summary", summary);
+                json.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Only called once the whole ledger is written. Closing completes any
+         * open JSON structures, so a ledger that failed part-way must not be
+         * closed; the exception aborts the response instead.
+         */
+        void close() throws IOException {
+            if (json != null) {
+                json.close();
+            }
+        }
+    }
 }
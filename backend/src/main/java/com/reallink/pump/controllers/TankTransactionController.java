@@ -2,6 +2,7 @@ package com.reallink.pump.controllers;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,11 +19,14 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.reallink.pump.dto.request.CreateTankTransactionRequest;
+import com.reallink.pump.dto.response.StatementResponse;
 import com.reallink.pump.dto.response.TankTransactionResponse;
+import com.reallink.pump.services.StatementService;
 import com.reallink.pump.services.TankTransactionService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -34,6 +38,15 @@ import lombok.RequiredArgsConstructor;
 public class TankTransactionController {
 
     private final TankTransactionService transactionService;
+    private final StatementService statementService;
+
+    private UUID extractPumpMasterId(HttpServletRequest request) {
+        Object pumpMasterIdObj = request.getAttribute("pumpMasterId");
+        if (pumpMasterIdObj instanceof UUID uuid) {
+            return uuid;
+        }
+        throw new RuntimeException("Pump master ID not found in request");
+    }
 
     @GetMapping("/{tankId}/transactions")
     @Operation(summary = "Get transactions for a tank with date filtering")
@@ -50,6 +63,20 @@ public class TankTransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    @GetMapping("/{tankId}/statement")
+    @Operation(summary = "Get one page of a tank statement with running levels")
+    public ResponseEntity<StatementResponse> getStatement(
+            @PathVariable UUID tankId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate,
+            @RequestParam(required = false) UUID afterId,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest request) {
+        UUID pumpMasterId = extractPumpMasterId(request);
+        return ResponseEntity.ok(statementService.getTankStatement(tankId, pumpMasterId, fromDate, toDate, afterDate, afterId, limit));
+    }
+
     @PostMapping("/{tankId}/addition")
     @Operation(summary = "Add fuel to tank (fuel purchase)")
     public ResponseEntity<TankTransactionResponse> addFuel(@PathVariable UUID tankId,
@@ -136,17 +136,17 @@ public class UserController {
         // Extract token from Authorization header (Bearer <token>)
         String token = authorizationHeader.replace("Bearer ", "");
 
-        // Extract user information from token
-        TokenUserInfoResponse userInfo = TokenUserInfoResponse.builder()
-                .userId(jwtUtil.extractUserId(token))
-                .username(jwtUtil.extractUsername(token))
-                .pumpMasterId(jwtUtil.extractPumpMasterId(token))
-                .role(jwtUtil.extractRole(token))
-                .mobileNumber(jwtUtil.extractMobileNumber(token))
-                .pumpName(jwtUtil.extractPumpName(token))
-                .pumpId(jwtUtil.extractPumpId(token))
-                .pumpCode(jwtUtil.extractPumpCode(token))
-                .build();
+        // Extract user information from token (parsed and verified once)
+        TokenUserInfoResponse userInfo = jwtUtil.extractClaim(token, claims -> TokenUserInfoResponse.builder()
+                .userId(UUID.fromString(claims.get("userId", String.class)))
+                .username(claims.getSubject().split("@")[0])
+                .pumpMasterId(UUID.fromString(claims.get("pumpMasterId", String.class)))
+                .role(claims.get("role", String.class))
+                .mobileNumber(claims.get("mobileNumber", String.class))
+                .pumpName(claims.get("pumpName", String.class))
+                .pumpId(claims.get("pumpId", Integer.class))
+                .pumpCode(claims.get("pumpCode", String.class))
+                .build());
 
         return ResponseEntity.ok(userInfo);
     }
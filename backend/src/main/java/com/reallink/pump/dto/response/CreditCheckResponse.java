@@ -0,0 +1,27 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Whether a customer can be billed a given amount on credit. Credit limit and
+ * available credit are null when the customer has no credit limit.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditCheckResponse {
+
+    private UUID customerId;
+    private BigDecimal outstanding; // Opening balance plus bills minus payments
+    private BigDecimal creditLimit;
+    private BigDecimal availableCredit;
+    private BigDecimal requestedAmount;
+    private boolean allowed;
+}
@@ -0,0 +1,29 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerLedgerEntryResponse {
+
+    private UUID id; // ID of the bill or payment
+    private String entryType; // "BILL", "SALESMAN_BILL", "PAYMENT" or "SALESMAN_PAYMENT"
+    private LocalDateTime date;
+    private String referenceNumber; // Bill number or payment reference
+    private BigDecimal debitAmount; // Bill amount
+    private BigDecimal creditAmount; // Payment amount
+    private BigDecimal balance; // Running balance after this entry
+    private UUID billId; // Bill or salesman bill a payment is linked to, if any
+    private String paymentMethod; // Only for payments
+    private String notes; // Only for payments
+    private String entryBy;
+}
@@ -0,0 +1,33 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a customer ledger. Pass {@code nextAfterDate} and
+ * {@code nextAfterId} back as {@code afterDate} and {@code afterId} to fetch
+ * the next page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerLedgerResponse {
+
+    private UUID customerId;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private BigDecimal openingBalance; // Balance before fromDate, including the customer's opening balance
+    private List<CustomerLedgerEntryResponse> entries;
+    private boolean hasMore;
+    private LocalDateTime nextAfterDate;
+    private UUID nextAfterId;
+}
@@ -0,0 +1,21 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Litres of one product sold on one day, read from the daily product rollup.
+ */
+public interface DailyProductVolumeView {
+
+    LocalDate getDate();
+
+    UUID getProductId();
+
+    String getProductName();
+
+    BigDecimal getQuantitySold();
+
+    Integer getAssignmentCount();
+}
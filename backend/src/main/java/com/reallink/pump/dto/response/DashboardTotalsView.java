@@ -0,0 +1,20 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+
+/**
+ * Dashboard totals of a pump over a date range, summed from the daily
+ * dashboard facts.
+ */
+public interface DashboardTotalsView {
+
+    BigDecimal getTotalCredit();
+
+    Long getBillsGenerated();
+
+    BigDecimal getTotalDebit();
+
+    BigDecimal getMoneyReceived();
+
+    BigDecimal getMoneyPaid();
+}
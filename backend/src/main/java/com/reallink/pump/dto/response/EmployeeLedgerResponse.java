@@ -15,4 +15,8 @@ public class EmployeeLedgerResponse {
 
     private List<EmployeeLedgerEntryResponse> ledgerEntries;
     private EmployeeLedgerSummaryResponse summary;
+    private Integer page; // Null when the whole range was requested
+    private Integer size;
+    private long totalEntries; // Entries in the date range, across all pages
+    private boolean hasMore;
 }
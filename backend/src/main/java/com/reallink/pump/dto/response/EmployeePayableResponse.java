@@ -0,0 +1,23 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeePayableResponse {
+
+    private UUID userId;
+    private String username;
+    private BigDecimal openingBalance;
+    private BigDecimal totalSalaries;
+    private BigDecimal totalPayments;
+    private BigDecimal netPayable; // Opening balance plus salaries minus payments
+}
@@ -0,0 +1,24 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Net payable of every employee of a pump as of a date.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeePayablesSummaryResponse {
+
+    private LocalDate asOfDate;
+    private List<EmployeePayableResponse> employees;
+    private BigDecimal totalNetPayable;
+}
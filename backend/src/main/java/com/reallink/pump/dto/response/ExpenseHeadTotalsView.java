@@ -0,0 +1,19 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Expense total of one expense head over a date range, summed from the daily
+ * expense rollup.
+ */
+public interface ExpenseHeadTotalsView {
+
+    UUID getExpenseHeadId();
+
+    String getExpenseHeadName();
+
+    BigDecimal getAmount();
+
+    Long getExpenseCount();
+}
@@ -0,0 +1,14 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+
+/**
+ * Amount billed to a customer, or purchased from a supplier, over a date
+ * range.
+ */
+public interface PartyTotalView {
+
+    String getName();
+
+    BigDecimal getAmount();
+}
@@ -0,0 +1,27 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Sales and purchase totals of one product over a date range, summed from the
+ * daily product rollup.
+ */
+public interface ProductSalesTotalsView {
+
+    UUID getProductId();
+
+    String getProductName();
+
+    BigDecimal getQuantitySold();
+
+    BigDecimal getSalesRevenue();
+
+    Long getSalesCount();
+
+    BigDecimal getQuantityPurchased();
+
+    BigDecimal getPurchaseCost();
+
+    Long getPurchaseCount();
+}
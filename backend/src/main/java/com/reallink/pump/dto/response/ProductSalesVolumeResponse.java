@@ -0,0 +1,26 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesVolumeResponse {
+
+    // Null for totals over a range
+    private LocalDate date;
+    private UUID productId;
+    private String productName;
+    // Closing minus opening meter reading, less test fuel returned to the tank
+    private BigDecimal quantitySold;
+    // Closed nozzle assignments the volume comes from
+    private Long assignmentCount;
+}
@@ -11,7 +11,7 @@ import lombok.NoArgsConstructor;
  * Profit report response DTO
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProfitReportResponse {
@@ -0,0 +1,24 @@
+package com.reallink.pump.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportCacheStatsResponse {
+
+    private boolean enabled;
+    private int size;
+    private int maxEntries;
+    private long hits;
+    private long misses;
+    // Requests for ranges that reach today or later, which are never cached
+    private long bypasses;
+    private long evictions;
+    // Hits over hits plus misses; 0 when nothing cacheable has been requested
+    private double hitRate;
+}
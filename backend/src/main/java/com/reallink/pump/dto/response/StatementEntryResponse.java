@@ -0,0 +1,29 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementEntryResponse {
+
+    private UUID id; // ID of the bank or tank transaction
+    private LocalDateTime date;
+    private String transactionType; // CREDIT/DEBIT for bank accounts, ADDITION/REMOVAL for tanks
+    private String description;
+    private BigDecimal inAmount; // Amount credited or volume added
+    private BigDecimal outAmount; // Amount debited or volume removed
+    private BigDecimal balance; // Balance or tank level after this entry
+    private String paymentMethod; // Only for bank accounts
+    private String supplierName; // Only for tanks
+    private String invoiceNumber; // Only for tanks
+    private String entryBy;
+}
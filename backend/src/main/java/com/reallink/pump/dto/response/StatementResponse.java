@@ -0,0 +1,33 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a bank account or tank statement. Pass {@code nextAfterDate}
+ * and {@code nextAfterId} back as {@code afterDate} and {@code afterId} to
+ * fetch the next page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementResponse {
+
+    private UUID accountId; // Bank account or tank ID
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private BigDecimal openingBalance; // Balance or level before fromDate
+    private List<StatementEntryResponse> entries;
+    private boolean hasMore;
+    private LocalDateTime nextAfterDate;
+    private UUID nextAfterId;
+}
@@ -0,0 +1,29 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SupplierLedgerEntryResponse {
+
+    private UUID id; // ID of the purchase, fuel purchase or payment
+    private String entryType; // "PURCHASE", "FUEL_PURCHASE" or "PAYMENT"
+    private LocalDateTime date;
+    private String referenceNumber; // Invoice number or payment reference
+    private BigDecimal purchaseAmount;
+    private BigDecimal paidAmount;
+    private BigDecimal balance; // Running payable after this entry
+    private UUID purchaseId; // Purchase or fuel purchase a payment is linked to, if any
+    private String paymentMethod; // Only for payments
+    private String notes; // Only for payments
+    private String entryBy;
+}
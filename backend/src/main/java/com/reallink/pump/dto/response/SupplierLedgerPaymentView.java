@@ -0,0 +1,31 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.reallink.pump.entities.PaymentMethod;
+
+/**
+ * A supplier payment as read for the supplier ledger.
+ */
+public interface SupplierLedgerPaymentView {
+
+    UUID getId();
+
+    LocalDateTime getPaymentDate();
+
+    String getReferenceNumber();
+
+    BigDecimal getAmount();
+
+    PaymentMethod getPaymentMethod();
+
+    String getNotes();
+
+    UUID getPurchaseId();
+
+    UUID getFuelPurchaseId();
+
+    String getEntryBy();
+}
@@ -0,0 +1,21 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * A purchase or fuel purchase as read for the supplier ledger.
+ */
+public interface SupplierLedgerPurchaseView {
+
+    UUID getId();
+
+    LocalDate getPurchaseDate();
+
+    String getInvoiceNumber();
+
+    BigDecimal getAmount();
+
+    String getEntryBy();
+}
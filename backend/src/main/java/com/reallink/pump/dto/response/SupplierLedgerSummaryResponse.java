@@ -0,0 +1,21 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SupplierLedgerSummaryResponse {
+
+    private BigDecimal openingBalance; // Payable before fromDate, including the supplier's opening balance
+    private BigDecimal totalPurchasesInRange;
+    private BigDecimal totalPaymentsInRange;
+    private BigDecimal closingBalance;
+    private long entryCount;
+}
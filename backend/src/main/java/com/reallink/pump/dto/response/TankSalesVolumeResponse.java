@@ -0,0 +1,25 @@
+package com.reallink.pump.dto.response;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TankSalesVolumeResponse {
+
+    private UUID tankId;
+    private String tankName;
+    private UUID productId;
+    private String productName;
+    // Closing minus opening meter reading, less test fuel returned to the tank
+    private BigDecimal quantitySold;
+    // Closed nozzle assignments the volume comes from
+    private Long assignmentCount;
+}
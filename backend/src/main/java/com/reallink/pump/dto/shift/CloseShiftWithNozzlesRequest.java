@@ -0,0 +1,52 @@
+package com.reallink.pump.dto.shift;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for closing all open nozzles of a shift and the shift itself.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CloseShiftWithNozzlesRequest {
+
+    @NotNull(message = "Nozzle closings are required")
+    @Valid
+    private List<NozzleClosing> nozzles;
+
+    /**
+     * Optional end datetime for the nozzles and the shift. If not provided,
+     * defaults to current time. Only ADMIN and MANAGER roles can set it.
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime endDatetime;
+
+    /**
+     * Closing balance of one open nozzle assignment.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class NozzleClosing {
+
+        @NotNull(message = "Assignment ID is required")
+        private java.util.UUID assignmentId;
+
+        @NotNull(message = "Closing balance is required")
+        @DecimalMin(value = "0.0", message = "Closing balance cannot be negative")
+        @Digits(integer = 12, fraction = 3, message = "Closing balance must have at most 12 digits and 3 decimal places")
+        private BigDecimal closingBalance;
+    }
+}
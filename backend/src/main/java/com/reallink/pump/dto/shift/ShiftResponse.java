@@ -37,6 +37,7 @@ public class ShiftResponse {
     private BigDecimal totalFuelSales;
     private BigDecimal totalCredit;
     private BigDecimal totalPayments;
+    private BigDecimal totalExpenses;
 
     /**
      * Convert entity to response DTO.
@@ -65,6 +66,25 @@ public class ShiftResponse {
                 .build();
     }
 
+    /**
+     * Convert entity to response DTO, taking the summary fields from totals
+     * computed in SQL instead of walking the shift's collections.
+     */
+    public static ShiftResponse from(SalesmanShift shift, ShiftTotalsView totals) {
+        ShiftResponse response = fromMinimal(shift);
+        if (response == null || totals == null) {
+            return response;
+        }
+
+        response.setNozzleCount(totals.getNozzleCount().intValue());
+        response.setOpenNozzleCount(totals.getOpenNozzleCount().intValue());
+        response.setTotalFuelSales(totals.getTotalFuelSales());
+        response.setTotalCredit(totals.getTotalCredit());
+        response.setTotalPayments(totals.getTotalPayments());
+        response.setTotalExpenses(totals.getTotalExpenses());
+        return response;
+    }
+
     /**
      * Convert entity to response DTO with minimal info (for list views).
      */
@@ -0,0 +1,26 @@
+package com.reallink.pump.dto.shift;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Projection of the running totals of a shift, computed in SQL.
+ */
+public interface ShiftTotalsView {
+
+    UUID getShiftId();
+
+    Long getNozzleCount();
+
+    Long getOpenNozzleCount();
+
+    BigDecimal getTotalFuelSales();
+
+    BigDecimal getTotalCredit();
+
+    BigDecimal getTotalPayments();
+
+    BigDecimal getTotalExpenses();
+
+    BigDecimal getTotalTestQuantity();
+}
@@ -0,0 +1,39 @@
+package com.reallink.pump.dto.shift;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for starting a shift together with its nozzle assignments.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StartShiftWithNozzlesRequest {
+
+    @NotNull(message = "Salesman ID is required")
+    private java.util.UUID salesmanId;
+
+    @DecimalMin(value = "0.0", message = "Opening cash cannot be negative")
+    @Digits(integer = 15, fraction = 2, message = "Opening cash must have at most 15 digits and 2 decimal places")
+    private BigDecimal openingCash = BigDecimal.ZERO;
+
+    /**
+     * Optional start datetime. If not provided, defaults to current time.
+     */
+    private LocalDateTime startDatetime;
+
+    @NotEmpty(message = "At least one nozzle is required")
+    @Valid
+    private List<AddNozzleRequest> nozzles;
+}
@@ -0,0 +1,45 @@
+package com.reallink.pump.entities;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Sum of a bank account's daily nets up to and including {@code periodEnd}.
+ * A balance is the latest checkpoint plus the daily nets after it.
+ */
+@Entity
+@Table(name = "pump_bank_balance_checkpoint", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_bank_balance_checkpoint", columnNames = {"bank_account_id", "period_end"})})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BankBalanceCheckpoint extends BaseEntity {
+
+    @NotNull(message = "Bank account is required")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "bank_account_id", nullable = false, foreignKey = @ForeignKey(name = "fk_bank_balance_checkpoint_bank_account"))
+    private BankAccount bankAccount;
+
+    @NotNull(message = "Period end is required")
+    @Column(name = "period_end", nullable = false)
+    private LocalDate periodEnd;
+
+    @NotNull(message = "Cumulative net is required")
+    @Column(name = "cumulative_net", nullable = false, precision = 15, scale = 2)
+    private BigDecimal cumulativeNet;
+}
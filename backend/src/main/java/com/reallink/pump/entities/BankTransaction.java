@@ -1,11 +1,16 @@
 package com.reallink.pump.entities;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.reallink.pump.services.BankTransactionBalanceListener;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
@@ -13,17 +18,20 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
 @Table(name = "pump_bank_transaction_master")
+@EntityListeners(BankTransactionBalanceListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -77,7 +85,36 @@ public class BankTransaction extends BaseEntity {
     @JoinColumn(name = "shift_accounting_id", foreignKey = @jakarta.persistence.ForeignKey(name = "fk_transaction_shift_accounting"))
     private SalesmanShiftAccounting shiftAccounting;
 
+    /**
+     * What this transaction last contributed to the daily closing balance.
+     * Maintained by {@link BankTransactionBalanceListener}.
+     */
+    @Transient
+    private AppliedBalance appliedBalance;
+
     public enum TransactionType {
         CREDIT, DEBIT
     }
+
+    /**
+     * Bank account, day and signed amount of a transaction as applied to the
+     * daily closing balance.
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class AppliedBalance {
+
+        private final UUID bankAccountId;
+        private final LocalDate date;
+        private final BigDecimal net;
+
+        public static AppliedBalance of(BankTransaction transaction) {
+            BigDecimal amount = transaction.getAmount() != null ? transaction.getAmount() : BigDecimal.ZERO;
+            return new AppliedBalance(
+                    transaction.getBankAccount().getId(),
+                    transaction.getTransactionDate().toLocalDate(),
+                    transaction.getTransactionType() == TransactionType.CREDIT ? amount : amount.negate());
+        }
+    }
 }
@@ -5,17 +5,22 @@ import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 
+import com.reallink.pump.services.CustomerReceivableListener;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Digits;
@@ -27,14 +32,17 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@EntityListeners(CustomerReceivableListener.class)
 @Table(name = "pump_bill_master", uniqueConstraints = {
     @UniqueConstraint(name = "uk_bill_no_pump", columnNames = {"bill_no", "pump_master_id"})
+}, indexes = {
+    @Index(name = "idx_bill_pump_created", columnList = "pump_master_id, created_at")
 })
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-public class Bill extends BaseEntity {
+public class Bill extends BaseEntity implements ReceivableEntry {
 
     @NotNull(message = "Pump master is required")
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -92,4 +100,16 @@ public class Bill extends BaseEntity {
 
     @OneToMany(mappedBy = "bill", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<CustomerBillPayment> customerBillPayments = new HashSet<>();
+
+    /**
+     * What this entry last contributed to the customer receivable. Maintained
+     * by {@link CustomerReceivableListener}.
+     */
+    @Transient
+    private AppliedReceivable appliedReceivable;
+
+    @Override
+    public BigDecimal getReceivableAmount() {
+        return netAmount;
+    }
 }
@@ -3,17 +3,22 @@ package com.reallink.pump.entities;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import com.reallink.pump.services.CustomerReceivableListener;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
@@ -25,14 +30,17 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@EntityListeners(CustomerReceivableListener.class)
 @Table(name = "pump_customer_bill_payment_master", uniqueConstraints = {
     @UniqueConstraint(name = "uk_payment_reference_bank_transaction", columnNames = {"reference_number", "bank_transaction_id"})
+}, indexes = {
+    @Index(name = "idx_customer_payment_pump_date", columnList = "pump_master_id, payment_date")
 })
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-public class CustomerBillPayment extends BaseEntity {
+public class CustomerBillPayment extends BaseEntity implements ReceivableEntry {
 
     @NotNull(message = "Pump master is required")
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -80,4 +88,16 @@ public class CustomerBillPayment extends BaseEntity {
     @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true, optional = false)
     @JoinColumn(name = "bank_transaction_id", nullable = false, foreignKey = @ForeignKey(name = "fk_customer_bill_payment_bank_transaction"))
     private BankTransaction bankTransaction;
+
+    /**
+     * What this entry last contributed to the customer receivable. Maintained
+     * by {@link CustomerReceivableListener}.
+     */
+    @Transient
+    private AppliedReceivable appliedReceivable;
+
+    @Override
+    public BigDecimal getReceivableAmount() {
+        return amount != null ? amount.negate() : null;
+    }
 }
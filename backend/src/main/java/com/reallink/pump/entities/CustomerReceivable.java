@@ -0,0 +1,40 @@
+package com.reallink.pump.entities;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Running total of a customer's bills minus payments, excluding the opening
+ * balance. Maintained incrementally by the customer receivable listener.
+ */
+@Entity
+@Table(name = "pump_customer_receivable", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_customer_receivable_customer", columnNames = {"customer_id"})})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerReceivable extends BaseEntity {
+
+    @NotNull(message = "Customer is required")
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "customer_id", nullable = false, foreignKey = @ForeignKey(name = "fk_customer_receivable_customer"))
+    private Customer customer;
+
+    @NotNull(message = "Net amount is required")
+    @Column(name = "net_amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal netAmount;
+}
@@ -0,0 +1,59 @@
+package com.reallink.pump.entities;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Dashboard totals per pump and day: credit billed and bills raised (by bill
+ * creation day), fuel purchased (by purchase creation day) and money received
+ * from customers and paid to suppliers (by payment day). Rebuilt for a day
+ * whenever anything on that day changes (see
+ * {@link com.reallink.pump.services.DashboardFactService}).
+ */
+@Entity
+@Table(name = "pump_daily_dashboard_fact", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_daily_dashboard_fact", columnNames = {"pump_master_id", "date"})})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyDashboardFact extends BaseEntity {
+
+    @NotNull(message = "Pump master is required")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "pump_master_id", nullable = false, foreignKey = @ForeignKey(name = "fk_daily_dashboard_fact_pump_master"))
+    private PumpInfoMaster pumpMaster;
+
+    @NotNull(message = "Date is required")
+    @Column(name = "date", nullable = false)
+    private LocalDate date;
+
+    @Column(name = "total_credit", nullable = false, precision = 17, scale = 2)
+    private BigDecimal totalCredit = BigDecimal.ZERO;
+
+    @Column(name = "bills_generated", nullable = false)
+    private Integer billsGenerated = 0;
+
+    @Column(name = "total_debit", nullable = false, precision = 17, scale = 2)
+    private BigDecimal totalDebit = BigDecimal.ZERO;
+
+    @Column(name = "money_received", nullable = false, precision = 17, scale = 2)
+    private BigDecimal moneyReceived = BigDecimal.ZERO;
+
+    @Column(name = "money_paid", nullable = false, precision = 17, scale = 2)
+    private BigDecimal moneyPaid = BigDecimal.ZERO;
+}
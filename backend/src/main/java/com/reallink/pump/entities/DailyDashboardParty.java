@@ -0,0 +1,73 @@
+package com.reallink.pump.entities;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Amount billed to each customer, or purchased from each supplier, per pump
+ * and day. These rows are the candidates for the dashboard's top customer and
+ * top supplier and for the count of parties with credit or debit; distinct
+ * counts and rankings cannot be summed from the daily totals in
+ * {@link DailyDashboardFact}.
+ */
+@Entity
+@Table(name = "pump_daily_dashboard_party", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_daily_dashboard_party", columnNames = {"pump_master_id", "date", "party_type", "party_id"})})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyDashboardParty extends BaseEntity {
+
+    @NotNull(message = "Pump master is required")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "pump_master_id", nullable = false, foreignKey = @ForeignKey(name = "fk_daily_dashboard_party_pump_master"))
+    private PumpInfoMaster pumpMaster;
+
+    @NotNull(message = "Date is required")
+    @Column(name = "date", nullable = false)
+    private LocalDate date;
+
+    @NotNull(message = "Party type is required")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "party_type", nullable = false, length = 20)
+    private PartyType partyType;
+
+    /**
+     * Customer ID for {@link PartyType#CUSTOMER} rows, supplier ID for
+     * {@link PartyType#SUPPLIER} rows.
+     */
+    @NotNull(message = "Party is required")
+    @Column(name = "party_id", nullable = false)
+    private UUID partyId;
+
+    @Column(name = "amount", nullable = false, precision = 17, scale = 2)
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    /**
+     * Number of the day's bills or purchases with a positive amount.
+     */
+    @Column(name = "positive_count", nullable = false)
+    private Integer positiveCount = 0;
+
+    public enum PartyType {
+        CUSTOMER, SUPPLIER
+    }
+}
@@ -0,0 +1,52 @@
+package com.reallink.pump.entities;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Expenses per pump, expense head and day, rebuilt together with
+ * {@link DailyProductSales}.
+ */
+@Entity
+@Table(name = "pump_daily_expense_summary", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_daily_expense_summary", columnNames = {"pump_master_id", "date", "expense_head_id"})})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyExpenseSummary extends BaseEntity {
+
+    @NotNull(message = "Pump master is required")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "pump_master_id", nullable = false, foreignKey = @ForeignKey(name = "fk_daily_expense_summary_pump_master"))
+    private PumpInfoMaster pumpMaster;
+
+    @NotNull(message = "Expense head is required")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "expense_head_id", nullable = false, foreignKey = @ForeignKey(name = "fk_daily_expense_summary_expense_head"))
+    private ExpenseHead expenseHead;
+
+    @NotNull(message = "Date is required")
+    @Column(name = "date", nullable = false)
+    private LocalDate date;
+
+    @Column(name = "amount", nullable = false, precision = 17, scale = 2)
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    @Column(name = "expense_count", nullable = false)
+    private Integer expenseCount = 0;
+}
@@ -0,0 +1,50 @@
+package com.reallink.pump.entities;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Fuel dispensed by closed nozzle assignments (closing minus opening reading)
+ * per pump, closing day and opening day. The dashboard only counts assignments
+ * that both opened and closed inside the range, so assignments running over
+ * midnight are kept apart by their opening day.
+ */
+@Entity
+@Table(name = "pump_daily_fuel_dispensed", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_daily_fuel_dispensed", columnNames = {"pump_master_id", "date", "start_date"})})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyFuelDispensed extends BaseEntity {
+
+    @NotNull(message = "Pump master is required")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "pump_master_id", nullable = false, foreignKey = @ForeignKey(name = "fk_daily_fuel_dispensed_pump_master"))
+    private PumpInfoMaster pumpMaster;
+
+    @NotNull(message = "Date is required")
+    @Column(name = "date", nullable = false)
+    private LocalDate date;
+
+    @NotNull(message = "Start date is required")
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "quantity", nullable = false, precision = 15, scale = 3)
+    private BigDecimal quantity = BigDecimal.ZERO;
+}
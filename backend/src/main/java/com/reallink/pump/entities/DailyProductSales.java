@@ -0,0 +1,67 @@
+package com.reallink.pump.entities;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Fuel sold and purchased per pump, product and day. Sales come from closed
+ * nozzle assignments (closing minus opening reading, less test fuel returned
+ * to the tank), purchases from fuel purchases. Rebuilt for a day whenever
+ * anything on that day changes (see
+ * {@link com.reallink.pump.services.ProfitRollupService}).
+ */
+@Entity
+@Table(name = "pump_daily_product_sales", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_daily_product_sales", columnNames = {"pump_master_id", "date", "product_id"})})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyProductSales extends BaseEntity {
+
+    @NotNull(message = "Pump master is required")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "pump_master_id", nullable = false, foreignKey = @ForeignKey(name = "fk_daily_product_sales_pump_master"))
+    private PumpInfoMaster pumpMaster;
+
+    @NotNull(message = "Product is required")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "product_id", nullable = false, foreignKey = @ForeignKey(name = "fk_daily_product_sales_product"))
+    private Product product;
+
+    @NotNull(message = "Date is required")
+    @Column(name = "date", nullable = false)
+    private LocalDate date;
+
+    @Column(name = "quantity_sold", nullable = false, precision = 15, scale = 3)
+    private BigDecimal quantitySold = BigDecimal.ZERO;
+
+    @Column(name = "sales_revenue", nullable = false, precision = 17, scale = 2)
+    private BigDecimal salesRevenue = BigDecimal.ZERO;
+
+    @Column(name = "sales_count", nullable = false)
+    private Integer salesCount = 0;
+
+    @Column(name = "quantity_purchased", nullable = false, precision = 15, scale = 3)
+    private BigDecimal quantityPurchased = BigDecimal.ZERO;
+
+    @Column(name = "purchase_cost", nullable = false, precision = 17, scale = 2)
+    private BigDecimal purchaseCost = BigDecimal.ZERO;
+
+    @Column(name = "purchase_count", nullable = false)
+    private Integer purchaseCount = 0;
+}
@@ -29,7 +29,8 @@ import lombok.Setter;
     @Index(name = "idx_expense_type", columnList = "expense_type"),
     @Index(name = "idx_expense_salesman_shift", columnList = "salesman_shift_id"),
     @Index(name = "idx_expense_bank_account", columnList = "bank_account_id"),
-    @Index(name = "idx_pump_master_expense", columnList = "pump_master_id")
+    @Index(name = "idx_pump_master_expense", columnList = "pump_master_id"),
+    @Index(name = "idx_expense_pump_date", columnList = "pump_master_id, expense_date")
 })
 @Getter
 @Setter
@@ -7,6 +7,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -25,6 +26,9 @@ import lombok.Setter;
 @Entity
 @Table(name = "pump_fuel_purchase_master", uniqueConstraints = {
     @UniqueConstraint(name = "uk_fuel_purchase_id_pump", columnNames = {"fuel_purchase_id", "pump_master_id"})
+}, indexes = {
+    @Index(name = "idx_fuel_purchase_pump_date", columnList = "pump_master_id, purchase_date"),
+    @Index(name = "idx_fuel_purchase_pump_created", columnList = "pump_master_id, created_at")
 })
 @Getter
 @Setter
@@ -38,7 +38,8 @@ import lombok.Setter;
     @Index(name = "idx_nozzle_assignment_nozzle", columnList = "nozzle_id"),
     @Index(name = "idx_nozzle_assignment_salesman", columnList = "salesman_id"),
     @Index(name = "idx_nozzle_assignment_status", columnList = "status"),
-    @Index(name = "idx_nozzle_assignment_pump_master", columnList = "pump_master_id")
+    @Index(name = "idx_nozzle_assignment_pump_master", columnList = "pump_master_id"),
+    @Index(name = "idx_nozzle_assignment_pump_status_end", columnList = "pump_master_id, status, end_time")
 })
 @Getter
 @Setter
@@ -0,0 +1,46 @@
+package com.reallink.pump.entities;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * An entity that moves what a customer owes: bills add to it, payments take
+ * from it. Implemented by {@link Bill}, {@link SalesmanBill},
+ * {@link CustomerBillPayment} and {@link SalesmanBillPayment}.
+ */
+public interface ReceivableEntry {
+
+    Customer getCustomer();
+
+    /**
+     * Signed amount this entry adds to the customer's receivable.
+     */
+    BigDecimal getReceivableAmount();
+
+    AppliedReceivable getAppliedReceivable();
+
+    void setAppliedReceivable(AppliedReceivable appliedReceivable);
+
+    /**
+     * Customer and signed amount of an entry as applied to the receivable.
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    class AppliedReceivable {
+
+        private final UUID customerId;
+        private final BigDecimal amount;
+
+        public static AppliedReceivable of(ReceivableEntry entry) {
+            BigDecimal amount = entry.getReceivableAmount();
+            return new AppliedReceivable(
+                    entry.getCustomer().getId(),
+                    amount != null ? amount : BigDecimal.ZERO);
+        }
+    }
+}
@@ -3,8 +3,11 @@ package com.reallink.pump.entities;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+import com.reallink.pump.services.CustomerReceivableListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
@@ -12,6 +15,7 @@ import jakarta.persistence.ForeignKey;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Digits;
@@ -25,6 +29,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@EntityListeners(CustomerReceivableListener.class)
 @Table(name = "pump_salesman_bill_master", uniqueConstraints = {
     @UniqueConstraint(name = "uk_salesman_bill_no_pump", columnNames = {"bill_no", "pump_master_id"})
 })
@@ -32,7 +37,7 @@ import lombok.Setter;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-public class SalesmanBill extends BaseEntity {
+public class SalesmanBill extends BaseEntity implements ReceivableEntry {
 
     @NotNull(message = "Pump master is required")
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -127,4 +132,16 @@ public class SalesmanBill extends BaseEntity {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "extra_image_id", foreignKey = @ForeignKey(name = "fk_salesman_bill_extra_image"))
     private FileStorage extraImage;
+
+    /**
+     * What this entry last contributed to the customer receivable. Maintained
+     * by {@link CustomerReceivableListener}.
+     */
+    @Transient
+    private AppliedReceivable appliedReceivable;
+
+    @Override
+    public BigDecimal getReceivableAmount() {
+        return amount;
+    }
 }
@@ -3,8 +3,11 @@ package com.reallink.pump.entities;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import com.reallink.pump.services.CustomerReceivableListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
@@ -12,6 +15,7 @@ import jakarta.persistence.ForeignKey;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -22,12 +26,13 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@EntityListeners(CustomerReceivableListener.class)
 @Table(name = "pump_salesman_bill_payment_master", uniqueConstraints = {})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-public class SalesmanBillPayment extends BaseEntity {
+public class SalesmanBillPayment extends BaseEntity implements ReceivableEntry {
 
     @NotNull(message = "Pump master is required")
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -70,4 +75,16 @@ public class SalesmanBillPayment extends BaseEntity {
     @Size(max = 255, message = "Notes must be less than 255 characters")
     @Column(name = "notes", length = 255)
     private String notes;
+
+    /**
+     * What this entry last contributed to the customer receivable. Maintained
+     * by {@link CustomerReceivableListener}.
+     */
+    @Transient
+    private AppliedReceivable appliedReceivable;
+
+    @Override
+    public BigDecimal getReceivableAmount() {
+        return amount != null ? amount.negate() : null;
+    }
 }
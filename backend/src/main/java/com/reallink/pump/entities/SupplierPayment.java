@@ -10,6 +10,7 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
@@ -27,6 +28,8 @@ import lombok.Setter;
 @Entity
 @Table(name = "pump_supplier_payment_master", uniqueConstraints = {
     @UniqueConstraint(name = "uk_supplier_payment_reference_bank_transaction", columnNames = {"reference_number", "bank_transaction_id"})
+}, indexes = {
+    @Index(name = "idx_supplier_payment_pump_date", columnList = "pump_master_id, payment_date")
 })
 @Getter
 @Setter
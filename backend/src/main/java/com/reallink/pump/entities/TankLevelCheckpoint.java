@@ -0,0 +1,45 @@
+package com.reallink.pump.entities;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Sum of a tank's daily nets up to and including {@code periodEnd}.
+ * A level is the latest checkpoint plus the daily nets after it.
+ */
+@Entity
+@Table(name = "pump_tank_level_checkpoint", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_tank_level_checkpoint", columnNames = {"tank_id", "period_end"})})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TankLevelCheckpoint extends BaseEntity {
+
+    @NotNull(message = "Tank is required")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "tank_id", nullable = false, foreignKey = @ForeignKey(name = "fk_tank_level_checkpoint_tank"))
+    private Tank tank;
+
+    @NotNull(message = "Period end is required")
+    @Column(name = "period_end", nullable = false)
+    private LocalDate periodEnd;
+
+    @NotNull(message = "Cumulative net is required")
+    @Column(name = "cumulative_net", nullable = false, precision = 15, scale = 2)
+    private BigDecimal cumulativeNet;
+}
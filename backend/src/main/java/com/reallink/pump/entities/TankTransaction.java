@@ -1,26 +1,34 @@
 package com.reallink.pump.entities;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.reallink.pump.services.TankTransactionLevelListener;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ForeignKey;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
 @Table(name = "pump_tank_transaction_master")
+@EntityListeners(TankTransactionLevelListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -66,8 +74,37 @@ public class TankTransaction extends BaseEntity {
     @JoinColumn(name = "nozzle_test_id", foreignKey = @ForeignKey(name = "fk_tank_transaction_nozzle_test"))
     private NozzleTest nozzleTest;
 
+    /**
+     * What this transaction last contributed to the daily tank level.
+     * Maintained by {@link TankTransactionLevelListener}.
+     */
+    @Transient
+    private AppliedLevel appliedLevel;
+
     public enum TransactionType {
         ADDITION, // Fuel added to tank
         REMOVAL   // Fuel removed from tank (e.g., for sales, transfers)
     }
+
+    /**
+     * Tank, day and signed volume of a transaction as applied to the daily tank
+     * level.
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class AppliedLevel {
+
+        private final UUID tankId;
+        private final LocalDate date;
+        private final BigDecimal net;
+
+        public static AppliedLevel of(TankTransaction transaction) {
+            BigDecimal volume = transaction.getVolume() != null ? transaction.getVolume() : BigDecimal.ZERO;
+            return new AppliedLevel(
+                    transaction.getTank().getId(),
+                    transaction.getTransactionDate().toLocalDate(),
+                    transaction.getTransactionType() == TransactionType.ADDITION ? volume : volume.negate());
+        }
+    }
 }
@@ -0,0 +1,43 @@
+package com.reallink.pump.enums;
+
+/**
+ * Output format of a server-side export
+ */
+public enum ExportFormat {
+    /**
+     * Comma-separated values with a header row (RFC 4180 quoting)
+     */
+    CSV("text/csv", "csv"),
+    /**
+     * One JSON object per line
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat from(String value) {
+        if (value == null || value.isBlank()) {
+            return CSV;
+        }
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Invalid export format: " + value + ". Must be CSV or NDJSON");
+    }
+}
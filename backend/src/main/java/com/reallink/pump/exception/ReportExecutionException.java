@@ -0,0 +1,18 @@
+package com.reallink.pump.exception;
+
+import lombok.Getter;
+
+/**
+ * A report could not be assembled because one or more of its queries failed
+ * or timed out. Never carries a partial result.
+ */
+@Getter
+public class ReportExecutionException extends RuntimeException {
+
+    private final String errorCode;
+
+    public ReportExecutionException(String errorCode, String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+}
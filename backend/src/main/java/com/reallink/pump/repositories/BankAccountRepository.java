@@ -18,6 +18,8 @@ public interface BankAccountRepository extends JpaRepository<BankAccount, UUID>
 
     List<BankAccount> findByPumpMaster_Id(UUID pumpMasterId);
 
+    Optional<BankAccount> findFirstByPumpMaster_Id(UUID pumpMasterId);
+
     List<BankAccount> findByBankAndPumpMaster_Id(String bank, UUID pumpMasterId);
 
     List<BankAccount> findByIfscCodeAndPumpMaster_Id(String ifscCode, UUID pumpMasterId);
@@ -2,6 +2,7 @@ package com.reallink.pump.repositories;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -45,4 +46,17 @@ public interface BankTransactionRepository extends JpaRepository<BankTransaction
      */
     @Query("SELECT COALESCE(SUM(t.amount), 0) FROM BankTransaction t WHERE t.shiftAccounting.id = :shiftAccountingId")
     BigDecimal getTotalDistributedByShiftAccountingId(@Param("shiftAccountingId") UUID shiftAccountingId);
+
+    /**
+     * Net amount per bank account and day in a date-time range, as [bank account
+     * id, date, net] rows.
+     */
+    @Query("SELECT t.bankAccount.id, CAST(t.transactionDate AS LocalDate), "
+            + "COALESCE(SUM(CASE WHEN t.transactionType = com.reallink.pump.entities.BankTransaction.TransactionType.CREDIT THEN t.amount ELSE -t.amount END), 0) "
+            + "FROM BankTransaction t WHERE t.transactionDate >= :fromDateTime AND t.transactionDate < :toDateTime "
+            + "GROUP BY t.bankAccount.id, CAST(t.transactionDate AS LocalDate)")
+    List<Object[]> getDailyNets(@Param("fromDateTime") LocalDateTime fromDateTime, @Param("toDateTime") LocalDateTime toDateTime);
+
+    @Query("SELECT MIN(t.transactionDate) FROM BankTransaction t")
+    LocalDateTime findEarliestTransactionDate();
 }
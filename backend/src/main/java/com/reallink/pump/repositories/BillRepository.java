@@ -1,5 +1,6 @@
 package com.reallink.pump.repositories;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -49,4 +50,7 @@ public interface BillRepository extends JpaRepository<Bill, UUID> {
 
     @Query("SELECT COUNT(b) FROM Bill b WHERE b.pumpMaster.id = :pumpMasterId AND b.createdAt BETWEEN :startDate AND :endDate")
     Long countBillsInPeriod(@Param("pumpMasterId") UUID pumpMasterId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT COALESCE(SUM(b.netAmount), 0) FROM Bill b WHERE b.customer.id = :customerId AND b.billDate < :date")
+    BigDecimal sumNetAmountByCustomerIdBeforeDate(@Param("customerId") UUID customerId, @Param("date") LocalDate date);
 }
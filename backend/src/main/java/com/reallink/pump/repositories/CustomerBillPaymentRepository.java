@@ -1,5 +1,6 @@
 package com.reallink.pump.repositories;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -42,4 +43,7 @@ public interface CustomerBillPaymentRepository extends JpaRepository<CustomerBil
 
     @Query("SELECT COALESCE(SUM(p.amount), 0) FROM CustomerBillPayment p WHERE p.pumpMaster.id = :pumpMasterId AND p.paymentDate BETWEEN :startDate AND :endDate")
     java.math.BigDecimal findTotalPaymentsInPeriod(@Param("pumpMasterId") UUID pumpMasterId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT COALESCE(SUM(p.amount), 0) FROM CustomerBillPayment p WHERE p.customer.id = :customerId AND p.paymentDate < :dateTime")
+    BigDecimal sumAmountByCustomerIdBefore(@Param("customerId") UUID customerId, @Param("dateTime") LocalDateTime dateTime);
 }
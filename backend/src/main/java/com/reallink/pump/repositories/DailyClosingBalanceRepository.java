@@ -2,6 +2,8 @@ package com.reallink.pump.repositories;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -27,6 +29,35 @@ public interface DailyClosingBalanceRepository extends JpaRepository<DailyClosin
     @Query("UPDATE DailyClosingBalance dcb SET dcb.dailyNet = :dailyNet WHERE dcb.bankAccount.id = :bankAccountId AND dcb.date = :date")
     int updateDailyNet(@Param("bankAccountId") UUID bankAccountId, @Param("date") LocalDate date, @Param("dailyNet") BigDecimal dailyNet);
 
-    @Query("SELECT COALESCE(SUM(dcb.dailyNet), 0) FROM DailyClosingBalance dcb WHERE dcb.bankAccount.id = :bankAccountId AND dcb.date <= :date")
+    @Query("SELECT dcb.bankAccount.id, dcb.date, dcb.dailyNet FROM DailyClosingBalance dcb WHERE dcb.date BETWEEN :fromDate AND :toDate")
+    List<Object[]> getDailyNets(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    /**
+     * Sum of the daily nets up to and including a date, read as the latest
+     * checkpoint on or before the date plus the daily nets after it. Returns
+     * null if the bank account does not exist.
+     */
+    @Query("SELECT COALESCE(cp.cumulativeNet, 0) + COALESCE(SUM(dcb.dailyNet), 0) "
+            + "FROM BankAccount ba "
+            + "LEFT JOIN BankBalanceCheckpoint cp ON cp.bankAccount = ba AND cp.periodEnd = "
+            + "(SELECT MAX(c.periodEnd) FROM BankBalanceCheckpoint c WHERE c.bankAccount = ba AND c.periodEnd <= :date) "
+            + "LEFT JOIN DailyClosingBalance dcb ON dcb.bankAccount = ba AND dcb.date <= :date "
+            + "AND (cp.id IS NULL OR dcb.date > cp.periodEnd) "
+            + "WHERE ba.id = :bankAccountId "
+            + "GROUP BY ba.id, cp.cumulativeNet")
     BigDecimal getCumulativeNetUpToDate(@Param("bankAccountId") UUID bankAccountId, @Param("date") LocalDate date);
+
+    /**
+     * Cumulative net up to a date for several bank accounts in one grouped query, as
+     * [id, cumulative net] rows.
+     */
+    @Query("SELECT ba.id, COALESCE(cp.cumulativeNet, 0) + COALESCE(SUM(dcb.dailyNet), 0) "
+            + "FROM BankAccount ba "
+            + "LEFT JOIN BankBalanceCheckpoint cp ON cp.bankAccount = ba AND cp.periodEnd = "
+            + "(SELECT MAX(c.periodEnd) FROM BankBalanceCheckpoint c WHERE c.bankAccount = ba AND c.periodEnd <= :date) "
+            + "LEFT JOIN DailyClosingBalance dcb ON dcb.bankAccount = ba AND dcb.date <= :date "
+            + "AND (cp.id IS NULL OR dcb.date > cp.periodEnd) "
+            + "WHERE ba.id IN :ids "
+            + "GROUP BY ba.id, cp.cumulativeNet")
+    List<Object[]> getCumulativeNetsUpToDate(@Param("ids") Collection<UUID> ids, @Param("date") LocalDate date);
 }
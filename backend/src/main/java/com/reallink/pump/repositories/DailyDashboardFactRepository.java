@@ -0,0 +1,24 @@
+package com.reallink.pump.repositories;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.reallink.pump.dto.response.DashboardTotalsView;
+import com.reallink.pump.entities.DailyDashboardFact;
+
+@Repository
+public interface DailyDashboardFactRepository extends JpaRepository<DailyDashboardFact, UUID> {
+
+    @Query("SELECT COALESCE(SUM(f.totalCredit), 0) AS totalCredit, COALESCE(SUM(f.billsGenerated), 0) AS billsGenerated, "
+            + "COALESCE(SUM(f.totalDebit), 0) AS totalDebit, COALESCE(SUM(f.moneyReceived), 0) AS moneyReceived, "
+            + "COALESCE(SUM(f.moneyPaid), 0) AS moneyPaid "
+            + "FROM DailyDashboardFact f "
+            + "WHERE f.pumpMaster.id = :pumpMasterId AND f.date BETWEEN :fromDate AND :toDate")
+    DashboardTotalsView sumByPumpMasterIdAndDateRange(@Param("pumpMasterId") UUID pumpMasterId,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+}
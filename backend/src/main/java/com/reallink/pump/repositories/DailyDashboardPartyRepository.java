@@ -0,0 +1,41 @@
+package com.reallink.pump.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.reallink.pump.dto.response.PartyTotalView;
+import com.reallink.pump.entities.DailyDashboardParty;
+
+@Repository
+public interface DailyDashboardPartyRepository extends JpaRepository<DailyDashboardParty, UUID> {
+
+    @Query("SELECT COUNT(DISTINCT p.partyId) FROM DailyDashboardParty p "
+            + "WHERE p.pumpMaster.id = :pumpMasterId AND p.partyType = :partyType "
+            + "AND p.date BETWEEN :fromDate AND :toDate AND p.positiveCount > 0")
+    long countPartiesWithPositiveAmount(@Param("pumpMasterId") UUID pumpMasterId,
+            @Param("partyType") DailyDashboardParty.PartyType partyType,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    @Query("SELECT c.customerName AS name, SUM(p.amount) AS amount "
+            + "FROM DailyDashboardParty p JOIN Customer c ON c.id = p.partyId "
+            + "WHERE p.pumpMaster.id = :pumpMasterId AND p.partyType = com.reallink.pump.entities.DailyDashboardParty.PartyType.CUSTOMER "
+            + "AND p.date BETWEEN :fromDate AND :toDate "
+            + "GROUP BY c.customerName ORDER BY SUM(p.amount) DESC")
+    List<PartyTotalView> findTopCustomers(@Param("pumpMasterId") UUID pumpMasterId,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate, Pageable pageable);
+
+    @Query("SELECT s.supplierName AS name, SUM(p.amount) AS amount "
+            + "FROM DailyDashboardParty p JOIN Supplier s ON s.id = p.partyId "
+            + "WHERE p.pumpMaster.id = :pumpMasterId AND p.partyType = com.reallink.pump.entities.DailyDashboardParty.PartyType.SUPPLIER "
+            + "AND p.date BETWEEN :fromDate AND :toDate "
+            + "GROUP BY s.supplierName ORDER BY SUM(p.amount) DESC")
+    List<PartyTotalView> findTopSuppliers(@Param("pumpMasterId") UUID pumpMasterId,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate, Pageable pageable);
+}
@@ -0,0 +1,26 @@
+package com.reallink.pump.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.reallink.pump.dto.response.ExpenseHeadTotalsView;
+import com.reallink.pump.entities.DailyExpenseSummary;
+
+@Repository
+public interface DailyExpenseSummaryRepository extends JpaRepository<DailyExpenseSummary, UUID> {
+
+    @Query("SELECT h.id AS expenseHeadId, h.headName AS expenseHeadName, "
+            + "SUM(s.amount) AS amount, SUM(s.expenseCount) AS expenseCount "
+            + "FROM DailyExpenseSummary s JOIN s.expenseHead h "
+            + "WHERE s.pumpMaster.id = :pumpMasterId AND s.date BETWEEN :fromDate AND :toDate "
+            + "GROUP BY h.id, h.headName "
+            + "ORDER BY h.headName")
+    List<ExpenseHeadTotalsView> sumByExpenseHead(@Param("pumpMasterId") UUID pumpMasterId,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+}
@@ -0,0 +1,25 @@
+package com.reallink.pump.repositories;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.reallink.pump.entities.DailyFuelDispensed;
+
+@Repository
+public interface DailyFuelDispensedRepository extends JpaRepository<DailyFuelDispensed, UUID> {
+
+    /**
+     * Fuel dispensed by assignments that opened and closed within the range.
+     */
+    @Query("SELECT COALESCE(SUM(f.quantity), 0) FROM DailyFuelDispensed f "
+            + "WHERE f.pumpMaster.id = :pumpMasterId AND f.date BETWEEN :fromDate AND :toDate "
+            + "AND f.startDate >= :fromDate")
+    BigDecimal sumQuantityOpenedAndClosedInRange(@Param("pumpMasterId") UUID pumpMasterId,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+}
@@ -0,0 +1,36 @@
+package com.reallink.pump.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.reallink.pump.dto.response.DailyProductVolumeView;
+import com.reallink.pump.dto.response.ProductSalesTotalsView;
+import com.reallink.pump.entities.DailyProductSales;
+
+@Repository
+public interface DailyProductSalesRepository extends JpaRepository<DailyProductSales, UUID> {
+
+    @Query("SELECT p.id AS productId, p.productName AS productName, "
+            + "SUM(s.quantitySold) AS quantitySold, SUM(s.salesRevenue) AS salesRevenue, SUM(s.salesCount) AS salesCount, "
+            + "SUM(s.quantityPurchased) AS quantityPurchased, SUM(s.purchaseCost) AS purchaseCost, SUM(s.purchaseCount) AS purchaseCount "
+            + "FROM DailyProductSales s JOIN s.product p "
+            + "WHERE s.pumpMaster.id = :pumpMasterId AND s.date BETWEEN :fromDate AND :toDate "
+            + "GROUP BY p.id, p.productName "
+            + "ORDER BY p.productName")
+    List<ProductSalesTotalsView> sumByProduct(@Param("pumpMasterId") UUID pumpMasterId,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    @Query("SELECT s.date AS date, p.id AS productId, p.productName AS productName, "
+            + "s.quantitySold AS quantitySold, s.salesCount AS assignmentCount "
+            + "FROM DailyProductSales s JOIN s.product p "
+            + "WHERE s.pumpMaster.id = :pumpMasterId AND s.date BETWEEN :fromDate AND :toDate AND s.salesCount > 0 "
+            + "ORDER BY s.date, p.productName")
+    List<DailyProductVolumeView> findDailyVolumes(@Param("pumpMasterId") UUID pumpMasterId,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+}
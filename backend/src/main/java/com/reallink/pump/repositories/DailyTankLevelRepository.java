@@ -2,6 +2,8 @@ package com.reallink.pump.repositories;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -25,6 +27,35 @@ public interface DailyTankLevelRepository extends JpaRepository<DailyTankLevel,
     @Query("UPDATE DailyTankLevel dtl SET dtl.dailyNet = :dailyNet WHERE dtl.tank.id = :tankId AND dtl.date = :date")
     int updateDailyNet(@Param("tankId") UUID tankId, @Param("date") LocalDate date, @Param("dailyNet") BigDecimal dailyNet);
 
-    @Query("SELECT COALESCE(SUM(dtl.dailyNet), 0) FROM DailyTankLevel dtl WHERE dtl.tank.id = :tankId AND dtl.date <= :date")
+    @Query("SELECT dtl.tank.id, dtl.date, dtl.dailyNet FROM DailyTankLevel dtl WHERE dtl.date BETWEEN :fromDate AND :toDate")
+    List<Object[]> getDailyNets(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    /**
+     * Sum of the daily nets up to and including a date, read as the latest
+     * checkpoint on or before the date plus the daily nets after it. Returns
+     * null if the tank does not exist.
+     */
+    @Query("SELECT COALESCE(cp.cumulativeNet, 0) + COALESCE(SUM(dtl.dailyNet), 0) "
+            + "FROM Tank t "
+            + "LEFT JOIN TankLevelCheckpoint cp ON cp.tank = t AND cp.periodEnd = "
+            + "(SELECT MAX(c.periodEnd) FROM TankLevelCheckpoint c WHERE c.tank = t AND c.periodEnd <= :date) "
+            + "LEFT JOIN DailyTankLevel dtl ON dtl.tank = t AND dtl.date <= :date "
+            + "AND (cp.id IS NULL OR dtl.date > cp.periodEnd) "
+            + "WHERE t.id = :tankId "
+            + "GROUP BY t.id, cp.cumulativeNet")
     BigDecimal getCumulativeNetUpToDate(@Param("tankId") UUID tankId, @Param("date") LocalDate date);
+
+    /**
+     * Cumulative net up to a date for several tanks in one grouped query, as
+     * [id, cumulative net] rows.
+     */
+    @Query("SELECT t.id, COALESCE(cp.cumulativeNet, 0) + COALESCE(SUM(dtl.dailyNet), 0) "
+            + "FROM Tank t "
+            + "LEFT JOIN TankLevelCheckpoint cp ON cp.tank = t AND cp.periodEnd = "
+            + "(SELECT MAX(c.periodEnd) FROM TankLevelCheckpoint c WHERE c.tank = t AND c.periodEnd <= :date) "
+            + "LEFT JOIN DailyTankLevel dtl ON dtl.tank = t AND dtl.date <= :date "
+            + "AND (cp.id IS NULL OR dtl.date > cp.periodEnd) "
+            + "WHERE t.id IN :ids "
+            + "GROUP BY t.id, cp.cumulativeNet")
+    List<Object[]> getCumulativeNetsUpToDate(@Param("ids") Collection<UUID> ids, @Param("date") LocalDate date);
 }
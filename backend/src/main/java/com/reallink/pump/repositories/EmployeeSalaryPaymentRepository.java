@@ -68,21 +68,19 @@ public interface EmployeeSalaryPaymentRepository extends JpaRepository<EmployeeS
             @Param("endDate") LocalDateTime endDate
     );
 
-    // Ledger-specific queries
-    @Query("SELECT esp FROM EmployeeSalaryPayment esp "
+    @Query("SELECT COALESCE(SUM(esp.amount), 0) FROM EmployeeSalaryPayment esp "
             + "WHERE esp.user.id = :userId "
-            + "AND esp.paymentDate < :beforeDate "
-            + "ORDER BY esp.paymentDate ASC")
-    List<EmployeeSalaryPayment> findByUserIdAndPaymentDateBefore(
+            + "AND esp.paymentDate < :beforeDate")
+    BigDecimal sumAmountByUserIdBefore(
             @Param("userId") UUID userId,
             @Param("beforeDate") LocalDateTime beforeDate
     );
 
-    @Query("SELECT esp FROM EmployeeSalaryPayment esp "
+    @Query("SELECT COALESCE(SUM(esp.amount), 0) FROM EmployeeSalaryPayment esp "
             + "WHERE esp.user.id = :userId "
-            + "AND esp.paymentDate BETWEEN :fromDate AND :toDate "
-            + "ORDER BY esp.paymentDate ASC")
-    List<EmployeeSalaryPayment> findByUserIdAndPaymentDateBetween(
+            + "AND esp.paymentDate >= :fromDate "
+            + "AND esp.paymentDate < :toDate")
+    BigDecimal sumAmountByUserIdAndPaymentDateRange(
             @Param("userId") UUID userId,
             @Param("fromDate") LocalDateTime fromDate,
             @Param("toDate") LocalDateTime toDate
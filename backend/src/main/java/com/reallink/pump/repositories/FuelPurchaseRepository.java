@@ -1,17 +1,25 @@
 package com.reallink.pump.repositories;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.reallink.pump.dto.response.SupplierLedgerPurchaseView;
 import com.reallink.pump.entities.FuelPurchase;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface FuelPurchaseRepository extends JpaRepository<FuelPurchase, UUID> {
 
@@ -53,4 +61,19 @@ public interface FuelPurchaseRepository extends JpaRepository<FuelPurchase, UUID
             @Param("pumpMasterId") UUID pumpMasterId,
             @Param("fromDate") java.time.LocalDate fromDate,
             @Param("toDate") java.time.LocalDate toDate);
+
+    /**
+     * Fuel purchases of a supplier in a date range, oldest first, read through a
+     * cursor. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT fp.id AS id, fp.purchaseDate AS purchaseDate, fp.invoiceNumber AS invoiceNumber, "
+            + "fp.amount AS amount, fp.entryBy AS entryBy FROM FuelPurchase fp "
+            + "WHERE fp.supplier.id = :supplierId AND fp.purchaseDate BETWEEN :fromDate AND :toDate "
+            + "ORDER BY fp.purchaseDate, fp.id")
+    Stream<SupplierLedgerPurchaseView> streamLedgerRows(@Param("supplierId") UUID supplierId,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    @Query("SELECT COALESCE(SUM(fp.amount), 0) FROM FuelPurchase fp WHERE fp.supplier.id = :supplierId AND fp.purchaseDate < :date")
+    BigDecimal sumAmountBySupplierIdBeforeDate(@Param("supplierId") UUID supplierId, @Param("date") LocalDate date);
 }
@@ -2,17 +2,21 @@ package com.reallink.pump.repositories;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.reallink.pump.entities.NozzleAssignment;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface NozzleAssignmentRepository extends JpaRepository<NozzleAssignment, UUID> {
 
@@ -96,4 +100,62 @@ public interface NozzleAssignmentRepository extends JpaRepository<NozzleAssignme
     @Query("SELECT DISTINCT na.nozzle.id FROM NozzleAssignment na "
             + "WHERE na.pumpMaster.id = :pumpMasterId AND na.status = 'OPEN'")
     List<UUID> findAllAssignedNozzleIds(@Param("pumpMasterId") UUID pumpMasterId);
+
+    /**
+     * Find open assignments across all pumps. Used to build the in-memory
+     * forecourt state at startup.
+     */
+    @Query("SELECT na FROM NozzleAssignment na JOIN FETCH na.nozzle JOIN FETCH na.salesmanShift "
+            + "JOIN FETCH na.pumpMaster WHERE na.status = 'OPEN'")
+    List<NozzleAssignment> findAllOpenAssignments();
+
+    /**
+     * Load the assignments of a shift with their nozzle tests initialized. Part
+     * of the shift document fetch plan.
+     */
+    @Query("SELECT DISTINCT na FROM NozzleAssignment na LEFT JOIN FETCH na.nozzleTests "
+            + "WHERE na.salesmanShift.id = :shiftId")
+    List<NozzleAssignment> fetchNozzleTestsForShift(@Param("shiftId") UUID shiftId);
+
+    /**
+     * The shift an assignment belongs to, read without loading the assignment
+     * so that it can be locked fresh after its shift.
+     */
+    @Query("SELECT na.salesmanShift.id FROM NozzleAssignment na WHERE na.id = :id")
+    Optional<UUID> findShiftIdById(@Param("id") UUID id);
+
+    /**
+     * Load an assignment with a row lock held until the transaction ends. A
+     * locking read sees the latest committed row rather than the
+     * transaction's snapshot.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT na FROM NozzleAssignment na WHERE na.id = :id")
+    Optional<NozzleAssignment> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Lock the open assignments of a shift, in ID order. Called after the
+     * shift row is locked.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT na FROM NozzleAssignment na WHERE na.salesmanShift.id = :shiftId AND na.status = 'OPEN' "
+            + "ORDER BY na.id")
+    List<NozzleAssignment> findOpenAssignmentsByShiftIdForUpdate(@Param("shiftId") UUID shiftId);
+
+    /**
+     * Find the open assignments of a shift with nozzle, tank and salesman
+     * loaded, for closing them together.
+     */
+    @Query("SELECT na FROM NozzleAssignment na JOIN FETCH na.nozzle n LEFT JOIN FETCH n.tank "
+            + "JOIN FETCH na.salesman WHERE na.salesmanShift.id = :shiftId AND na.status = 'OPEN'")
+    List<NozzleAssignment> findOpenAssignmentsWithNozzleByShiftId(@Param("shiftId") UUID shiftId);
+
+    /**
+     * Find open assignments of the given nozzles with a locking read. Called
+     * after the nozzle rows are locked; a locking read sees the latest
+     * committed rows rather than the transaction's snapshot.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT na FROM NozzleAssignment na WHERE na.nozzle.id IN :nozzleIds AND na.status = 'OPEN'")
+    List<NozzleAssignment> findOpenAssignmentsByNozzleIdsForUpdate(@Param("nozzleIds") Collection<UUID> nozzleIds);
 }
@@ -1,16 +1,20 @@
 package com.reallink.pump.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.reallink.pump.entities.Nozzle;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface NozzleRepository extends JpaRepository<Nozzle, UUID> {
 
@@ -45,4 +49,21 @@ public interface NozzleRepository extends JpaRepository<Nozzle, UUID> {
     List<Nozzle> findByCompanyNameContainingIgnoreCase(String companyName);
 
     List<Nozzle> findByNozzleNameContainingIgnoreCase(String nozzleName);
+
+    /**
+     * Load a nozzle with a row lock held until the transaction ends. Assigning
+     * or releasing a nozzle locks its row first, so at most one transaction at a
+     * time can change which assignment holds it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM Nozzle n WHERE n.id = :id")
+    Optional<Nozzle> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Lock several nozzles, always in ID order so that concurrent bulk
+     * operations cannot deadlock on each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM Nozzle n WHERE n.id IN :ids ORDER BY n.id")
+    List<Nozzle> findAllByIdForUpdate(@Param("ids") Collection<UUID> ids);
 }
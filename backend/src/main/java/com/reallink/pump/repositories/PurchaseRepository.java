@@ -1,17 +1,25 @@
 package com.reallink.pump.repositories;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.reallink.pump.dto.response.SupplierLedgerPurchaseView;
 import com.reallink.pump.entities.Purchase;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface PurchaseRepository extends JpaRepository<Purchase, UUID> {
 
@@ -49,4 +57,19 @@ public interface PurchaseRepository extends JpaRepository<Purchase, UUID> {
             @Param("pumpMasterId") UUID pumpMasterId,
             @Param("fromDate") java.time.LocalDate fromDate,
             @Param("toDate") java.time.LocalDate toDate);
+
+    /**
+     * Purchases of a supplier in a date range, oldest first, read through a
+     * cursor. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p.id AS id, p.purchaseDate AS purchaseDate, p.invoiceNumber AS invoiceNumber, "
+            + "p.netAmount AS amount, p.entryBy AS entryBy FROM Purchase p "
+            + "WHERE p.supplier.id = :supplierId AND p.purchaseDate BETWEEN :fromDate AND :toDate "
+            + "ORDER BY p.purchaseDate, p.id")
+    Stream<SupplierLedgerPurchaseView> streamLedgerRows(@Param("supplierId") UUID supplierId,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    @Query("SELECT COALESCE(SUM(p.netAmount), 0) FROM Purchase p WHERE p.supplier.id = :supplierId AND p.purchaseDate < :date")
+    BigDecimal sumNetAmountBySupplierIdBeforeDate(@Param("supplierId") UUID supplierId, @Param("date") LocalDate date);
 }
@@ -87,4 +87,7 @@ public interface SalesmanBillPaymentRepository extends JpaRepository<SalesmanBil
     List<SalesmanBillPayment> findBySalesmanShiftIdOrderByPaymentDateDesc(@Param("shiftId") UUID shiftId);
 
     void deleteBySalesmanBill_Id(UUID salesmanBillId);
+
+    @Query("SELECT COALESCE(SUM(sbp.amount), 0) FROM SalesmanBillPayment sbp WHERE sbp.customer.id = :customerId AND sbp.paymentDate < :dateTime")
+    BigDecimal sumAmountByCustomerIdBefore(@Param("customerId") UUID customerId, @Param("dateTime") LocalDateTime dateTime);
 }
@@ -53,4 +53,7 @@ public interface SalesmanBillRepository extends JpaRepository<SalesmanBill, UUID
      * Find bills by nozzle (for reporting).
      */
     List<SalesmanBill> findByNozzleIdOrderByBillDateDesc(UUID nozzleId);
+
+    @Query("SELECT COALESCE(SUM(b.amount), 0) FROM SalesmanBill b WHERE b.customer.id = :customerId AND b.billDate < :date")
+    BigDecimal sumAmountByCustomerIdBeforeDate(@Param("customerId") UUID customerId, @Param("date") LocalDate date);
 }
@@ -1,17 +1,22 @@
 package com.reallink.pump.repositories;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.reallink.pump.dto.shift.ShiftTotalsView;
 import com.reallink.pump.entities.SalesmanShift;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface SalesmanShiftRepository extends JpaRepository<SalesmanShift, UUID> {
 
@@ -113,6 +118,14 @@ public interface SalesmanShiftRepository extends JpaRepository<SalesmanShift, UU
             + "AND s.status = 'OPEN' ORDER BY s.startDatetime DESC")
     List<SalesmanShift> findOpenShiftsByPumpMasterId(@Param("pumpMasterId") UUID pumpMasterId);
 
+    /**
+     * Find open shifts across all pumps, with salesman and pump loaded. Used to
+     * build the in-memory forecourt state at startup.
+     */
+    @Query("SELECT s FROM SalesmanShift s JOIN FETCH s.salesman JOIN FETCH s.pumpMaster "
+            + "WHERE s.status = 'OPEN'")
+    List<SalesmanShift> findAllOpenShiftsWithSalesman();
+
     /**
      * Find shifts requiring accounting (closed but accounting not done).
      */
@@ -133,4 +146,81 @@ public interface SalesmanShiftRepository extends JpaRepository<SalesmanShift, UU
             @Param("salesmanId") UUID salesmanId,
             @Param("pumpMasterId") UUID pumpMasterId
     );
+
+    /**
+     * Compute the totals of the given shifts (nozzle counts, fuel sales, credit,
+     * payments, expenses, test quantity) in one statement, one row per shift.
+     */
+    @Query("SELECT s.id AS shiftId, "
+            + "(SELECT COUNT(na) FROM NozzleAssignment na WHERE na.salesmanShift.id = s.id) AS nozzleCount, "
+            + "(SELECT COUNT(na) FROM NozzleAssignment na WHERE na.salesmanShift.id = s.id AND na.status = 'OPEN') AS openNozzleCount, "
+            + "(SELECT COALESCE(SUM(na.totalAmount), 0) FROM NozzleAssignment na WHERE na.salesmanShift.id = s.id) AS totalFuelSales, "
+            + "(SELECT COALESCE(SUM(b.netAmount), 0) FROM SalesmanBill b WHERE b.salesmanShift.id = s.id "
+            + "AND b.paymentType = com.reallink.pump.entities.PaymentType.CREDIT) AS totalCredit, "
+            + "(SELECT COALESCE(SUM(p.amount), 0) FROM SalesmanBillPayment p WHERE p.salesmanShift.id = s.id) AS totalPayments, "
+            + "(SELECT COALESCE(SUM(e.amount), 0) FROM Expense e WHERE e.salesmanShift.id = s.id) AS totalExpenses, "
+            + "(SELECT COALESCE(SUM(t.testQuantity), 0) FROM NozzleTest t WHERE t.salesmanShift.id = s.id) AS totalTestQuantity "
+            + "FROM SalesmanShift s WHERE s.id IN :shiftIds")
+    List<ShiftTotalsView> findShiftTotals(@Param("shiftIds") Collection<UUID> shiftIds);
+
+    /**
+     * Find shifts matching the optional filters, with the salesman loaded. All
+     * filtering, including the accounting status, happens in SQL.
+     */
+    @Query("SELECT s FROM SalesmanShift s JOIN FETCH s.salesman sm WHERE s.pumpMaster.id = :pumpMasterId "
+            + "AND (:salesmanId IS NULL OR sm.id = :salesmanId) "
+            + "AND (:status IS NULL OR s.status = :status) "
+            + "AND (:isAccountingDone IS NULL OR s.isAccountingDone = :isAccountingDone) "
+            + "AND s.startDatetime >= :fromDate AND s.startDatetime <= :toDate "
+            + "ORDER BY s.startDatetime DESC")
+    List<SalesmanShift> findByFilters(
+            @Param("pumpMasterId") UUID pumpMasterId,
+            @Param("salesmanId") UUID salesmanId,
+            @Param("status") SalesmanShift.ShiftStatus status,
+            @Param("isAccountingDone") Boolean isAccountingDone,
+            @Param("fromDate") LocalDateTime fromDate,
+            @Param("toDate") LocalDateTime toDate
+    );
+
+    // Shift document fetch plan. Each query join-fetches one collection of the
+    // same managed shift (one bag per query), so loading a full shift takes a
+    // fixed number of statements regardless of how many rows it has.
+    @Query("SELECT s FROM SalesmanShift s JOIN FETCH s.salesman JOIN FETCH s.pumpMaster "
+            + "LEFT JOIN FETCH s.accounting WHERE s.id = :shiftId")
+    Optional<SalesmanShift> findByIdWithHeader(@Param("shiftId") UUID shiftId);
+
+    @Query("SELECT s FROM SalesmanShift s LEFT JOIN FETCH s.nozzleAssignments na "
+            + "LEFT JOIN FETCH na.nozzle n LEFT JOIN FETCH n.tank t LEFT JOIN FETCH t.product "
+            + "LEFT JOIN FETCH na.salesman WHERE s.id = :shiftId")
+    Optional<SalesmanShift> fetchNozzleAssignments(@Param("shiftId") UUID shiftId);
+
+    @Query("SELECT s FROM SalesmanShift s LEFT JOIN FETCH s.creditBills b "
+            + "LEFT JOIN FETCH b.customer LEFT JOIN FETCH b.product WHERE s.id = :shiftId")
+    Optional<SalesmanShift> fetchCreditBills(@Param("shiftId") UUID shiftId);
+
+    @Query("SELECT s FROM SalesmanShift s LEFT JOIN FETCH s.payments p "
+            + "LEFT JOIN FETCH p.customer WHERE s.id = :shiftId")
+    Optional<SalesmanShift> fetchPayments(@Param("shiftId") UUID shiftId);
+
+    /**
+     * Load a shift with a row lock held until the transaction ends. Closing a
+     * shift or one of its nozzles locks the shift first, then the assignments,
+     * then the nozzles.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SalesmanShift s WHERE s.id = :id")
+    Optional<SalesmanShift> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Find a salesman's open shifts with a locking read. Called after the
+     * salesman's row is locked; a locking read sees the latest committed rows
+     * rather than the transaction's snapshot.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SalesmanShift s WHERE s.salesman.id = :salesmanId "
+            + "AND s.pumpMaster.id = :pumpMasterId AND s.status = 'OPEN'")
+    List<SalesmanShift> findOpenShiftsBySalesmanForUpdate(
+            @Param("salesmanId") UUID salesmanId,
+            @Param("pumpMasterId") UUID pumpMasterId
+    );
 }
@@ -1,17 +1,24 @@
 package com.reallink.pump.repositories;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.reallink.pump.dto.response.SupplierLedgerPaymentView;
 import com.reallink.pump.entities.SupplierPayment;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface SupplierPaymentRepository extends JpaRepository<SupplierPayment, UUID> {
 
@@ -37,4 +44,21 @@ public interface SupplierPaymentRepository extends JpaRepository<SupplierPayment
 
     @Query("SELECT COALESCE(SUM(sp.amount), 0) FROM SupplierPayment sp WHERE sp.pumpMaster.id = :pumpMasterId AND sp.paymentDate BETWEEN :startDate AND :endDate")
     java.math.BigDecimal findTotalPaymentsInPeriod(@Param("pumpMasterId") UUID pumpMasterId, @Param("startDate") java.time.LocalDateTime startDate, @Param("endDate") java.time.LocalDateTime endDate);
+
+    /**
+     * Payments to a supplier in a date-time range, oldest first, read through a
+     * cursor. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT sp.id AS id, sp.paymentDate AS paymentDate, sp.referenceNumber AS referenceNumber, "
+            + "sp.amount AS amount, sp.paymentMethod AS paymentMethod, sp.notes AS notes, "
+            + "p.id AS purchaseId, fp.id AS fuelPurchaseId, sp.entryBy AS entryBy "
+            + "FROM SupplierPayment sp LEFT JOIN sp.purchase p LEFT JOIN sp.fuelPurchase fp "
+            + "WHERE sp.supplier.id = :supplierId AND sp.paymentDate >= :fromDateTime AND sp.paymentDate < :toDateTime "
+            + "ORDER BY sp.paymentDate, sp.id")
+    Stream<SupplierLedgerPaymentView> streamLedgerRows(@Param("supplierId") UUID supplierId,
+            @Param("fromDateTime") LocalDateTime fromDateTime, @Param("toDateTime") LocalDateTime toDateTime);
+
+    @Query("SELECT COALESCE(SUM(sp.amount), 0) FROM SupplierPayment sp WHERE sp.supplier.id = :supplierId AND sp.paymentDate < :dateTime")
+    BigDecimal sumAmountBySupplierIdBefore(@Param("supplierId") UUID supplierId, @Param("dateTime") LocalDateTime dateTime);
 }
@@ -32,5 +32,15 @@ public interface TankTransactionRepository extends JpaRepository<TankTransaction
             + "FROM TankTransaction t WHERE t.tank.id = :tankId AND DATE(t.transactionDate) = :date")
     BigDecimal getDailyNetByTankIdAndDate(@Param("tankId") UUID tankId, @Param("date") LocalDate date);
 
+    /**
+     * Net volume per tank and day in a date-time range, as [tank id, date, net]
+     * rows.
+     */
+    @Query("SELECT t.tank.id, CAST(t.transactionDate AS LocalDate), "
+            + "SUM(CASE WHEN t.transactionType = com.reallink.pump.entities.TankTransaction.TransactionType.ADDITION THEN t.volume ELSE -t.volume END) "
+            + "FROM TankTransaction t WHERE t.transactionDate >= :fromDateTime AND t.transactionDate < :toDateTime "
+            + "GROUP BY t.tank.id, CAST(t.transactionDate AS LocalDate)")
+    List<Object[]> getDailyNets(@Param("fromDateTime") LocalDateTime fromDateTime, @Param("toDateTime") LocalDateTime toDateTime);
+
     List<TankTransaction> findByNozzleTest(com.reallink.pump.entities.NozzleTest nozzleTest);
 }
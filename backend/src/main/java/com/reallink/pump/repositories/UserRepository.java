@@ -5,12 +5,15 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.reallink.pump.entities.User;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
 
@@ -38,4 +41,13 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     @Query("SELECT COUNT(u) FROM User u WHERE u.pumpMaster.id = :pumpMasterId")
     long countByPumpMasterId(@Param("pumpMasterId") UUID pumpMasterId);
+
+    /**
+     * Load a user with a row lock held until the transaction ends. Starting a
+     * shift locks the salesman's row so the open-shift check and the insert
+     * cannot interleave with another start for the same salesman.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") UUID id);
 }
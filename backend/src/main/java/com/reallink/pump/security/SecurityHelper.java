@@ -7,6 +7,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import com.reallink.pump.config.JwtPrincipal;
 import com.reallink.pump.config.PumpSecurityContextHolder;
 import com.reallink.pump.entities.User;
 import com.reallink.pump.repositories.UserRepository;
@@ -40,9 +41,15 @@ public class SecurityHelper {
     }
 
     /**
-     * Get the current user's ID.
+     * Get the current user's ID. Taken from the verified token claims when
+     * available, so no user query is needed.
      */
     public UUID getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal
+                && principal.getUserId() != null) {
+            return principal.getUserId();
+        }
         return getCurrentUser().getId();
     }
 
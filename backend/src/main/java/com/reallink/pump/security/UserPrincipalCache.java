@@ -0,0 +1,137 @@
+package com.reallink.pump.security;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.reallink.pump.config.JwtConfig;
+import com.reallink.pump.entities.User;
+import com.reallink.pump.repositories.UserRepository;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded, per-node cache of the user state needed to authenticate a JWT
+ * (username, pump, role, enabled flag). A user is loaded from the database at
+ * most once until an update, delete or password change invalidates the entry,
+ * so regular requests authenticate without any user query.
+ *
+ * Invalidation only reaches the node that made the change, so entries also
+ * expire after the access token lifetime ({@code jwt.expiration}). A change
+ * made through another node is therefore seen within one token lifetime.
+ */
+@Component
+@Slf4j
+public class UserPrincipalCache {
+
+    private final UserRepository userRepository;
+    private final Map<UUID, CachedUser> cache;
+    private final long ttlNanos;
+
+    public UserPrincipalCache(UserRepository userRepository, JwtConfig jwtConfig) {
+        this.userRepository = userRepository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(jwtConfig.getExpiration());
+        int maxSize = jwtConfig.getPrincipalCacheSize();
+        // Access-ordered LinkedHashMap gives LRU eviction once the bound is reached
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedUser> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    /**
+     * Get the cached state for a user, loading it on a miss or once the entry
+     * has expired. Returns null if the user no longer exists.
+     */
+    public CachedUser get(UUID userId) {
+        if (userId == null) {
+            return null;
+        }
+        CachedUser cached = cache.get(userId);
+        if (cached != null && System.nanoTime() - cached.getLoadedAt() < ttlNanos) {
+            return cached;
+        }
+        return load(userId);
+    }
+
+    /**
+     * Load a user's state from the database, replacing any cached entry.
+     * Returns null if the user no longer exists.
+     */
+    public CachedUser reload(UUID userId) {
+        return userId == null ? null : load(userId);
+    }
+
+    private CachedUser load(UUID userId) {
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            cache.remove(userId);
+            return null;
+        }
+        CachedUser loaded = new CachedUser(
+                user.getId(),
+                user.getUsername(),
+                user.getPumpMaster().getId(),
+                user.getRole().getRoleName(),
+                Boolean.TRUE.equals(user.getEnabled()));
+        cache.put(userId, loaded);
+        return loaded;
+    }
+
+    /**
+     * Drop a user's entry. When called inside a transaction the entry is dropped
+     * again after commit, so a concurrent request cannot re-cache the
+     * pre-commit state.
+     */
+    public void invalidate(UUID userId) {
+        if (userId == null) {
+            return;
+        }
+        cache.remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.remove(userId);
+                }
+            });
+        }
+        log.debug("Invalidated cached principal for user {}", userId);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Snapshot of the user fields that authentication depends on.
+     */
+    @Getter
+    public static class CachedUser {
+
+        private final UUID userId;
+        private final String username;
+        private final UUID pumpMasterId;
+        private final String role;
+        private final boolean enabled;
+        private final long loadedAt;
+
+        public CachedUser(UUID userId, String username, UUID pumpMasterId, String role, boolean enabled) {
+            this.userId = userId;
+            this.username = username;
+            this.pumpMasterId = pumpMasterId;
+            this.role = role;
+            this.enabled = enabled;
+            this.loadedAt = System.nanoTime();
+        }
+    }
+}
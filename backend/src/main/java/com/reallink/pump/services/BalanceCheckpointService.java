@@ -0,0 +1,155 @@
+package com.reallink.pump.services;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reallink.pump.repositories.DailyClosingBalanceRepository;
+import com.reallink.pump.repositories.DailyTankLevelRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Month-end checkpoints of the cumulative daily net of every bank account and
+ * tank. A balance or level is read as the latest checkpoint plus the daily
+ * nets after it, so reads cost one month of rows at most instead of the full
+ * history.
+ *
+ * Checkpoints are created on the first of each month and at startup for any
+ * month end that is missing. Writes to a day that a checkpoint already covers
+ * adjust the checkpoint in the same transaction; bank accounts and tanks
+ * both do this through {@link DailyNetLedger}.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@Slf4j
+public class BalanceCheckpointService {
+
+    // Each new checkpoint is the previous checkpoint plus the daily nets after
+    // it. INSERT ... SELECT reads the daily rows under shared locks, so a
+    // concurrent back-dated write is either included or sees the new row.
+    private static final String CREATE_BANK_CHECKPOINTS_SQL
+            = "INSERT IGNORE INTO pump_bank_balance_checkpoint "
+            + "(id, bank_account_id, period_end, cumulative_net, created_at, updated_at, version, entry_by) "
+            + "SELECT UUID_TO_BIN(UUID()), ba.id, ?, COALESCE(cp.cumulative_net, 0) + COALESCE(SUM(d.daily_net), 0), "
+            + "NOW(), NOW(), 0, 'system' "
+            + "FROM pump_bank_account_master ba "
+            + "LEFT JOIN pump_bank_balance_checkpoint cp ON cp.bank_account_id = ba.id AND cp.period_end = "
+            + "(SELECT MAX(c.period_end) FROM pump_bank_balance_checkpoint c WHERE c.bank_account_id = ba.id AND c.period_end < ?) "
+            + "LEFT JOIN pump_daily_closing_balance_master d ON d.bank_account_id = ba.id AND d.date <= ? "
+            + "AND (cp.id IS NULL OR d.date > cp.period_end) "
+            + "GROUP BY ba.id, cp.cumulative_net";
+
+    private static final String CREATE_TANK_CHECKPOINTS_SQL
+            = "INSERT IGNORE INTO pump_tank_level_checkpoint "
+            + "(id, tank_id, period_end, cumulative_net, created_at, updated_at, version, entry_by) "
+            + "SELECT UUID_TO_BIN(UUID()), t.id, ?, COALESCE(cp.cumulative_net, 0) + COALESCE(SUM(d.daily_net), 0), "
+            + "NOW(), NOW(), 0, 'system' "
+            + "FROM pump_tank_master t "
+            + "LEFT JOIN pump_tank_level_checkpoint cp ON cp.tank_id = t.id AND cp.period_end = "
+            + "(SELECT MAX(c.period_end) FROM pump_tank_level_checkpoint c WHERE c.tank_id = t.id AND c.period_end < ?) "
+            + "LEFT JOIN pump_daily_tank_level_master d ON d.tank_id = t.id AND d.date <= ? "
+            + "AND (cp.id IS NULL OR d.date > cp.period_end) "
+            + "GROUP BY t.id, cp.cumulative_net";
+
+    private static final String LATEST_BANK_CHECKPOINT_SQL
+            = "SELECT MAX(period_end) FROM pump_bank_balance_checkpoint";
+    private static final String FIRST_BANK_DAY_SQL
+            = "SELECT MIN(date) FROM pump_daily_closing_balance_master";
+    private static final String LATEST_TANK_CHECKPOINT_SQL
+            = "SELECT MAX(period_end) FROM pump_tank_level_checkpoint";
+    private static final String FIRST_TANK_DAY_SQL
+            = "SELECT MIN(date) FROM pump_daily_tank_level_master";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DailyClosingBalanceRepository dailyClosingBalanceRepository;
+    private final DailyTankLevelRepository dailyTankLevelRepository;
+
+    /**
+     * Create every month-end checkpoint missing up to the last completed month,
+     * starting after the latest existing checkpoint (or at the first daily row
+     * if there is none). Months missed while the application was down are
+     * filled in oldest first, so each one builds on the one before.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 15 0 1 * *")
+    @Transactional
+    public void createMonthEndCheckpoints() {
+        YearMonth lastMonth = YearMonth.now().minusMonths(1);
+        int accounts = createCheckpoints(CREATE_BANK_CHECKPOINTS_SQL,
+                firstMissingMonth(LATEST_BANK_CHECKPOINT_SQL, FIRST_BANK_DAY_SQL), lastMonth);
+        int tanks = createCheckpoints(CREATE_TANK_CHECKPOINTS_SQL,
+                firstMissingMonth(LATEST_TANK_CHECKPOINT_SQL, FIRST_TANK_DAY_SQL), lastMonth);
+        log.info("Balance checkpoints up to {}: {} bank account(s), {} tank(s) added",
+                lastMonth.atEndOfMonth(), accounts, tanks);
+    }
+
+    /**
+     * Create the checkpoints of every month end from {@code from} to
+     * {@code to} for every bank account and tank that does not have them yet.
+     * Returns the number of bank account and tank checkpoints added.
+     */
+    @Transactional
+    public int createCheckpoints(YearMonth from, YearMonth to) {
+        return createCheckpoints(CREATE_BANK_CHECKPOINTS_SQL, from, to)
+                + createCheckpoints(CREATE_TANK_CHECKPOINTS_SQL, from, to);
+    }
+
+    private int createCheckpoints(String sql, YearMonth from, YearMonth to) {
+        int added = 0;
+        for (YearMonth month = from; month != null && !month.isAfter(to); month = month.plusMonths(1)) {
+            Date periodEnd = Date.valueOf(month.atEndOfMonth());
+            added += jdbcTemplate.update(sql, periodEnd, periodEnd, periodEnd);
+        }
+        return added;
+    }
+
+    private YearMonth firstMissingMonth(String latestCheckpointSql, String firstDaySql) {
+        LocalDate latest = jdbcTemplate.queryForObject(latestCheckpointSql, LocalDate.class);
+        if (latest != null) {
+            return YearMonth.from(latest).plusMonths(1);
+        }
+        LocalDate first = jdbcTemplate.queryForObject(firstDaySql, LocalDate.class);
+        return first != null ? YearMonth.from(first) : null;
+    }
+
+    // ============================================
+    // Batch reads
+    // ============================================
+    public Map<UUID, BigDecimal> getBankAccountNets(Collection<UUID> bankAccountIds, LocalDate date) {
+        if (bankAccountIds.isEmpty()) {
+            return Map.of();
+        }
+        return toMap(dailyClosingBalanceRepository.getCumulativeNetsUpToDate(bankAccountIds, date));
+    }
+
+    public Map<UUID, BigDecimal> getTankNets(Collection<UUID> tankIds, LocalDate date) {
+        if (tankIds.isEmpty()) {
+            return Map.of();
+        }
+        return toMap(dailyTankLevelRepository.getCumulativeNetsUpToDate(tankIds, date));
+    }
+
+    private static Map<UUID, BigDecimal> toMap(List<Object[]> rows) {
+        Map<UUID, BigDecimal> nets = new HashMap<>();
+        for (Object[] row : rows) {
+            nets.put((UUID) row[0], (BigDecimal) row[1]);
+        }
+        return nets;
+    }
+}
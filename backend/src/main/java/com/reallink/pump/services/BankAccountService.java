@@ -3,6 +3,7 @@ package com.reallink.pump.services;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
@@ -36,12 +37,16 @@ public class BankAccountService {
     private final PumpInfoMasterRepository pumpInfoMasterRepository;
     private final BankAccountMapper mapper;
     private final DailyClosingBalanceRepository dailyClosingBalanceRepository;
+    private final BalanceCheckpointService balanceCheckpointService;
 
     public List<BankAccountResponse> getAll() {
-        return repository.findAll().stream()
+        List<BankAccount> bankAccounts = repository.findAll();
+        Map<UUID, BigDecimal> nets = balanceCheckpointService.getBankAccountNets(
+                bankAccounts.stream().map(BankAccount::getId).toList(), LocalDate.now());
+        return bankAccounts.stream()
                 .map(bankAccount -> {
                     BankAccountResponse response = mapper.toResponse(bankAccount);
-                    setCurrentBalance(response, bankAccount);
+                    setCurrentBalance(response, bankAccount, nets.get(bankAccount.getId()));
                     return response;
                 })
                 .toList();
@@ -165,18 +170,22 @@ public class BankAccountService {
     }
 
     public BigDecimal getOpeningBalance(UUID bankAccountId, LocalDate date) {
-        // Get the cumulative net up to the previous day, add to account's opening balance
-        BigDecimal cumulativeNetUpToPreviousDay = dailyClosingBalanceRepository.getCumulativeNetUpToDate(bankAccountId, date.minusDays(1));
-        // Assuming we have access to the bank account's opening balance
         BankAccount bankAccount = repository.findById(bankAccountId).orElse(null);
         if (bankAccount == null) {
             return BigDecimal.ZERO;
         }
+        // Get the cumulative net up to the previous day, add to account's opening balance
+        BigDecimal cumulativeNetUpToPreviousDay = dailyClosingBalanceRepository.getCumulativeNetUpToDate(bankAccountId, date.minusDays(1));
         return bankAccount.getOpeningBalance().add(cumulativeNetUpToPreviousDay);
     }
 
     private void setCurrentBalance(BankAccountResponse response, BankAccount bankAccount) {
-        BigDecimal cumulativeNetUpToToday = dailyClosingBalanceRepository.getCumulativeNetUpToDate(bankAccount.getId(), LocalDate.now());
-        response.setCurrentBalance(bankAccount.getOpeningBalance().add(cumulativeNetUpToToday));
+        setCurrentBalance(response, bankAccount,
+                dailyClosingBalanceRepository.getCumulativeNetUpToDate(bankAccount.getId(), LocalDate.now()));
+    }
+
+    private void setCurrentBalance(BankAccountResponse response, BankAccount bankAccount, BigDecimal cumulativeNetUpToToday) {
+        BigDecimal net = cumulativeNetUpToToday != null ? cumulativeNetUpToToday : BigDecimal.ZERO;
+        response.setCurrentBalance(bankAccount.getOpeningBalance().add(net));
     }
 }
@@ -0,0 +1,81 @@
+package com.reallink.pump.services;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.reallink.pump.entities.BankTransaction;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Keeps the daily closing balance in step with bank transactions. The amount a
+ * transaction contributes is remembered when it is loaded or written, so an
+ * update moves exactly the old contribution out and the new one in, and a
+ * delete takes its contribution back out.
+ *
+ * Callbacks run inside Hibernate's flush, so the delta is written with plain
+ * JDBC on the same transaction rather than through the session.
+ */
+public class BankTransactionBalanceListener {
+
+    private final ObjectProvider<DailyClosingBalanceService> dailyClosingBalanceService;
+
+    public BankTransactionBalanceListener(ObjectProvider<DailyClosingBalanceService> dailyClosingBalanceService) {
+        this.dailyClosingBalanceService = dailyClosingBalanceService;
+    }
+
+    @PostLoad
+    public void onLoad(BankTransaction transaction) {
+        remember(transaction);
+    }
+
+    @PostPersist
+    public void onPersist(BankTransaction transaction) {
+        apply(transaction, 1);
+        remember(transaction);
+    }
+
+    @PostUpdate
+    public void onUpdate(BankTransaction transaction) {
+        BankTransaction.AppliedBalance previous = transaction.getAppliedBalance();
+        BankTransaction.AppliedBalance current = BankTransaction.AppliedBalance.of(transaction);
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        if (previous != null) {
+            service().applyDelta(previous.getBankAccountId(), previous.getDate(), previous.getNet().negate());
+        }
+        apply(transaction, 1);
+        remember(transaction);
+    }
+
+    @PostRemove
+    public void onRemove(BankTransaction transaction) {
+        BankTransaction.AppliedBalance previous = transaction.getAppliedBalance();
+        if (previous != null) {
+            service().applyDelta(previous.getBankAccountId(), previous.getDate(), previous.getNet().negate());
+        } else {
+            apply(transaction, -1);
+        }
+        transaction.setAppliedBalance(null);
+    }
+
+    private void apply(BankTransaction transaction, int sign) {
+        BankTransaction.AppliedBalance balance = BankTransaction.AppliedBalance.of(transaction);
+        BigDecimal delta = sign < 0 ? balance.getNet().negate() : balance.getNet();
+        service().applyDelta(balance.getBankAccountId(), balance.getDate(), delta);
+    }
+
+    private void remember(BankTransaction transaction) {
+        transaction.setAppliedBalance(BankTransaction.AppliedBalance.of(transaction));
+    }
+
+    private DailyClosingBalanceService service() {
+        return dailyClosingBalanceService.getObject();
+    }
+}
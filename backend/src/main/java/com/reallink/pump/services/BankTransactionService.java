@@ -17,12 +17,10 @@ import com.reallink.pump.dto.response.BankTransactionResponse;
 import com.reallink.pump.entities.BankAccount;
 import com.reallink.pump.entities.BankTransaction;
 import com.reallink.pump.entities.BankTransaction.TransactionType;
-import com.reallink.pump.entities.DailyClosingBalance;
 import com.reallink.pump.exception.PumpBusinessException;
 import com.reallink.pump.mapper.BankTransactionMapper;
 import com.reallink.pump.repositories.BankAccountRepository;
 import com.reallink.pump.repositories.BankTransactionRepository;
-import com.reallink.pump.repositories.DailyClosingBalanceRepository;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -37,7 +35,6 @@ public class BankTransactionService {
     private final BankTransactionRepository transactionRepository;
     private final BankAccountRepository bankAccountRepository;
     private final BankTransactionMapper mapper;
-    private final DailyClosingBalanceRepository dailyClosingBalanceRepository;
 
     public List<BankTransactionResponse> getTransactionsByBankAccountId(@NotNull UUID bankAccountId) {
         List<BankTransaction> transactions = transactionRepository.findByBankAccountIdOrderByTransactionDateDesc(bankAccountId);
@@ -72,7 +69,6 @@ public class BankTransactionService {
             transaction.setTransactionDate(LocalDateTime.now());
         }
         BankTransaction saved = transactionRepository.save(transaction);
-        updateDailyClosingBalance(saved);
         return mapper.toResponse(saved);
     }
 
@@ -90,18 +86,6 @@ public class BankTransactionService {
             transaction.setTransactionDate(LocalDateTime.now());
         }
         BankTransaction saved = transactionRepository.save(transaction);
-        updateDailyClosingBalance(saved);
         return mapper.toResponse(saved);
     }
-
-    private void updateDailyClosingBalance(BankTransaction transaction) {
-        LocalDate date = transaction.getTransactionDate().toLocalDate();
-        BigDecimal dailyNet = transactionRepository.getDailyNetByBankAccountIdAndDate(transaction.getBankAccount().getId(), date);
-        DailyClosingBalance dailyBalance = dailyClosingBalanceRepository.findByBankAccount_IdAndDate(transaction.getBankAccount().getId(), date)
-                .orElse(new DailyClosingBalance());
-        dailyBalance.setBankAccount(transaction.getBankAccount());
-        dailyBalance.setDate(date);
-        dailyBalance.setDailyNet(dailyNet);
-        dailyClosingBalanceRepository.save(dailyBalance);
-    }
 }
@@ -60,6 +60,8 @@ public class BillService {
     private final BillMapper mapper;
     private final CustomerBillPaymentMapper customerBillPaymentMapper;
     private final ProductService productService;
+    private final CustomerReceivableService customerReceivableService;
+    private final DashboardFactService dashboardFactService;
 
     public List<BillResponse> getAll() {
         return repository.findAll().stream()
@@ -132,6 +134,17 @@ public class BillService {
         // Calculate totals
         calculateBillTotals(bill, new ArrayList<>(bill.getBillItems()));
 
+        // Reject the bill if what stays unpaid takes the customer over the credit limit
+        BigDecimal unpaid = bill.getNetAmount();
+        if (request.getPayments() != null) {
+            for (CreateCustomerBillPaymentRequest paymentRequest : request.getPayments()) {
+                if (paymentRequest.getAmount() != null) {
+                    unpaid = unpaid.subtract(paymentRequest.getAmount());
+                }
+            }
+        }
+        customerReceivableService.enforceCreditLimit(customer, unpaid);
+
         // Save bill with all related entities cascaded
         Bill savedBill = repository.save(bill);
 
@@ -139,8 +152,10 @@ public class BillService {
         if (request.getPayments() != null && !request.getPayments().isEmpty()) {
             for (CreateCustomerBillPaymentRequest paymentRequest : request.getPayments()) {
                 createPaymentForBill(savedBill, paymentRequest);
+                dashboardFactService.markDirty(savedBill.getPumpMaster().getId(), paymentRequest.getPaymentDate());
             }
         }
+        dashboardFactService.markDirty(savedBill.getPumpMaster().getId(), savedBill.getCreatedAt());
 
         return mapper.toResponse(savedBill);
     }
@@ -227,6 +242,7 @@ public class BillService {
         }
 
         Bill updatedBill = repository.save(existingBill);
+        dashboardFactService.markDirty(updatedBill.getPumpMaster().getId(), updatedBill.getCreatedAt());
         return mapper.toResponse(updatedBill);
     }
 
@@ -245,6 +261,13 @@ public class BillService {
             }
         }
 
+        // The bill's payments are removed with it
+        UUID pumpMasterId = bill.getPumpMaster().getId();
+        dashboardFactService.markDirty(pumpMasterId, bill.getCreatedAt());
+        for (CustomerBillPayment payment : bill.getCustomerBillPayments()) {
+            dashboardFactService.markDirty(pumpMasterId, payment.getPaymentDate());
+        }
+
         repository.deleteById(id);
     }
 
@@ -281,6 +304,7 @@ public class BillService {
         calculateBillTotals(bill, remainingItems);
 
         repository.save(bill);
+        dashboardFactService.markDirty(bill.getPumpMaster().getId(), bill.getCreatedAt());
     }
 
     public Long getNextBillNo(@NotNull UUID pumpMasterId) {
@@ -373,6 +397,7 @@ public class BillService {
         calculateBillTotals(bill, new ArrayList<>(bill.getBillItems()));
 
         repository.save(bill);
+        dashboardFactService.markDirty(bill.getPumpMaster().getId(), bill.getCreatedAt());
 
         return mapper.toResponse(savedItem);
     }
@@ -420,6 +445,7 @@ public class BillService {
         calculateBillTotals(bill, new ArrayList<>(bill.getBillItems()));
 
         repository.save(bill);
+        dashboardFactService.markDirty(bill.getPumpMaster().getId(), bill.getCreatedAt());
 
         return mapper.toResponse(savedItem);
     }
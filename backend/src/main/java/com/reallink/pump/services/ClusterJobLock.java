@@ -0,0 +1,76 @@
+package com.reallink.pump.services;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs background jobs on one node at a time. A job holds a MySQL named lock
+ * ({@code GET_LOCK}) on a connection of its own for as long as it runs, commit
+ * included, so another node that starts the same job while it runs skips it
+ * instead of applying the same corrections twice. The server releases the
+ * lock if the holding connection dies.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterJobLock {
+
+    private final DataSource dataSource;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Run a job in a new transaction unless another node is running a job
+     * under the same name. Returns false if the job was skipped.
+     */
+    public boolean runExclusively(String name, Runnable job) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!acquire(connection, name)) {
+                log.info("Skipping {}: already running on another node", name);
+                return false;
+            }
+            try {
+                TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                transaction.executeWithoutResult(status -> job.run());
+                return true;
+            } finally {
+                release(connection, name);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not take the cluster lock for " + name, e);
+        }
+    }
+
+    private static boolean acquire(Connection connection, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            statement.setString(1, lockName(name));
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void release(Connection connection, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, lockName(name));
+            statement.execute();
+        }
+    }
+
+    // Named locks are server-wide, so prefix ours to keep them apart from other applications' locks
+    private static String lockName(String name) {
+        return "pump." + name;
+    }
+}
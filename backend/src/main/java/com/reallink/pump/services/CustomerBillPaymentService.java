@@ -45,6 +45,7 @@ public class CustomerBillPaymentService {
     private final BankAccountRepository bankAccountRepository;
     private final PumpInfoMasterRepository pumpInfoMasterRepository;
     private final CustomerBillPaymentMapper mapper;
+    private final DashboardFactService dashboardFactService;
 
     public List<CustomerBillPaymentResponse> getAll() {
         return repository.findAll().stream()
@@ -167,6 +168,7 @@ public class CustomerBillPaymentService {
 
         // Save payment (bank transaction will be saved via cascade)
         CustomerBillPayment savedPayment = repository.save(payment);
+        dashboardFactService.markDirty(pumpMaster.getId(), savedPayment.getPaymentDate());
 
         return mapper.toResponse(savedPayment);
     }
@@ -178,6 +180,9 @@ public class CustomerBillPaymentService {
             throw new PumpBusinessException("PAYMENT_NOT_FOUND", "Customer bill payment with ID " + id + " not found");
         }
 
+        // The old pump and day lose the payment if either changes
+        dashboardFactService.markDirty(existingPayment.getPumpMaster().getId(), existingPayment.getPaymentDate());
+
         // Validate updated entities if provided
         if (request.getPumpMasterId() != null) {
             PumpInfoMaster pumpMaster = pumpInfoMasterRepository.findById(request.getPumpMasterId()).orElse(null);
@@ -227,6 +232,7 @@ public class CustomerBillPaymentService {
         }
 
         CustomerBillPayment savedPayment = repository.save(existingPayment);
+        dashboardFactService.markDirty(savedPayment.getPumpMaster().getId(), savedPayment.getPaymentDate());
         return mapper.toResponse(savedPayment);
     }
 
@@ -237,6 +243,7 @@ public class CustomerBillPaymentService {
             throw new PumpBusinessException("PAYMENT_NOT_FOUND", "Customer bill payment with ID " + id + " not found");
         }
         repository.delete(payment); // Bank transaction will be deleted via cascade
+        dashboardFactService.markDirty(payment.getPumpMaster().getId(), payment.getPaymentDate());
     }
 
     private BankTransaction createBankTransaction(CreateCustomerBillPaymentRequest request, BankAccount bankAccount, Bill bill) {
@@ -0,0 +1,237 @@
+package com.reallink.pump.services;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.annotation.Validated;
+
+import com.reallink.pump.dto.response.CustomerLedgerEntryResponse;
+import com.reallink.pump.dto.response.CustomerLedgerResponse;
+import com.reallink.pump.entities.Customer;
+import com.reallink.pump.exception.PumpBusinessException;
+import com.reallink.pump.repositories.BillRepository;
+import com.reallink.pump.repositories.CustomerBillPaymentRepository;
+import com.reallink.pump.repositories.CustomerRepository;
+import com.reallink.pump.repositories.SalesmanBillPaymentRepository;
+import com.reallink.pump.repositories.SalesmanBillRepository;
+import com.reallink.pump.util.UuidBytes;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Customer ledger built in the database: bills, salesman bills, customer
+ * payments and salesman payments are merged, ordered and given a running
+ * balance in one query, and returned a page at a time.
+ *
+ * Every payment is its own entry on its payment date, including payments
+ * linked to a bill, so the balance on any day only depends on what happened
+ * up to that day.
+ */
+@Service
+@Validated
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class CustomerLedgerService {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    // Entries are ordered by (entry_date, id); the running net is computed over
+    // the whole range before the page is cut, so every page has true balances
+    private static final String LEDGER_SQL
+            = "WITH entries AS ("
+            + " SELECT b.id, 'BILL' AS entry_type, CAST(b.bill_date AS DATETIME) AS entry_date,"
+            + " CAST(b.bill_no AS CHAR) AS reference_number, b.net_amount AS debit, 0 AS credit,"
+            + " NULL AS bill_id, NULL AS payment_method, NULL AS notes, b.entry_by"
+            + " FROM pump_bill_master b"
+            + " WHERE b.customer_id = :customerId AND b.bill_date BETWEEN :fromDate AND :toDate"
+            + " UNION ALL"
+            + " SELECT sb.id, 'SALESMAN_BILL', CAST(sb.bill_date AS DATETIME),"
+            + " CAST(sb.bill_no AS CHAR), sb.amount, 0,"
+            + " NULL, NULL, NULL, sb.entry_by"
+            + " FROM pump_salesman_bill_master sb"
+            + " WHERE sb.customer_id = :customerId AND sb.bill_date BETWEEN :fromDate AND :toDate"
+            + " UNION ALL"
+            + " SELECT p.id, 'PAYMENT', p.payment_date,"
+            + " p.reference_number, 0, p.amount,"
+            + " p.bill_id, p.payment_method, p.notes, p.entry_by"
+            + " FROM pump_customer_bill_payment_master p"
+            + " WHERE p.customer_id = :customerId AND p.payment_date >= :fromDateTime AND p.payment_date < :toDateTime"
+            + " UNION ALL"
+            + " SELECT sp.id, 'SALESMAN_PAYMENT', sp.payment_date,"
+            + " sp.reference_number, 0, sp.amount,"
+            + " sp.salesman_bill_id, sp.payment_method, sp.notes, sp.entry_by"
+            + " FROM pump_salesman_bill_payment_master sp"
+            + " WHERE sp.customer_id = :customerId AND sp.payment_date >= :fromDateTime AND sp.payment_date < :toDateTime"
+            + "), ledger AS ("
+            + " SELECT e.*, SUM(e.debit - e.credit) OVER (ORDER BY e.entry_date, e.id ROWS UNBOUNDED PRECEDING) AS running_net"
+            + " FROM entries e"
+            + ")"
+            + " SELECT * FROM ledger"
+            + " WHERE :afterDate IS NULL OR entry_date > :afterDate OR (entry_date = :afterDate AND id > :afterId)"
+            + " ORDER BY entry_date, id"
+            + " LIMIT :limit";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final CustomerRepository customerRepository;
+    private final BillRepository billRepository;
+    private final SalesmanBillRepository salesmanBillRepository;
+    private final CustomerBillPaymentRepository customerBillPaymentRepository;
+    private final SalesmanBillPaymentRepository salesmanBillPaymentRepository;
+    private final StreamingQueryTemplate streamingQueryTemplate;
+
+    /**
+     * Receives a streamed ledger: the opening balance first, then each entry
+     * in date order, then the closing balance.
+     */
+    public interface LedgerSink {
+
+        void opening(BigDecimal openingBalance);
+
+        void entry(CustomerLedgerEntryResponse entry);
+
+        void closing(BigDecimal closingBalance);
+    }
+
+    /**
+     * Get one page of a customer's ledger between two dates. The first page is
+     * requested without {@code afterDate}/{@code afterId}; later pages pass the
+     * cursor returned with the previous page.
+     */
+    public CustomerLedgerResponse getLedger(
+            @NotNull UUID customerId,
+            @NotNull UUID pumpMasterId,
+            @NotNull LocalDate fromDate,
+            @NotNull LocalDate toDate,
+            LocalDateTime afterDate,
+            UUID afterId,
+            Integer limit) {
+        if (fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("From date must not be after to date");
+        }
+        if ((afterDate == null) != (afterId == null)) {
+            throw new IllegalArgumentException("afterDate and afterId must be given together");
+        }
+        Customer customer = customerRepository.findById(customerId).orElse(null);
+        if (customer == null || !customer.getPumpMaster().getId().equals(pumpMasterId)) {
+            throw new PumpBusinessException("CUSTOMER_NOT_FOUND", "Customer with ID " + customerId + " not found");
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        BigDecimal openingBalance = getBalanceBefore(customer, fromDate);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("customerId", UuidBytes.toBytes(customerId))
+                .addValue("fromDate", fromDate)
+                .addValue("toDate", toDate)
+                .addValue("fromDateTime", fromDate.atStartOfDay())
+                .addValue("toDateTime", toDate.plusDays(1).atStartOfDay())
+                .addValue("afterDate", afterDate != null ? Timestamp.valueOf(afterDate) : null)
+                .addValue("afterId", afterId != null ? UuidBytes.toBytes(afterId) : null)
+                // One extra row tells whether another page follows
+                .addValue("limit", pageSize + 1);
+
+        List<CustomerLedgerEntryResponse> entries = jdbcTemplate.query(LEDGER_SQL, params,
+                (rs, rowNum) -> toEntry(rs, openingBalance));
+
+        boolean hasMore = entries.size() > pageSize;
+        if (hasMore) {
+            entries = entries.subList(0, pageSize);
+        }
+        CustomerLedgerEntryResponse last = entries.isEmpty() ? null : entries.get(entries.size() - 1);
+
+        return CustomerLedgerResponse.builder()
+                .customerId(customerId)
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .openingBalance(openingBalance)
+                .entries(entries)
+                .hasMore(hasMore)
+                .nextAfterDate(hasMore ? last.getDate() : null)
+                .nextAfterId(hasMore ? last.getId() : null)
+                .build();
+    }
+
+    /**
+     * Stream a customer's whole ledger between two dates into a sink, reading
+     * the entries through a forward-only cursor. Validation happens before the
+     * sink is first called, so a failed request writes nothing.
+     */
+    public void streamLedger(
+            @NotNull UUID customerId,
+            @NotNull UUID pumpMasterId,
+            @NotNull LocalDate fromDate,
+            @NotNull LocalDate toDate,
+            @NotNull LedgerSink sink) {
+        if (fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("From date must not be after to date");
+        }
+        Customer customer = customerRepository.findById(customerId).orElse(null);
+        if (customer == null || !customer.getPumpMaster().getId().equals(pumpMasterId)) {
+            throw new PumpBusinessException("CUSTOMER_NOT_FOUND", "Customer with ID " + customerId + " not found");
+        }
+
+        BigDecimal openingBalance = getBalanceBefore(customer, fromDate);
+        sink.opening(openingBalance);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("customerId", UuidBytes.toBytes(customerId))
+                .addValue("fromDate", fromDate)
+                .addValue("toDate", toDate)
+                .addValue("fromDateTime", fromDate.atStartOfDay())
+                .addValue("toDateTime", toDate.plusDays(1).atStartOfDay())
+                .addValue("afterDate", null)
+                .addValue("afterId", null)
+                .addValue("limit", Long.MAX_VALUE);
+
+        BigDecimal[] balance = {openingBalance};
+        streamingQueryTemplate.stream(LEDGER_SQL, params, rs -> {
+            CustomerLedgerEntryResponse entry = toEntry(rs, openingBalance);
+            balance[0] = entry.getBalance();
+            sink.entry(entry);
+        });
+        sink.closing(balance[0]);
+    }
+
+    /**
+     * Customer's opening balance plus all bills minus all payments dated before
+     * the given date.
+     */
+    private BigDecimal getBalanceBefore(Customer customer, LocalDate date) {
+        UUID customerId = customer.getId();
+        BigDecimal bills = billRepository.sumNetAmountByCustomerIdBeforeDate(customerId, date)
+                .add(salesmanBillRepository.sumAmountByCustomerIdBeforeDate(customerId, date));
+        BigDecimal payments = customerBillPaymentRepository.sumAmountByCustomerIdBefore(customerId, date.atStartOfDay())
+                .add(salesmanBillPaymentRepository.sumAmountByCustomerIdBefore(customerId, date.atStartOfDay()));
+        BigDecimal openingBalance = customer.getOpeningBalance() != null ? customer.getOpeningBalance() : BigDecimal.ZERO;
+        return openingBalance.add(bills).subtract(payments);
+    }
+
+    private static CustomerLedgerEntryResponse toEntry(ResultSet rs, BigDecimal openingBalance) throws SQLException {
+        byte[] billId = rs.getBytes("bill_id");
+        return CustomerLedgerEntryResponse.builder()
+                .id(UuidBytes.fromBytes(rs.getBytes("id")))
+                .entryType(rs.getString("entry_type"))
+                .date(rs.getTimestamp("entry_date").toLocalDateTime())
+                .referenceNumber(rs.getString("reference_number"))
+                .debitAmount(rs.getBigDecimal("debit"))
+                .creditAmount(rs.getBigDecimal("credit"))
+                .balance(openingBalance.add(rs.getBigDecimal("running_net")))
+                .billId(billId != null ? UuidBytes.fromBytes(billId) : null)
+                .paymentMethod(rs.getString("payment_method"))
+                .notes(rs.getString("notes"))
+                .entryBy(rs.getString("entry_by"))
+                .build();
+    }
+}
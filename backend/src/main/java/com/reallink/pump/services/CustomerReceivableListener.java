@@ -0,0 +1,75 @@
+package com.reallink.pump.services;
+
+import java.util.Objects;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.reallink.pump.entities.ReceivableEntry;
+import com.reallink.pump.entities.ReceivableEntry.AppliedReceivable;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Keeps each customer's receivable in step with bills, salesman bills and
+ * payments, whichever path writes them. Works like
+ * {@link BankTransactionBalanceListener}: the amount an entry contributes is
+ * remembered when it is loaded or written, so an update moves exactly the old
+ * contribution out and the new one in.
+ */
+public class CustomerReceivableListener {
+
+    private final ObjectProvider<CustomerReceivableService> customerReceivableService;
+
+    public CustomerReceivableListener(ObjectProvider<CustomerReceivableService> customerReceivableService) {
+        this.customerReceivableService = customerReceivableService;
+    }
+
+    @PostLoad
+    public void onLoad(Object entity) {
+        remember((ReceivableEntry) entity);
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        ReceivableEntry entry = (ReceivableEntry) entity;
+        AppliedReceivable current = AppliedReceivable.of(entry);
+        service().applyDelta(current.getCustomerId(), current.getAmount());
+        entry.setAppliedReceivable(current);
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        ReceivableEntry entry = (ReceivableEntry) entity;
+        AppliedReceivable previous = entry.getAppliedReceivable();
+        AppliedReceivable current = AppliedReceivable.of(entry);
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        if (previous != null) {
+            service().applyDelta(previous.getCustomerId(), previous.getAmount().negate());
+        }
+        service().applyDelta(current.getCustomerId(), current.getAmount());
+        entry.setAppliedReceivable(current);
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        ReceivableEntry entry = (ReceivableEntry) entity;
+        AppliedReceivable previous = entry.getAppliedReceivable() != null
+                ? entry.getAppliedReceivable()
+                : AppliedReceivable.of(entry);
+        service().applyDelta(previous.getCustomerId(), previous.getAmount().negate());
+        entry.setAppliedReceivable(null);
+    }
+
+    private void remember(ReceivableEntry entry) {
+        entry.setAppliedReceivable(AppliedReceivable.of(entry));
+    }
+
+    private CustomerReceivableService service() {
+        return customerReceivableService.getObject();
+    }
+}
@@ -0,0 +1,259 @@
+package com.reallink.pump.services;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reallink.pump.dto.response.CreditCheckResponse;
+import com.reallink.pump.entities.Customer;
+import com.reallink.pump.exception.PumpBusinessException;
+import com.reallink.pump.repositories.CustomerRepository;
+import com.reallink.pump.util.UuidBytes;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * What each customer owes, kept as one row per customer. Bills, salesman bills
+ * and payments apply their signed amount with an atomic upsert on the
+ * customer_id key (see {@link CustomerReceivableListener}), so the outstanding
+ * balance and the credit-limit check are a single-row read.
+ *
+ * The row holds bills minus payments; the customer's opening balance is added
+ * on read so that editing it needs no rebuild.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@Slf4j
+public class CustomerReceivableService {
+
+    private static final String UPSERT_SQL
+            = "INSERT INTO pump_customer_receivable "
+            + "(id, customer_id, net_amount, created_at, updated_at, version, entry_by) "
+            + "VALUES (?, ?, ?, ?, ?, 0, ?) "
+            + "ON DUPLICATE KEY UPDATE net_amount = net_amount + VALUES(net_amount), "
+            + "updated_at = VALUES(updated_at), version = version + 1";
+
+    private static final String SELECT_SQL
+            = "SELECT net_amount FROM pump_customer_receivable WHERE customer_id = ?";
+
+    // Creates the row if it is missing and takes its exclusive lock either way
+    private static final String LOCK_SQL
+            = "INSERT INTO pump_customer_receivable "
+            + "(id, customer_id, net_amount, created_at, updated_at, version, entry_by) "
+            + "VALUES (?, ?, 0, ?, ?, 0, ?) "
+            + "ON DUPLICATE KEY UPDATE net_amount = net_amount";
+
+    // A locking read sees the latest committed net, not the transaction's snapshot
+    private static final String SELECT_FOR_UPDATE_SQL = SELECT_SQL + " FOR UPDATE";
+
+    private static final String VERIFY_JOB = "customer-receivable-verify";
+
+    // Customers whose stored net differs from the sum of their bills and payments
+    private static final String MISMATCH_SQL = mismatchSql("", "");
+
+    // The same for one customer; each source is filtered before it is grouped
+    private static final String CUSTOMER_MISMATCH_SQL
+            = mismatchSql("WHERE customer_id = ? ", "WHERE c.id = ? ");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CustomerRepository customerRepository;
+    private final ClusterJobLock clusterJobLock;
+
+    /**
+     * Add a signed amount to a customer's receivable, creating the row if it
+     * does not exist yet. Runs on the connection of the current transaction.
+     */
+    public void applyDelta(UUID customerId, BigDecimal delta) {
+        if (delta == null || delta.signum() == 0) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(UPSERT_SQL, UuidBytes.toBytes(UUID.randomUUID()), UuidBytes.toBytes(customerId), delta, now, now, "system");
+
+        log.debug("Applied receivable delta {} for customer {}", delta, customerId);
+    }
+
+    /**
+     * What the customer owes right now, opening balance included.
+     */
+    public BigDecimal getOutstanding(Customer customer) {
+        BigDecimal openingBalance = customer.getOpeningBalance() != null ? customer.getOpeningBalance() : BigDecimal.ZERO;
+        return openingBalance.add(getNetAmount(customer.getId()));
+    }
+
+    /**
+     * Whether the customer can take on {@code amount} more without going over
+     * the credit limit. Customers without a positive credit limit are not
+     * limited.
+     */
+    public CreditCheck checkCredit(Customer customer, BigDecimal amount) {
+        return checkCredit(customer, amount, getNetAmount(customer.getId()));
+    }
+
+    private static CreditCheck checkCredit(Customer customer, BigDecimal amount, BigDecimal netAmount) {
+        BigDecimal openingBalance = customer.getOpeningBalance() != null ? customer.getOpeningBalance() : BigDecimal.ZERO;
+        BigDecimal outstanding = openingBalance.add(netAmount);
+        BigDecimal requested = amount != null ? amount : BigDecimal.ZERO;
+        if (customer.getCreditLimit() == null || customer.getCreditLimit() <= 0) {
+            return new CreditCheck(customer.getId(), outstanding, null, null, true);
+        }
+        BigDecimal creditLimit = BigDecimal.valueOf(customer.getCreditLimit());
+        BigDecimal available = creditLimit.subtract(outstanding);
+        return new CreditCheck(customer.getId(), outstanding, creditLimit, available,
+                requested.compareTo(available) <= 0);
+    }
+
+    public CreditCheckResponse getCreditCheck(UUID customerId, UUID pumpMasterId, BigDecimal amount) {
+        Customer customer = customerRepository.findById(customerId).orElse(null);
+        if (customer == null || !customer.getPumpMaster().getId().equals(pumpMasterId)) {
+            throw new PumpBusinessException("CUSTOMER_NOT_FOUND", "Customer with ID " + customerId + " not found");
+        }
+        BigDecimal requested = amount != null ? amount : BigDecimal.ZERO;
+        CreditCheck check = checkCredit(customer, requested);
+        return CreditCheckResponse.builder()
+                .customerId(customerId)
+                .outstanding(check.getOutstanding())
+                .creditLimit(check.getCreditLimit())
+                .availableCredit(check.getAvailable())
+                .requestedAmount(requested)
+                .allowed(check.isAllowed())
+                .build();
+    }
+
+    /**
+     * Reject a bill that would take the customer over the credit limit. For a
+     * limited customer the receivable row stays locked until the caller's
+     * transaction ends, so two bills for the same customer are checked one
+     * after the other and cannot both squeeze under the limit. The caller must
+     * apply the bill in the same transaction.
+     *
+     * @param increase what the bill adds to the receivable, net of any payment
+     * taken with it
+     */
+    @Transactional
+    public void enforceCreditLimit(Customer customer, BigDecimal increase) {
+        if (increase == null || increase.signum() <= 0
+                || customer.getCreditLimit() == null || customer.getCreditLimit() <= 0) {
+            return;
+        }
+        CreditCheck check = checkCredit(customer, increase, lockNetAmount(customer.getId()));
+        if (!check.isAllowed()) {
+            throw new PumpBusinessException("CREDIT_LIMIT_EXCEEDED",
+                    "Customer " + customer.getCustomerName() + " has " + check.getOutstanding()
+                    + " outstanding against a credit limit of " + check.getCreditLimit()
+                    + "; a further " + increase + " is not allowed");
+        }
+    }
+
+    /**
+     * Nightly rebuild check. Also runs at startup, which fills the table on
+     * first deployment. Only one node runs it at a time, so a correction is
+     * never applied twice.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 45 1 * * *")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void verifyReceivables() {
+        clusterJobLock.runExclusively(VERIFY_JOB, this::correctReceivables);
+    }
+
+    /**
+     * Recompute every customer's net from bills and payments and correct any
+     * row that has drifted. Returns the number of customers corrected.
+     */
+    @Transactional
+    public int correctReceivables() {
+        return correct(MISMATCH_SQL);
+    }
+
+    /**
+     * Recompute one customer's net and correct it if it has drifted. Returns
+     * the number of customers corrected (0 or 1).
+     */
+    @Transactional
+    public int correctReceivable(UUID customerId) {
+        byte[] customer = UuidBytes.toBytes(customerId);
+        return correct(CUSTOMER_MISMATCH_SQL, customer, customer, customer, customer, customer);
+    }
+
+    private int correct(String mismatchSql, Object... args) {
+        List<Object[]> mismatches = jdbcTemplate.query(mismatchSql, (rs, rowNum) -> new Object[]{
+            UuidBytes.fromBytes(rs.getBytes("id")),
+            rs.getBigDecimal("expected"),
+            rs.getBigDecimal("actual")
+        }, args);
+        for (Object[] row : mismatches) {
+            UUID customerId = (UUID) row[0];
+            BigDecimal expected = (BigDecimal) row[1];
+            BigDecimal actual = (BigDecimal) row[2];
+            log.warn("Receivable of customer {} is {} but bills and payments sum to {}; correcting",
+                    customerId, actual, expected);
+            applyDelta(customerId, expected.subtract(actual));
+        }
+        log.info("Verified customer receivables: {} customer(s) corrected", mismatches.size());
+        return mismatches.size();
+    }
+
+    private static String mismatchSql(String sourceFilter, String customerFilter) {
+        return "SELECT c.id, "
+                + "COALESCE(b.total, 0) + COALESCE(sb.total, 0) - COALESCE(p.total, 0) - COALESCE(sp.total, 0) AS expected, "
+                + "COALESCE(r.net_amount, 0) AS actual "
+                + "FROM pump_customer_master c "
+                + "LEFT JOIN (SELECT customer_id, SUM(net_amount) AS total FROM pump_bill_master "
+                + sourceFilter + "GROUP BY customer_id) b ON b.customer_id = c.id "
+                + "LEFT JOIN (SELECT customer_id, SUM(amount) AS total FROM pump_salesman_bill_master "
+                + sourceFilter + "GROUP BY customer_id) sb ON sb.customer_id = c.id "
+                + "LEFT JOIN (SELECT customer_id, SUM(amount) AS total FROM pump_customer_bill_payment_master "
+                + sourceFilter + "GROUP BY customer_id) p ON p.customer_id = c.id "
+                + "LEFT JOIN (SELECT customer_id, SUM(amount) AS total FROM pump_salesman_bill_payment_master "
+                + sourceFilter + "GROUP BY customer_id) sp ON sp.customer_id = c.id "
+                + "LEFT JOIN pump_customer_receivable r ON r.customer_id = c.id "
+                + customerFilter
+                + "HAVING expected <> actual";
+    }
+
+    private BigDecimal lockNetAmount(UUID customerId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(LOCK_SQL, UuidBytes.toBytes(UUID.randomUUID()), UuidBytes.toBytes(customerId), now, now, "system");
+        return jdbcTemplate.queryForObject(SELECT_FOR_UPDATE_SQL, BigDecimal.class, (Object) UuidBytes.toBytes(customerId));
+    }
+
+    private BigDecimal getNetAmount(UUID customerId) {
+        try {
+            BigDecimal net = jdbcTemplate.queryForObject(SELECT_SQL, BigDecimal.class, (Object) UuidBytes.toBytes(customerId));
+            return net != null ? net : BigDecimal.ZERO;
+        } catch (EmptyResultDataAccessException e) {
+            return BigDecimal.ZERO;
+        }
+    }
+
+    /**
+     * Outcome of a credit check. Limit and available are null when the customer
+     * has no credit limit.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CreditCheck {
+
+        private final UUID customerId;
+        private final BigDecimal outstanding;
+        private final BigDecimal creditLimit;
+        private final BigDecimal available;
+        private final boolean allowed;
+    }
+}
@@ -0,0 +1,119 @@
+package com.reallink.pump.services;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reallink.pump.repositories.BankTransactionRepository;
+import com.reallink.pump.repositories.DailyClosingBalanceRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains the per-day net of each bank account incrementally. Every bank
+ * transaction insert, update or delete applies its signed amount as a delta
+ * with one atomic upsert on the (bank_account_id, date) unique key, so no
+ * write re-sums the day and concurrent writers cannot lose updates.
+ *
+ * The same delta is added to any month-end checkpoint that already covers the
+ * day (see {@link BalanceCheckpointService}), so back-dated writes keep the
+ * checkpoints exact.
+ *
+ * Deltas are applied by {@link BankTransactionBalanceListener}, which covers
+ * every path that writes bank transactions, cascades included. Days written
+ * before the listener existed are brought in line by the verification below.
+ */
+@Service
+@Slf4j
+public class DailyClosingBalanceService {
+
+    // The backfill and the nightly check share one lock so they never overlap
+    private static final String VERIFY_JOB = "daily-closing-balance-verify";
+
+    private final BankTransactionRepository bankTransactionRepository;
+    private final DailyClosingBalanceRepository dailyClosingBalanceRepository;
+    private final ClusterJobLock clusterJobLock;
+    private final DailyNetLedger ledger;
+
+    public DailyClosingBalanceService(JdbcTemplate jdbcTemplate, BankTransactionRepository bankTransactionRepository,
+            DailyClosingBalanceRepository dailyClosingBalanceRepository, ClusterJobLock clusterJobLock) {
+        this.bankTransactionRepository = bankTransactionRepository;
+        this.dailyClosingBalanceRepository = dailyClosingBalanceRepository;
+        this.clusterJobLock = clusterJobLock;
+        this.ledger = new DailyNetLedger(jdbcTemplate, "pump_daily_closing_balance_master",
+                "pump_bank_balance_checkpoint", "bank_account_id", "bank account");
+    }
+
+    /**
+     * Add a signed amount to a bank account's net for a day, creating the row
+     * if it does not exist yet. Runs on the connection of the current
+     * transaction. Inside {@link #applyAggregated(Supplier)} the amount is
+     * collected instead and written when the block ends.
+     */
+    public void applyDelta(UUID bankAccountId, LocalDate date, BigDecimal delta) {
+        ledger.applyDelta(bankAccountId, date, delta);
+    }
+
+    /**
+     * Run a block of bank transaction writes and apply the resulting deltas as
+     * one upsert per (bank account, day), sent as a single JDBC batch. The block
+     * must flush its writes before returning so that the listener has seen
+     * them.
+     */
+    public <T> T applyAggregated(Supplier<T> work) {
+        return ledger.applyAggregated(work);
+    }
+
+    // ============================================
+    // Verification
+    // ============================================
+    /**
+     * Verify every day since the first bank transaction once the application
+     * is up. This backfills the days written before every path went through
+     * the listener; once they are right, later runs find nothing to correct.
+     * Only one node runs it at a time.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillDailyNets() {
+        clusterJobLock.runExclusively(VERIFY_JOB, () -> {
+            LocalDateTime earliest = bankTransactionRepository.findEarliestTransactionDate();
+            if (earliest != null) {
+                verifyDailyNets(earliest.toLocalDate(), LocalDate.now());
+            }
+        });
+    }
+
+    /**
+     * Nightly check that every daily net since the start of last month equals
+     * the sum of that day's bank transactions.
+     */
+    @Scheduled(cron = "0 45 1 * * *")
+    public void verifyRecentDailyNets() {
+        clusterJobLock.runExclusively(VERIFY_JOB,
+                () -> verifyDailyNets(YearMonth.now().minusMonths(1).atDay(1), LocalDate.now()));
+    }
+
+    /**
+     * Compare the daily nets in a date range with the sums of the bank
+     * transactions and post the difference for any day that does not match.
+     * Returns the number of days corrected.
+     */
+    @Transactional
+    public int verifyDailyNets(LocalDate fromDate, LocalDate toDate) {
+        int corrected = ledger.reconcile(
+                bankTransactionRepository.getDailyNets(fromDate.atStartOfDay(), toDate.plusDays(1).atStartOfDay()),
+                dailyClosingBalanceRepository.getDailyNets(fromDate, toDate));
+        log.info("Verified daily closing balances from {} to {}: {} day(s) corrected", fromDate, toDate, corrected);
+        return corrected;
+    }
+}
@@ -0,0 +1,174 @@
+package com.reallink.pump.services;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.reallink.pump.util.UuidBytes;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-day signed nets of one kind of account (a bank account, a tank) kept in
+ * a daily table with a unique (account, date) key. Every delta is applied with
+ * one atomic upsert, and the same delta is added to any month-end checkpoint
+ * that already covers the day (see {@link BalanceCheckpointService}), so
+ * back-dated writes keep the checkpoints exact.
+ *
+ * Both tables must have the columns of {@code pump_daily_closing_balance_master}
+ * and {@code pump_bank_balance_checkpoint}, with the account column named as
+ * given.
+ */
+@Slf4j
+final class DailyNetLedger {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String account;
+    private final String upsertSql;
+    private final String checkpointSql;
+
+    // Deltas collected while an aggregated block runs on this thread
+    private final ThreadLocal<Map<UUID, Map<LocalDate, BigDecimal>>> pending = new ThreadLocal<>();
+
+    DailyNetLedger(JdbcTemplate jdbcTemplate, String dailyTable, String checkpointTable, String accountColumn,
+            String account) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.account = account;
+        this.upsertSql = "INSERT INTO " + dailyTable + " "
+                + "(id, " + accountColumn + ", date, daily_net, created_at, updated_at, version, entry_by) "
+                + "VALUES (?, ?, ?, ?, ?, ?, 0, ?) "
+                + "ON DUPLICATE KEY UPDATE daily_net = daily_net + VALUES(daily_net), "
+                + "updated_at = VALUES(updated_at), version = version + 1";
+        this.checkpointSql = "UPDATE " + checkpointTable + " "
+                + "SET cumulative_net = cumulative_net + ?, updated_at = ?, version = version + 1 "
+                + "WHERE " + accountColumn + " = ? AND period_end >= ?";
+    }
+
+    /**
+     * Add a signed amount to an account's net for a day, creating the row if it
+     * does not exist yet. Runs on the connection of the current transaction.
+     * Inside {@link #applyAggregated(Supplier)} the amount is collected instead
+     * and written when the block ends.
+     */
+    void applyDelta(UUID accountId, LocalDate date, BigDecimal delta) {
+        if (delta == null || delta.signum() == 0) {
+            return;
+        }
+        Map<UUID, Map<LocalDate, BigDecimal>> collected = pending.get();
+        if (collected != null) {
+            collected.computeIfAbsent(accountId, id -> new LinkedHashMap<>())
+                    .merge(date, delta, BigDecimal::add);
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(upsertSql, upsertArgs(accountId, date, delta, now));
+        jdbcTemplate.update(checkpointSql, checkpointArgs(accountId, date, delta, now));
+
+        log.debug("Applied daily net delta {} for {} {} on {}", delta, account, accountId, date);
+    }
+
+    /**
+     * Run a block of writes and apply the resulting deltas as one upsert per
+     * (account, day), sent as a single JDBC batch. The block must flush its
+     * writes before returning so that the entity listener has seen them.
+     */
+    <T> T applyAggregated(Supplier<T> work) {
+        if (pending.get() != null) {
+            // Already aggregating; the outer block applies everything
+            return work.get();
+        }
+        Map<UUID, Map<LocalDate, BigDecimal>> collected = new LinkedHashMap<>();
+        pending.set(collected);
+        T result;
+        try {
+            result = work.get();
+        } finally {
+            pending.remove();
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>();
+        List<Object[]> checkpointBatch = new ArrayList<>();
+        collected.forEach((accountId, byDate) -> byDate.forEach((date, delta) -> {
+            if (delta.signum() != 0) {
+                batch.add(upsertArgs(accountId, date, delta, now));
+                checkpointBatch.add(checkpointArgs(accountId, date, delta, now));
+            }
+        }));
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(upsertSql, batch);
+            jdbcTemplate.batchUpdate(checkpointSql, checkpointBatch);
+            log.debug("Applied {} aggregated daily net delta(s) for {}s", batch.size(), account);
+        }
+        return result;
+    }
+
+    /**
+     * Compare the stored daily nets with the nets recomputed from the source
+     * transactions, both as [account id, date, net] rows, and apply the
+     * difference for every day that does not match. Days with a stored net but
+     * no transactions are corrected to zero. Returns the number of days
+     * corrected.
+     */
+    int reconcile(List<Object[]> expectedRows, List<Object[]> actualRows) {
+        Map<UUID, Map<LocalDate, BigDecimal>> expected = toNets(expectedRows);
+        Map<UUID, Map<LocalDate, BigDecimal>> actual = toNets(actualRows);
+        actual.forEach((accountId, byDate) -> byDate.keySet().forEach(date -> expected
+                .computeIfAbsent(accountId, id -> new HashMap<>())
+                .putIfAbsent(date, BigDecimal.ZERO)));
+
+        return applyAggregated(() -> {
+            int count = 0;
+            for (Map.Entry<UUID, Map<LocalDate, BigDecimal>> entry : expected.entrySet()) {
+                Map<LocalDate, BigDecimal> stored = actual.getOrDefault(entry.getKey(), Map.of());
+                for (Map.Entry<LocalDate, BigDecimal> day : entry.getValue().entrySet()) {
+                    BigDecimal net = stored.getOrDefault(day.getKey(), BigDecimal.ZERO);
+                    BigDecimal difference = day.getValue().subtract(net);
+                    if (difference.signum() != 0) {
+                        log.warn("Daily net of {} {} on {} is {} but transactions sum to {}; correcting",
+                                account, entry.getKey(), day.getKey(), net, day.getValue());
+                        applyDelta(entry.getKey(), day.getKey(), difference);
+                        count++;
+                    }
+                }
+            }
+            return count;
+        });
+    }
+
+    private static Map<UUID, Map<LocalDate, BigDecimal>> toNets(List<Object[]> rows) {
+        Map<UUID, Map<LocalDate, BigDecimal>> nets = new HashMap<>();
+        for (Object[] row : rows) {
+            nets.computeIfAbsent((UUID) row[0], id -> new HashMap<>())
+                    .put((LocalDate) row[1], (BigDecimal) row[2]);
+        }
+        return nets;
+    }
+
+    private static Object[] upsertArgs(UUID accountId, LocalDate date, BigDecimal delta, Timestamp now) {
+        return new Object[]{
+            UuidBytes.toBytes(UUID.randomUUID()),
+            UuidBytes.toBytes(accountId),
+            Date.valueOf(date),
+            delta,
+            now,
+            now,
+            "system"
+        };
+    }
+
+    private static Object[] checkpointArgs(UUID accountId, LocalDate date, BigDecimal delta, Timestamp now) {
+        return new Object[]{delta, now, UuidBytes.toBytes(accountId), Date.valueOf(date)};
+    }
+}
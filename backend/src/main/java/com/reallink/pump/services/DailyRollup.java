@@ -0,0 +1,345 @@
+package com.reallink.pump.services;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reallink.pump.util.UuidBytes;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A group of per-pump, per-day tables rebuilt from their source rows. Services
+ * that write source rows mark the affected pump and day; once the transaction
+ * has committed, each marked day is rebuilt in a transaction of its own.
+ *
+ * A rebuild reads the source rows with plain SELECTs at READ COMMITTED. Those
+ * are consistent reads: they take no locks on the source tables, so bill,
+ * nozzle and expense writes never wait for a rebuild. The aggregated rows are
+ * then upserted by unique key in one batch, and rows the sources no longer
+ * produce are deleted by primary key, so only rollup rows are locked.
+ *
+ * Rebuilds of the same pump are serialized on a MySQL named lock. The sources
+ * of a day are committed before its rebuild starts, so whichever rebuild takes
+ * the lock later reads every committed source row and writes the final result.
+ * A failed rebuild is logged; the nightly rebuild puts the day right.
+ */
+@Slf4j
+final class DailyRollup {
+
+    private static final Comparator<DirtyDay> DAY_ORDER = Comparator
+            .comparing(DirtyDay::pumpMasterId)
+            .thenComparing(DirtyDay::date);
+
+    private static final String PUMP_IDS_SQL = "SELECT id FROM pump_info_master ORDER BY id";
+    private static final int LOCK_WAIT_SECONDS = 30;
+    private static final int BACKFILL_CHUNK_DAYS = 31;
+
+    private final String name;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate newTransaction;
+    private final ReportResultCache reportResultCache;
+    private final ClusterJobLock clusterJobLock;
+    private final String hasRowsSql;
+    private final String firstSourceDateSql;
+    private final List<Table> tables;
+
+    DailyRollup(String name, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ReportResultCache reportResultCache, ClusterJobLock clusterJobLock, String hasRowsSql,
+            String firstSourceDateSql, List<Table> tables) {
+        this.name = name;
+        this.jdbcTemplate = jdbcTemplate;
+        // Read committed, so a rebuild that waited for the pump's lock reads the
+        // sources committed meanwhile instead of its transaction's snapshot
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reportResultCache = reportResultCache;
+        this.clusterJobLock = clusterJobLock;
+        this.hasRowsSql = hasRowsSql;
+        this.firstSourceDateSql = firstSourceDateSql;
+        this.tables = tables;
+    }
+
+    /**
+     * Mark a pump's day as changed. The day is rebuilt after the surrounding
+     * transaction commits, once however often it is marked.
+     */
+    void markDirty(UUID pumpMasterId, LocalDate date) {
+        if (pumpMasterId == null || date == null) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<DirtyDay> dirtyDays = (Set<DirtyDay>) TransactionSynchronizationManager.getResource(this);
+        if (dirtyDays == null) {
+            Set<DirtyDay> days = new TreeSet<>(DAY_ORDER);
+            TransactionSynchronizationManager.bindResource(this, days);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuildDirtyDays(days);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DailyRollup.this);
+                }
+            });
+            dirtyDays = days;
+        }
+        dirtyDays.add(new DirtyDay(pumpMasterId, date));
+    }
+
+    // The writer's transaction has committed, so a failure here must not reach its caller
+    private void rebuildDirtyDays(Set<DirtyDay> days) {
+        Map<UUID, List<LocalDate>> daysByPump = days.stream().collect(Collectors.groupingBy(
+                DirtyDay::pumpMasterId, LinkedHashMap::new, Collectors.mapping(DirtyDay::date, Collectors.toList())));
+        daysByPump.forEach((pumpMasterId, dates) -> {
+            try {
+                newTransaction.executeWithoutResult(status -> withPumpLock(pumpMasterId,
+                        () -> dates.forEach(date -> rebuildTables(pumpMasterId, date, date))));
+            } catch (RuntimeException e) {
+                log.error("Could not rebuild {} for pump {} on {}; the nightly rebuild will correct it",
+                        name, pumpMasterId, dates, e);
+            }
+        });
+    }
+
+    /**
+     * Rebuild every table for one pump and a date range. Joins the current
+     * transaction, or runs in its own at READ COMMITTED when there is none.
+     */
+    void rebuild(UUID pumpMasterId, LocalDate fromDate, LocalDate toDate) {
+        transaction.executeWithoutResult(status -> withPumpLock(pumpMasterId,
+                () -> rebuildTables(pumpMasterId, fromDate, toDate)));
+    }
+
+    private void rebuildTables(UUID pumpMasterId, LocalDate fromDate, LocalDate toDate) {
+        Range range = new Range(pumpMasterId, fromDate, toDate);
+        for (Table table : tables) {
+            Map<List<Object>, Object[]> expected = new LinkedHashMap<>();
+            jdbcTemplate.query(table.sourceSql(), rs -> {
+                List<Object> key = key(rs, table);
+                Object[] row = new Object[2 + table.keyColumns().size() + table.valueColumns().size()];
+                row[0] = range.pump();
+                int i = 1;
+                for (Object part : key) {
+                    row[i++] = toJdbc(part);
+                }
+                for (String column : table.valueColumns()) {
+                    row[i++] = rs.getObject(column);
+                }
+                expected.put(key, row);
+            }, table.sourceArgs().apply(range));
+
+            Map<List<Object>, byte[]> existing = new HashMap<>();
+            jdbcTemplate.query(table.existingRowsSql(), rs -> {
+                existing.put(key(rs, table), rs.getBytes("id"));
+            }, range.pump(), range.fromDate(), range.toDateExclusive());
+
+            if (!expected.isEmpty()) {
+                jdbcTemplate.batchUpdate(table.upsertSql(), new ArrayList<>(expected.values()));
+            }
+            List<Object[]> stale = existing.entrySet().stream()
+                    .filter(entry -> !expected.containsKey(entry.getKey()))
+                    .map(entry -> new Object[]{entry.getValue()})
+                    .collect(Collectors.toList());
+            if (!stale.isEmpty()) {
+                jdbcTemplate.batchUpdate("DELETE FROM " + table.name() + " WHERE id = ?", stale);
+            }
+        }
+        reportResultCache.evict(pumpMasterId, fromDate, toDate);
+        log.debug("Rebuilt {} for pump {} from {} to {}", name, pumpMasterId, fromDate, toDate);
+    }
+
+    /**
+     * Run with the pump's rebuild lock held on the transaction's connection.
+     * The lock is released just before commit: a rebuild that takes it next
+     * reads every source committed by then, and its upserts wait for this
+     * transaction's row locks, so it still writes last.
+     */
+    private void withPumpLock(UUID pumpMasterId, Runnable work) {
+        // Named locks are limited to 64 characters
+        String lockName = "pump." + name.replace(' ', '-') + "." + pumpMasterId.toString().replace("-", "");
+        Integer acquired = jdbcTemplate.queryForObject("SELECT GET_LOCK(?, ?)", Integer.class,
+                lockName, LOCK_WAIT_SECONDS);
+        if (acquired == null || acquired != 1) {
+            throw new IllegalStateException("Timed out waiting to rebuild " + name + " for pump " + pumpMasterId);
+        }
+        try {
+            work.run();
+        } finally {
+            jdbcTemplate.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, lockName);
+        }
+    }
+
+    /**
+     * Fill the tables from the full history if they are empty, one pump and
+     * one month at a time. Only one node runs it; the others find the tables
+     * filled.
+     */
+    void backfill() {
+        clusterJobLock.runExclusively(lockName(), () -> {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(hasRowsSql, Boolean.class))) {
+                return;
+            }
+            LocalDate firstDate = jdbcTemplate.queryForObject(firstSourceDateSql, LocalDate.class);
+            LocalDate today = LocalDate.now();
+            LocalDate from = firstDate != null ? firstDate : today;
+            for (UUID pumpMasterId : pumpIds()) {
+                for (LocalDate chunk = from; !chunk.isAfter(today); chunk = chunk.plusDays(BACKFILL_CHUNK_DAYS)) {
+                    LocalDate chunkFrom = chunk;
+                    LocalDate chunkTo = min(chunk.plusDays(BACKFILL_CHUNK_DAYS - 1), today);
+                    newTransaction.executeWithoutResult(status -> withPumpLock(pumpMasterId,
+                            () -> rebuildTables(pumpMasterId, chunkFrom, chunkTo)));
+                }
+            }
+            log.info("Backfilled {} from {} to {}", name, from, today);
+        });
+    }
+
+    /**
+     * Rebuild the last days for every pump, which picks up source rows written
+     * by any path that does not mark its day. Only one node runs it at a time.
+     */
+    void rebuildRecentDays(int days) {
+        clusterJobLock.runExclusively(lockName(), () -> {
+            LocalDate today = LocalDate.now();
+            for (UUID pumpMasterId : pumpIds()) {
+                newTransaction.executeWithoutResult(status -> withPumpLock(pumpMasterId,
+                        () -> rebuildTables(pumpMasterId, today.minusDays(days), today)));
+            }
+            log.info("Rebuilt {} for the last {} days", name, days);
+        });
+    }
+
+    private List<UUID> pumpIds() {
+        return jdbcTemplate.query(PUMP_IDS_SQL, (rs, rowNum) -> UuidBytes.fromBytes(rs.getBytes("id")));
+    }
+
+    private String lockName() {
+        return name.replace(' ', '-') + "-rebuild";
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    // Date and key columns of a source or rollup row, as comparable values
+    private static List<Object> key(ResultSet rs, Table table) throws SQLException {
+        List<Object> key = new ArrayList<>(1 + table.keyColumns().size());
+        key.add(fromJdbc(rs.getObject("date")));
+        for (String column : table.keyColumns()) {
+            key.add(fromJdbc(rs.getObject(column)));
+        }
+        return key;
+    }
+
+    private static Object fromJdbc(Object value) {
+        if (value instanceof byte[] bytes) {
+            return UuidBytes.fromBytes(bytes);
+        }
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        return value;
+    }
+
+    private static Object toJdbc(Object value) {
+        if (value instanceof UUID id) {
+            return UuidBytes.toBytes(id);
+        }
+        if (value instanceof LocalDate date) {
+            return Date.valueOf(date);
+        }
+        return value;
+    }
+
+    /**
+     * One rollup table, keyed by pump, {@code date} and {@code keyColumns}.
+     * {@code sourceSql} reads one pump's source rows for a range, with
+     * {@code sourceArgs} as its parameters, and returns one row per key with
+     * the date, key and value columns under the table's column names.
+     */
+    record Table(String name, List<String> keyColumns, List<String> valueColumns, String sourceSql,
+            Function<Range, Object[]> sourceArgs) {
+
+        String existingRowsSql() {
+            return "SELECT id, date" + prefixed(", ", keyColumns) + " FROM " + name
+                    + " WHERE pump_master_id = ? AND date >= ? AND date < ?";
+        }
+
+        String upsertSql() {
+            List<String> columns = new ArrayList<>(keyColumns);
+            columns.addAll(valueColumns);
+            return "INSERT INTO " + name + " (id, pump_master_id, date" + prefixed(", ", columns)
+                    + ", created_at, updated_at, version, entry_by) VALUES (UUID_TO_BIN(UUID()), ?, ?"
+                    + ", ?".repeat(columns.size()) + ", NOW(), NOW(), 0, 'system') ON DUPLICATE KEY UPDATE "
+                    + valueColumns.stream().map(column -> column + " = VALUES(" + column + ")")
+                            .collect(Collectors.joining(", "))
+                    + ", updated_at = VALUES(updated_at), version = version + 1";
+        }
+
+        private static String prefixed(String prefix, List<String> columns) {
+            return columns.stream().map(column -> prefix + column).collect(Collectors.joining());
+        }
+    }
+
+    /**
+     * The pump and days being rebuilt, as the JDBC values the source queries
+     * bind.
+     */
+    record Range(UUID pumpMasterId, LocalDate from, LocalDate to) {
+
+        Date fromDate() {
+            return Date.valueOf(from);
+        }
+
+        Date toDate() {
+            return Date.valueOf(to);
+        }
+
+        Date toDateExclusive() {
+            return Date.valueOf(to.plusDays(1));
+        }
+
+        Timestamp fromTime() {
+            return Timestamp.valueOf(from.atStartOfDay());
+        }
+
+        Timestamp toTimeExclusive() {
+            return Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        }
+
+        byte[] pump() {
+            return UuidBytes.toBytes(pumpMasterId);
+        }
+    }
+
+    private record DirtyDay(UUID pumpMasterId, LocalDate date) {
+
+    }
+}
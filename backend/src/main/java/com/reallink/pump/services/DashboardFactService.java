@@ -0,0 +1,168 @@
+package com.reallink.pump.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the daily per-pump facts the dashboard analytics read:
+ * {@code pump_daily_dashboard_fact} (credit billed, bills raised, fuel
+ * purchased, money received and paid), {@code pump_daily_dashboard_party}
+ * (amount per customer and supplier, for the top party and party counts) and
+ * {@code pump_daily_fuel_dispensed} (litres dispensed by closed nozzle
+ * assignments).
+ *
+ * Works like {@link ProfitRollupService}: services that write bills, fuel
+ * purchases, customer or supplier payments, or close nozzles mark the affected
+ * pump and day, and {@link DailyRollup} rebuilds each marked day from its
+ * source rows once the transaction has committed.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DashboardFactService {
+
+    private static final int VERIFY_DAYS = 7;
+
+    // Each branch filters on one pump and a timestamp range, so the pump and
+    // date indexes of the source tables bound what is read
+    private static final String FACT_SQL
+            = "SELECT x.date, SUM(x.total_credit) AS total_credit, SUM(x.bills_generated) AS bills_generated, "
+            + "SUM(x.total_debit) AS total_debit, SUM(x.money_received) AS money_received, "
+            + "SUM(x.money_paid) AS money_paid "
+            + "FROM ("
+            + " SELECT DATE(b.created_at) AS date, b.net_amount AS total_credit, 1 AS bills_generated,"
+            + " 0 AS total_debit, 0 AS money_received, 0 AS money_paid"
+            + " FROM pump_bill_master b"
+            + " WHERE b.pump_master_id = ? AND b.created_at >= ? AND b.created_at < ?"
+            + " UNION ALL"
+            + " SELECT DATE(fp.created_at), 0, 0, fp.amount, 0, 0"
+            + " FROM pump_fuel_purchase_master fp"
+            + " WHERE fp.pump_master_id = ? AND fp.created_at >= ? AND fp.created_at < ?"
+            + " UNION ALL"
+            + " SELECT DATE(cp.payment_date), 0, 0, 0, cp.amount, 0"
+            + " FROM pump_customer_bill_payment_master cp"
+            + " WHERE cp.pump_master_id = ? AND cp.payment_date >= ? AND cp.payment_date < ?"
+            + " UNION ALL"
+            + " SELECT DATE(sp.payment_date), 0, 0, 0, 0, sp.amount"
+            + " FROM pump_supplier_payment_master sp"
+            + " WHERE sp.pump_master_id = ? AND sp.payment_date >= ? AND sp.payment_date < ?"
+            + ") x "
+            + "GROUP BY x.date";
+
+    private static final String PARTY_SQL
+            = "SELECT x.date, x.party_type, x.party_id, SUM(x.amount) AS amount, "
+            + "SUM(CASE WHEN x.amount > 0 THEN 1 ELSE 0 END) AS positive_count "
+            + "FROM ("
+            + " SELECT DATE(b.created_at) AS date, 'CUSTOMER' AS party_type, b.customer_id AS party_id,"
+            + " b.net_amount AS amount"
+            + " FROM pump_bill_master b"
+            + " WHERE b.pump_master_id = ? AND b.created_at >= ? AND b.created_at < ?"
+            + " UNION ALL"
+            + " SELECT DATE(fp.created_at), 'SUPPLIER', fp.supplier_id, fp.amount"
+            + " FROM pump_fuel_purchase_master fp"
+            + " WHERE fp.pump_master_id = ? AND fp.created_at >= ? AND fp.created_at < ?"
+            + ") x "
+            + "GROUP BY x.date, x.party_type, x.party_id";
+
+    private static final String FUEL_SQL
+            = "SELECT DATE(na.end_time) AS date, DATE(na.start_time) AS start_date, "
+            + "SUM(na.closing_balance - na.opening_balance) AS quantity "
+            + "FROM pump_nozzle_assignment na "
+            + "WHERE na.pump_master_id = ? AND na.status = 'CLOSED' AND na.end_time >= ? AND na.end_time < ? "
+            + "GROUP BY DATE(na.end_time), DATE(na.start_time)";
+
+    private static final String HAS_FACTS_SQL
+            = "SELECT EXISTS (SELECT 1 FROM pump_daily_dashboard_fact) OR EXISTS (SELECT 1 FROM pump_daily_fuel_dispensed)";
+
+    private static final String FIRST_SOURCE_DATE_SQL
+            = "SELECT LEAST("
+            + "COALESCE((SELECT MIN(DATE(created_at)) FROM pump_bill_master), CURDATE()), "
+            + "COALESCE((SELECT MIN(DATE(created_at)) FROM pump_fuel_purchase_master), CURDATE()), "
+            + "COALESCE((SELECT MIN(DATE(payment_date)) FROM pump_customer_bill_payment_master), CURDATE()), "
+            + "COALESCE((SELECT MIN(DATE(payment_date)) FROM pump_supplier_payment_master), CURDATE()), "
+            + "COALESCE((SELECT MIN(DATE(end_time)) FROM pump_nozzle_assignment WHERE status = 'CLOSED'), CURDATE()))";
+
+    private final DailyRollup rollup;
+
+    public DashboardFactService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ReportResultCache reportResultCache, ClusterJobLock clusterJobLock) {
+        // Every source is filtered by timestamp over the same half-open range of days
+        this.rollup = new DailyRollup("dashboard facts", jdbcTemplate, transactionManager,
+                reportResultCache, clusterJobLock, HAS_FACTS_SQL, FIRST_SOURCE_DATE_SQL, List.of(
+                        new DailyRollup.Table("pump_daily_dashboard_fact", List.of(),
+                                List.of("total_credit", "bills_generated", "total_debit", "money_received", "money_paid"),
+                                FACT_SQL, range -> timeRange(range, 4)),
+                        new DailyRollup.Table("pump_daily_dashboard_party", List.of("party_type", "party_id"),
+                                List.of("amount", "positive_count"),
+                                PARTY_SQL, range -> timeRange(range, 2)),
+                        new DailyRollup.Table("pump_daily_fuel_dispensed", List.of("start_date"),
+                                List.of("quantity"),
+                                FUEL_SQL, range -> timeRange(range, 1))));
+    }
+
+    /**
+     * Mark the day of a timestamp as changed; a null timestamp means today,
+     * which is when a record not yet flushed gets its creation time.
+     */
+    @Transactional
+    public void markDirty(UUID pumpMasterId, LocalDateTime dateTime) {
+        markDirty(pumpMasterId, dateTime != null ? dateTime.toLocalDate() : LocalDate.now());
+    }
+
+    /**
+     * Mark a pump's day as changed. The day is rebuilt after the surrounding
+     * transaction commits, once however often it is marked.
+     */
+    @Transactional
+    public void markDirty(UUID pumpMasterId, LocalDate date) {
+        rollup.markDirty(pumpMasterId, date);
+    }
+
+    /**
+     * Rebuild one pump's facts for a date range.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void rebuild(UUID pumpMasterId, LocalDate fromDate, LocalDate toDate) {
+        rollup.rebuild(pumpMasterId, fromDate, toDate);
+    }
+
+    /**
+     * Fill the facts from the full history on first start.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfill() {
+        rollup.backfill();
+    }
+
+    /**
+     * Nightly rebuild of the last days for every pump.
+     */
+    @Scheduled(cron = "0 15 2 * * *")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildRecentDays() {
+        rollup.rebuildRecentDays(VERIFY_DAYS);
+    }
+
+    // (pump, from, to) once per unioned source
+    private static Object[] timeRange(DailyRollup.Range range, int sources) {
+        Object[] args = new Object[sources * 3];
+        for (int i = 0; i < sources; i++) {
+            args[i * 3] = range.pump();
+            args[i * 3 + 1] = range.fromTime();
+            args[i * 3 + 2] = range.toTimeExclusive();
+        }
+        return args;
+    }
+}
@@ -1,13 +1,14 @@
 package com.reallink.pump.services;
 
 import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
@@ -15,33 +16,93 @@ import org.springframework.validation.annotation.Validated;
 import com.reallink.pump.dto.response.EmployeeLedgerEntryResponse;
 import com.reallink.pump.dto.response.EmployeeLedgerResponse;
 import com.reallink.pump.dto.response.EmployeeLedgerSummaryResponse;
-import com.reallink.pump.entities.CalculatedSalary;
-import com.reallink.pump.entities.EmployeeSalaryPayment;
+import com.reallink.pump.dto.response.EmployeePayableResponse;
+import com.reallink.pump.dto.response.EmployeePayablesSummaryResponse;
 import com.reallink.pump.entities.User;
 import com.reallink.pump.repositories.CalculatedSalaryRepository;
 import com.reallink.pump.repositories.EmployeeSalaryPaymentRepository;
 import com.reallink.pump.repositories.UserRepository;
+import com.reallink.pump.util.UuidBytes;
 
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 
+/**
+ * Employee salary ledger. Balances come from SUM queries and the entries of a
+ * date range are merged, ordered and given a running balance in the database,
+ * so only the requested page of entries is ever loaded.
+ */
 @Service
 @Validated
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class EmployeeLedgerService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+
+    // Salaries sort before payments made at the same time; the running net is
+    // computed over the whole range before the page is cut
+    private static final String LEDGER_SQL
+            = "WITH entries AS ("
+            + " SELECT cs.id, 'SALARY' AS entry_type, 0 AS sort_key, CAST(cs.calculation_date AS DATETIME) AS entry_date,"
+            + " cs.net_salary AS credit, 0 AS debit, cs.from_date, cs.to_date, cs.total_days,"
+            + " NULL AS payment_method, NULL AS reference_number, NULL AS notes"
+            + " FROM calculated_salary cs"
+            + " WHERE cs.user_id = :userId AND cs.calculation_date BETWEEN :fromDate AND :toDate"
+            + " UNION ALL"
+            + " SELECT p.id, 'PAYMENT', 1, p.payment_date,"
+            + " 0, p.amount, NULL, NULL, NULL,"
+            + " p.payment_method, p.reference_number, p.notes"
+            + " FROM employee_salary_payment p"
+            + " WHERE p.user_id = :userId AND p.payment_date >= :fromDateTime AND p.payment_date < :toDateTime"
+            + "), ledger AS ("
+            + " SELECT e.*, SUM(e.credit - e.debit) OVER (ORDER BY e.entry_date, e.sort_key, e.id ROWS UNBOUNDED PRECEDING) AS running_net"
+            + " FROM entries e"
+            + ")"
+            + " SELECT * FROM ledger"
+            + " ORDER BY entry_date, sort_key, id";
+
+    private static final String COUNT_SQL
+            = "SELECT (SELECT COUNT(*) FROM calculated_salary cs"
+            + " WHERE cs.user_id = :userId AND cs.calculation_date BETWEEN :fromDate AND :toDate)"
+            + " + (SELECT COUNT(*) FROM employee_salary_payment p"
+            + " WHERE p.user_id = :userId AND p.payment_date >= :fromDateTime AND p.payment_date < :toDateTime)";
+
+    // One row per user of the pump, salaries and payments pre-grouped per user
+    private static final String PAYABLES_SQL
+            = "SELECT u.id, u.username, u.opening_balance,"
+            + " COALESCE(s.total, 0) AS total_salaries, COALESCE(p.total, 0) AS total_payments"
+            + " FROM pump_user_master u"
+            + " LEFT JOIN (SELECT user_id, SUM(net_salary) AS total FROM calculated_salary"
+            + " WHERE pump_master_id = :pumpMasterId AND calculation_date <= :asOfDate GROUP BY user_id) s"
+            + " ON s.user_id = u.id"
+            + " LEFT JOIN (SELECT user_id, SUM(amount) AS total FROM employee_salary_payment"
+            + " WHERE pump_master_id = :pumpMasterId AND payment_date < :beforeDateTime GROUP BY user_id) p"
+            + " ON p.user_id = u.id"
+            + " WHERE u.pump_master_id = :pumpMasterId"
+            + " ORDER BY u.username";
+
     private final CalculatedSalaryRepository calculatedSalaryRepository;
     private final EmployeeSalaryPaymentRepository employeeSalaryPaymentRepository;
     private final UserRepository userRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
 
     /**
-     * Get employee ledger data with date range filtering
+     * Get employee ledger data with date range filtering. Without a page size
+     * every entry of the range is returned.
      */
     public EmployeeLedgerResponse getEmployeeLedger(
             @NotNull UUID userId,
             @NotNull LocalDate fromDate,
-            @NotNull LocalDate toDate) {
+            @NotNull LocalDate toDate,
+            Integer page,
+            Integer size) {
+        if (fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("From date must not be after to date");
+        }
+        if (page != null && page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
 
         // Fetch user to get opening balance
         User user = userRepository.findById(userId).orElse(null);
@@ -49,43 +110,50 @@ public class EmployeeLedgerService {
             throw new IllegalArgumentException("User not found with id: " + userId);
         }
 
-        // Calculate the date one day before fromDate for "before" calculations
-        LocalDate beforeDate = fromDate.minusDays(1);
-
-        // Get opening balance from user entity
         BigDecimal openingBalance = user.getOpeningBalance();
-        LocalDate openingBalanceDate = user.getOpeningBalanceDate();
 
-        // Get data before the date range
-        BigDecimal totalSalariesBefore = getTotalSalariesUntilDate(userId, beforeDate);
-        BigDecimal totalPaymentsBefore = getTotalPaymentsUntilDate(userId, beforeDate);
+        // Totals before and within the date range
+        BigDecimal totalSalariesBefore = calculatedSalaryRepository.sumNetSalaryByUserIdUntilDate(userId, fromDate.minusDays(1));
+        BigDecimal totalPaymentsBefore = employeeSalaryPaymentRepository.sumAmountByUserIdBefore(userId, fromDate.atStartOfDay());
         BigDecimal balanceBefore = openingBalance.add(totalSalariesBefore).subtract(totalPaymentsBefore);
 
-        // Get data within the date range
-        List<CalculatedSalary> salariesInRange = getSalariesInDateRange(userId, fromDate, toDate);
-        List<EmployeeSalaryPayment> paymentsInRange = getPaymentsInDateRange(userId, fromDate, toDate);
-
-        BigDecimal totalSalariesInRange = salariesInRange.stream()
-                .map(CalculatedSalary::getNetSalary)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalPaymentsInRange = paymentsInRange.stream()
-                .map(EmployeeSalaryPayment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalSalariesInRange = calculatedSalaryRepository.sumNetSalaryByUserIdAndDateRange(userId, fromDate, toDate);
+        BigDecimal totalPaymentsInRange = employeeSalaryPaymentRepository.sumAmountByUserIdAndPaymentDateRange(
+                userId, fromDate.atStartOfDay(), toDate.plusDays(1).atStartOfDay());
 
         // Calculate cumulative totals
         BigDecimal totalSalariesTillDate = totalSalariesBefore.add(totalSalariesInRange);
         BigDecimal totalPaymentsTillDate = totalPaymentsBefore.add(totalPaymentsInRange);
         BigDecimal closingBalance = openingBalance.add(totalSalariesTillDate).subtract(totalPaymentsTillDate);
 
-        // Create ledger entries
-        List<EmployeeLedgerEntryResponse> ledgerEntries = createLedgerEntries(
-                salariesInRange, paymentsInRange, balanceBefore);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", UuidBytes.toBytes(userId))
+                .addValue("fromDate", fromDate)
+                .addValue("toDate", toDate)
+                .addValue("fromDateTime", fromDate.atStartOfDay())
+                .addValue("toDateTime", toDate.plusDays(1).atStartOfDay());
+
+        Long count = jdbcTemplate.queryForObject(COUNT_SQL, params, Long.class);
+        long totalEntries = count != null ? count : 0L;
+
+        List<EmployeeLedgerEntryResponse> ledgerEntries;
+        Integer pageSize = null;
+        boolean hasMore = false;
+        if (size == null) {
+            ledgerEntries = jdbcTemplate.query(LEDGER_SQL, params, (rs, rowNum) -> toEntry(rs, balanceBefore));
+        } else {
+            int pageNumber = page != null ? page : 0;
+            pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            params.addValue("limit", pageSize).addValue("offset", (long) pageNumber * pageSize);
+            ledgerEntries = jdbcTemplate.query(LEDGER_SQL + " LIMIT :limit OFFSET :offset", params,
+                    (rs, rowNum) -> toEntry(rs, balanceBefore));
+            hasMore = (long) (pageNumber + 1) * pageSize < totalEntries;
+        }
 
         // Build summary
         EmployeeLedgerSummaryResponse summary = EmployeeLedgerSummaryResponse.builder()
                 .openingBalance(openingBalance)
-                .openingBalanceDate(openingBalanceDate)
+                .openingBalanceDate(user.getOpeningBalanceDate())
                 .totalSalariesBefore(totalSalariesBefore)
                 .totalPaymentsBefore(totalPaymentsBefore)
                 .balanceBefore(balanceBefore)
@@ -99,6 +167,10 @@ public class EmployeeLedgerService {
         return EmployeeLedgerResponse.builder()
                 .ledgerEntries(ledgerEntries)
                 .summary(summary)
+                .page(size == null ? null : (page != null ? page : 0))
+                .size(pageSize)
+                .totalEntries(totalEntries)
+                .hasMore(hasMore)
                 .build();
     }
 
@@ -112,8 +184,8 @@ public class EmployeeLedgerService {
         }
 
         BigDecimal openingBalance = user.getOpeningBalance();
-        BigDecimal totalSalaries = getTotalSalariesUntilDate(userId, asOfDate);
-        BigDecimal totalPayments = getTotalPaymentsUntilDate(userId, asOfDate);
+        BigDecimal totalSalaries = calculatedSalaryRepository.sumNetSalaryByUserIdUntilDate(userId, asOfDate);
+        BigDecimal totalPayments = employeeSalaryPaymentRepository.sumAmountByUserIdBefore(userId, asOfDate.plusDays(1).atStartOfDay());
         return openingBalance.add(totalSalaries).subtract(totalPayments);
     }
 
@@ -125,146 +197,74 @@ public class EmployeeLedgerService {
         return getCurrentBalance(userId, beforeDate);
     }
 
-    // Private helper methods
-    private BigDecimal getTotalSalariesUntilDate(UUID userId, LocalDate untilDate) {
-        List<CalculatedSalary> salaries = calculatedSalaryRepository
-                .findByUserIdUntilDate(userId, untilDate);
-
-        return salaries.stream()
-                .map(CalculatedSalary::getNetSalary)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    private BigDecimal getTotalPaymentsUntilDate(UUID userId, LocalDate untilDate) {
-        List<EmployeeSalaryPayment> payments = employeeSalaryPaymentRepository
-                .findByUserIdAndPaymentDateBefore(userId, untilDate.plusDays(1).atStartOfDay());
-
-        return payments.stream()
-                .map(EmployeeSalaryPayment::getAmount)
+    /**
+     * Net payable of every employee of a pump as of a date, from one grouped
+     * query.
+     */
+    public EmployeePayablesSummaryResponse getPayablesSummary(@NotNull UUID pumpMasterId, @NotNull LocalDate asOfDate) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("pumpMasterId", UuidBytes.toBytes(pumpMasterId))
+                .addValue("asOfDate", asOfDate)
+                .addValue("beforeDateTime", asOfDate.plusDays(1).atStartOfDay());
+
+        List<EmployeePayableResponse> employees = jdbcTemplate.query(PAYABLES_SQL, params, (rs, rowNum) -> {
+            BigDecimal openingBalance = rs.getBigDecimal("opening_balance");
+            BigDecimal totalSalaries = rs.getBigDecimal("total_salaries");
+            BigDecimal totalPayments = rs.getBigDecimal("total_payments");
+            return EmployeePayableResponse.builder()
+                    .userId(UuidBytes.fromBytes(rs.getBytes("id")))
+                    .username(rs.getString("username"))
+                    .openingBalance(openingBalance)
+                    .totalSalaries(totalSalaries)
+                    .totalPayments(totalPayments)
+                    .netPayable(openingBalance.add(totalSalaries).subtract(totalPayments))
+                    .build();
+        });
+
+        BigDecimal totalNetPayable = employees.stream()
+                .map(EmployeePayableResponse::getNetPayable)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    private List<CalculatedSalary> getSalariesInDateRange(UUID userId, LocalDate fromDate, LocalDate toDate) {
-        return calculatedSalaryRepository.findByUserIdAndDateRange(
-                userId,
-                fromDate,
-                toDate
-        );
-    }
 
-    private List<EmployeeSalaryPayment> getPaymentsInDateRange(UUID userId, LocalDate fromDate, LocalDate toDate) {
-        return employeeSalaryPaymentRepository.findByUserIdAndPaymentDateBetween(
-                userId,
-                fromDate.atStartOfDay(),
-                toDate.plusDays(1).atStartOfDay()
-        );
-    }
-
-    private List<EmployeeLedgerEntryResponse> createLedgerEntries(
-            List<CalculatedSalary> salaries,
-            List<EmployeeSalaryPayment> payments,
-            BigDecimal openingBalance) {
-
-        List<EmployeeLedgerEntryResponse> entries = new ArrayList<>();
-        BigDecimal runningBalance = openingBalance;
-
-        // Combine salaries and payments into a single list with timestamps
-        List<LedgerItem> items = new ArrayList<>();
-
-        for (CalculatedSalary salary : salaries) {
-            items.add(new LedgerItem(salary.getCalculationDate().atStartOfDay(), "SALARY", salary, null));
-        }
-
-        for (EmployeeSalaryPayment payment : payments) {
-            items.add(new LedgerItem(payment.getPaymentDate(), "PAYMENT", null, payment));
-        }
-
-        // Sort by date (oldest first for running balance calculation)
-        items.sort(Comparator.comparing(LedgerItem::getDateTime));
-
-        // Create ledger entries
-        for (LedgerItem item : items) {
-            if ("SALARY".equals(item.getType())) {
-                CalculatedSalary salary = item.getSalary();
-                runningBalance = runningBalance.add(salary.getNetSalary());
-
-                entries.add(EmployeeLedgerEntryResponse.builder()
-                        .date(item.getDateTime())
-                        .action("Salary Calculated")
-                        .type("credit")
-                        .creditAmount(salary.getNetSalary())
-                        .debitAmount(BigDecimal.ZERO)
-                        .balance(runningBalance)
-                        .description(formatSalaryDescription(salary))
-                        .referenceId(salary.getId().toString())
-                        .referenceType("SALARY")
-                        .build());
-            } else {
-                EmployeeSalaryPayment payment = item.getPayment();
-                runningBalance = runningBalance.subtract(payment.getAmount());
-
-                entries.add(EmployeeLedgerEntryResponse.builder()
-                        .date(item.getDateTime())
-                        .action("Payment Made")
-                        .type("debit")
-                        .creditAmount(BigDecimal.ZERO)
-                        .debitAmount(payment.getAmount())
-                        .balance(runningBalance)
-                        .description(formatPaymentDescription(payment))
-                        .referenceId(payment.getId().toString())
-                        .referenceType("PAYMENT")
-                        .paymentMethod(payment.getPaymentMethod().name())
-                        .referenceNumber(payment.getReferenceNumber())
-                        .build());
-            }
-        }
-
-        return entries;
-    }
-
-    private String formatSalaryDescription(CalculatedSalary salary) {
-        return String.format("Salary for %s to %s (%d days)",
-                salary.getFromDate(),
-                salary.getToDate(),
-                salary.getTotalDays());
-    }
-
-    private String formatPaymentDescription(EmployeeSalaryPayment payment) {
-        String method = payment.getPaymentMethod().name();
-        String notes = payment.getNotes() != null ? " - " + payment.getNotes() : "";
-        return String.format("Payment via %s%s", method, notes);
+        return EmployeePayablesSummaryResponse.builder()
+                .asOfDate(asOfDate)
+                .employees(employees)
+                .totalNetPayable(totalNetPayable)
+                .build();
     }
 
-    // Helper class to combine salaries and payments for sorting
-    private static class LedgerItem {
-
-        private final LocalDateTime dateTime;
-        private final String type;
-        private final CalculatedSalary salary;
-        private final EmployeeSalaryPayment payment;
-
-        public LedgerItem(LocalDateTime dateTime, String type, CalculatedSalary salary,
-                EmployeeSalaryPayment payment) {
-            this.dateTime = dateTime;
-            this.type = type;
-            this.salary = salary;
-            this.payment = payment;
-        }
-
-        public LocalDateTime getDateTime() {
-            return dateTime;
-        }
-
-        public String getType() {
-            return type;
-        }
-
-        public CalculatedSalary getSalary() {
-            return salary;
-        }
-
-        public EmployeeSalaryPayment getPayment() {
-            return payment;
+    private static EmployeeLedgerEntryResponse toEntry(ResultSet rs, BigDecimal balanceBefore) throws SQLException {
+        BigDecimal balance = balanceBefore.add(rs.getBigDecimal("running_net"));
+        String id = UuidBytes.fromBytes(rs.getBytes("id")).toString();
+        if ("SALARY".equals(rs.getString("entry_type"))) {
+            return EmployeeLedgerEntryResponse.builder()
+                    .date(rs.getTimestamp("entry_date").toLocalDateTime())
+                    .action("Salary Calculated")
+                    .type("credit")
+                    .creditAmount(rs.getBigDecimal("credit"))
+                    .debitAmount(BigDecimal.ZERO)
+                    .balance(balance)
+                    .description(String.format("Salary for %s to %s (%d days)",
+                            rs.getDate("from_date").toLocalDate(),
+                            rs.getDate("to_date").toLocalDate(),
+                            rs.getInt("total_days")))
+                    .referenceId(id)
+                    .referenceType("SALARY")
+                    .build();
         }
+        String method = rs.getString("payment_method");
+        String notes = rs.getString("notes") != null ? " - " + rs.getString("notes") : "";
+        return EmployeeLedgerEntryResponse.builder()
+                .date(rs.getTimestamp("entry_date").toLocalDateTime())
+                .action("Payment Made")
+                .type("debit")
+                .creditAmount(BigDecimal.ZERO)
+                .debitAmount(rs.getBigDecimal("debit"))
+                .balance(balance)
+                .description(String.format("Payment via %s%s", method, notes))
+                .referenceId(id)
+                .referenceType("PAYMENT")
+                .paymentMethod(method)
+                .referenceNumber(rs.getString("reference_number"))
+                .build();
     }
 }
@@ -55,6 +55,7 @@ public class ExpenseService {
     private final FileStorageRepository fileStorageRepository;
     private final ExpenseMapper mapper;
     private final BankTransactionService bankTransactionService;
+    private final ProfitRollupService profitRollupService;
 
     public List<ExpenseResponse> getAll() {
         return repository.findAll().stream()
@@ -220,6 +221,7 @@ public class ExpenseService {
         }
 
         Expense savedExpense = repository.save(expense);
+        profitRollupService.markDirty(pumpMaster.getId(), savedExpense.getExpenseDate());
 
         // Create debit transaction in bank account when expense type is BANK_ACCOUNT
         if (savedExpense.getExpenseType() == ExpenseType.BANK_ACCOUNT && savedExpense.getBankAccount() != null) {
@@ -238,6 +240,9 @@ public class ExpenseService {
             throw new PumpBusinessException("EXPENSE_NOT_FOUND", "Expense with ID " + id + " not found");
         }
 
+        // The old day loses the expense if the date changes
+        profitRollupService.markDirty(existingExpense.getPumpMaster().getId(), existingExpense.getExpenseDate());
+
         // Track old values for bank transaction handling
         ExpenseType oldExpenseType = existingExpense.getExpenseType();
         BankAccount oldBankAccount = existingExpense.getBankAccount();
@@ -317,6 +322,7 @@ public class ExpenseService {
         handleBankTransactionUpdate(existingExpense, oldExpenseType, oldBankAccount, oldAmount, oldBankTransaction, request.getPaymentMethod());
 
         Expense updatedExpense = repository.save(existingExpense);
+        profitRollupService.markDirty(updatedExpense.getPumpMaster().getId(), updatedExpense.getExpenseDate());
         return mapper.toResponse(updatedExpense);
     }
 
@@ -336,6 +342,7 @@ public class ExpenseService {
         }
 
         repository.delete(expense);
+        profitRollupService.markDirty(expense.getPumpMaster().getId(), expense.getExpenseDate());
     }
 
     private void validateExpenseTypeAssociations(ExpenseType expenseType, UUID salesmanShiftId,
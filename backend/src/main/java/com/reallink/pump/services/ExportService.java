@@ -0,0 +1,430 @@
+package com.reallink.pump.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.annotation.Validated;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reallink.pump.dto.response.CustomerLedgerEntryResponse;
+import com.reallink.pump.dto.response.SupplierLedgerEntryResponse;
+import com.reallink.pump.dto.response.SupplierLedgerSummaryResponse;
+import com.reallink.pump.entities.TankTransaction;
+import com.reallink.pump.enums.ExportFormat;
+import com.reallink.pump.util.UuidBytes;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Server-side exports of transaction lists and ledgers. Rows are read through
+ * a forward-only cursor and written to the response one at a time, so heap
+ * use stays flat however many rows a pump has.
+ *
+ * All validation runs before the output is opened: a bad request gets a
+ * normal error response instead of a truncated file.
+ */
+@Service
+@Validated
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ExportService {
+
+    private final StreamingQueryTemplate streamingQueryTemplate;
+    private final CustomerLedgerService customerLedgerService;
+    private final SupplierLedgerService supplierLedgerService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Opens the output once the export is known to be valid.
+     */
+    @FunctionalInterface
+    public interface ExportTarget {
+
+        OutputStream open() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ColumnReader {
+
+        Object read(ResultSet rs, String column) throws SQLException;
+    }
+
+    private record Column(String name, ColumnReader reader) {
+
+    }
+
+    private record Dataset(String sql, List<Column> columns) {
+
+        List<String> names() {
+            return columns.stream().map(Column::name).toList();
+        }
+    }
+
+    private static final ColumnReader TEXT = ResultSet::getString;
+    private static final ColumnReader DECIMAL = ResultSet::getBigDecimal;
+    private static final ColumnReader NUMBER = (rs, column) -> {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    };
+    private static final ColumnReader FLAG = (rs, column) -> {
+        boolean value = rs.getBoolean(column);
+        return rs.wasNull() ? null : value;
+    };
+    private static final ColumnReader DATE = (rs, column) -> {
+        Date value = rs.getDate(column);
+        return value == null ? null : value.toLocalDate();
+    };
+    private static final ColumnReader DATE_TIME = (rs, column) -> {
+        Timestamp value = rs.getTimestamp(column);
+        return value == null ? null : value.toLocalDateTime();
+    };
+    private static final ColumnReader ID = (rs, column) -> {
+        byte[] value = rs.getBytes(column);
+        return value == null ? null : UuidBytes.fromBytes(value);
+    };
+    // Tank transaction types are stored by ordinal
+    private static final ColumnReader TANK_TRANSACTION_TYPE = (rs, column) -> {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : TankTransaction.TransactionType.values()[value].name();
+    };
+
+    private static Column column(String name, ColumnReader reader) {
+        return new Column(name, reader);
+    }
+
+    private static final Map<String, Dataset> DATASETS = Map.of(
+            "bills", new Dataset("""
+                    SELECT b.id, b.bill_no, b.bill_date, c.customer_name, b.rate_type, b.payment_type,
+                           b.total_amount, b.discount_amount, b.tax_amount, b.net_amount, b.entry_by
+                    FROM pump_bill_master b
+                    JOIN pump_customer_master c ON c.id = b.customer_id
+                    WHERE b.pump_master_id = :pumpMasterId
+                      AND b.bill_date BETWEEN :fromDate AND :toDate
+                    ORDER BY b.bill_date, b.bill_no
+                    """, List.of(
+                    column("id", ID),
+                    column("bill_no", NUMBER),
+                    column("bill_date", DATE),
+                    column("customer_name", TEXT),
+                    column("rate_type", TEXT),
+                    column("payment_type", TEXT),
+                    column("total_amount", DECIMAL),
+                    column("discount_amount", DECIMAL),
+                    column("tax_amount", DECIMAL),
+                    column("net_amount", DECIMAL),
+                    column("entry_by", TEXT))),
+            "purchases", new Dataset("""
+                    SELECT p.id, p.purchase_id, p.purchase_date, p.invoice_number, s.supplier_name, p.rate_type,
+                           p.payment_type, p.total_amount, p.tax_amount, p.net_amount, p.goods_received_by, p.entry_by
+                    FROM pump_purchase_master p
+                    JOIN pump_supplier_master s ON s.id = p.supplier_id
+                    WHERE p.pump_master_id = :pumpMasterId
+                      AND p.purchase_date BETWEEN :fromDate AND :toDate
+                    ORDER BY p.purchase_date, p.purchase_id
+                    """, List.of(
+                    column("id", ID),
+                    column("purchase_id", NUMBER),
+                    column("purchase_date", DATE),
+                    column("invoice_number", TEXT),
+                    column("supplier_name", TEXT),
+                    column("rate_type", TEXT),
+                    column("payment_type", TEXT),
+                    column("total_amount", DECIMAL),
+                    column("tax_amount", DECIMAL),
+                    column("net_amount", DECIMAL),
+                    column("goods_received_by", TEXT),
+                    column("entry_by", TEXT))),
+            "fuel-purchases", new Dataset("""
+                    SELECT fp.id, fp.fuel_purchase_id, fp.purchase_date, fp.invoice_number, s.supplier_name,
+                           t.tank_name, fp.quantity, fp.purchase_rate, fp.amount, fp.tax_percentage,
+                           fp.vehicle_number, fp.driver_name, fp.entry_by
+                    FROM pump_fuel_purchase_master fp
+                    JOIN pump_supplier_master s ON s.id = fp.supplier_id
+                    JOIN pump_tank_master t ON t.id = fp.tank_id
+                    WHERE fp.pump_master_id = :pumpMasterId
+                      AND fp.purchase_date BETWEEN :fromDate AND :toDate
+                    ORDER BY fp.purchase_date, fp.fuel_purchase_id
+                    """, List.of(
+                    column("id", ID),
+                    column("fuel_purchase_id", NUMBER),
+                    column("purchase_date", DATE),
+                    column("invoice_number", TEXT),
+                    column("supplier_name", TEXT),
+                    column("tank_name", TEXT),
+                    column("quantity", DECIMAL),
+                    column("purchase_rate", DECIMAL),
+                    column("amount", DECIMAL),
+                    column("tax_percentage", DECIMAL),
+                    column("vehicle_number", TEXT),
+                    column("driver_name", TEXT),
+                    column("entry_by", TEXT))),
+            "shifts", new Dataset("""
+                    SELECT ss.id, u.username AS salesman, ss.start_datetime, ss.end_datetime, ss.opening_cash,
+                           ss.status, ss.is_accounting_done,
+                           (SELECT SUM(na.dispensed_amount) FROM pump_nozzle_assignment na
+                            WHERE na.salesman_shift_id = ss.id) AS dispensed_quantity,
+                           (SELECT SUM(na.total_amount) FROM pump_nozzle_assignment na
+                            WHERE na.salesman_shift_id = ss.id) AS dispensed_amount
+                    FROM pump_salesman_shift ss
+                    JOIN pump_user_master u ON u.id = ss.salesman_id
+                    WHERE ss.pump_master_id = :pumpMasterId
+                      AND ss.start_datetime >= :fromDateTime AND ss.start_datetime < :toDateTime
+                    ORDER BY ss.start_datetime, ss.id
+                    """, List.of(
+                    column("id", ID),
+                    column("salesman", TEXT),
+                    column("start_datetime", DATE_TIME),
+                    column("end_datetime", DATE_TIME),
+                    column("opening_cash", DECIMAL),
+                    column("status", TEXT),
+                    column("is_accounting_done", FLAG),
+                    column("dispensed_quantity", DECIMAL),
+                    column("dispensed_amount", DECIMAL))),
+            "bank-transactions", new Dataset("""
+                    SELECT bt.id, ba.bank, ba.account_number, bt.transaction_date, bt.transaction_type,
+                           bt.amount, bt.payment_method, bt.description, bt.entry_by
+                    FROM pump_bank_transaction_master bt
+                    JOIN pump_bank_account_master ba ON ba.id = bt.bank_account_id
+                    WHERE ba.pump_master_id = :pumpMasterId
+                      AND bt.transaction_date >= :fromDateTime AND bt.transaction_date < :toDateTime
+                    ORDER BY bt.transaction_date, bt.id
+                    """, List.of(
+                    column("id", ID),
+                    column("bank", TEXT),
+                    column("account_number", TEXT),
+                    column("transaction_date", DATE_TIME),
+                    column("transaction_type", TEXT),
+                    column("amount", DECIMAL),
+                    column("payment_method", TEXT),
+                    column("description", TEXT),
+                    column("entry_by", TEXT))),
+            "tank-transactions", new Dataset("""
+                    SELECT tt.id, t.tank_name, tt.transaction_date, tt.transaction_type, tt.volume,
+                           tt.description, tt.supplier_name, tt.invoice_number, tt.entry_by
+                    FROM pump_tank_transaction_master tt
+                    JOIN pump_tank_master t ON t.id = tt.tank_id
+                    WHERE t.pump_master_id = :pumpMasterId
+                      AND tt.transaction_date >= :fromDateTime AND tt.transaction_date < :toDateTime
+                    ORDER BY tt.transaction_date, tt.id
+                    """, List.of(
+                    column("id", ID),
+                    column("tank_name", TEXT),
+                    column("transaction_date", DATE_TIME),
+                    column("transaction_type", TANK_TRANSACTION_TYPE),
+                    column("volume", DECIMAL),
+                    column("description", TEXT),
+                    column("supplier_name", TEXT),
+                    column("invoice_number", TEXT),
+                    column("entry_by", TEXT))));
+
+    private static final List<String> LEDGER_COLUMNS = List.of(
+            "id", "entry_type", "date", "reference_number", "debit_amount", "credit_amount", "balance",
+            "linked_id", "payment_method", "notes", "entry_by");
+
+    /**
+     * Export one of the transaction lists for a date range.
+     */
+    public void exportDataset(
+            @NotNull String dataset,
+            @NotNull UUID pumpMasterId,
+            @NotNull LocalDate fromDate,
+            @NotNull LocalDate toDate,
+            @NotNull ExportFormat format,
+            @NotNull ExportTarget target) {
+        Dataset definition = DATASETS.get(dataset);
+        if (definition == null) {
+            throw new IllegalArgumentException("Invalid export dataset: " + dataset
+                    + ". Must be one of " + DATASETS.keySet().stream().sorted().toList());
+        }
+        validateRange(fromDate, toDate);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("pumpMasterId", UuidBytes.toBytes(pumpMasterId))
+                .addValue("fromDate", fromDate)
+                .addValue("toDate", toDate)
+                .addValue("fromDateTime", fromDate.atStartOfDay())
+                .addValue("toDateTime", toDate.plusDays(1).atStartOfDay());
+
+        ExportWriter writer = open(format, target, definition.names());
+        List<Column> columns = definition.columns();
+        Object[] row = new Object[columns.size()];
+        streamingQueryTemplate.stream(definition.sql(), params, rs -> {
+            for (int i = 0; i < row.length; i++) {
+                Column column = columns.get(i);
+                row[i] = column.reader().read(rs, column.name());
+            }
+            write(writer, row);
+        });
+        finish(writer);
+    }
+
+    /**
+     * Export a customer's ledger. The opening and closing balances are written
+     * as the first and last rows.
+     */
+    public void exportCustomerLedger(
+            @NotNull UUID customerId,
+            @NotNull UUID pumpMasterId,
+            @NotNull LocalDate fromDate,
+            @NotNull LocalDate toDate,
+            @NotNull ExportFormat format,
+            @NotNull ExportTarget target) {
+        LedgerExport export = new LedgerExport(format, target, fromDate, toDate);
+        customerLedgerService.streamLedger(customerId, pumpMasterId, fromDate, toDate,
+                new CustomerLedgerService.LedgerSink() {
+            @Override
+            public void opening(BigDecimal openingBalance) {
+                export.opening(openingBalance);
+            }
+
+            @Override
+            public void entry(CustomerLedgerEntryResponse entry) {
+                export.entry(entry.getId(), entry.getEntryType(), entry.getDate(), entry.getReferenceNumber(),
+                        entry.getDebitAmount(), entry.getCreditAmount(), entry.getBalance(),
+                        entry.getBillId(), entry.getPaymentMethod(), entry.getNotes(), entry.getEntryBy());
+            }
+
+            @Override
+            public void closing(BigDecimal closingBalance) {
+                export.closing(closingBalance);
+            }
+        });
+        export.finish();
+    }
+
+    /**
+     * Export a supplier's ledger. Purchases are written as debits and payments
+     * as credits; the opening and closing balances are the first and last rows.
+     */
+    public void exportSupplierLedger(
+            @NotNull UUID supplierId,
+            @NotNull UUID pumpMasterId,
+            @NotNull LocalDate fromDate,
+            @NotNull LocalDate toDate,
+            @NotNull ExportFormat format,
+            @NotNull ExportTarget target) {
+        LedgerExport export = new LedgerExport(format, target, fromDate, toDate);
+        supplierLedgerService.streamLedger(supplierId, pumpMasterId, fromDate, toDate,
+                new SupplierLedgerService.LedgerSink() {
+            @Override
+            public void opening(BigDecimal openingBalance) {
+                export.opening(openingBalance);
+            }
+
+            @Override
+            public void entry(SupplierLedgerEntryResponse entry) {
+                export.entry(entry.getId(), entry.getEntryType(), entry.getDate(), entry.getReferenceNumber(),
+                        entry.getPurchaseAmount(), entry.getPaidAmount(), entry.getBalance(),
+                        entry.getPurchaseId(), entry.getPaymentMethod(), entry.getNotes(), entry.getEntryBy());
+            }
+
+            @Override
+            public void closing(SupplierLedgerSummaryResponse summary) {
+                export.closing(summary.getClosingBalance());
+            }
+        });
+        export.finish();
+    }
+
+    /**
+     * Writes ledger rows for either ledger. The output is opened by the
+     * opening balance, which the ledger services hand over only after they
+     * have validated the request.
+     */
+    private final class LedgerExport {
+
+        private final ExportFormat format;
+        private final ExportTarget target;
+        private final LocalDate fromDate;
+        private final LocalDate toDate;
+        private final Object[] row = new Object[LEDGER_COLUMNS.size()];
+        private ExportWriter writer;
+
+        private LedgerExport(ExportFormat format, ExportTarget target, LocalDate fromDate, LocalDate toDate) {
+            this.format = format;
+            this.target = target;
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+        }
+
+        void opening(BigDecimal openingBalance) {
+            writer = open(format, target, LEDGER_COLUMNS);
+            balanceRow("OPENING_BALANCE", fromDate, openingBalance);
+        }
+
+        void entry(Object... values) {
+            System.arraycopy(values, 0, row, 0, row.length);
+            write(writer, row);
+        }
+
+        void closing(BigDecimal closingBalance) {
+            balanceRow("CLOSING_BALANCE", toDate, closingBalance);
+        }
+
+        private void balanceRow(String entryType, LocalDate date, BigDecimal balance) {
+            Arrays.fill(row, null);
+            row[1] = entryType;
+            row[2] = date.atStartOfDay();
+            row[6] = balance;
+            write(writer, row);
+        }
+
+        void finish() {
+            if (writer != null) {
+                ExportService.this.finish(writer);
+            }
+        }
+    }
+
+    private ExportWriter open(ExportFormat format, ExportTarget target, List<String> names) {
+        try {
+            return ExportWriter.create(format, target.open(), names, objectMapper);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Complete an export that has written all its rows. Deliberately not
+     * called when the export fails part-way: closing writes the end of the
+     * document and the gzip trailer, and a cut-off export would then look
+     * complete. Left unfinished, the exception reaches the container, which
+     * aborts the response instead.
+     */
+    private void finish(ExportWriter writer) {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(ExportWriter writer, Object[] row) {
+        try {
+            writer.writeRow(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void validateRange(LocalDate fromDate, LocalDate toDate) {
+        if (fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("From date must not be after to date");
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.reallink.pump.services;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reallink.pump.enums.ExportFormat;
+
+/**
+ * Writes export rows to a stream one at a time. Nothing is kept per row, so
+ * memory use does not depend on how many rows are written.
+ */
+public abstract class ExportWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    protected final List<String> columns;
+
+    protected ExportWriter(List<String> columns) {
+        this.columns = columns;
+    }
+
+    public static ExportWriter create(ExportFormat format, OutputStream out, List<String> columns,
+            ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case CSV ->
+                new CsvWriter(out, columns);
+            case NDJSON ->
+                new NdjsonWriter(out, columns, objectMapper);
+        };
+    }
+
+    /**
+     * Write one row; values are in column order.
+     */
+    public abstract void writeRow(Object[] values) throws IOException;
+
+    private static final class CsvWriter extends ExportWriter {
+
+        private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+        private final Writer writer;
+
+        private CsvWriter(OutputStream out, List<String> columns) throws IOException {
+            super(columns);
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writeLine(columns.toArray());
+        }
+
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            writeLine(values);
+        }
+
+        private void writeLine(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCell(values[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeCell(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+            // A spreadsheet runs a text cell starting with one of these as a
+            // formula; the leading quote makes it plain text. Numbers are left
+            // alone so negative amounts stay numeric.
+            if (!(value instanceof Number) && !text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+                text = "'" + text;
+            }
+            boolean quote = false;
+            for (int i = 0; i < text.length() && !quote; i++) {
+                char c = text.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static final class NdjsonWriter extends ExportWriter {
+
+        private final JsonGenerator json;
+        private boolean empty = true;
+
+        private NdjsonWriter(OutputStream out, List<String> columns, ObjectMapper objectMapper) throws IOException {
+            super(columns);
+            this.json = objectMapper.getFactory().createGenerator(out);
+            // Root values are separated by a newline and nothing else
+            this.json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        }
+
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            json.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                json.writeFieldName(columns.get(i));
+                json.writeObject(values[i]);
+            }
+            json.writeEndObject();
+            empty = false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!empty) {
+                json.writeRaw('\n');
+            }
+            json.close();
+        }
+    }
+}
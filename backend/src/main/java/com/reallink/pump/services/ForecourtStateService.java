@@ -0,0 +1,282 @@
+package com.reallink.pump.services;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.reallink.pump.entities.NozzleAssignment;
+import com.reallink.pump.entities.SalesmanShift;
+import com.reallink.pump.repositories.NozzleAssignmentRepository;
+import com.reallink.pump.repositories.SalesmanShiftRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory view of the live forecourt per pump: which shifts are open and
+ * which nozzle is held by which open assignment. Built from the database at
+ * startup and kept current by the shift lifecycle methods in
+ * {@link SalesmanShiftService}. Changes are applied only after the surrounding
+ * transaction commits, so a rollback never leaves the state ahead of the
+ * database. The exception is a nozzle claim, which is visible at once so that
+ * a second assignment on this node is rejected early, and is dropped on
+ * rollback.
+ *
+ * The state is per node, so it can be behind writes made through another
+ * node. Nothing relies on it for correctness: the authoritative checks are
+ * locking reads in {@link SalesmanShiftService}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ForecourtStateService {
+
+    private final SalesmanShiftRepository salesmanShiftRepository;
+    private final NozzleAssignmentRepository nozzleAssignmentRepository;
+
+    private volatile Map<UUID, PumpState> pumps = new ConcurrentHashMap<>();
+
+    // Updates share the read lock; a rebuild takes the write lock, so an update
+    // committed while the database is being read waits and is applied to the
+    // rebuilt state instead of being lost with the old one
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    /**
+     * Load all open shifts and open nozzle assignments from the database.
+     * Claims of transactions still in flight are carried over.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            this.pumps = load();
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private Map<UUID, PumpState> load() {
+        Map<UUID, PumpState> rebuilt = new ConcurrentHashMap<>();
+
+        List<SalesmanShift> openShifts = salesmanShiftRepository.findAllOpenShiftsWithSalesman();
+        for (SalesmanShift shift : openShifts) {
+            OpenShift openShift = OpenShift.of(shift);
+            rebuilt.computeIfAbsent(openShift.getPumpMasterId(), id -> new PumpState())
+                    .shifts.put(openShift.getShiftId(), openShift);
+        }
+
+        List<NozzleAssignment> openAssignments = nozzleAssignmentRepository.findAllOpenAssignments();
+        for (NozzleAssignment assignment : openAssignments) {
+            NozzleHold hold = NozzleHold.of(assignment);
+            rebuilt.computeIfAbsent(assignment.getPumpMaster().getId(), id -> new PumpState())
+                    .nozzles.put(hold.getNozzleId(), hold);
+        }
+
+        pumps.forEach((pumpMasterId, state) -> state.nozzles.forEach((nozzleId, hold) -> {
+            if (hold.isClaim()) {
+                rebuilt.computeIfAbsent(pumpMasterId, id -> new PumpState()).nozzles.putIfAbsent(nozzleId, hold);
+            }
+        }));
+
+        log.info("Forecourt state loaded: {} open shift(s), {} held nozzle(s)",
+                openShifts.size(), openAssignments.size());
+        return rebuilt;
+    }
+
+    // ============================================
+    // Reads
+    // ============================================
+    /**
+     * Open shifts of a pump, most recently started first.
+     */
+    public List<OpenShift> getOpenShifts(UUID pumpMasterId) {
+        PumpState state = pumps.get(pumpMasterId);
+        if (state == null) {
+            return List.of();
+        }
+        List<OpenShift> shifts = new ArrayList<>(state.shifts.values());
+        shifts.sort(Comparator.comparing(OpenShift::getStartDatetime,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return shifts;
+    }
+
+    /**
+     * IDs of nozzles currently held by an open assignment.
+     */
+    public List<UUID> getAssignedNozzleIds(UUID pumpMasterId) {
+        PumpState state = pumps.get(pumpMasterId);
+        return state == null ? List.of() : new ArrayList<>(state.nozzles.keySet());
+    }
+
+    // ============================================
+    // Lifecycle updates (applied after commit)
+    // ============================================
+    /**
+     * Claim a nozzle for an assignment the current transaction is about to
+     * create. Returns false if an open assignment or another in-flight claim
+     * already holds it. The claim is dropped if the transaction rolls back,
+     * and replaced by the assignment's hold when {@link #nozzleAssigned}
+     * commits. Only an early rejection: the caller still checks the database
+     * under the nozzle's row lock.
+     */
+    public boolean claimNozzle(UUID pumpMasterId, UUID nozzleId, UUID shiftId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Nozzles can only be claimed inside a transaction");
+        }
+        NozzleHold claim = new NozzleHold(nozzleId, null, shiftId);
+        rebuildLock.readLock().lock();
+        try {
+            if (pump(pumpMasterId).nozzles.putIfAbsent(nozzleId, claim) != null) {
+                return false;
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    apply(() -> pump(pumpMasterId).nozzles.remove(nozzleId, claim));
+                }
+            }
+        });
+        return true;
+    }
+
+    public void shiftStarted(SalesmanShift shift) {
+        OpenShift openShift = OpenShift.of(shift);
+        afterCommit(() -> pump(openShift.getPumpMasterId()).shifts.put(openShift.getShiftId(), openShift));
+    }
+
+    public void shiftClosed(SalesmanShift shift) {
+        UUID pumpMasterId = shift.getPumpMaster().getId();
+        UUID shiftId = shift.getId();
+        afterCommit(() -> pump(pumpMasterId).shifts.remove(shiftId));
+    }
+
+    /**
+     * A deleted shift releases the shift and every nozzle it still held.
+     */
+    public void shiftDeleted(SalesmanShift shift) {
+        UUID pumpMasterId = shift.getPumpMaster().getId();
+        UUID shiftId = shift.getId();
+        afterCommit(() -> {
+            PumpState state = pump(pumpMasterId);
+            state.shifts.remove(shiftId);
+            state.nozzles.values().removeIf(hold -> shiftId.equals(hold.getShiftId()));
+        });
+    }
+
+    public void nozzleAssigned(NozzleAssignment assignment) {
+        UUID pumpMasterId = assignment.getPumpMaster().getId();
+        NozzleHold hold = NozzleHold.of(assignment);
+        afterCommit(() -> pump(pumpMasterId).nozzles.put(hold.getNozzleId(), hold));
+    }
+
+    public void nozzleReleased(NozzleAssignment assignment) {
+        UUID pumpMasterId = assignment.getPumpMaster().getId();
+        UUID nozzleId = assignment.getNozzle().getId();
+        UUID assignmentId = assignment.getId();
+        // Only release if the nozzle is still held by this assignment
+        afterCommit(() -> pump(pumpMasterId).nozzles.computeIfPresent(nozzleId,
+                (id, hold) -> assignmentId.equals(hold.getAssignmentId()) ? null : hold));
+    }
+
+    private void apply(Runnable change) {
+        rebuildLock.readLock().lock();
+        try {
+            change.run();
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private PumpState pump(UUID pumpMasterId) {
+        return pumps.computeIfAbsent(pumpMasterId, id -> new PumpState());
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private static class PumpState {
+
+        private final Map<UUID, OpenShift> shifts = new ConcurrentHashMap<>();
+        private final Map<UUID, NozzleHold> nozzles = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Snapshot of an open shift, holding what the open-shift list shows.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class OpenShift {
+
+        private final UUID shiftId;
+        private final UUID salesmanId;
+        private final String salesmanUsername;
+        private final UUID pumpMasterId;
+        private final LocalDateTime startDatetime;
+        private final BigDecimal openingCash;
+
+        static OpenShift of(SalesmanShift shift) {
+            return new OpenShift(
+                    shift.getId(),
+                    shift.getSalesman().getId(),
+                    shift.getSalesman().getUsername(),
+                    shift.getPumpMaster().getId(),
+                    shift.getStartDatetime(),
+                    shift.getOpeningCash());
+        }
+    }
+
+    /**
+     * The open assignment currently holding a nozzle, or a claim (without an
+     * assignment ID) by a transaction that has not committed yet.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class NozzleHold {
+
+        private final UUID nozzleId;
+        private final UUID assignmentId;
+        private final UUID shiftId;
+
+        boolean isClaim() {
+            return assignmentId == null;
+        }
+
+        static NozzleHold of(NozzleAssignment assignment) {
+            return new NozzleHold(
+                    assignment.getNozzle().getId(),
+                    assignment.getId(),
+                    assignment.getSalesmanShift().getId());
+        }
+    }
+}
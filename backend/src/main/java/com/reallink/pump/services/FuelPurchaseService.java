@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -40,6 +41,8 @@ public class FuelPurchaseService {
     private final TankRepository tankRepository;
     private final FuelPurchaseMapper mapper;
     private final TankTransactionService tankTransactionService;
+    private final ProfitRollupService profitRollupService;
+    private final DashboardFactService dashboardFactService;
 
     public List<FuelPurchaseResponse> getAll() {
         return repository.findAll().stream()
@@ -61,7 +64,7 @@ public class FuelPurchaseService {
     }
 
     public List<FuelPurchaseResponse> getBySupplierId(@NotNull UUID supplierId) {
-        return repository.findTopNBySupplierIdOrderByPurchaseDateDesc(supplierId, PageRequest.of(0, Integer.MAX_VALUE)).stream()
+        return repository.findTopNBySupplierIdOrderByPurchaseDateDesc(supplierId, Pageable.unpaged()).stream()
                 .map(mapper::toResponse)
                 .toList();
     }
@@ -147,6 +150,8 @@ public class FuelPurchaseService {
         fuelPurchase.setEntryBy(SecurityContextHolder.getContext().getAuthentication().getName());
 
         FuelPurchase savedFuelPurchase = repository.save(fuelPurchase);
+        profitRollupService.markDirty(pumpMaster.getId(), savedFuelPurchase.getPurchaseDate());
+        dashboardFactService.markDirty(pumpMaster.getId(), savedFuelPurchase.getCreatedAt());
 
         // If addToStock is true, update tank level and create tank transaction
         if (Boolean.TRUE.equals(savedFuelPurchase.getAddToStock())) {
@@ -183,11 +188,16 @@ public class FuelPurchaseService {
                     "Fuel purchase with invoice number '" + request.getInvoiceNumber() + "' already exists for this pump master");
         }
 
+        // The old day loses the purchase if the date changes
+        profitRollupService.markDirty(fuelPurchase.getPumpMaster().getId(), fuelPurchase.getPurchaseDate());
+
         mapper.updateEntityFromRequest(request, fuelPurchase);
         fuelPurchase.setSupplier(supplier);
         fuelPurchase.setTank(tank);
 
         FuelPurchase savedFuelPurchase = repository.save(fuelPurchase);
+        profitRollupService.markDirty(savedFuelPurchase.getPumpMaster().getId(), savedFuelPurchase.getPurchaseDate());
+        dashboardFactService.markDirty(savedFuelPurchase.getPumpMaster().getId(), savedFuelPurchase.getCreatedAt());
         return mapper.toResponse(savedFuelPurchase);
     }
 
@@ -197,6 +207,8 @@ public class FuelPurchaseService {
                 .orElseThrow(() -> new PumpBusinessException("FUEL_PURCHASE_NOT_FOUND",
                 "Fuel purchase with ID " + id + " not found"));
         repository.delete(fuelPurchase);
+        profitRollupService.markDirty(fuelPurchase.getPumpMaster().getId(), fuelPurchase.getPurchaseDate());
+        dashboardFactService.markDirty(fuelPurchase.getPumpMaster().getId(), fuelPurchase.getCreatedAt());
     }
 
     private void updateTankLevelAndCreateTransaction(FuelPurchase fuelPurchase) {
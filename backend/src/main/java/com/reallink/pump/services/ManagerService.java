@@ -19,6 +19,7 @@ import com.reallink.pump.mapper.ManagerMapper;
 import com.reallink.pump.repositories.ManagerRepository;
 import com.reallink.pump.repositories.PumpInfoMasterRepository;
 import com.reallink.pump.repositories.RoleRepository;
+import com.reallink.pump.security.UserPrincipalCache;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -33,6 +34,7 @@ public class ManagerService {
     private final ManagerRepository repository;
     private final PumpInfoMasterRepository pumpInfoMasterRepository;
     private final RoleRepository roleRepository;
+    private final UserPrincipalCache principalCache;
     private final ManagerMapper mapper;
     private final PasswordEncoder passwordEncoder;
 
@@ -114,6 +116,7 @@ public class ManagerService {
         }
 
         User savedUser = repository.save(existingUser);
+        principalCache.invalidate(id);
         return mapper.toResponse(savedUser);
     }
 }
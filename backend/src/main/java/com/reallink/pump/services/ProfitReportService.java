@@ -6,43 +6,43 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.reallink.pump.dto.response.ExpenseBreakdown;
+import com.reallink.pump.dto.response.ExpenseHeadTotalsView;
 import com.reallink.pump.dto.response.FuelMetrics;
 import com.reallink.pump.dto.response.FuelProfitBreakdown;
+import com.reallink.pump.dto.response.ProductSalesTotalsView;
 import com.reallink.pump.dto.response.ProductWiseProfit;
 import com.reallink.pump.dto.response.ProfitReportResponse;
-import com.reallink.pump.entities.Expense;
-import com.reallink.pump.entities.ExpenseHead;
-import com.reallink.pump.entities.FuelPurchase;
-import com.reallink.pump.entities.Product;
-import com.reallink.pump.entities.SalesmanShiftAccounting;
-import com.reallink.pump.repositories.ExpenseRepository;
-import com.reallink.pump.repositories.FuelPurchaseRepository;
-import com.reallink.pump.repositories.SalesmanShiftAccountingRepository;
+import com.reallink.pump.dto.response.ReportCacheStatsResponse;
+import com.reallink.pump.repositories.DailyExpenseSummaryRepository;
+import com.reallink.pump.repositories.DailyProductSalesRepository;
+import com.reallink.pump.services.ReportQueryExecutor.ReportQuery;
 
 import lombok.RequiredArgsConstructor;
 
 /**
- * Service for generating profit reports focused on fuel sales Uses
- * SalesmanShiftAccounting as the source of truth for fuel sales data
+ * Service for generating profit reports focused on fuel sales. Reads the daily
+ * per-product and per-expense-head rollups kept by
+ * {@link ProfitRollupService}, so any range is a pair of GROUP BY queries.
+ *
+ * Not transactional: both queries run in their own read-only transactions on
+ * the {@link ReportQueryExecutor}, and an outer transaction would only hold an
+ * idle connection while they run.
  */
 @Service
 @RequiredArgsConstructor
-@Transactional(readOnly = true)
 public class ProfitReportService {
 
-    private final SalesmanShiftAccountingRepository accountingRepository;
-    private final FuelPurchaseRepository fuelPurchaseRepository;
-    private final ExpenseRepository expenseRepository;
+    private final DailyProductSalesRepository dailyProductSalesRepository;
+    private final DailyExpenseSummaryRepository dailyExpenseSummaryRepository;
+    private final ReportResultCache reportResultCache;
+    private final ReportQueryExecutor reportQueryExecutor;
 
     /**
      * Get today's profit report
@@ -106,47 +106,86 @@ public class ProfitReportService {
     }
 
     /**
-     * Generate comprehensive profit report for the given period
+     * Hit rate and size of the report result cache
+     */
+    public ReportCacheStatsResponse getCacheStats() {
+        return reportResultCache.getStats();
+    }
+
+    /**
+     * Profit report for the given period, served from the report result cache
+     * when the period is closed. The cached report is shared, so each request
+     * gets a copy stamped with its own generation time.
      */
     private ProfitReportResponse generateProfitReport(UUID pumpMasterId, LocalDate startDate,
             LocalDate endDate, String periodType) {
+        return reportResultCache.get(pumpMasterId, "PROFIT", startDate, endDate, periodType,
+                () -> buildProfitReport(pumpMasterId, startDate, endDate, periodType))
+                .toBuilder()
+                .generatedAt(LocalDateTime.now())
+                .build();
+    }
 
-        // Convert LocalDate to LocalDateTime for the query
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-
-        // Fetch all shift accounting records in the period (these contain final fuel sales data)
-        List<SalesmanShiftAccounting> accountingRecords = accountingRepository.findByPumpMasterIdAndDateRange(
-                pumpMasterId, startDateTime, endDateTime);
-
-        // Fetch all fuel purchases in the period
-        List<FuelPurchase> fuelPurchases = fuelPurchaseRepository.findByPumpMasterIdAndDateRange(
-                pumpMasterId, startDate, endDate);
+    /**
+     * Generate comprehensive profit report for the given period from the daily
+     * product and expense rollups
+     */
+    private ProfitReportResponse buildProfitReport(UUID pumpMasterId, LocalDate startDate,
+            LocalDate endDate, String periodType) {
 
-        // Fetch all expenses in the period
-        List<Expense> expenses = expenseRepository.findByPumpMaster_IdAndExpenseDateBetween(
-                pumpMasterId, startDate, endDate);
+        // Product and expense totals are independent, so they run concurrently
+        ReportQueryExecutor.Fanout fanout = reportQueryExecutor.fanout("profit report", pumpMasterId);
+        ReportQuery<List<ProductSalesTotalsView>> productQuery = fanout.submit("product totals",
+                () -> dailyProductSalesRepository.sumByProduct(pumpMasterId, startDate, endDate));
+        ReportQuery<List<ExpenseHeadTotalsView>> expenseQuery = fanout.submit("expense totals",
+                () -> dailyExpenseSummaryRepository.sumByExpenseHead(pumpMasterId, startDate, endDate));
+        fanout.await();
 
-        // Calculate fuel sales revenue and metrics from accounting records
-        FuelSalesData fuelSalesData = calculateFuelSalesDataFromAccounting(accountingRecords);
+        List<ProductSalesTotalsView> productTotals = productQuery.get();
+        List<ExpenseHeadTotalsView> expenseTotals = expenseQuery.get();
 
-        // Calculate fuel purchase costs and metrics
-        FuelPurchaseData fuelPurchaseData = calculateFuelPurchaseData(fuelPurchases);
+        List<ProductWiseProfit> productWiseProfits = new ArrayList<>();
+        BigDecimal revenue = BigDecimal.ZERO;
+        BigDecimal purchaseCost = BigDecimal.ZERO;
+        BigDecimal quantitySold = BigDecimal.ZERO;
+        BigDecimal quantityPurchased = BigDecimal.ZERO;
+        long salesCount = 0;
+        long purchaseCount = 0;
+        for (ProductSalesTotalsView totals : productTotals) {
+            ProductWiseProfit productProfit = buildProductWiseProfit(totals);
+            productWiseProfits.add(productProfit);
+
+            revenue = revenue.add(productProfit.getSalesRevenue());
+            purchaseCost = purchaseCost.add(productProfit.getPurchaseCost());
+            quantitySold = quantitySold.add(productProfit.getQuantitySold());
+            quantityPurchased = quantityPurchased.add(productProfit.getQuantityPurchased());
+            salesCount += orZero(totals.getSalesCount());
+            purchaseCount += orZero(totals.getPurchaseCount());
+        }
 
-        // Calculate operating expenses (excluding shift expenses which are already in accounting)
-        BigDecimal operatingExpenses = calculateOperatingExpenses(expenses);
-        List<ExpenseBreakdown> expenseBreakdowns = calculateExpenseBreakdowns(expenses);
+        List<ExpenseBreakdown> expenseBreakdowns = expenseTotals.stream()
+                .map(totals -> ExpenseBreakdown.builder()
+                .expenseHeadId(totals.getExpenseHeadId().toString())
+                .expenseHeadName(totals.getExpenseHeadName())
+                .amount(orZero(totals.getAmount()))
+                .count(orZero(totals.getExpenseCount()))
+                .build())
+                .collect(Collectors.toList());
+        BigDecimal operatingExpenses = expenseBreakdowns.stream()
+                .map(ExpenseBreakdown::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         // Calculate profit breakdown
-        FuelProfitBreakdown profitBreakdown = calculateProfitBreakdown(
-                fuelSalesData.revenue, fuelPurchaseData.cost, operatingExpenses);
-
-        // Build fuel metrics
-        FuelMetrics fuelMetrics = buildFuelMetrics(fuelSalesData, fuelPurchaseData, accountingRecords.size());
-
-        // Build product-wise profit from fuel purchases (sales are aggregated in accounting)
-        List<ProductWiseProfit> productWiseProfits = calculateProductWiseProfitFromPurchases(
-                fuelSalesData.revenue, fuelPurchaseData.productPurchases);
+        FuelProfitBreakdown profitBreakdown = calculateProfitBreakdown(revenue, purchaseCost, operatingExpenses);
+
+        FuelMetrics fuelMetrics = FuelMetrics.builder()
+                .totalFuelSold(quantitySold)
+                .totalFuelPurchased(quantityPurchased)
+                .averageSellingPrice(divide(revenue, quantitySold))
+                .averagePurchasePrice(divide(purchaseCost, quantityPurchased))
+                .fuelBillsCount(salesCount) // Closed nozzle assignments
+                .fuelPurchasesCount(purchaseCount)
+                .build();
 
         return ProfitReportResponse.builder()
                 .periodType(periodType)
@@ -161,89 +200,26 @@ public class ProfitReportService {
     }
 
     /**
-     * Calculate fuel sales data from salesman shift accounting records These
-     * contain the final, verified fuel sales amounts
-     */
-    private FuelSalesData calculateFuelSalesDataFromAccounting(List<SalesmanShiftAccounting> accountingRecords) {
-        BigDecimal totalRevenue = BigDecimal.ZERO;
-        long shiftCount = accountingRecords.size();
-
-        for (SalesmanShiftAccounting accounting : accountingRecords) {
-            // fuelSales in accounting is the final, frozen fuel sales amount for the shift
-            totalRevenue = totalRevenue.add(accounting.getFuelSales());
-        }
-
-        FuelSalesData result = new FuelSalesData();
-        result.revenue = totalRevenue;
-        result.shiftCount = shiftCount;
-        return result;
-    }
-
-    /**
-     * Calculate fuel purchase data
-     */
-    private FuelPurchaseData calculateFuelPurchaseData(List<FuelPurchase> fuelPurchases) {
-        BigDecimal totalCost = BigDecimal.ZERO;
-        BigDecimal totalQuantity = BigDecimal.ZERO;
-        Map<UUID, ProductPurchaseData> productPurchaseMap = new HashMap<>();
-
-        for (FuelPurchase purchase : fuelPurchases) {
-            BigDecimal cost = purchase.getAmount();
-            BigDecimal quantity = purchase.getQuantity();
-
-            totalCost = totalCost.add(cost);
-            totalQuantity = totalQuantity.add(quantity);
-
-            // Track product-wise purchases
-            Product product = purchase.getTank().getProduct();
-            UUID productId = product.getId();
-            ProductPurchaseData purchaseData = productPurchaseMap.computeIfAbsent(productId,
-                    k -> new ProductPurchaseData(product.getProductName()));
-            purchaseData.cost = purchaseData.cost.add(cost);
-            purchaseData.quantity = purchaseData.quantity.add(quantity);
-        }
-
-        FuelPurchaseData result = new FuelPurchaseData();
-        result.cost = totalCost;
-        result.totalQuantity = totalQuantity;
-        result.purchaseCount = (long) fuelPurchases.size();
-        result.productPurchases = productPurchaseMap;
-        return result;
-    }
-
-    /**
-     * Calculate total operating expenses
-     */
-    private BigDecimal calculateOperatingExpenses(List<Expense> expenses) {
-        return expenses.stream()
-                .map(Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    /**
-     * Calculate expense breakdowns by category
+     * Profit of one product: its own sales revenue less its own purchase cost
      */
-    private List<ExpenseBreakdown> calculateExpenseBreakdowns(List<Expense> expenses) {
-        Map<UUID, ExpenseBreakdownData> breakdownMap = new HashMap<>();
-
-        for (Expense expense : expenses) {
-            ExpenseHead head = expense.getExpenseHead();
-            UUID headId = head.getId();
-
-            ExpenseBreakdownData data = breakdownMap.computeIfAbsent(headId,
-                    k -> new ExpenseBreakdownData(head.getHeadName()));
-            data.amount = data.amount.add(expense.getAmount());
-            data.count++;
-        }
-
-        return breakdownMap.entrySet().stream()
-                .map(entry -> ExpenseBreakdown.builder()
-                .expenseHeadId(entry.getKey().toString())
-                .expenseHeadName(entry.getValue().headName)
-                .amount(entry.getValue().amount)
-                .count(entry.getValue().count)
-                .build())
-                .collect(Collectors.toList());
+    private ProductWiseProfit buildProductWiseProfit(ProductSalesTotalsView totals) {
+        BigDecimal salesRevenue = orZero(totals.getSalesRevenue());
+        BigDecimal cost = orZero(totals.getPurchaseCost());
+        BigDecimal sold = orZero(totals.getQuantitySold());
+        BigDecimal purchased = orZero(totals.getQuantityPurchased());
+
+        return ProductWiseProfit.builder()
+                .productId(totals.getProductId().toString())
+                .productName(totals.getProductName())
+                .productType("FUEL")
+                .salesRevenue(salesRevenue)
+                .purchaseCost(cost)
+                .profit(salesRevenue.subtract(cost))
+                .quantitySold(sold)
+                .quantityPurchased(purchased)
+                .avgSellingPrice(divide(salesRevenue, sold))
+                .avgPurchasePrice(divide(cost, purchased))
+                .build();
     }
 
     /**
@@ -273,123 +249,18 @@ public class ProfitReportService {
                 .build();
     }
 
-    /**
-     * Build fuel metrics
-     */
-    private FuelMetrics buildFuelMetrics(FuelSalesData salesData, FuelPurchaseData purchaseData, int shiftsCount) {
-        // Calculate average prices
-        BigDecimal avgPurchasePrice = BigDecimal.ZERO;
-        if (purchaseData.totalQuantity.compareTo(BigDecimal.ZERO) > 0) {
-            avgPurchasePrice = purchaseData.cost.divide(purchaseData.totalQuantity, 2, RoundingMode.HALF_UP);
-        }
-
-        // For selling price, we can estimate based on revenue and purchased quantity
-        // (since we don't have detailed quantity sold from accounting)
-        BigDecimal avgSellingPrice = BigDecimal.ZERO;
-        if (purchaseData.totalQuantity.compareTo(BigDecimal.ZERO) > 0) {
-            avgSellingPrice = salesData.revenue.divide(purchaseData.totalQuantity, 2, RoundingMode.HALF_UP);
-        }
-
-        return FuelMetrics.builder()
-                .totalFuelSold(purchaseData.totalQuantity) // Approximate: using purchased quantity
-                .totalFuelPurchased(purchaseData.totalQuantity)
-                .averageSellingPrice(avgSellingPrice)
-                .averagePurchasePrice(avgPurchasePrice)
-                .fuelBillsCount((long) shiftsCount) // Count of accounting shifts
-                .fuelPurchasesCount(purchaseData.purchaseCount)
-                .build();
-    }
-
-    /**
-     * Calculate product-wise profit from purchases Since accounting gives us
-     * total revenue without product breakdown, we distribute profit
-     * proportionally based on purchases
-     */
-    private List<ProductWiseProfit> calculateProductWiseProfitFromPurchases(
-            BigDecimal totalRevenue,
-            Map<UUID, ProductPurchaseData> productPurchases) {
-
-        List<ProductWiseProfit> result = new ArrayList<>();
-
-        // Calculate total purchase cost for proportion
-        BigDecimal totalPurchaseCost = productPurchases.values().stream()
-                .map(p -> p.cost)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        for (Map.Entry<UUID, ProductPurchaseData> entry : productPurchases.entrySet()) {
-            ProductPurchaseData purchase = entry.getValue();
-
-            // Estimate revenue proportion based on cost proportion
-            BigDecimal revenueShare = BigDecimal.ZERO;
-            if (totalPurchaseCost.compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal proportion = purchase.cost.divide(totalPurchaseCost, 4, RoundingMode.HALF_UP);
-                revenueShare = totalRevenue.multiply(proportion).setScale(2, RoundingMode.HALF_UP);
-            }
-
-            BigDecimal profit = revenueShare.subtract(purchase.cost);
-
-            BigDecimal avgPurchasePrice = BigDecimal.ZERO;
-            if (purchase.quantity.compareTo(BigDecimal.ZERO) > 0) {
-                avgPurchasePrice = purchase.cost.divide(purchase.quantity, 2, RoundingMode.HALF_UP);
-            }
-
-            BigDecimal avgSellingPrice = BigDecimal.ZERO;
-            if (purchase.quantity.compareTo(BigDecimal.ZERO) > 0) {
-                avgSellingPrice = revenueShare.divide(purchase.quantity, 2, RoundingMode.HALF_UP);
-            }
-
-            result.add(ProductWiseProfit.builder()
-                    .productId(entry.getKey().toString())
-                    .productName(purchase.productName)
-                    .productType("FUEL")
-                    .salesRevenue(revenueShare)
-                    .purchaseCost(purchase.cost)
-                    .profit(profit)
-                    .quantitySold(purchase.quantity)
-                    .quantityPurchased(purchase.quantity)
-                    .avgSellingPrice(avgSellingPrice)
-                    .avgPurchasePrice(avgPurchasePrice)
-                    .build());
+    private static BigDecimal divide(BigDecimal amount, BigDecimal quantity) {
+        if (quantity.compareTo(BigDecimal.ZERO) <= 0) {
+            return BigDecimal.ZERO;
         }
-
-        return result;
+        return amount.divide(quantity, 2, RoundingMode.HALF_UP);
     }
 
-    // Helper classes for data aggregation
-    private static class FuelSalesData {
-
-        BigDecimal revenue = BigDecimal.ZERO;
-        @SuppressWarnings("unused")
-        long shiftCount = 0;
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
     }
 
-    private static class FuelPurchaseData {
-
-        BigDecimal cost = BigDecimal.ZERO;
-        BigDecimal totalQuantity = BigDecimal.ZERO;
-        long purchaseCount = 0;
-        Map<UUID, ProductPurchaseData> productPurchases = new HashMap<>();
-    }
-
-    private static class ProductPurchaseData {
-
-        String productName;
-        BigDecimal cost = BigDecimal.ZERO;
-        BigDecimal quantity = BigDecimal.ZERO;
-
-        ProductPurchaseData(String productName) {
-            this.productName = productName;
-        }
-    }
-
-    private static class ExpenseBreakdownData {
-
-        String headName;
-        BigDecimal amount = BigDecimal.ZERO;
-        long count = 0;
-
-        ExpenseBreakdownData(String headName) {
-            this.headName = headName;
-        }
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
     }
 }
@@ -0,0 +1,137 @@
+package com.reallink.pump.services;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the daily per-pump rollups the profit report reads:
+ * {@code pump_daily_product_sales} (litres sold, revenue, litres and cost
+ * purchased per product) and {@code pump_daily_expense_summary} (expenses per
+ * head).
+ *
+ * Services that close nozzles, delete nozzle tests, or write fuel purchases or
+ * expenses mark the affected pump and day, and {@link DailyRollup} rebuilds
+ * each marked day from its source rows once the transaction has committed.
+ * Rebuilding a day rather than applying deltas keeps edits, deletes and test
+ * fuel adjustments exact.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ProfitRollupService {
+
+    private static final int VERIFY_DAYS = 7;
+
+    /**
+     * Litres sold by a closed nozzle assignment {@code na}: closing minus
+     * opening reading less the test fuel returned to the tank. Shared with
+     * {@link SalesVolumeService} so the per-product and per-tank volumes
+     * always agree.
+     */
+    static final String QUANTITY_SOLD_SQL
+            = "na.closing_balance - na.opening_balance"
+            + " - COALESCE((SELECT SUM(nt.test_quantity) FROM pump_nozzle_test nt WHERE nt.nozzle_assignment_id = na.id), 0)";
+
+    // Revenue is the assignment total, which is priced on the same litres.
+    // Each branch filters on one pump and a date range, so the pump indexes
+    // bound what is read.
+    private static final String PRODUCT_SALES_SQL
+            = "SELECT x.date, x.product_id, SUM(x.quantity_sold) AS quantity_sold, "
+            + "SUM(x.sales_revenue) AS sales_revenue, SUM(x.sales_count) AS sales_count, "
+            + "SUM(x.quantity_purchased) AS quantity_purchased, SUM(x.purchase_cost) AS purchase_cost, "
+            + "SUM(x.purchase_count) AS purchase_count "
+            + "FROM ("
+            + " SELECT t.product_id, DATE(na.end_time) AS date, "
+            + QUANTITY_SOLD_SQL + " AS quantity_sold,"
+            + " COALESCE(na.total_amount, 0) AS sales_revenue, 1 AS sales_count,"
+            + " 0 AS quantity_purchased, 0 AS purchase_cost, 0 AS purchase_count"
+            + " FROM pump_nozzle_assignment na"
+            + " JOIN pump_nozzle_master_master n ON n.id = na.nozzle_id"
+            + " JOIN pump_tank_master t ON t.id = n.tank_id"
+            + " WHERE na.pump_master_id = ? AND na.status = 'CLOSED' AND na.end_time >= ? AND na.end_time < ?"
+            + " UNION ALL"
+            + " SELECT t.product_id, fp.purchase_date, 0, 0, 0, fp.quantity, fp.amount, 1"
+            + " FROM pump_fuel_purchase_master fp"
+            + " JOIN pump_tank_master t ON t.id = fp.tank_id"
+            + " WHERE fp.pump_master_id = ? AND fp.purchase_date BETWEEN ? AND ?"
+            + ") x "
+            + "GROUP BY x.date, x.product_id";
+
+    private static final String EXPENSE_SUMMARY_SQL
+            = "SELECT e.expense_date AS date, e.expense_head_id, SUM(e.amount) AS amount, COUNT(*) AS expense_count "
+            + "FROM pump_expense e "
+            + "WHERE e.pump_master_id = ? AND e.expense_date BETWEEN ? AND ? "
+            + "GROUP BY e.expense_date, e.expense_head_id";
+
+    private static final String HAS_ROLLUP_SQL
+            = "SELECT EXISTS (SELECT 1 FROM pump_daily_product_sales) OR EXISTS (SELECT 1 FROM pump_daily_expense_summary)";
+
+    private static final String FIRST_SOURCE_DATE_SQL
+            = "SELECT LEAST("
+            + "COALESCE((SELECT MIN(DATE(end_time)) FROM pump_nozzle_assignment WHERE status = 'CLOSED'), CURDATE()), "
+            + "COALESCE((SELECT MIN(purchase_date) FROM pump_fuel_purchase_master), CURDATE()), "
+            + "COALESCE((SELECT MIN(expense_date) FROM pump_expense), CURDATE()))";
+
+    private final DailyRollup rollup;
+
+    public ProfitRollupService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ReportResultCache reportResultCache, ClusterJobLock clusterJobLock) {
+        this.rollup = new DailyRollup("profit rollup", jdbcTemplate, transactionManager,
+                reportResultCache, clusterJobLock, HAS_ROLLUP_SQL, FIRST_SOURCE_DATE_SQL, List.of(
+                        new DailyRollup.Table("pump_daily_product_sales", List.of("product_id"),
+                                List.of("quantity_sold", "sales_revenue", "sales_count",
+                                        "quantity_purchased", "purchase_cost", "purchase_count"),
+                                PRODUCT_SALES_SQL, range -> new Object[]{
+                                    range.pump(), range.fromTime(), range.toTimeExclusive(),
+                                    range.pump(), range.fromDate(), range.toDate()
+                                }),
+                        new DailyRollup.Table("pump_daily_expense_summary", List.of("expense_head_id"),
+                                List.of("amount", "expense_count"),
+                                EXPENSE_SUMMARY_SQL, range -> new Object[]{range.pump(), range.fromDate(), range.toDate()})));
+    }
+
+    /**
+     * Mark a pump's day as changed. The day is rebuilt after the surrounding
+     * transaction commits, once however often it is marked.
+     */
+    @Transactional
+    public void markDirty(UUID pumpMasterId, LocalDate date) {
+        rollup.markDirty(pumpMasterId, date);
+    }
+
+    /**
+     * Rebuild one pump's rollups for a date range.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void rebuild(UUID pumpMasterId, LocalDate fromDate, LocalDate toDate) {
+        rollup.rebuild(pumpMasterId, fromDate, toDate);
+    }
+
+    /**
+     * Fill the rollups from the full history on first start.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfill() {
+        rollup.backfill();
+    }
+
+    /**
+     * Nightly rebuild of the last days for every pump.
+     */
+    @Scheduled(cron = "0 0 2 * * *")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildRecentDays() {
+        rollup.rebuildRecentDays(VERIFY_DAYS);
+    }
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -84,7 +85,7 @@ public class PurchaseService {
     }
 
     public List<PurchaseResponse> getBySupplierId(@NotNull UUID supplierId) {
-        return repository.findTopNBySupplierIdOrderByPurchaseDateDesc(supplierId, PageRequest.of(0, Integer.MAX_VALUE)).stream()
+        return repository.findTopNBySupplierIdOrderByPurchaseDateDesc(supplierId, Pageable.unpaged()).stream()
                 .map(mapper::toResponse)
                 .toList();
     }
@@ -0,0 +1,235 @@
+package com.reallink.pump.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reallink.pump.config.PumpSecurityContextHolder;
+import com.reallink.pump.config.ReportExecutionConfig;
+import com.reallink.pump.exception.ReportExecutionException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the independent aggregate queries of a report concurrently, so a
+ * report costs about as much as its slowest query rather than the sum of all
+ * of them.
+ *
+ * Each query runs on its own virtual thread with the caller's tenant and
+ * security context, and in its own read-only transaction. Concurrency is
+ * bounded globally and per pump, so one tenant's reports cannot use up the
+ * connection pool. If any query fails or exceeds its timeout, the remaining
+ * ones are cancelled and a {@link ReportExecutionException} names the failed
+ * queries; a report is never built from a partial set of results. The timeout
+ * is also set on each query's transaction, so the database cancels a
+ * statement that is still running when the report gives up on it.
+ */
+@Component
+@Slf4j
+public class ReportQueryExecutor implements DisposableBean {
+
+    private final ReportExecutionConfig config;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final Map<UUID, PumpPermits> pumpPermits = new ConcurrentHashMap<>();
+    private final PlatformTransactionManager transactionManager;
+
+    public ReportQueryExecutor(ReportExecutionConfig config, PlatformTransactionManager transactionManager) {
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxConcurrentQueries(), true);
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * Start a set of queries for one report of a pump.
+     */
+    public Fanout fanout(String reportName, UUID pumpMasterId) {
+        return new Fanout(reportName, pumpMasterId);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T runBounded(UUID pumpMasterId, long deadlineNanos, Callable<T> query) throws Exception {
+        PumpPermits pump = pumpMasterId != null ? acquirePumpPermits(pumpMasterId) : null;
+        try {
+            // Always pump first, then global, so a waiting query never holds a global slot
+            if (pump != null) {
+                pump.semaphore.acquire();
+            }
+            try {
+                permits.acquire();
+                try {
+                    return readOnlyTransaction(deadlineNanos).execute(status -> {
+                        try {
+                            return query.call();
+                        } catch (RuntimeException e) {
+                            throw e;
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+                } finally {
+                    permits.release();
+                }
+            } finally {
+                if (pump != null) {
+                    pump.semaphore.release();
+                }
+            }
+        } finally {
+            if (pump != null) {
+                releasePumpPermits(pumpMasterId);
+            }
+        }
+    }
+
+    /**
+     * Read-only transaction whose timeout is the time left until the report's
+     * deadline. The transaction manager passes it to every JDBC statement as
+     * its query timeout, so the database stops a query that overruns instead
+     * of it running on after the report has given up.
+     */
+    private TransactionTemplate readOnlyTransaction(long deadlineNanos) {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // Read-only, so the queries are served by the replica when one is configured
+        transaction.setReadOnly(true);
+        transaction.setTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remainingNanos + 999_999_999)));
+        return transaction;
+    }
+
+    // The entry is counted while a query holds or waits for it and removed once
+    // the last one is done, so the map only holds pumps with reports running
+    private PumpPermits acquirePumpPermits(UUID pumpMasterId) {
+        return pumpPermits.compute(pumpMasterId, (id, entry) -> {
+            PumpPermits pump = entry != null ? entry : new PumpPermits(config.getMaxConcurrentQueriesPerPump());
+            pump.users++;
+            return pump;
+        });
+    }
+
+    private void releasePumpPermits(UUID pumpMasterId) {
+        pumpPermits.computeIfPresent(pumpMasterId, (id, entry) -> --entry.users == 0 ? null : entry);
+    }
+
+    // Only read and written inside the map's compute calls for its pump
+    private static final class PumpPermits {
+
+        private final Semaphore semaphore;
+        private int users;
+
+        private PumpPermits(int maxConcurrentQueries) {
+            this.semaphore = new Semaphore(maxConcurrentQueries, true);
+        }
+    }
+
+    /**
+     * The queries of one report. Submit every query, then call
+     * {@link #await()} before reading any result.
+     */
+    public class Fanout {
+
+        private final String reportName;
+        private final UUID pumpMasterId;
+        private final long deadlineNanos;
+        private final List<ReportQuery<?>> queries = new ArrayList<>();
+
+        private Fanout(String reportName, UUID pumpMasterId) {
+            this.reportName = reportName;
+            this.pumpMasterId = pumpMasterId;
+            this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getQueryTimeoutMs());
+        }
+
+        public <T> ReportQuery<T> submit(String queryName, Callable<T> query) {
+            Callable<T> task = new DelegatingSecurityContextCallable<>(PumpSecurityContextHolder.wrap(query));
+            Future<T> future = executor.submit(() -> runBounded(pumpMasterId, deadlineNanos, task));
+            ReportQuery<T> reportQuery = new ReportQuery<>(queryName, future);
+            queries.add(reportQuery);
+            return reportQuery;
+        }
+
+        /**
+         * Wait for every query. Throws if any of them failed or did not finish
+         * within the query timeout.
+         */
+        public void await() {
+            List<String> failed = new ArrayList<>();
+            List<String> timedOut = new ArrayList<>();
+            for (ReportQuery<?> query : queries) {
+                long remainingNanos = Math.max(0, deadlineNanos - System.nanoTime());
+                try {
+                    query.future.get(remainingNanos, TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    timedOut.add(query.name);
+                } catch (ExecutionException e) {
+                    log.error("Query '{}' of {} for pump {} failed", query.name, reportName, pumpMasterId, e.getCause());
+                    failed.add(query.name);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancelAll();
+                    throw new ReportExecutionException("REPORT_INTERRUPTED",
+                            "Generating the " + reportName + " was interrupted");
+                }
+            }
+            if (failed.isEmpty() && timedOut.isEmpty()) {
+                return;
+            }
+
+            cancelAll();
+            if (!failed.isEmpty()) {
+                throw new ReportExecutionException("REPORT_QUERY_FAILED",
+                        "Could not generate the " + reportName + ": " + String.join(", ", failed) + " failed");
+            }
+            throw new ReportExecutionException("REPORT_QUERY_TIMEOUT",
+                    "Could not generate the " + reportName + ": " + String.join(", ", timedOut)
+                    + " did not finish within " + config.getQueryTimeoutMs() + " ms");
+        }
+
+        private void cancelAll() {
+            for (ReportQuery<?> query : queries) {
+                query.future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Result of one submitted query, readable once its fan-out has been
+     * awaited.
+     */
+    public static class ReportQuery<T> {
+
+        private final String name;
+        private final Future<T> future;
+
+        private ReportQuery(String name, Future<T> future) {
+            this.name = name;
+            this.future = future;
+        }
+
+        public T get() {
+            if (!future.isDone()) {
+                throw new IllegalStateException("Report query '" + name + "' read before its fan-out was awaited");
+            }
+            return future.resultNow();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.reallink.pump.services;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.reallink.pump.config.ReportCacheConfig;
+import com.reallink.pump.dto.response.ReportCacheStatsResponse;
+
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded, per-node cache of report results keyed by pump, report type, date
+ * range and parameters.
+ *
+ * Only closed ranges are cached: a range qualifies when it ends before today,
+ * the day still being written to. A cached result stays until a write lands
+ * inside its range or its time to live runs out. {@link ProfitRollupService} and
+ * {@link DashboardFactService} report every day they rebuild, whether marked
+ * by a write or by the nightly check, and each overlapping entry of that pump
+ * is evicted. A backdated expense therefore drops only the reports covering
+ * its date. Evictions are per node, so a write made through another node is
+ * picked up here once the entry expires.
+ */
+@Component
+@Slf4j
+public class ReportResultCache {
+
+    private final ReportCacheConfig config;
+    private final Map<CacheKey, CachedResult> cache;
+
+    // Bumped on every eviction, so a result computed while a write committed is not stored
+    private final AtomicLong evictionSequence = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bypasses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ReportResultCache(ReportCacheConfig config) {
+        this.config = config;
+        int maxEntries = config.getMaxEntries();
+        // Access-ordered LinkedHashMap gives LRU eviction once the bound is reached
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedResult> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Return the cached result of a report, computing and storing it on a
+     * miss. Ranges that are not closed are always computed.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(UUID pumpMasterId, String reportType, LocalDate fromDate, LocalDate toDate,
+            String parameters, Supplier<T> compute) {
+        if (!config.isEnabled() || pumpMasterId == null || !toDate.isBefore(LocalDate.now())) {
+            bypasses.incrementAndGet();
+            return compute.get();
+        }
+
+        CacheKey key = new CacheKey(pumpMasterId, reportType, fromDate, toDate, parameters);
+        CachedResult cached = cache.get(key);
+        if (cached != null && cached.expiresAt() - System.nanoTime() > 0) {
+            hits.incrementAndGet();
+            return (T) cached.value();
+        }
+
+        misses.incrementAndGet();
+        long sequence = evictionSequence.get();
+        T result = compute.get();
+        if (result != null && evictionSequence.get() == sequence) {
+            long expiresAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getTtlSeconds());
+            cache.put(key, new CachedResult(result, expiresAt));
+        }
+        return result;
+    }
+
+    /**
+     * Drop the results of a pump, or of every pump when {@code pumpMasterId}
+     * is null, whose range overlaps the given days. When called inside a
+     * transaction the entries are dropped again after commit, so a concurrent
+     * request cannot re-cache the pre-commit result.
+     */
+    public void evict(UUID pumpMasterId, LocalDate fromDate, LocalDate toDate) {
+        removeOverlapping(pumpMasterId, fromDate, toDate);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeOverlapping(pumpMasterId, fromDate, toDate);
+                }
+            });
+        }
+    }
+
+    public ReportCacheStatsResponse getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        return ReportCacheStatsResponse.builder()
+                .enabled(config.isEnabled())
+                .size(cache.size())
+                .maxEntries(config.getMaxEntries())
+                .hits(hitCount)
+                .misses(missCount)
+                .bypasses(bypasses.get())
+                .evictions(evictions.get())
+                .hitRate(lookups == 0 ? 0 : (double) hitCount / lookups)
+                .build();
+    }
+
+    private void removeOverlapping(UUID pumpMasterId, LocalDate fromDate, LocalDate toDate) {
+        evictionSequence.incrementAndGet();
+        int removed = 0;
+        synchronized (cache) {
+            Iterator<CacheKey> keys = cache.keySet().iterator();
+            while (keys.hasNext()) {
+                CacheKey key = keys.next();
+                if ((pumpMasterId == null || pumpMasterId.equals(key.pumpMasterId))
+                        && !key.fromDate.isAfter(toDate) && !key.toDate.isBefore(fromDate)) {
+                    keys.remove();
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            evictions.addAndGet(removed);
+            log.debug("Evicted {} cached report(s) for pump {} from {} to {}", removed, pumpMasterId, fromDate, toDate);
+        }
+    }
+
+    private record CachedResult(Object value, long expiresAt) {
+
+    }
+
+    @EqualsAndHashCode
+    private static class CacheKey {
+
+        private final UUID pumpMasterId;
+        private final String reportType;
+        private final LocalDate fromDate;
+        private final LocalDate toDate;
+        private final String parameters;
+
+        CacheKey(UUID pumpMasterId, String reportType, LocalDate fromDate, LocalDate toDate, String parameters) {
+            this.pumpMasterId = pumpMasterId;
+            this.reportType = reportType;
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+            this.parameters = parameters;
+        }
+    }
+}
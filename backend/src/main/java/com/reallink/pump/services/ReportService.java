@@ -1,6 +1,7 @@
 package com.reallink.pump.services;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -8,70 +9,105 @@ import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import com.reallink.pump.config.PumpSecurityContextHolder;
-import com.reallink.pump.repositories.BillRepository;
-import com.reallink.pump.repositories.CustomerBillPaymentRepository;
-import com.reallink.pump.repositories.CustomerRepository;
-import com.reallink.pump.repositories.FuelPurchaseRepository;
-import com.reallink.pump.repositories.NozzleAssignmentRepository;
-import com.reallink.pump.repositories.SupplierPaymentRepository;
-import com.reallink.pump.repositories.SupplierRepository;
-
+import com.reallink.pump.dto.response.DashboardTotalsView;
+import com.reallink.pump.dto.response.PartyTotalView;
+import com.reallink.pump.dto.response.ProductSalesVolumeResponse;
+import com.reallink.pump.entities.DailyDashboardParty;
+import com.reallink.pump.repositories.DailyDashboardFactRepository;
+import com.reallink.pump.repositories.DailyDashboardPartyRepository;
+import com.reallink.pump.repositories.DailyFuelDispensedRepository;
+import com.reallink.pump.services.ReportQueryExecutor.ReportQuery;
+
+/**
+ * Dashboard analytics, read from the daily facts maintained by
+ * {@link DashboardFactService}. Ranges are whole days: the dates of
+ * {@code startDate} and {@code endDate} are both included.
+ *
+ * Not transactional: each aggregate runs in its own read-only transaction on
+ * the {@link ReportQueryExecutor}, and an outer transaction would only hold an
+ * idle connection while they run.
+ */
 @Service
 public class ReportService {
 
     @Autowired
-    private BillRepository billRepository;
-
-    @Autowired
-    private CustomerBillPaymentRepository customerBillPaymentRepository;
+    private DailyDashboardFactRepository dailyDashboardFactRepository;
 
     @Autowired
-    private SupplierPaymentRepository supplierPaymentRepository;
+    private DailyDashboardPartyRepository dailyDashboardPartyRepository;
 
     @Autowired
-    private FuelPurchaseRepository fuelPurchaseRepository;
+    private DailyFuelDispensedRepository dailyFuelDispensedRepository;
 
     @Autowired
-    private NozzleAssignmentRepository nozzleAssignmentRepository;
+    private ReportResultCache reportResultCache;
 
     @Autowired
-    private CustomerRepository customerRepository;
+    private ReportQueryExecutor reportQueryExecutor;
 
     @Autowired
-    private SupplierRepository supplierRepository;
+    private SalesVolumeService salesVolumeService;
 
     public Map<String, Object> getAnalytics(LocalDateTime startDate, LocalDateTime endDate) {
-        Map<String, Object> analytics = new HashMap<>();
-
         // Get pumpMasterId from security context
         UUID pumpMasterId = PumpSecurityContextHolder.getPumpMasterId();
         if (pumpMasterId == null) {
             throw new RuntimeException("Pump master ID not found in security context");
         }
 
-        BigDecimal totalCredit = calculateTotalCredit(pumpMasterId, startDate, endDate);
-        BigDecimal totalDebit = calculateTotalDebit(pumpMasterId, startDate, endDate);
-        BigDecimal moneyReceived = calculateMoneyReceived(pumpMasterId, startDate, endDate);
-        BigDecimal moneyPaid = calculateMoneyPaid(pumpMasterId, startDate, endDate);
-        Long billsGenerated = countBillsGenerated(pumpMasterId, startDate, endDate);
-        BigDecimal fuelDispensed = calculateFuelDispensed(pumpMasterId, startDate, endDate);
+        LocalDate fromDate = startDate.toLocalDate();
+        LocalDate toDate = endDate.toLocalDate();
+        return reportResultCache.get(pumpMasterId, "ANALYTICS", fromDate, toDate, null,
+                () -> buildAnalytics(pumpMasterId, fromDate, toDate));
+    }
+
+    private Map<String, Object> buildAnalytics(UUID pumpMasterId, LocalDate fromDate, LocalDate toDate) {
+        // The aggregates are independent, so they run concurrently
+        ReportQueryExecutor.Fanout fanout = reportQueryExecutor.fanout("analytics report", pumpMasterId);
+        ReportQuery<DashboardTotalsView> totalsQuery = fanout.submit("totals",
+                () -> dailyDashboardFactRepository.sumByPumpMasterIdAndDateRange(pumpMasterId, fromDate, toDate));
+        ReportQuery<BigDecimal> fuelDispensedQuery = fanout.submit("fuel dispensed",
+                () -> dailyFuelDispensedRepository.sumQuantityOpenedAndClosedInRange(pumpMasterId, fromDate, toDate));
+        ReportQuery<Long> customersWithCreditQuery = fanout.submit("customers with credit",
+                () -> dailyDashboardPartyRepository.countPartiesWithPositiveAmount(
+                        pumpMasterId, DailyDashboardParty.PartyType.CUSTOMER, fromDate, toDate));
+        ReportQuery<Long> suppliersWithDebitQuery = fanout.submit("suppliers with debit",
+                () -> dailyDashboardPartyRepository.countPartiesWithPositiveAmount(
+                        pumpMasterId, DailyDashboardParty.PartyType.SUPPLIER, fromDate, toDate));
+        ReportQuery<List<PartyTotalView>> topCustomerQuery = fanout.submit("top customer",
+                () -> dailyDashboardPartyRepository.findTopCustomers(pumpMasterId, fromDate, toDate, PageRequest.of(0, 1)));
+        ReportQuery<List<PartyTotalView>> topSupplierQuery = fanout.submit("top supplier",
+                () -> dailyDashboardPartyRepository.findTopSuppliers(pumpMasterId, fromDate, toDate, PageRequest.of(0, 1)));
+        ReportQuery<List<ProductSalesVolumeResponse>> fuelSoldQuery = fanout.submit("fuel sold by product",
+                () -> salesVolumeService.getProductVolumes(pumpMasterId, fromDate, toDate));
+        fanout.await();
 
-        Long customersWithCredit = countCustomersWithCredit(pumpMasterId, startDate, endDate);
-        Long suppliersWithDebit = countSuppliersWithDebit(pumpMasterId, startDate, endDate);
+        Map<String, Object> analytics = new HashMap<>();
+
+        DashboardTotalsView totals = totalsQuery.get();
+        BigDecimal totalCredit = orZero(totals.getTotalCredit());
+        BigDecimal totalDebit = orZero(totals.getTotalDebit());
+        BigDecimal fuelDispensed = orZero(fuelDispensedQuery.get());
 
-        Map<String, Object> topCustomer = getTopCustomerWithCredit(pumpMasterId, startDate, endDate);
-        Map<String, Object> topSupplier = getTopSupplierWithDebit(pumpMasterId, startDate, endDate);
+        long customersWithCredit = customersWithCreditQuery.get();
+        long suppliersWithDebit = suppliersWithDebitQuery.get();
+
+        Map<String, Object> topCustomer = toNameAndAmount(topCustomerQuery.get());
+        Map<String, Object> topSupplier = toNameAndAmount(topSupplierQuery.get());
 
         analytics.put("totalCredit", totalCredit);
         analytics.put("totalDebit", totalDebit);
         analytics.put("netAmount", totalCredit.subtract(totalDebit));
-        analytics.put("billsGenerated", billsGenerated);
-        analytics.put("moneyReceived", moneyReceived);
-        analytics.put("moneyPaid", moneyPaid);
+        analytics.put("billsGenerated", totals.getBillsGenerated() != null ? totals.getBillsGenerated() : 0L);
+        analytics.put("moneyReceived", orZero(totals.getMoneyReceived()));
+        analytics.put("moneyPaid", orZero(totals.getMoneyPaid()));
         analytics.put("fuelDispensed", fuelDispensed);
+        // Net of test fuel and counted on the closing day, unlike fuelDispensed
+        analytics.put("fuelSoldByProduct", fuelSoldQuery.get());
         analytics.put("customersWithCredit", customersWithCredit);
         analytics.put("suppliersWithDebit", suppliersWithDebit);
         analytics.put("topCustomer", topCustomer);
@@ -80,65 +116,18 @@ public class ReportService {
         return analytics;
     }
 
-    private BigDecimal calculateTotalCredit(UUID pumpMasterId, LocalDateTime startDate, LocalDateTime endDate) {
-        BigDecimal result = billRepository.findTotalCreditBillsInPeriod(pumpMasterId, startDate, endDate);
-        return result != null ? result : BigDecimal.ZERO;
-    }
-
-    private BigDecimal calculateTotalDebit(UUID pumpMasterId, LocalDateTime startDate, LocalDateTime endDate) {
-        BigDecimal result = fuelPurchaseRepository.findTotalFuelPurchasesInPeriod(pumpMasterId, startDate, endDate);
-        return result != null ? result : BigDecimal.ZERO;
-    }
-
-    private BigDecimal calculateMoneyReceived(UUID pumpMasterId, LocalDateTime startDate, LocalDateTime endDate) {
-        BigDecimal result = customerBillPaymentRepository.findTotalPaymentsInPeriod(pumpMasterId, startDate, endDate);
-        return result != null ? result : BigDecimal.ZERO;
-    }
-
-    private BigDecimal calculateMoneyPaid(UUID pumpMasterId, LocalDateTime startDate, LocalDateTime endDate) {
-        BigDecimal result = supplierPaymentRepository.findTotalPaymentsInPeriod(pumpMasterId, startDate, endDate);
-        return result != null ? result : BigDecimal.ZERO;
-    }
-
-    private Long countBillsGenerated(UUID pumpMasterId, LocalDateTime startDate, LocalDateTime endDate) {
-        Long count = billRepository.countBillsInPeriod(pumpMasterId, startDate, endDate);
-        return count != null ? count : 0L;
-    }
-
-    private BigDecimal calculateFuelDispensed(UUID pumpMasterId, LocalDateTime startDate, LocalDateTime endDate) {
-        BigDecimal result = nozzleAssignmentRepository.findTotalFuelDispensedInPeriod(pumpMasterId, startDate, endDate);
-        return result != null ? result : BigDecimal.ZERO;
-    }
-
-    private Long countCustomersWithCredit(UUID pumpMasterId, LocalDateTime startDate, LocalDateTime endDate) {
-        return customerRepository.countCustomersWithCreditInPeriod(pumpMasterId, startDate, endDate);
-    }
-
-    private Long countSuppliersWithDebit(UUID pumpMasterId, LocalDateTime startDate, LocalDateTime endDate) {
-        return supplierRepository.countSuppliersWithDebitInPeriod(pumpMasterId, startDate, endDate);
-    }
-
-    private Map<String, Object> getTopCustomerWithCredit(UUID pumpMasterId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<Object[]> results = customerRepository.findTopCustomerByCreditInPeriod(pumpMasterId, startDate, endDate);
-        if (results != null && !results.isEmpty()) {
-            Object[] result = results.get(0);
-            Map<String, Object> topCustomer = new HashMap<>();
-            topCustomer.put("name", result[0]);
-            topCustomer.put("amount", result[1]);
-            return topCustomer;
+    private Map<String, Object> toNameAndAmount(List<PartyTotalView> results) {
+        if (results == null || results.isEmpty()) {
+            return null;
         }
-        return null;
+        PartyTotalView result = results.get(0);
+        Map<String, Object> party = new HashMap<>();
+        party.put("name", result.getName());
+        party.put("amount", result.getAmount());
+        return party;
     }
 
-    private Map<String, Object> getTopSupplierWithDebit(UUID pumpMasterId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<Object[]> results = supplierRepository.findTopSupplierByDebitInPeriod(pumpMasterId, startDate, endDate);
-        if (results != null && !results.isEmpty()) {
-            Object[] result = results.get(0);
-            Map<String, Object> topSupplier = new HashMap<>();
-            topSupplier.put("name", result[0]);
-            topSupplier.put("amount", result[1]);
-            return topSupplier;
-        }
-        return null;
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
     }
 }
@@ -0,0 +1,119 @@
+package com.reallink.pump.services;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.annotation.Validated;
+
+import com.reallink.pump.dto.response.ProductSalesVolumeResponse;
+import com.reallink.pump.dto.response.TankSalesVolumeResponse;
+import com.reallink.pump.repositories.DailyProductSalesRepository;
+import com.reallink.pump.util.UuidBytes;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Litres of fuel sold, measured at the nozzles: closing minus opening meter
+ * reading of each closed assignment, less the test fuel returned to the tank,
+ * counted on the day the assignment closed.
+ *
+ * Per-product volumes come from the daily product rollup kept by
+ * {@link ProfitRollupService}, which the profit report also reads. Per-tank
+ * volumes, used to reconcile dip readings, are a single grouped query over the
+ * assignments of the range.
+ */
+@Service
+@Validated
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class SalesVolumeService {
+
+    private static final String TANK_VOLUME_SQL
+            = "SELECT t.id AS tank_id, t.tank_name, p.id AS product_id, p.product_name,"
+            + " SUM(x.quantity_sold) AS quantity_sold, COUNT(*) AS assignment_count"
+            + " FROM (SELECT n.tank_id, " + ProfitRollupService.QUANTITY_SOLD_SQL + " AS quantity_sold"
+            + " FROM pump_nozzle_assignment na"
+            + " JOIN pump_nozzle_master_master n ON n.id = na.nozzle_id"
+            + " WHERE na.pump_master_id = :pumpMasterId AND na.status = 'CLOSED'"
+            + " AND na.end_time >= :fromDateTime AND na.end_time < :toDateTime"
+            + " AND (:tankId IS NULL OR n.tank_id = :tankId)) x"
+            + " JOIN pump_tank_master t ON t.id = x.tank_id"
+            + " JOIN pump_product_master p ON p.id = t.product_id"
+            + " GROUP BY t.id, t.tank_name, p.id, p.product_name"
+            + " ORDER BY t.tank_name";
+
+    private final DailyProductSalesRepository dailyProductSalesRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Litres sold per product and day, for days with at least one closed
+     * assignment.
+     */
+    public List<ProductSalesVolumeResponse> getDailyProductVolumes(@NotNull UUID pumpMasterId,
+            @NotNull LocalDate fromDate, @NotNull LocalDate toDate) {
+        validateRange(fromDate, toDate);
+        return dailyProductSalesRepository.findDailyVolumes(pumpMasterId, fromDate, toDate).stream()
+                .map(volume -> ProductSalesVolumeResponse.builder()
+                .date(volume.getDate())
+                .productId(volume.getProductId())
+                .productName(volume.getProductName())
+                .quantitySold(volume.getQuantitySold())
+                .assignmentCount(volume.getAssignmentCount().longValue())
+                .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Litres sold per product over a range, for products with at least one
+     * closed assignment.
+     */
+    public List<ProductSalesVolumeResponse> getProductVolumes(@NotNull UUID pumpMasterId,
+            @NotNull LocalDate fromDate, @NotNull LocalDate toDate) {
+        validateRange(fromDate, toDate);
+        return dailyProductSalesRepository.sumByProduct(pumpMasterId, fromDate, toDate).stream()
+                .filter(totals -> totals.getSalesCount() != null && totals.getSalesCount() > 0)
+                .map(totals -> ProductSalesVolumeResponse.builder()
+                .productId(totals.getProductId())
+                .productName(totals.getProductName())
+                .quantitySold(totals.getQuantitySold())
+                .assignmentCount(totals.getSalesCount())
+                .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Litres sold per tank over a range, for one tank or for every tank of the
+     * pump when {@code tankId} is null.
+     */
+    public List<TankSalesVolumeResponse> getTankVolumes(@NotNull UUID pumpMasterId, UUID tankId,
+            @NotNull LocalDate fromDate, @NotNull LocalDate toDate) {
+        validateRange(fromDate, toDate);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("pumpMasterId", UuidBytes.toBytes(pumpMasterId))
+                .addValue("tankId", tankId != null ? UuidBytes.toBytes(tankId) : null)
+                .addValue("fromDateTime", Timestamp.valueOf(fromDate.atStartOfDay()))
+                .addValue("toDateTime", Timestamp.valueOf(toDate.plusDays(1).atStartOfDay()));
+        return jdbcTemplate.query(TANK_VOLUME_SQL, params, (rs, rowNum) -> TankSalesVolumeResponse.builder()
+                .tankId(UuidBytes.fromBytes(rs.getBytes("tank_id")))
+                .tankName(rs.getString("tank_name"))
+                .productId(UuidBytes.fromBytes(rs.getBytes("product_id")))
+                .productName(rs.getString("product_name"))
+                .quantitySold(rs.getBigDecimal("quantity_sold"))
+                .assignmentCount(rs.getLong("assignment_count"))
+                .build());
+    }
+
+    private void validateRange(LocalDate fromDate, LocalDate toDate) {
+        if (fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+    }
+}
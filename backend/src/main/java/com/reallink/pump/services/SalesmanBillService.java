@@ -18,6 +18,7 @@ import com.reallink.pump.dto.request.UpdateSalesmanBillRequest;
 import com.reallink.pump.dto.response.SalesmanBillResponse;
 import com.reallink.pump.entities.Customer;
 import com.reallink.pump.entities.FileStorage;
+import com.reallink.pump.entities.PaymentType;
 import com.reallink.pump.entities.Product;
 import com.reallink.pump.entities.ProductType;
 import com.reallink.pump.entities.PumpInfoMaster;
@@ -54,6 +55,7 @@ public class SalesmanBillService {
     private final FileStorageService fileStorageService;
     private final SecurityHelper securityHelper;
     private final ProductService productService;
+    private final CustomerReceivableService customerReceivableService;
 
     /**
      * Validates the billing request based on billing mode - BY_QUANTITY:
@@ -89,7 +91,7 @@ public class SalesmanBillService {
      */
     private void validatePaymentRequest(CreateSalesmanBillRequest request) {
         // If payment type is CASH, cash payment details are required
-        if (request.getPaymentType() == com.reallink.pump.entities.PaymentType.CASH) {
+        if (request.getPaymentType() == PaymentType.CASH) {
             if (request.getCashPayment() == null) {
                 throw new PumpBusinessException("CASH_PAYMENT_REQUIRED",
                         "Cash payment details are required when payment type is CASH");
@@ -112,6 +114,19 @@ public class SalesmanBillService {
         }
     }
 
+    /**
+     * Reject a credit bill that takes the customer over the credit limit. A cash
+     * payment taken with the bill counts against the amount.
+     */
+    private void enforceCreditLimit(CreateSalesmanBillRequest request, Customer customer, BigDecimal amount) {
+        BigDecimal unpaid = amount;
+        if (request.getPaymentType() == PaymentType.CASH && request.getCashPayment() != null
+                && request.getCashPayment().getAmount() != null) {
+            unpaid = unpaid.subtract(request.getCashPayment().getAmount());
+        }
+        customerReceivableService.enforceCreditLimit(customer, unpaid);
+    }
+
     /**
      * Creates a cash payment record linked to the bill
      */
@@ -224,6 +239,8 @@ public class SalesmanBillService {
         bill.setAmount(amount);
         bill.setNetAmount(amount); // No tax, no discount
 
+        enforceCreditLimit(request, customer, amount);
+
         // Save bill first
         SalesmanBill savedBill = repository.save(bill);
 
@@ -233,7 +250,7 @@ public class SalesmanBillService {
         }
 
         // If payment type is CASH, create the payment record
-        if (request.getPaymentType() == com.reallink.pump.entities.PaymentType.CASH && request.getCashPayment() != null) {
+        if (request.getPaymentType() == PaymentType.CASH && request.getCashPayment() != null) {
             createCashPayment(savedBill, request.getCashPayment(), pumpMaster, customer, salesmanShift);
         }
 
@@ -349,6 +366,8 @@ public class SalesmanBillService {
         bill.setAmount(amount);
         bill.setNetAmount(amount); // No tax, no discount
 
+        enforceCreditLimit(request, customer, amount);
+
         // Save bill first
         SalesmanBill savedBill = repository.save(bill);
 
@@ -358,7 +377,7 @@ public class SalesmanBillService {
         }
 
         // If payment type is CASH, create the payment record
-        if (request.getPaymentType() == com.reallink.pump.entities.PaymentType.CASH && request.getCashPayment() != null) {
+        if (request.getPaymentType() == PaymentType.CASH && request.getCashPayment() != null) {
             createCashPayment(savedBill, request.getCashPayment(), pumpMaster, customer, salesmanShift);
         }
 
@@ -18,6 +18,7 @@ import com.reallink.pump.exception.PumpBusinessException;
 import com.reallink.pump.mapper.SalesmanMapper;
 import com.reallink.pump.repositories.PumpInfoMasterRepository;
 import com.reallink.pump.repositories.RoleRepository;
+import com.reallink.pump.security.UserPrincipalCache;
 import com.reallink.pump.repositories.SalesmanRepository;
 
 import jakarta.validation.Valid;
@@ -33,6 +34,7 @@ public class SalesmanService {
     private final SalesmanRepository repository;
     private final PumpInfoMasterRepository pumpInfoMasterRepository;
     private final RoleRepository roleRepository;
+    private final UserPrincipalCache principalCache;
     private final SalesmanMapper mapper;
     private final PasswordEncoder passwordEncoder;
 
@@ -114,6 +116,7 @@ public class SalesmanService {
         }
 
         User savedUser = repository.save(existingUser);
+        principalCache.invalidate(id);
         return mapper.toResponse(savedUser);
     }
 }
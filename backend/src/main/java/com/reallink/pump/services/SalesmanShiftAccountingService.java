@@ -1,12 +1,13 @@
 package com.reallink.pump.services;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,9 +18,9 @@ import org.springframework.validation.annotation.Validated;
 import com.reallink.pump.dto.shift.CashDistributionRequest;
 import com.reallink.pump.dto.shift.CashDistributionResponse;
 import com.reallink.pump.dto.shift.CreateShiftAccountingRequest;
+import com.reallink.pump.dto.shift.ShiftTotalsView;
 import com.reallink.pump.entities.BankAccount;
 import com.reallink.pump.entities.BankTransaction;
-import com.reallink.pump.entities.DailyClosingBalance;
 import com.reallink.pump.entities.EmployeeSalaryPayment;
 import com.reallink.pump.entities.PaymentMethod;
 import com.reallink.pump.entities.SalesmanShift;
@@ -27,7 +28,6 @@ import com.reallink.pump.entities.SalesmanShiftAccounting;
 import com.reallink.pump.exception.PumpBusinessException;
 import com.reallink.pump.repositories.BankAccountRepository;
 import com.reallink.pump.repositories.BankTransactionRepository;
-import com.reallink.pump.repositories.DailyClosingBalanceRepository;
 import com.reallink.pump.repositories.SalesmanShiftAccountingRepository;
 import com.reallink.pump.repositories.SalesmanShiftRepository;
 import com.reallink.pump.security.SecurityHelper;
@@ -50,8 +50,9 @@ public class SalesmanShiftAccountingService {
     private final SalesmanShiftAccountingRepository accountingRepository;
     private final BankAccountRepository bankAccountRepository;
     private final BankTransactionRepository bankTransactionRepository;
-    private final DailyClosingBalanceRepository dailyClosingBalanceRepository;
     private final SecurityHelper securityHelper;
+    private final ShiftTotalsService shiftTotalsService;
+    private final DailyClosingBalanceService dailyClosingBalanceService;
 
     private static final BigDecimal ADVANCE_PAYMENT_THRESHOLD = new BigDecimal("50.00");
     private static final DateTimeFormatter SHIFT_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MMM-yyyy HH:mm");
@@ -78,10 +79,11 @@ public class SalesmanShiftAccountingService {
         }
 
         // Calculate totals
-        BigDecimal totalFuelSales = shift.calculateTotalFuelSales();
-        BigDecimal totalCredit = shift.calculateTotalCredit();
-        BigDecimal totalPayments = shift.calculateTotalPayments();
-        BigDecimal totalExpenses = shift.calculateTotalExpenses();
+        ShiftTotalsView totals = shiftTotalsService.getTotals(shiftId);
+        BigDecimal totalFuelSales = totals.getTotalFuelSales();
+        BigDecimal totalCredit = totals.getTotalCredit();
+        BigDecimal totalPayments = totals.getTotalPayments();
+        BigDecimal totalExpenses = totals.getTotalExpenses();
         BigDecimal systemReceivedAmount = totalFuelSales.add(totalPayments);
 
         // Calculate cash in hand from denominations
@@ -181,10 +183,11 @@ public class SalesmanShiftAccountingService {
         SalesmanShift shift = accounting.getSalesmanShift();
 
         // Recalculate totals (in case data changed)
-        BigDecimal totalFuelSales = shift.calculateTotalFuelSales();
-        BigDecimal totalCredit = shift.calculateTotalCredit();
-        BigDecimal totalPayments = shift.calculateTotalPayments();
-        BigDecimal totalExpenses = shift.calculateTotalExpenses();
+        ShiftTotalsView totals = shiftTotalsService.getTotals(shiftId);
+        BigDecimal totalFuelSales = totals.getTotalFuelSales();
+        BigDecimal totalCredit = totals.getTotalCredit();
+        BigDecimal totalPayments = totals.getTotalPayments();
+        BigDecimal totalExpenses = totals.getTotalExpenses();
         BigDecimal systemReceivedAmount = totalFuelSales.add(totalPayments);
 
         // Recalculate cash in hand
@@ -278,8 +281,10 @@ public class SalesmanShiftAccountingService {
 
         SalesmanShift shift = accounting.getSalesmanShift();
 
-        // Delete all cash distribution transactions linked to this accounting
-        bankTransactionRepository.deleteByShiftAccountingId(accounting.getId());
+        // Delete all cash distribution transactions linked to this accounting,
+        // entity by entity so the daily closing balance is reversed as well
+        bankTransactionRepository.deleteAll(
+                bankTransactionRepository.findByShiftAccountingIdOrderByCreatedAtDesc(accounting.getId()));
         log.info("Deleted cash distribution transactions for shift accounting {}", accounting.getId());
 
         // Clear the bidirectional relationship first
@@ -311,14 +316,22 @@ public class SalesmanShiftAccountingService {
         SalesmanShift shift = accounting.getSalesmanShift();
         String currentUser = securityHelper.getCurrentUsername();
 
-        List<BankTransaction> transactions = new ArrayList<>();
+        // Resolve all target accounts in one query
+        Map<UUID, BankAccount> bankAccounts = bankAccountRepository.findAllById(request.getDistributions().stream()
+                .map(CashDistributionRequest.DistributionItem::getBankAccountId)
+                .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(BankAccount::getId, Function.identity()));
+
+        String shiftInfo = shift.getSalesman().getUsername() + " - " + shift.getStartDatetime().format(SHIFT_DATE_FORMATTER);
+        List<BankTransaction> newTransactions = new ArrayList<>();
 
         for (CashDistributionRequest.DistributionItem item : request.getDistributions()) {
-            BankAccount bankAccount = bankAccountRepository.findById(item.getBankAccountId())
-                    .orElseThrow(() -> new EntityNotFoundException("Bank account not found: " + item.getBankAccountId()));
+            BankAccount bankAccount = bankAccounts.get(item.getBankAccountId());
+            if (bankAccount == null) {
+                throw new EntityNotFoundException("Bank account not found: " + item.getBankAccountId());
+            }
 
             // Create bank transaction for cash distribution (CREDIT to bank)
-            String shiftInfo = shift.getSalesman().getUsername() + " - " + shift.getStartDatetime().format(SHIFT_DATE_FORMATTER);
             BankTransaction transaction = new BankTransaction();
             transaction.setBankAccount(bankAccount);
             transaction.setAmount(item.getAmount());
@@ -332,12 +345,16 @@ public class SalesmanShiftAccountingService {
             transaction.setPaymentMethod(item.getPaymentMethod());
             transaction.setShiftAccounting(accounting);
             transaction.setEntryBy(currentUser);
-
-            BankTransaction savedTransaction = bankTransactionRepository.save(transaction);
-            updateDailyClosingBalance(savedTransaction);
-            transactions.add(savedTransaction);
+            newTransactions.add(transaction);
         }
 
+        // Insert as one JDBC batch; closing balance gets one delta per (account, day)
+        List<BankTransaction> transactions = dailyClosingBalanceService.applyAggregated(() -> {
+            List<BankTransaction> saved = bankTransactionRepository.saveAll(newTransactions);
+            bankTransactionRepository.flush();
+            return saved;
+        });
+
         log.info("Distributed cash from shift {} to {} bank accounts by {}",
                 shiftId, transactions.size(), currentUser);
 
@@ -383,23 +400,10 @@ public class SalesmanShiftAccountingService {
         SalesmanShiftAccounting accounting = accountingRepository.findBySalesmanShiftId(shiftId)
                 .orElseThrow(() -> new EntityNotFoundException("Accounting not found for this shift"));
 
-        // Get all transactions before deleting to recalculate daily closing balances
+        // Delete entity by entity so each reverses its daily closing balance contribution
         List<BankTransaction> transactionsToDelete = bankTransactionRepository
                 .findByShiftAccountingIdOrderByCreatedAtDesc(accounting.getId());
-
-        bankTransactionRepository.deleteByShiftAccountingId(accounting.getId());
-
-        // Recalculate daily closing balance for each affected bank account and date
-        transactionsToDelete.stream()
-                .collect(Collectors.groupingBy(
-                        t -> new Object[]{t.getBankAccount().getId(), t.getTransactionDate().toLocalDate()}
-                ))
-                .keySet()
-                .forEach(key -> {
-                    UUID bankAccountId = (UUID) ((Object[]) key)[0];
-                    LocalDate date = (LocalDate) ((Object[]) key)[1];
-                    recalculateDailyClosingBalance(bankAccountId, date);
-                });
+        bankTransactionRepository.deleteAll(transactionsToDelete);
 
         log.info("Deleted all cash distributions for shift {} by {}", shiftId, securityHelper.getCurrentUsername());
     }
@@ -414,19 +418,12 @@ public class SalesmanShiftAccountingService {
         BankTransaction transaction = bankTransactionRepository.findById(transactionId)
                 .orElseThrow(() -> new EntityNotFoundException("Transaction not found: " + transactionId));
 
-        // Store info for recalculation before deletion
-        UUID bankAccountId = transaction.getBankAccount().getId();
-        LocalDate transactionDate = transaction.getTransactionDate().toLocalDate();
-
         if (transaction.getShiftAccounting() == null) {
             throw new PumpBusinessException("NOT_DISTRIBUTION", "This transaction is not a cash distribution");
         }
 
         bankTransactionRepository.delete(transaction);
 
-        // Recalculate daily closing balance for the affected date
-        recalculateDailyClosingBalance(bankAccountId, transactionDate);
-
         log.info("Deleted cash distribution transaction {} by {}", transactionId, securityHelper.getCurrentUsername());
     }
 
@@ -473,12 +470,9 @@ public class SalesmanShiftAccountingService {
      */
     private EmployeeSalaryPayment createAdvancePayment(SalesmanShift shift, BigDecimal balanceAmount) {
         // Get the first available bank account for the pump (needed for the payment record)
-        List<BankAccount> bankAccounts = bankAccountRepository.findByPumpMaster_Id(shift.getPumpMaster().getId());
-        if (bankAccounts.isEmpty()) {
-            throw new PumpBusinessException("NO_BANK_ACCOUNT",
-                    "No bank account found for pump master. Cannot create advance payment.");
-        }
-        BankAccount bankAccount = bankAccounts.get(0);
+        BankAccount bankAccount = bankAccountRepository.findFirstByPumpMaster_Id(shift.getPumpMaster().getId())
+                .orElseThrow(() -> new PumpBusinessException("NO_BANK_ACCOUNT",
+                "No bank account found for pump master. Cannot create advance payment."));
 
         // Use absolute value for advance payment amount (always positive)
         // This represents cash shortage that will be deducted from salary
@@ -509,61 +503,4 @@ public class SalesmanShiftAccountingService {
 
         return payment;
     }
-
-    /**
-     * Update daily closing balance for a bank transaction. This method is
-     * called after creating a new transaction.
-     */
-    private void updateDailyClosingBalance(BankTransaction transaction) {
-        LocalDate date = transaction.getTransactionDate().toLocalDate();
-        UUID bankAccountId = transaction.getBankAccount().getId();
-
-        BigDecimal dailyNet = bankTransactionRepository.getDailyNetByBankAccountIdAndDate(bankAccountId, date);
-        DailyClosingBalance dailyBalance = dailyClosingBalanceRepository
-                .findByBankAccount_IdAndDate(bankAccountId, date)
-                .orElse(new DailyClosingBalance());
-
-        dailyBalance.setBankAccount(transaction.getBankAccount());
-        dailyBalance.setDate(date);
-        dailyBalance.setDailyNet(dailyNet);
-
-        dailyClosingBalanceRepository.save(dailyBalance);
-
-        log.debug("Updated daily closing balance for bank account {} on {}: {}",
-                bankAccountId, date, dailyNet);
-    }
-
-    /**
-     * Recalculate daily closing balance for a specific bank account and date.
-     * This method is called after deleting transactions to ensure data
-     * consistency.
-     */
-    private void recalculateDailyClosingBalance(UUID bankAccountId, LocalDate date) {
-        BigDecimal dailyNet = bankTransactionRepository.getDailyNetByBankAccountIdAndDate(bankAccountId, date);
-
-        if (dailyNet.compareTo(BigDecimal.ZERO) == 0) {
-            // If no transactions exist for this date, delete the daily closing balance record
-            dailyClosingBalanceRepository.findByBankAccount_IdAndDate(bankAccountId, date)
-                    .ifPresent(dailyClosingBalanceRepository::delete);
-            log.debug("Deleted daily closing balance for bank account {} on {} (no transactions)",
-                    bankAccountId, date);
-        } else {
-            // Update the daily closing balance
-            DailyClosingBalance dailyBalance = dailyClosingBalanceRepository
-                    .findByBankAccount_IdAndDate(bankAccountId, date)
-                    .orElseGet(() -> {
-                        DailyClosingBalance newBalance = new DailyClosingBalance();
-                        newBalance.setBankAccount(bankAccountRepository.findById(bankAccountId)
-                                .orElseThrow(() -> new EntityNotFoundException("Bank account not found")));
-                        newBalance.setDate(date);
-                        return newBalance;
-                    });
-
-            dailyBalance.setDailyNet(dailyNet);
-            dailyClosingBalanceRepository.save(dailyBalance);
-
-            log.debug("Recalculated daily closing balance for bank account {} on {}: {}",
-                    bankAccountId, date, dailyNet);
-        }
-    }
 }
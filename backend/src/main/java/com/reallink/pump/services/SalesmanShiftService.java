@@ -3,7 +3,9 @@ package com.reallink.pump.services;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -52,7 +54,11 @@ public class SalesmanShiftService {
     private final UserRepository userRepository;
     private final PumpInfoMasterRepository pumpInfoMasterRepository;
     private final TankTransactionRepository tankTransactionRepository;
+    private final TankInventoryService tankInventoryService;
     private final SecurityHelper securityHelper;
+    private final ForecourtStateService forecourtState;
+    private final ProfitRollupService profitRollupService;
+    private final DashboardFactService dashboardFactService;
 
     /**
      * Start a new shift for a salesman. SALESMAN can start their own shift,
@@ -68,13 +74,14 @@ public class SalesmanShiftService {
             throw new IllegalArgumentException("You can only start your own shift");
         }
 
-        // Validate salesman exists
-        User salesman = userRepository.findById(salesmanId)
+        // Validate salesman exists. The row lock serializes concurrent starts for
+        // the same salesman, so the open-shift check below cannot be raced.
+        User salesman = userRepository.findByIdForUpdate(salesmanId)
                 .orElseThrow(() -> new EntityNotFoundException("Salesman not found"));
 
         // Check if salesman already has an open shift
-        boolean hasOpenShift = salesmanShiftRepository.existsBySalesmanIdAndStatusAndPumpMasterId(
-                salesmanId, SalesmanShift.ShiftStatus.OPEN, pumpMasterId);
+        boolean hasOpenShift = !salesmanShiftRepository
+                .findOpenShiftsBySalesmanForUpdate(salesmanId, pumpMasterId).isEmpty();
 
         if (hasOpenShift) {
             throw new IllegalStateException("Salesman already has an open shift. Please close the existing shift first.");
@@ -97,6 +104,7 @@ public class SalesmanShiftService {
 
         shift.setEntryBy(securityHelper.getCurrentUsername());
         SalesmanShift savedShift = salesmanShiftRepository.save(shift);
+        forecourtState.shiftStarted(savedShift);
 
         log.info("Started new shift {} for salesman {}", savedShift.getId(), salesman.getUsername());
         return savedShift;
@@ -110,8 +118,10 @@ public class SalesmanShiftService {
     public NozzleAssignment addNozzleToShift(UUID shiftId, UUID nozzleId, BigDecimal openingBalance) {
         UUID pumpMasterId = securityHelper.getCurrentPumpMasterId();
 
-        // Get and validate shift
-        SalesmanShift shift = salesmanShiftRepository.findById(shiftId)
+        // Get and validate shift. Locked before the nozzle, in the same order
+        // as closing the shift, so a concurrent close either sees this
+        // assignment or has already committed and is seen as closed below.
+        SalesmanShift shift = salesmanShiftRepository.findByIdForUpdate(shiftId)
                 .orElseThrow(() -> new EntityNotFoundException("Shift not found"));
 
         // Security check
@@ -122,12 +132,21 @@ public class SalesmanShiftService {
             throw new IllegalStateException("Cannot add nozzle to a closed shift");
         }
 
-        // Get and validate nozzle
-        Nozzle nozzle = nozzleRepository.findById(nozzleId)
+        // Claim the nozzle in the forecourt state, which rejects an assigned
+        // nozzle without waiting for its row lock. The claim is only this
+        // node's view and is dropped again if this transaction rolls back.
+        if (!forecourtState.claimNozzle(pumpMasterId, nozzleId, shiftId)) {
+            throw new IllegalStateException("Nozzle is already assigned to another shift");
+        }
+
+        // Get and validate nozzle. The row lock serializes concurrent assignments
+        // of the same nozzle across nodes, so the check below cannot be raced.
+        Nozzle nozzle = nozzleRepository.findByIdForUpdate(nozzleId)
                 .orElseThrow(() -> new EntityNotFoundException("Nozzle not found"));
 
         // Check if nozzle is already assigned
-        boolean isAssigned = nozzleAssignmentRepository.isNozzleCurrentlyAssigned(nozzleId, pumpMasterId);
+        boolean isAssigned = !nozzleAssignmentRepository
+                .findOpenAssignmentsByNozzleIdsForUpdate(List.of(nozzleId)).isEmpty();
         if (isAssigned) {
             throw new IllegalStateException("Nozzle is already assigned to another shift");
         }
@@ -153,6 +172,7 @@ public class SalesmanShiftService {
 
         assignment.setEntryBy(securityHelper.getCurrentUsername());
         NozzleAssignment savedAssignment = nozzleAssignmentRepository.save(assignment);
+        forecourtState.nozzleAssigned(savedAssignment);
 
         log.info("Added nozzle {} to shift {}", nozzle.getNozzleName(), shiftId);
         return savedAssignment;
@@ -165,9 +185,15 @@ public class SalesmanShiftService {
     @Transactional
     @PreAuthorize("hasAnyRole('SALESMAN', 'MANAGER', 'ADMIN')")
     public NozzleAssignment closeNozzleAssignment(UUID assignmentId, BigDecimal closingBalance, LocalDateTime endTime) {
-        // Get assignment
-        NozzleAssignment assignment = nozzleAssignmentRepository.findById(assignmentId)
+        // Lock shift, assignment and nozzle in the same order as closing the whole
+        // shift. The assignment is first loaded by the locking read, so the
+        // closed check below sees the latest committed state.
+        UUID shiftId = nozzleAssignmentRepository.findShiftIdById(assignmentId)
                 .orElseThrow(() -> new EntityNotFoundException("Nozzle assignment not found"));
+        salesmanShiftRepository.findByIdForUpdate(shiftId);
+        NozzleAssignment assignment = nozzleAssignmentRepository.findByIdForUpdate(assignmentId)
+                .orElseThrow(() -> new EntityNotFoundException("Nozzle assignment not found"));
+        nozzleRepository.findByIdForUpdate(assignment.getNozzle().getId());
 
         // Security check
         securityHelper.verifyAccessToSalesmanData(assignment.getSalesman().getId());
@@ -200,6 +226,9 @@ public class SalesmanShiftService {
         createTankTransactionForNozzleClose(assignment);
 
         NozzleAssignment savedAssignment = nozzleAssignmentRepository.save(assignment);
+        forecourtState.nozzleReleased(savedAssignment);
+        profitRollupService.markDirty(savedAssignment.getPumpMaster().getId(), closeTime.toLocalDate());
+        dashboardFactService.markDirty(savedAssignment.getPumpMaster().getId(), closeTime.toLocalDate());
 
         log.info("Closed nozzle assignment {} for nozzle {}, dispensed: {} liters",
                 assignmentId, nozzle.getNozzleName(), assignment.getDispensedAmount());
@@ -214,8 +243,8 @@ public class SalesmanShiftService {
     @Transactional
     @PreAuthorize("hasAnyRole('SALESMAN', 'MANAGER', 'ADMIN')")
     public SalesmanShift closeShift(UUID shiftId, LocalDateTime endDatetime) {
-        // Get shift
-        SalesmanShift shift = salesmanShiftRepository.findById(shiftId)
+        // Get shift, locked so that no nozzle is added or closed while it closes
+        SalesmanShift shift = salesmanShiftRepository.findByIdForUpdate(shiftId)
                 .orElseThrow(() -> new EntityNotFoundException("Shift not found"));
 
         // Security check
@@ -240,6 +269,7 @@ public class SalesmanShiftService {
         shift.closeShift(closeTime);
 
         SalesmanShift savedShift = salesmanShiftRepository.save(shift);
+        forecourtState.shiftClosed(savedShift);
 
         log.info("Closed shift {} for salesman {}", shiftId, shift.getSalesman().getUsername());
         return savedShift;
@@ -259,6 +289,176 @@ public class SalesmanShiftService {
         return shift;
     }
 
+    /**
+     * Start a shift and assign several nozzles to it in one transaction. Nozzles
+     * and current assignments are looked up with one query each, and the
+     * assignments are inserted as a batch.
+     *
+     * @param nozzleOpenings opening balance per nozzle ID, in assignment order
+     */
+    @Transactional
+    @PreAuthorize("hasAnyRole('SALESMAN', 'MANAGER', 'ADMIN')")
+    public SalesmanShift startShiftWithNozzles(UUID salesmanId, BigDecimal openingCash, LocalDateTime startDatetime,
+            Map<UUID, BigDecimal> nozzleOpenings) {
+        UUID pumpMasterId = securityHelper.getCurrentPumpMasterId();
+
+        SalesmanShift shift = startShift(salesmanId, openingCash, startDatetime);
+
+        // Prefetch and lock all requested nozzles in one query
+        Map<UUID, Nozzle> nozzles = nozzleRepository.findAllByIdForUpdate(nozzleOpenings.keySet()).stream()
+                .collect(Collectors.toMap(Nozzle::getId, nozzle -> nozzle));
+
+        // The forecourt state is only this node's view; the locking read is
+        // what holds across nodes
+        List<UUID> assignedNozzleIds = nozzleAssignmentRepository
+                .findOpenAssignmentsByNozzleIdsForUpdate(nozzleOpenings.keySet()).stream()
+                .map(assignment -> assignment.getNozzle().getId())
+                .collect(Collectors.toList());
+
+        List<NozzleAssignment> assignments = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        String entryBy = securityHelper.getCurrentUsername();
+        for (Map.Entry<UUID, BigDecimal> opening : nozzleOpenings.entrySet()) {
+            Nozzle nozzle = nozzles.get(opening.getKey());
+            if (nozzle == null || !pumpMasterId.equals(nozzle.getPumpMaster().getId())) {
+                throw new EntityNotFoundException("Nozzle not found");
+            }
+            if (assignedNozzleIds.contains(nozzle.getId())
+                    || !forecourtState.claimNozzle(pumpMasterId, nozzle.getId(), shift.getId())) {
+                throw new IllegalStateException("Nozzle " + nozzle.getNozzleName() + " is already assigned to another shift");
+            }
+
+            NozzleAssignment assignment = new NozzleAssignment(
+                    shift,
+                    nozzle,
+                    shift.getSalesman(),
+                    shift.getPumpMaster(),
+                    now,
+                    opening.getValue()
+            );
+            assignment.setEntryBy(entryBy);
+            assignments.add(assignment);
+        }
+
+        List<NozzleAssignment> savedAssignments = nozzleAssignmentRepository.saveAll(assignments);
+        shift.getNozzleAssignments().addAll(savedAssignments);
+        savedAssignments.forEach(forecourtState::nozzleAssigned);
+
+        log.info("Started shift {} with {} nozzle(s)", shift.getId(), savedAssignments.size());
+        return shift;
+    }
+
+    /**
+     * Close every open nozzle of a shift and then the shift itself in one
+     * transaction. Assignments (with nozzle and tank) and nozzle tests are
+     * loaded with one query each, and the tank transactions are inserted as a
+     * batch.
+     *
+     * @param closingBalances closing balance per open assignment ID; must cover
+     * every open assignment of the shift
+     */
+    @Transactional
+    @PreAuthorize("hasAnyRole('SALESMAN', 'MANAGER', 'ADMIN')")
+    public SalesmanShift closeShiftWithNozzles(UUID shiftId, Map<UUID, BigDecimal> closingBalances,
+            LocalDateTime endDatetime) {
+        // Lock the shift, then its open assignments, then their nozzles, before
+        // anything is read without a lock. A concurrent nozzle close takes the
+        // same locks in the same order, so whichever runs second sees the
+        // other's committed result.
+        SalesmanShift shift = salesmanShiftRepository.findByIdForUpdate(shiftId)
+                .orElseThrow(() -> new EntityNotFoundException("Shift not found"));
+
+        // Security check
+        securityHelper.verifyCanModifyShift(shift.getSalesman().getId(), shift.isOpen());
+
+        if (!shift.isOpen()) {
+            throw new IllegalStateException("Shift is already closed");
+        }
+
+        List<UUID> openNozzleIds = nozzleAssignmentRepository.findOpenAssignmentsByShiftIdForUpdate(shiftId).stream()
+                .map(assignment -> assignment.getNozzle().getId())
+                .collect(Collectors.toList());
+        if (!openNozzleIds.isEmpty()) {
+            nozzleRepository.findAllByIdForUpdate(openNozzleIds);
+        }
+
+        // Same instances as locked above, now with nozzle, tank and salesman loaded
+        List<NozzleAssignment> openAssignments = nozzleAssignmentRepository.findOpenAssignmentsWithNozzleByShiftId(shiftId);
+        for (NozzleAssignment assignment : openAssignments) {
+            if (!closingBalances.containsKey(assignment.getId())) {
+                throw new IllegalStateException("Cannot close shift. Nozzle "
+                        + assignment.getNozzle().getNozzleName() + " has no closing balance.");
+            }
+        }
+        if (closingBalances.size() != openAssignments.size()) {
+            throw new IllegalArgumentException("Closing balances must refer to open nozzle assignments of this shift");
+        }
+
+        // All tests of the shift in one query, grouped by assignment
+        Map<UUID, List<NozzleTest>> testsByAssignment = nozzleTestRepository
+                .findBySalesmanShiftIdOrderByTestDatetimeDesc(shiftId).stream()
+                .collect(Collectors.groupingBy(test -> test.getNozzleAssignment().getId()));
+
+        LocalDateTime closeTime = endDatetime != null ? endDatetime : LocalDateTime.now();
+        List<TankTransaction> tankTransactions = new ArrayList<>();
+        for (NozzleAssignment assignment : openAssignments) {
+            List<NozzleTest> tests = testsByAssignment.getOrDefault(assignment.getId(), List.of());
+            if (tests.isEmpty()) {
+                throw new IllegalStateException("Cannot close nozzle " + assignment.getNozzle().getNozzleName()
+                        + ". At least one nozzle test (which can be zero) is required before closing.");
+            }
+
+            BigDecimal closingBalance = closingBalances.get(assignment.getId());
+            assignment.closeAssignment(closeTime, closingBalance);
+
+            Nozzle nozzle = assignment.getNozzle();
+            nozzle.setPreviousReading(nozzle.getCurrentReading());
+            nozzle.setCurrentReading(closingBalance);
+
+            tankTransactions.addAll(buildTankTransactionsForNozzleClose(assignment, tests));
+        }
+
+        // Tank stock for every closed nozzle is posted as one batch
+        tankInventoryService.post(tankTransactions);
+
+        shift.closeShift(closeTime);
+        SalesmanShift savedShift = salesmanShiftRepository.save(shift);
+        if (!openAssignments.isEmpty()) {
+            profitRollupService.markDirty(shift.getPumpMaster().getId(), closeTime.toLocalDate());
+            dashboardFactService.markDirty(shift.getPumpMaster().getId(), closeTime.toLocalDate());
+        }
+
+        openAssignments.forEach(forecourtState::nozzleReleased);
+        forecourtState.shiftClosed(savedShift);
+
+        log.info("Closed shift {} with {} nozzle(s) for salesman {}",
+                shiftId, openAssignments.size(), shift.getSalesman().getUsername());
+        return savedShift;
+    }
+
+    /**
+     * Get a shift with everything the details view reads (assignments with
+     * nozzle, tank and product, nozzle tests, credit bills and payments with
+     * customer and product, accounting) loaded up front. Uses a fixed number
+     * of queries however many bills or payments the shift has.
+     */
+    @PreAuthorize("hasAnyRole('SALESMAN', 'MANAGER', 'ADMIN')")
+    public SalesmanShift getShiftDetails(UUID shiftId) {
+        SalesmanShift shift = salesmanShiftRepository.findByIdWithHeader(shiftId)
+                .orElseThrow(() -> new EntityNotFoundException("Shift not found"));
+
+        // Security check
+        securityHelper.verifyAccessToSalesmanData(shift.getSalesman().getId());
+
+        // Each query initializes one collection on the same managed instance
+        salesmanShiftRepository.fetchNozzleAssignments(shiftId);
+        nozzleAssignmentRepository.fetchNozzleTestsForShift(shiftId);
+        salesmanShiftRepository.fetchCreditBills(shiftId);
+        salesmanShiftRepository.fetchPayments(shiftId);
+
+        return shift;
+    }
+
     /**
      * Get all shifts with optional filters. Applies role-based access control
      * and filtering. SALESMAN sees only their own shifts. MANAGER/ADMIN see all
@@ -291,38 +491,13 @@ public class SalesmanShiftService {
     }
 
     /**
-     * Helper method to filter shifts based on criteria.
+     * Helper method to filter shifts based on criteria. All filters, including
+     * the accounting status, are applied in a single query.
      */
     private List<SalesmanShift> filterShifts(UUID salesmanId, SalesmanShift.ShiftStatus status,
             LocalDateTime fromDate, LocalDateTime toDate, UUID pumpMasterId, Boolean isAccountingDone) {
-        List<SalesmanShift> shifts;
-
-        if (salesmanId != null && status != null) {
-            // Filter by salesman and status
-            shifts = salesmanShiftRepository.findBySalesmanIdAndStatusAndPumpMasterIdAndDateRange(
-                    salesmanId, status, pumpMasterId, fromDate, toDate);
-        } else if (salesmanId != null) {
-            // Filter by salesman only
-            shifts = salesmanShiftRepository.findBySalesmanIdAndPumpMasterIdAndDateRange(
-                    salesmanId, pumpMasterId, fromDate, toDate);
-        } else if (status != null) {
-            // Filter by status only
-            shifts = salesmanShiftRepository.findByStatusAndPumpMasterIdAndDateRange(
-                    status, pumpMasterId, fromDate, toDate);
-        } else {
-            // No specific filters, just date range and pump master
-            shifts = salesmanShiftRepository.findByPumpMasterIdAndDateRange(
-                    pumpMasterId, fromDate, toDate);
-        }
-
-        // Apply accounting status filter if provided
-        if (isAccountingDone != null) {
-            shifts = shifts.stream()
-                    .filter(shift -> shift.getIsAccountingDone().equals(isAccountingDone))
-                    .collect(Collectors.toList());
-        }
-
-        return shifts;
+        return salesmanShiftRepository.findByFilters(
+                pumpMasterId, salesmanId, status, isAccountingDone, fromDate, toDate);
     }
 
     /**
@@ -358,12 +533,13 @@ public class SalesmanShiftService {
     }
 
     /**
-     * Get all open shifts (for managers/admins).
+     * Get all open shifts (for managers/admins). Served from the in-memory
+     * forecourt state.
      */
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
-    public List<SalesmanShift> getAllOpenShifts() {
+    public List<ForecourtStateService.OpenShift> getAllOpenShifts() {
         UUID pumpMasterId = securityHelper.getCurrentPumpMasterId();
-        return salesmanShiftRepository.findOpenShiftsByPumpMasterId(pumpMasterId);
+        return forecourtState.getOpenShifts(pumpMasterId);
     }
 
     /**
@@ -384,15 +560,27 @@ public class SalesmanShiftService {
 
     // Private helper methods
     private void createTankTransactionForNozzleClose(NozzleAssignment assignment) {
+        List<NozzleTest> tests = nozzleTestRepository.findByNozzleAssignmentIdOrderByTestDatetimeDesc(assignment.getId());
+        tankInventoryService.post(buildTankTransactionsForNozzleClose(assignment, tests));
+    }
+
+    /**
+     * Build the tank transactions for a closed nozzle assignment: one REMOVAL
+     * for the dispensed fuel and one ADDITION per nozzle test returning test
+     * fuel to the tank. Nothing is saved here so callers can write them in a
+     * batch.
+     */
+    private List<TankTransaction> buildTankTransactionsForNozzleClose(NozzleAssignment assignment, List<NozzleTest> tests) {
+        List<TankTransaction> transactions = new ArrayList<>();
         Tank tank = assignment.getNozzle().getTank();
         if (tank == null) {
             log.warn("No tank associated with nozzle {}", assignment.getNozzle().getNozzleName());
-            return;
+            return transactions;
         }
 
         BigDecimal dispensedAmount = assignment.getDispensedAmount();
         if (dispensedAmount.compareTo(BigDecimal.ZERO) <= 0) {
-            return; // No fuel dispensed
+            return transactions; // No fuel dispensed
         }
 
         // Create removal transaction (fuel out - dispensed from tank)
@@ -405,15 +593,13 @@ public class SalesmanShiftService {
                 assignment.getNozzle().getNozzleName(),
                 assignment.getSalesman().getUsername()));
         transaction.setEntryBy(securityHelper.getCurrentUsername());
-
-        tankTransactionRepository.save(transaction);
+        transactions.add(transaction);
 
         log.info("Created tank transaction for {} liters dispensed from tank {}",
                 dispensedAmount, tank.getTankName());
 
         // Create ADDITION transactions for each nozzle test to return test fuel to tank
         DateTimeFormatter dtFormatter = DateTimeFormatter.ofPattern("dd-MMM-yyyy HH:mm");
-        List<NozzleTest> tests = nozzleTestRepository.findByNozzleAssignmentIdOrderByTestDatetimeDesc(assignment.getId());
         for (NozzleTest test : tests) {
             // Skip tests with zero or negative quantity - no fuel to return
             if (test.getTestQuantity() == null || test.getTestQuantity().compareTo(BigDecimal.ZERO) <= 0) {
@@ -433,12 +619,12 @@ public class SalesmanShiftService {
                     test.getTestDatetime().format(dtFormatter)));
             testTransaction.setNozzleTest(test);
             testTransaction.setEntryBy(securityHelper.getCurrentUsername());
-
-            tankTransactionRepository.save(testTransaction);
+            transactions.add(testTransaction);
 
             log.info("Created tank transaction for {} liters test fuel returned to tank {}",
                     test.getTestQuantity(), tank.getTankName());
         }
+        return transactions;
     }
 
     // ============================================
@@ -607,6 +793,7 @@ public class SalesmanShiftService {
 
         // Delete the shift
         salesmanShiftRepository.delete(shift);
+        forecourtState.shiftDeleted(shift);
 
         log.info("Deleted shift {} for salesman {}", shiftId, shift.getSalesman().getUsername());
     }
@@ -628,22 +815,27 @@ public class SalesmanShiftService {
         // Delete associated tank transaction if it exists (only if nozzle was already closed)
         List<TankTransaction> transactions = tankTransactionRepository.findByNozzleTest(test);
         if (!transactions.isEmpty()) {
-            tankTransactionRepository.deleteAll(transactions);
+            tankInventoryService.remove(transactions);
             log.info("Deleted {} tank transaction(s) associated with nozzle test {}", transactions.size(), testId);
         }
 
         nozzleTestRepository.delete(test);
+        // Test fuel counts against litres sold once the nozzle is closed
+        NozzleAssignment assignment = test.getNozzleAssignment();
+        if (assignment.isClosed() && assignment.getEndTime() != null) {
+            profitRollupService.markDirty(test.getPumpMaster().getId(), assignment.getEndTime().toLocalDate());
+        }
         log.info("Deleted nozzle test {} from shift {}", testId, test.getSalesmanShift().getId());
     }
 
     /**
      * Get all nozzle IDs that are currently assigned (status = OPEN) to any
      * shift. This is optimized for checking nozzle availability when starting a
-     * new shift.
+     * new shift, and is served from the in-memory forecourt state.
      */
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'SALESMAN')")
     public List<UUID> getAllAssignedNozzleIds() {
         UUID pumpMasterId = securityHelper.getCurrentPumpMasterId();
-        return nozzleAssignmentRepository.findAllAssignedNozzleIds(pumpMasterId);
+        return forecourtState.getAssignedNozzleIds(pumpMasterId);
     }
 }
@@ -0,0 +1,53 @@
+package com.reallink.pump.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reallink.pump.dto.shift.ShiftTotalsView;
+import com.reallink.pump.repositories.SalesmanShiftRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Shift totals (fuel sales, credit, payments, expenses, test quantity, nozzle
+ * counts) computed by one aggregate query instead of loading the shift's
+ * assignments, bills, payments and expenses to sum a single column each.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ShiftTotalsService {
+
+    private final SalesmanShiftRepository salesmanShiftRepository;
+
+    /**
+     * Get the totals of one shift.
+     */
+    public ShiftTotalsView getTotals(UUID shiftId) {
+        List<ShiftTotalsView> totals = salesmanShiftRepository.findShiftTotals(List.of(shiftId));
+        if (totals.isEmpty()) {
+            throw new EntityNotFoundException("Shift not found");
+        }
+        return totals.get(0);
+    }
+
+    /**
+     * Get the totals of several shifts, keyed by shift ID.
+     */
+    public Map<UUID, ShiftTotalsView> getTotals(Collection<UUID> shiftIds) {
+        if (shiftIds.isEmpty()) {
+            return Map.of();
+        }
+        return salesmanShiftRepository.findShiftTotals(shiftIds).stream()
+                .collect(Collectors.toMap(ShiftTotalsView::getShiftId, Function.identity()));
+    }
+
+}
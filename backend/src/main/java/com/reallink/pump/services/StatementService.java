@@ -0,0 +1,248 @@
+package com.reallink.pump.services;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.annotation.Validated;
+
+import com.reallink.pump.dto.response.StatementEntryResponse;
+import com.reallink.pump.dto.response.StatementResponse;
+import com.reallink.pump.entities.BankAccount;
+import com.reallink.pump.entities.BankTransaction;
+import com.reallink.pump.entities.Tank;
+import com.reallink.pump.entities.TankTransaction;
+import com.reallink.pump.exception.PumpBusinessException;
+import com.reallink.pump.repositories.BankAccountRepository;
+import com.reallink.pump.repositories.DailyClosingBalanceRepository;
+import com.reallink.pump.repositories.DailyTankLevelRepository;
+import com.reallink.pump.repositories.TankRepository;
+import com.reallink.pump.util.UuidBytes;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Running-balance statements for bank accounts and tanks, a page at a time.
+ *
+ * A page never reads rows outside itself: its starting balance comes from the
+ * daily net tables (checkpoint plus tail) up to the day before the cursor, plus
+ * the rows of the cursor's own day up to the cursor. The window function then
+ * only runs over the page, so a year-long statement costs the same per page as
+ * a one-day one.
+ */
+@Service
+@Validated
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class StatementService {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int DEFAULT_RANGE_DAYS = 31;
+
+    private static final String BANK_PAGE_SQL
+            = "SELECT t.*, SUM(t.net) OVER (ORDER BY t.transaction_date, t.id ROWS UNBOUNDED PRECEDING) AS running_net"
+            + " FROM (SELECT bt.id, bt.transaction_date, bt.transaction_type, bt.description, bt.payment_method, bt.entry_by,"
+            + " bt.amount, CASE WHEN bt.transaction_type = :inType THEN bt.amount ELSE -bt.amount END AS net"
+            + " FROM pump_bank_transaction_master bt"
+            + " WHERE bt.bank_account_id = :accountId"
+            + " AND bt.transaction_date >= :fromDateTime AND bt.transaction_date < :toDateTime"
+            + " AND (:afterDate IS NULL OR bt.transaction_date > :afterDate OR (bt.transaction_date = :afterDate AND bt.id > :afterId))"
+            + " ORDER BY bt.transaction_date, bt.id"
+            + " LIMIT :limit) t"
+            + " ORDER BY t.transaction_date, t.id";
+
+    // Net of the cursor's day up to and including the cursor row
+    private static final String BANK_DAY_NET_SQL
+            = "SELECT COALESCE(SUM(CASE WHEN bt.transaction_type = :inType THEN bt.amount ELSE -bt.amount END), 0)"
+            + " FROM pump_bank_transaction_master bt"
+            + " WHERE bt.bank_account_id = :accountId"
+            + " AND bt.transaction_date >= :dayStart"
+            + " AND (bt.transaction_date < :afterDate OR (bt.transaction_date = :afterDate AND bt.id <= :afterId))";
+
+    private static final String TANK_PAGE_SQL
+            = "SELECT t.*, SUM(t.net) OVER (ORDER BY t.transaction_date, t.id ROWS UNBOUNDED PRECEDING) AS running_net"
+            + " FROM (SELECT tt.id, tt.transaction_date, tt.transaction_type, tt.description, tt.supplier_name,"
+            + " tt.invoice_number, tt.entry_by,"
+            + " tt.volume AS amount, CASE WHEN tt.transaction_type = :inType THEN tt.volume ELSE -tt.volume END AS net"
+            + " FROM pump_tank_transaction_master tt"
+            + " WHERE tt.tank_id = :accountId"
+            + " AND tt.transaction_date >= :fromDateTime AND tt.transaction_date < :toDateTime"
+            + " AND (:afterDate IS NULL OR tt.transaction_date > :afterDate OR (tt.transaction_date = :afterDate AND tt.id > :afterId))"
+            + " ORDER BY tt.transaction_date, tt.id"
+            + " LIMIT :limit) t"
+            + " ORDER BY t.transaction_date, t.id";
+
+    private static final String TANK_DAY_NET_SQL
+            = "SELECT COALESCE(SUM(CASE WHEN tt.transaction_type = :inType THEN tt.volume ELSE -tt.volume END), 0)"
+            + " FROM pump_tank_transaction_master tt"
+            + " WHERE tt.tank_id = :accountId"
+            + " AND tt.transaction_date >= :dayStart"
+            + " AND (tt.transaction_date < :afterDate OR (tt.transaction_date = :afterDate AND tt.id <= :afterId))";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final BankAccountRepository bankAccountRepository;
+    private final TankRepository tankRepository;
+    private final DailyClosingBalanceRepository dailyClosingBalanceRepository;
+    private final DailyTankLevelRepository dailyTankLevelRepository;
+
+    /**
+     * Get one page of a bank account statement. Without dates the last
+     * {@value #DEFAULT_RANGE_DAYS} days up to today are used.
+     */
+    public StatementResponse getBankStatement(
+            @NotNull UUID bankAccountId,
+            @NotNull UUID pumpMasterId,
+            LocalDate fromDate,
+            LocalDate toDate,
+            LocalDateTime afterDate,
+            UUID afterId,
+            Integer limit) {
+        BankAccount bankAccount = bankAccountRepository.findById(bankAccountId).orElse(null);
+        if (bankAccount == null || !bankAccount.getPumpMaster().getId().equals(pumpMasterId)) {
+            throw new PumpBusinessException("BANK_ACCOUNT_NOT_FOUND", "Bank account with ID " + bankAccountId + " not found");
+        }
+        BigDecimal openingBalance = bankAccount.getOpeningBalance() != null ? bankAccount.getOpeningBalance() : BigDecimal.ZERO;
+
+        Page page = new Page(fromDate, toDate, afterDate, afterId, limit);
+        MapSqlParameterSource params = page.params(bankAccountId)
+                .addValue("inType", BankTransaction.TransactionType.CREDIT.name());
+
+        BigDecimal balanceBeforeRange = openingBalance.add(
+                dailyClosingBalanceRepository.getCumulativeNetUpToDate(bankAccountId, page.fromDate.minusDays(1)));
+        BigDecimal seed = page.afterDate == null
+                ? balanceBeforeRange
+                : openingBalance
+                        .add(dailyClosingBalanceRepository.getCumulativeNetUpToDate(bankAccountId, page.afterDate.toLocalDate().minusDays(1)))
+                        .add(jdbcTemplate.queryForObject(BANK_DAY_NET_SQL, params, BigDecimal.class));
+
+        List<StatementEntryResponse> entries = jdbcTemplate.query(BANK_PAGE_SQL, params, (rs, rowNum) -> entry(rs, seed)
+                .transactionType(rs.getString("transaction_type"))
+                .paymentMethod(rs.getString("payment_method"))
+                .build());
+
+        return page.response(bankAccountId, balanceBeforeRange, entries);
+    }
+
+    /**
+     * Get one page of a tank statement. Without dates the last
+     * {@value #DEFAULT_RANGE_DAYS} days up to today are used.
+     */
+    public StatementResponse getTankStatement(
+            @NotNull UUID tankId,
+            @NotNull UUID pumpMasterId,
+            LocalDate fromDate,
+            LocalDate toDate,
+            LocalDateTime afterDate,
+            UUID afterId,
+            Integer limit) {
+        Tank tank = tankRepository.findById(tankId).orElse(null);
+        if (tank == null || !tank.getPumpMaster().getId().equals(pumpMasterId)) {
+            throw new PumpBusinessException("TANK_NOT_FOUND", "Tank with ID " + tankId + " not found");
+        }
+        BigDecimal openingLevel = tank.getOpeningLevel() != null ? tank.getOpeningLevel() : BigDecimal.ZERO;
+
+        Page page = new Page(fromDate, toDate, afterDate, afterId, limit);
+        // Tank transaction types are stored by ordinal
+        MapSqlParameterSource params = page.params(tankId)
+                .addValue("inType", TankTransaction.TransactionType.ADDITION.ordinal());
+
+        BigDecimal levelBeforeRange = openingLevel.add(
+                dailyTankLevelRepository.getCumulativeNetUpToDate(tankId, page.fromDate.minusDays(1)));
+        BigDecimal seed = page.afterDate == null
+                ? levelBeforeRange
+                : openingLevel
+                        .add(dailyTankLevelRepository.getCumulativeNetUpToDate(tankId, page.afterDate.toLocalDate().minusDays(1)))
+                        .add(jdbcTemplate.queryForObject(TANK_DAY_NET_SQL, params, BigDecimal.class));
+
+        TankTransaction.TransactionType[] types = TankTransaction.TransactionType.values();
+        List<StatementEntryResponse> entries = jdbcTemplate.query(TANK_PAGE_SQL, params, (rs, rowNum) -> entry(rs, seed)
+                .transactionType(types[rs.getInt("transaction_type")].name())
+                .supplierName(rs.getString("supplier_name"))
+                .invoiceNumber(rs.getString("invoice_number"))
+                .build());
+
+        return page.response(tankId, levelBeforeRange, entries);
+    }
+
+    /**
+     * Fields shared by bank and tank entries.
+     */
+    private static StatementEntryResponse.StatementEntryResponseBuilder entry(ResultSet rs, BigDecimal seed) throws SQLException {
+        BigDecimal amount = rs.getBigDecimal("amount");
+        boolean in = rs.getBigDecimal("net").signum() >= 0;
+        return StatementEntryResponse.builder()
+                .id(UuidBytes.fromBytes(rs.getBytes("id")))
+                .date(rs.getTimestamp("transaction_date").toLocalDateTime())
+                .description(rs.getString("description"))
+                .inAmount(in ? amount : BigDecimal.ZERO)
+                .outAmount(in ? BigDecimal.ZERO : amount)
+                .balance(seed.add(rs.getBigDecimal("running_net")))
+                .entryBy(rs.getString("entry_by"));
+    }
+
+    /**
+     * Range, cursor and page size of a statement request, with the defaults
+     * applied.
+     */
+    private static class Page {
+
+        private final LocalDate fromDate;
+        private final LocalDate toDate;
+        private final LocalDateTime afterDate;
+        private final UUID afterId;
+        private final int size;
+
+        Page(LocalDate fromDate, LocalDate toDate, LocalDateTime afterDate, UUID afterId, Integer limit) {
+            this.toDate = toDate != null ? toDate : LocalDate.now();
+            this.fromDate = fromDate != null ? fromDate : this.toDate.minusDays(DEFAULT_RANGE_DAYS - 1);
+            if (this.fromDate.isAfter(this.toDate)) {
+                throw new IllegalArgumentException("From date must not be after to date");
+            }
+            if ((afterDate == null) != (afterId == null)) {
+                throw new IllegalArgumentException("afterDate and afterId must be given together");
+            }
+            this.afterDate = afterDate;
+            this.afterId = afterId;
+            this.size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        }
+
+        MapSqlParameterSource params(UUID accountId) {
+            return new MapSqlParameterSource()
+                    .addValue("accountId", UuidBytes.toBytes(accountId))
+                    .addValue("fromDateTime", fromDate.atStartOfDay())
+                    .addValue("toDateTime", toDate.plusDays(1).atStartOfDay())
+                    .addValue("afterDate", afterDate != null ? Timestamp.valueOf(afterDate) : null)
+                    .addValue("afterId", afterId != null ? UuidBytes.toBytes(afterId) : null)
+                    .addValue("dayStart", afterDate != null ? afterDate.toLocalDate().atStartOfDay() : null)
+                    // One extra row tells whether another page follows
+                    .addValue("limit", size + 1);
+        }
+
+        StatementResponse response(UUID accountId, BigDecimal openingBalance, List<StatementEntryResponse> entries) {
+            boolean hasMore = entries.size() > size;
+            List<StatementEntryResponse> pageEntries = hasMore ? entries.subList(0, size) : entries;
+            StatementEntryResponse last = pageEntries.isEmpty() ? null : pageEntries.get(pageEntries.size() - 1);
+            return StatementResponse.builder()
+                    .accountId(accountId)
+                    .fromDate(fromDate)
+                    .toDate(toDate)
+                    .openingBalance(openingBalance)
+                    .entries(pageEntries)
+                    .hasMore(hasMore)
+                    .nextAfterDate(hasMore ? last.getDate() : null)
+                    .nextAfterId(hasMore ? last.getId() : null)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.reallink.pump.services;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs queries whose rows are handled one at a time and never collected.
+ * With {@code useCursorFetch=true} on the connection URL, a positive fetch
+ * size makes MySQL serve the result through a forward-only server-side
+ * cursor, so the driver holds at most one fetch of rows instead of the whole
+ * result.
+ *
+ * Kept apart from the application's NamedParameterJdbcTemplate so that
+ * ordinary small queries are not switched to cursor fetching.
+ */
+@Component
+public class StreamingQueryTemplate {
+
+    public static final int FETCH_SIZE = 500;
+
+    private final NamedParameterJdbcTemplate template;
+
+    public StreamingQueryTemplate(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.template = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public void stream(String sql, SqlParameterSource params, RowCallbackHandler handler) {
+        template.query(sql, params, handler);
+    }
+}
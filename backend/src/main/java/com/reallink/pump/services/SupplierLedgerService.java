@@ -0,0 +1,189 @@
+package com.reallink.pump.services;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.annotation.Validated;
+
+import com.reallink.pump.dto.response.SupplierLedgerEntryResponse;
+import com.reallink.pump.dto.response.SupplierLedgerPaymentView;
+import com.reallink.pump.dto.response.SupplierLedgerPurchaseView;
+import com.reallink.pump.dto.response.SupplierLedgerSummaryResponse;
+import com.reallink.pump.entities.Supplier;
+import com.reallink.pump.exception.PumpBusinessException;
+import com.reallink.pump.repositories.FuelPurchaseRepository;
+import com.reallink.pump.repositories.PurchaseRepository;
+import com.reallink.pump.repositories.SupplierPaymentRepository;
+import com.reallink.pump.repositories.SupplierRepository;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Supplier ledger produced as a stream. Purchases, fuel purchases and payments
+ * are each read through a date-ordered database cursor and merged on the fly,
+ * keeping one pending row per source, so memory does not grow with the number
+ * of entries. The running payable is carried along the merge.
+ */
+@Service
+@Validated
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class SupplierLedgerService {
+
+    private final SupplierRepository supplierRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final FuelPurchaseRepository fuelPurchaseRepository;
+    private final SupplierPaymentRepository supplierPaymentRepository;
+
+    /**
+     * Receives the ledger as it is produced: the opening balance first, then
+     * each entry in date order, then the summary.
+     */
+    public interface LedgerSink {
+
+        void opening(BigDecimal openingBalance);
+
+        void entry(SupplierLedgerEntryResponse entry);
+
+        void closing(SupplierLedgerSummaryResponse summary);
+    }
+
+    /**
+     * Stream a supplier's ledger between two dates into a sink. Validation
+     * happens before the sink is first called, so a failed request writes
+     * nothing.
+     */
+    public void streamLedger(
+            @NotNull UUID supplierId,
+            @NotNull UUID pumpMasterId,
+            @NotNull LocalDate fromDate,
+            @NotNull LocalDate toDate,
+            @NotNull LedgerSink sink) {
+        if (fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("From date must not be after to date");
+        }
+        Supplier supplier = supplierRepository.findById(supplierId).orElse(null);
+        if (supplier == null || !supplier.getPumpMaster().getId().equals(pumpMasterId)) {
+            throw new PumpBusinessException("SUPPLIER_NOT_FOUND", "Supplier with ID " + supplierId + " not found");
+        }
+
+        BigDecimal openingBalance = getBalanceBefore(supplier, fromDate);
+        sink.opening(openingBalance);
+
+        BigDecimal balance = openingBalance;
+        BigDecimal totalPurchases = BigDecimal.ZERO;
+        BigDecimal totalPayments = BigDecimal.ZERO;
+        long count = 0;
+
+        try (Stream<SupplierLedgerPurchaseView> purchases = purchaseRepository.streamLedgerRows(supplierId, fromDate, toDate);
+                Stream<SupplierLedgerPurchaseView> fuelPurchases = fuelPurchaseRepository.streamLedgerRows(supplierId, fromDate, toDate);
+                Stream<SupplierLedgerPaymentView> payments = supplierPaymentRepository.streamLedgerRows(
+                        supplierId, fromDate.atStartOfDay(), toDate.plusDays(1).atStartOfDay())) {
+
+            // Ties on the same instant go purchases, fuel purchases, payments
+            PriorityQueue<Cursor> queue = new PriorityQueue<>(Comparator
+                    .comparing((Cursor cursor) -> cursor.head.getDate())
+                    .thenComparingInt(cursor -> cursor.rank));
+            Cursor.offer(queue, 0, purchases.map(row -> fromPurchase(row, "PURCHASE")).iterator());
+            Cursor.offer(queue, 1, fuelPurchases.map(row -> fromPurchase(row, "FUEL_PURCHASE")).iterator());
+            Cursor.offer(queue, 2, payments.map(SupplierLedgerService::fromPayment).iterator());
+
+            while (!queue.isEmpty()) {
+                Cursor cursor = queue.poll();
+                SupplierLedgerEntryResponse entry = cursor.head;
+                totalPurchases = totalPurchases.add(entry.getPurchaseAmount());
+                totalPayments = totalPayments.add(entry.getPaidAmount());
+                balance = balance.add(entry.getPurchaseAmount()).subtract(entry.getPaidAmount());
+                entry.setBalance(balance);
+                sink.entry(entry);
+                count++;
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+        }
+
+        sink.closing(SupplierLedgerSummaryResponse.builder()
+                .openingBalance(openingBalance)
+                .totalPurchasesInRange(totalPurchases)
+                .totalPaymentsInRange(totalPayments)
+                .closingBalance(balance)
+                .entryCount(count)
+                .build());
+    }
+
+    /**
+     * Supplier's opening balance plus all purchases minus all payments dated
+     * before the given date.
+     */
+    private BigDecimal getBalanceBefore(Supplier supplier, LocalDate date) {
+        UUID supplierId = supplier.getId();
+        BigDecimal purchases = purchaseRepository.sumNetAmountBySupplierIdBeforeDate(supplierId, date)
+                .add(fuelPurchaseRepository.sumAmountBySupplierIdBeforeDate(supplierId, date));
+        BigDecimal payments = supplierPaymentRepository.sumAmountBySupplierIdBefore(supplierId, date.atStartOfDay());
+        BigDecimal openingBalance = supplier.getOpeningBalance() != null ? supplier.getOpeningBalance() : BigDecimal.ZERO;
+        return openingBalance.add(purchases).subtract(payments);
+    }
+
+    private static SupplierLedgerEntryResponse fromPurchase(SupplierLedgerPurchaseView row, String entryType) {
+        return SupplierLedgerEntryResponse.builder()
+                .id(row.getId())
+                .entryType(entryType)
+                .date(row.getPurchaseDate().atStartOfDay())
+                .referenceNumber(row.getInvoiceNumber())
+                .purchaseAmount(row.getAmount() != null ? row.getAmount() : BigDecimal.ZERO)
+                .paidAmount(BigDecimal.ZERO)
+                .entryBy(row.getEntryBy())
+                .build();
+    }
+
+    private static SupplierLedgerEntryResponse fromPayment(SupplierLedgerPaymentView row) {
+        return SupplierLedgerEntryResponse.builder()
+                .id(row.getId())
+                .entryType("PAYMENT")
+                .date(row.getPaymentDate())
+                .referenceNumber(row.getReferenceNumber())
+                .purchaseAmount(BigDecimal.ZERO)
+                .paidAmount(row.getAmount() != null ? row.getAmount() : BigDecimal.ZERO)
+                .purchaseId(row.getPurchaseId() != null ? row.getPurchaseId() : row.getFuelPurchaseId())
+                .paymentMethod(row.getPaymentMethod() != null ? row.getPaymentMethod().name() : null)
+                .notes(row.getNotes())
+                .entryBy(row.getEntryBy())
+                .build();
+    }
+
+    /**
+     * One source of the merge with its next unconsumed entry.
+     */
+    private static final class Cursor {
+
+        private final int rank;
+        private final Iterator<SupplierLedgerEntryResponse> rows;
+        private SupplierLedgerEntryResponse head;
+
+        private Cursor(int rank, Iterator<SupplierLedgerEntryResponse> rows) {
+            this.rank = rank;
+            this.rows = rows;
+        }
+
+        static void offer(PriorityQueue<Cursor> queue, int rank, Iterator<SupplierLedgerEntryResponse> rows) {
+            Cursor cursor = new Cursor(rank, rows);
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+
+        boolean advance() {
+            head = rows.hasNext() ? rows.next() : null;
+            return head != null;
+        }
+    }
+}
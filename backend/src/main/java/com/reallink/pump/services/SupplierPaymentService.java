@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -46,6 +47,7 @@ public class SupplierPaymentService {
     private final BankAccountRepository bankAccountRepository;
     private final PumpInfoMasterRepository pumpInfoMasterRepository;
     private final SupplierPaymentMapper mapper;
+    private final DashboardFactService dashboardFactService;
 
     public List<SupplierPaymentResponse> getAll() {
         return repository.findAll().stream()
@@ -74,7 +76,7 @@ public class SupplierPaymentService {
     }
 
     public List<SupplierPaymentResponse> getBySupplierId(@NotNull UUID supplierId) {
-        return repository.findTopNBySupplierIdOrderByPaymentDateDesc(supplierId, PageRequest.of(0, Integer.MAX_VALUE)).stream()
+        return repository.findTopNBySupplierIdOrderByPaymentDateDesc(supplierId, Pageable.unpaged()).stream()
                 .map(mapper::toResponse)
                 .toList();
     }
@@ -166,6 +168,7 @@ public class SupplierPaymentService {
 
         // Save payment (bank transaction will be saved via cascade)
         SupplierPayment savedPayment = repository.save(payment);
+        dashboardFactService.markDirty(pumpMaster.getId(), savedPayment.getPaymentDate());
 
         return mapper.toResponse(savedPayment);
     }
@@ -177,6 +180,9 @@ public class SupplierPaymentService {
             throw new PumpBusinessException("PAYMENT_NOT_FOUND", "Supplier payment with ID " + id + " not found");
         }
 
+        // The old pump and day lose the payment if either changes
+        dashboardFactService.markDirty(existingPayment.getPumpMaster().getId(), existingPayment.getPaymentDate());
+
         // Validate updated entities if provided
         if (request.getPumpMasterId() != null) {
             PumpInfoMaster pumpMaster = pumpInfoMasterRepository.findById(request.getPumpMasterId()).orElse(null);
@@ -238,6 +244,7 @@ public class SupplierPaymentService {
         }
 
         SupplierPayment savedPayment = repository.save(existingPayment);
+        dashboardFactService.markDirty(savedPayment.getPumpMaster().getId(), savedPayment.getPaymentDate());
         return mapper.toResponse(savedPayment);
     }
 
@@ -248,6 +255,7 @@ public class SupplierPaymentService {
             throw new PumpBusinessException("PAYMENT_NOT_FOUND", "Supplier payment with ID " + id + " not found");
         }
         repository.delete(payment); // Bank transaction will be deleted via cascade
+        dashboardFactService.markDirty(payment.getPumpMaster().getId(), payment.getPaymentDate());
     }
 
     private BankTransaction createBankTransaction(CreateSupplierPaymentRequest request, BankAccount bankAccount, Purchase purchase, FuelPurchase fuelPurchase) {
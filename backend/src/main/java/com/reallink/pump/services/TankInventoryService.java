@@ -0,0 +1,129 @@
+package com.reallink.pump.services;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reallink.pump.entities.TankTransaction;
+import com.reallink.pump.repositories.DailyTankLevelRepository;
+import com.reallink.pump.repositories.TankTransactionRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The single place tank stock is posted. Every tank transaction insert, update
+ * or delete applies its signed volume to the tank's daily level with one
+ * atomic upsert on the (tank_id, date) unique key, and to any month-end
+ * checkpoint already covering that day (see {@link BalanceCheckpointService}).
+ * Deltas are applied by {@link TankTransactionLevelListener}, so purchases,
+ * manual entries, shift closes and nozzle tests all go through here.
+ *
+ * Batches should be written through {@link #post(List)} and
+ * {@link #remove(List)}, which send one upsert per (tank, day) as a single JDBC
+ * batch.
+ */
+@Service
+@Slf4j
+public class TankInventoryService {
+
+    private static final String VERIFY_JOB = "tank-level-verify";
+
+    private final TankTransactionRepository tankTransactionRepository;
+    private final DailyTankLevelRepository dailyTankLevelRepository;
+    private final ClusterJobLock clusterJobLock;
+    private final DailyNetLedger ledger;
+
+    public TankInventoryService(JdbcTemplate jdbcTemplate, TankTransactionRepository tankTransactionRepository,
+            DailyTankLevelRepository dailyTankLevelRepository, ClusterJobLock clusterJobLock) {
+        this.tankTransactionRepository = tankTransactionRepository;
+        this.dailyTankLevelRepository = dailyTankLevelRepository;
+        this.clusterJobLock = clusterJobLock;
+        this.ledger = new DailyNetLedger(jdbcTemplate, "pump_daily_tank_level_master", "pump_tank_level_checkpoint",
+                "tank_id", "tank");
+    }
+
+    /**
+     * Save tank transactions and post their volumes as one batch.
+     */
+    @Transactional
+    public List<TankTransaction> post(List<TankTransaction> transactions) {
+        if (transactions.isEmpty()) {
+            return transactions;
+        }
+        return applyAggregated(() -> {
+            List<TankTransaction> saved = tankTransactionRepository.saveAll(transactions);
+            tankTransactionRepository.flush();
+            return saved;
+        });
+    }
+
+    /**
+     * Delete tank transactions and take their volumes back out as one batch.
+     */
+    @Transactional
+    public void remove(List<TankTransaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        applyAggregated(() -> {
+            tankTransactionRepository.deleteAll(transactions);
+            tankTransactionRepository.flush();
+            return null;
+        });
+    }
+
+    /**
+     * Add a signed volume to a tank's net for a day, creating the row if it does
+     * not exist yet. Runs on the connection of the current transaction. Inside
+     * {@link #applyAggregated(Supplier)} the volume is collected instead and
+     * written when the block ends.
+     */
+    public void applyDelta(UUID tankId, LocalDate date, BigDecimal delta) {
+        ledger.applyDelta(tankId, date, delta);
+    }
+
+    /**
+     * Run a block of tank transaction writes and apply the resulting deltas as
+     * one upsert per (tank, day). The block must flush its writes before
+     * returning so that the listener has seen them.
+     */
+    public <T> T applyAggregated(Supplier<T> work) {
+        return ledger.applyAggregated(work);
+    }
+
+    // ============================================
+    // Verification
+    // ============================================
+    /**
+     * Nightly check that every daily level since the start of last month equals
+     * the sum of that day's tank transactions. Only one node runs it at a time.
+     */
+    @Scheduled(cron = "0 30 1 * * *")
+    public void verifyRecentDailyLevels() {
+        clusterJobLock.runExclusively(VERIFY_JOB,
+                () -> verifyDailyLevels(YearMonth.now().minusMonths(1).atDay(1), LocalDate.now()));
+    }
+
+    /**
+     * Compare the daily levels in a date range with the sums of the tank
+     * transactions and post the difference for any day that does not match.
+     * Returns the number of days corrected. Callers running it outside the
+     * nightly job should go through {@link ClusterJobLock} as well.
+     */
+    @Transactional
+    public int verifyDailyLevels(LocalDate fromDate, LocalDate toDate) {
+        int corrected = ledger.reconcile(
+                tankTransactionRepository.getDailyNets(fromDate.atStartOfDay(), toDate.plusDays(1).atStartOfDay()),
+                dailyTankLevelRepository.getDailyNets(fromDate, toDate));
+        log.info("Verified daily tank levels from {} to {}: {} day(s) corrected", fromDate, toDate, corrected);
+        return corrected;
+    }
+}
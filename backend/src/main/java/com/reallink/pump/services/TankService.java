@@ -3,6 +3,7 @@ package com.reallink.pump.services;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
@@ -39,23 +40,17 @@ public class TankService {
     private final PumpInfoMasterRepository pumpInfoMasterRepository;
     private final TankMapper mapper;
     private final DailyTankLevelRepository dailyTankLevelRepository;
+    private final BalanceCheckpointService balanceCheckpointService;
 
     public Page<TankResponse> getAllPaginated(Pageable pageable) {
-        return repository.findAll(pageable).map(tank -> {
-            TankResponse response = mapper.toResponse(tank);
-            setCurrentLevel(response, tank);
-            return response;
-        });
+        Page<Tank> tanks = repository.findAll(pageable);
+        Map<UUID, BigDecimal> nets = balanceCheckpointService.getTankNets(
+                tanks.map(Tank::getId).getContent(), LocalDate.now());
+        return tanks.map(tank -> toResponse(tank, nets.get(tank.getId())));
     }
 
     public List<TankResponse> getAll() {
-        return repository.findAll().stream()
-                .map(tank -> {
-                    TankResponse response = mapper.toResponse(tank);
-                    setCurrentLevel(response, tank);
-                    return response;
-                })
-                .toList();
+        return toResponses(repository.findAll());
     }
 
     public TankResponse getById(@NotNull UUID id) {
@@ -69,13 +64,7 @@ public class TankService {
     }
 
     public List<TankResponse> getByPumpMasterId(@NotNull UUID pumpMasterId) {
-        return repository.findByPumpMaster_Id(pumpMasterId).stream()
-                .map(tank -> {
-                    TankResponse response = mapper.toResponse(tank);
-                    setCurrentLevel(response, tank);
-                    return response;
-                })
-                .toList();
+        return toResponses(repository.findByPumpMaster_Id(pumpMasterId));
     }
 
     @Transactional
@@ -118,9 +107,31 @@ public class TankService {
         repository.deleteById(id);
     }
 
+    /**
+     * Map tanks with their current levels, read for all of them in one query.
+     */
+    private List<TankResponse> toResponses(List<Tank> tanks) {
+        Map<UUID, BigDecimal> nets = balanceCheckpointService.getTankNets(
+                tanks.stream().map(Tank::getId).toList(), LocalDate.now());
+        return tanks.stream()
+                .map(tank -> toResponse(tank, nets.get(tank.getId())))
+                .toList();
+    }
+
+    private TankResponse toResponse(Tank tank, BigDecimal cumulativeNetUpToToday) {
+        TankResponse response = mapper.toResponse(tank);
+        setCurrentLevel(response, tank, cumulativeNetUpToToday);
+        return response;
+    }
+
     private void setCurrentLevel(TankResponse response, Tank tank) {
-        BigDecimal cumulativeNetUpToToday = dailyTankLevelRepository.getCumulativeNetUpToDate(tank.getId(), LocalDate.now());
-        BigDecimal currentLevel = tank.getOpeningLevel().add(cumulativeNetUpToToday);
+        setCurrentLevel(response, tank,
+                dailyTankLevelRepository.getCumulativeNetUpToDate(tank.getId(), LocalDate.now()));
+    }
+
+    private void setCurrentLevel(TankResponse response, Tank tank, BigDecimal cumulativeNetUpToToday) {
+        BigDecimal net = cumulativeNetUpToToday != null ? cumulativeNetUpToToday : BigDecimal.ZERO;
+        BigDecimal currentLevel = tank.getOpeningLevel().add(net);
 
         // Set current level
         response.setCurrentLevel(currentLevel);
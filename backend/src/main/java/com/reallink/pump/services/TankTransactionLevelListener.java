@@ -0,0 +1,78 @@
+package com.reallink.pump.services;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.reallink.pump.entities.TankTransaction;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Keeps the daily tank level in step with tank transactions, whichever path
+ * writes them. Works like {@link BankTransactionBalanceListener}: the volume a
+ * transaction contributes is remembered when it is loaded or written, so an
+ * update moves exactly the old contribution out and the new one in.
+ */
+public class TankTransactionLevelListener {
+
+    private final ObjectProvider<TankInventoryService> tankInventoryService;
+
+    public TankTransactionLevelListener(ObjectProvider<TankInventoryService> tankInventoryService) {
+        this.tankInventoryService = tankInventoryService;
+    }
+
+    @PostLoad
+    public void onLoad(TankTransaction transaction) {
+        remember(transaction);
+    }
+
+    @PostPersist
+    public void onPersist(TankTransaction transaction) {
+        apply(transaction, 1);
+        remember(transaction);
+    }
+
+    @PostUpdate
+    public void onUpdate(TankTransaction transaction) {
+        TankTransaction.AppliedLevel previous = transaction.getAppliedLevel();
+        TankTransaction.AppliedLevel current = TankTransaction.AppliedLevel.of(transaction);
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        if (previous != null) {
+            service().applyDelta(previous.getTankId(), previous.getDate(), previous.getNet().negate());
+        }
+        apply(transaction, 1);
+        remember(transaction);
+    }
+
+    @PostRemove
+    public void onRemove(TankTransaction transaction) {
+        TankTransaction.AppliedLevel previous = transaction.getAppliedLevel();
+        if (previous != null) {
+            service().applyDelta(previous.getTankId(), previous.getDate(), previous.getNet().negate());
+        } else {
+            apply(transaction, -1);
+        }
+        transaction.setAppliedLevel(null);
+    }
+
+    private void apply(TankTransaction transaction, int sign) {
+        TankTransaction.AppliedLevel level = TankTransaction.AppliedLevel.of(transaction);
+        BigDecimal delta = sign < 0 ? level.getNet().negate() : level.getNet();
+        service().applyDelta(level.getTankId(), level.getDate(), delta);
+    }
+
+    private void remember(TankTransaction transaction) {
+        transaction.setAppliedLevel(TankTransaction.AppliedLevel.of(transaction));
+    }
+
+    private TankInventoryService service() {
+        return tankInventoryService.getObject();
+    }
+}
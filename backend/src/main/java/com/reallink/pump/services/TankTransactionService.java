@@ -14,7 +14,6 @@ import org.springframework.validation.annotation.Validated;
 
 import com.reallink.pump.dto.request.CreateTankTransactionRequest;
 import com.reallink.pump.dto.response.TankTransactionResponse;
-import com.reallink.pump.entities.DailyTankLevel;
 import com.reallink.pump.entities.FuelPurchase;
 import com.reallink.pump.entities.Tank;
 import com.reallink.pump.entities.TankTransaction;
@@ -69,7 +68,6 @@ public class TankTransactionService {
             transaction.setTransactionDate(LocalDateTime.now());
         }
         TankTransaction saved = transactionRepository.save(transaction);
-        updateDailyTankLevel(saved);
         return mapper.toResponse(saved);
     }
 
@@ -88,7 +86,6 @@ public class TankTransactionService {
             transaction.setTransactionDate(LocalDateTime.now());
         }
         TankTransaction saved = transactionRepository.save(transaction);
-        updateDailyTankLevel(saved);
         return mapper.toResponse(saved);
     }
 
@@ -106,21 +103,9 @@ public class TankTransactionService {
             transaction.setTransactionDate(LocalDateTime.now());
         }
         TankTransaction saved = transactionRepository.save(transaction);
-        updateDailyTankLevel(saved);
         return mapper.toResponse(saved);
     }
 
-    private void updateDailyTankLevel(TankTransaction transaction) {
-        LocalDate date = transaction.getTransactionDate().toLocalDate();
-        BigDecimal dailyNet = transactionRepository.getDailyNetByTankIdAndDate(transaction.getTank().getId(), date);
-        DailyTankLevel dailyLevel = dailyTankLevelRepository.findByTank_IdAndDate(transaction.getTank().getId(), date)
-                .orElse(new DailyTankLevel());
-        dailyLevel.setTank(transaction.getTank());
-        dailyLevel.setDate(date);
-        dailyLevel.setDailyNet(dailyNet);
-        dailyTankLevelRepository.save(dailyLevel);
-    }
-
     @Transactional
     public TankTransactionResponse createAdditionTransactionForNozzleTest(
             @NotNull UUID tankId,
@@ -139,7 +124,6 @@ public class TankTransactionService {
             transaction.setTransactionDate(LocalDateTime.now());
         }
         TankTransaction saved = transactionRepository.save(transaction);
-        updateDailyTankLevel(saved);
         return mapper.toResponse(saved);
     }
 
@@ -8,6 +8,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import com.reallink.pump.config.JwtPrincipal;
 import com.reallink.pump.config.JwtUtil;
 import com.reallink.pump.dto.request.CreateUserRequest;
 import com.reallink.pump.dto.request.LoginRequest;
@@ -22,6 +23,7 @@ import com.reallink.pump.mapper.UserMapper;
 import com.reallink.pump.repositories.PumpInfoMasterRepository;
 import com.reallink.pump.repositories.RoleRepository;
 import com.reallink.pump.repositories.UserRepository;
+import com.reallink.pump.security.UserPrincipalCache;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -39,6 +41,7 @@ public class UserService {
     private final UserMapper mapper;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final UserPrincipalCache principalCache;
 
     public List<UserResponse> getAll() {
         return repository.findAll().stream()
@@ -147,6 +150,7 @@ public class UserService {
         }
 
         User updatedUser = repository.save(existingUser);
+        principalCache.invalidate(id);
         return mapper.toResponse(updatedUser);
     }
 
@@ -156,6 +160,7 @@ public class UserService {
             throw new PumpBusinessException("USER_NOT_FOUND", "User with ID " + id + " not found");
         }
         repository.deleteById(id);
+        principalCache.invalidate(id);
     }
 
     public boolean existsByUsernameAndPumpMasterId(@NotNull String username, @NotNull UUID pumpMasterId) {
@@ -241,6 +246,7 @@ public class UserService {
         // Update the admin's password
         adminUser.setPassword(passwordEncoder.encode(newPassword));
         repository.save(adminUser);
+        principalCache.invalidate(adminUserId);
         return true;
     }
 
@@ -283,17 +289,19 @@ public class UserService {
 
     public LoginResponse refreshToken(@NotNull String refreshToken) {
         try {
+            // Parse and verify the token once
+            JwtPrincipal parsed = jwtUtil.parseToken(refreshToken);
+
             // Verify this is a refresh token
-            if (!jwtUtil.isRefreshToken(refreshToken)) {
+            if (!parsed.isRefreshToken()) {
                 throw new PumpBusinessException("INVALID_TOKEN", "Token is not a refresh token");
             }
 
             // Extract user information from refresh token
-            String username = jwtUtil.extractUsername(refreshToken);
-            UUID userId = jwtUtil.extractUserId(refreshToken);
+            UUID userId = parsed.getUserId();
 
             // Validate token expiration
-            if (jwtUtil.isTokenValid(refreshToken, username)) {
+            if (!parsed.isExpired()) {
                 // Fetch fresh user data from database
                 User user = repository.findById(userId).orElse(null);
                 if (user == null) {
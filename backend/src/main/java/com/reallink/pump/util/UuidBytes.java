@@ -0,0 +1,27 @@
+package com.reallink.pump.util;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Converts entity IDs to and from the BINARY(16) form they are stored in, for
+ * parameters and result columns of native queries. The most significant bits
+ * come first, which is how Hibernate binds UUIDs on MySQL.
+ */
+public final class UuidBytes {
+
+    private UuidBytes() {
+    }
+
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
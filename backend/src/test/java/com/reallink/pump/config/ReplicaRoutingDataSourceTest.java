@@ -0,0 +1,150 @@
+package com.reallink.pump.config;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.reallink.pump.config.ReplicaRoutingDataSource.Route;
+
+class ReplicaRoutingDataSourceTest {
+
+	private final AtomicLong now = new AtomicLong(1_000_000);
+	private final UUID pumpMasterId = UUID.randomUUID();
+	private ReplicaRoutingDataSource routing;
+
+	@BeforeEach
+	void setUp() {
+		ReplicaDataSourceConfig config = new ReplicaDataSourceConfig();
+		config.setMaxLagSeconds(5);
+		config.setLagCheckIntervalMs(5000);
+		config.setReadYourWritesMs(1000);
+		routing = new ReplicaRoutingDataSource(config, now::get);
+		routing.setTargets(new StubDataSource(), new StubDataSource());
+		routing.afterPropertiesSet();
+		routing.updateReplicaLag(0L);
+		PumpSecurityContextHolder.setPumpMasterId(pumpMasterId);
+	}
+
+	@AfterEach
+	void tearDown() {
+		PumpSecurityContextHolder.clear();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+	}
+
+	@Test
+	void readOnlyTransactionsGoToReplica() {
+		beginTransaction(true);
+		assertEquals(Route.REPLICA, routing.route());
+	}
+
+	@Test
+	void readWriteTransactionsAndNonTransactionalWorkGoToPrimary() {
+		assertEquals(Route.PRIMARY, routing.route());
+		beginTransaction(false);
+		assertEquals(Route.PRIMARY, routing.route());
+	}
+
+	@Test
+	void lagBeyondLimitOrUnknownFallsBackToPrimary() {
+		routing.updateReplicaLag(6L);
+		beginTransaction(true);
+		assertEquals(Route.PRIMARY, routing.route());
+
+		routing.updateReplicaLag(null);
+		assertEquals(Route.PRIMARY, routing.route());
+
+		routing.updateReplicaLag(5L);
+		assertEquals(Route.REPLICA, routing.route());
+	}
+
+	@Test
+	void readsStayOnPrimaryAfterAPumpCommitsAWrite() {
+		beginTransaction(false);
+		routing.route();
+		commit();
+
+		beginTransaction(true);
+		assertEquals(Route.PRIMARY, routing.route());
+
+		// The window is at least max lag plus one check interval
+		now.addAndGet(9_999);
+		assertEquals(Route.PRIMARY, routing.route());
+		now.addAndGet(1);
+		assertEquals(Route.REPLICA, routing.route());
+	}
+
+	@Test
+	void stickinessIsPerPump() {
+		beginTransaction(false);
+		routing.route();
+		commit();
+
+		PumpSecurityContextHolder.setPumpMasterId(UUID.randomUUID());
+		beginTransaction(true);
+		assertEquals(Route.REPLICA, routing.route());
+	}
+
+	@Test
+	void rolledBackWritesDoNotStick() {
+		beginTransaction(false);
+		routing.route();
+		TransactionSynchronizationManager.clearSynchronization();
+
+		beginTransaction(true);
+		assertEquals(Route.REPLICA, routing.route());
+	}
+
+	@Test
+	void routingIsRefusedUnlessOpenInViewIsOff() {
+		DataSourceRoutingConfig routingConfig = new DataSourceRoutingConfig();
+		JpaProperties jpaProperties = new JpaProperties();
+		assertThrows(IllegalStateException.class, () -> routingConfig.replicaRoutingDataSource(
+				new StubDataSource(), new StubDataSource(), new ReplicaDataSourceConfig(), jpaProperties));
+
+		jpaProperties.setOpenInView(false);
+		assertDoesNotThrow(() -> routingConfig.replicaRoutingDataSource(
+				new StubDataSource(), new StubDataSource(), new ReplicaDataSourceConfig(), jpaProperties));
+	}
+
+	private void beginTransaction(boolean readOnly) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.initSynchronization();
+		}
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+	}
+
+	private void commit() {
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	private static final class StubDataSource extends AbstractDataSource {
+
+		@Override
+		public Connection getConnection() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
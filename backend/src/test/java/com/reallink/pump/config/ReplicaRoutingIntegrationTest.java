@@ -0,0 +1,132 @@
+package com.reallink.pump.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Runs against two local database instances, e.g. the primary from
+ * spring.datasource.* and a second MySQL on another port:
+ *
+ * <pre>
+ * REPLICA_DATASOURCE_URL=jdbc:mysql://localhost:3307/pump_db \
+ * REPLICA_DATASOURCE_USERNAME=root REPLICA_DATASOURCE_PASSWORD=root mvn test
+ * </pre>
+ *
+ * The instances are told apart by port, so they must listen on different
+ * ports. The second instance is not really replicating, so the tests report
+ * its lag themselves and the scheduled check is pushed out of the way.
+ * Skipped when no replica URL is given.
+ */
+@SpringBootTest(properties = {
+	"replica-datasource.enabled=true",
+	"replica-datasource.lagCheckIntervalMs=3600000",
+	"spring.jpa.open-in-view=false"})
+@AutoConfigureMockMvc(addFilters = false)
+@Import(ReplicaRoutingIntegrationTest.ReadThenWriteController.class)
+@EnabledIfEnvironmentVariable(named = "REPLICA_DATASOURCE_URL", matches = ".+")
+class ReplicaRoutingIntegrationTest {
+
+	private static final String PORT_SQL = "SELECT @@port";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private ReplicaRoutingDataSource routingDataSource;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		routingDataSource.updateReplicaLag(0L);
+	}
+
+	@AfterEach
+	void tearDown() {
+		PumpSecurityContextHolder.clear();
+	}
+
+	@Test
+	void routesReadOnlyTransactionsToTheReplicaUntilThePumpWrites() {
+		PumpSecurityContextHolder.setPumpMasterId(UUID.randomUUID());
+
+		Integer primaryPort = port(false);
+		PumpSecurityContextHolder.setPumpMasterId(UUID.randomUUID());
+		Integer replicaPort = port(true);
+		assertNotEquals(primaryPort, replicaPort);
+
+		// A committed read-write transaction pins this pump's reads to the primary
+		port(false);
+		assertEquals(primaryPort, port(true));
+	}
+
+	@Test
+	void aRequestCanWriteAfterReadingFromTheReplica() throws Exception {
+		mockMvc.perform(post("/test/replica/read-then-write"))
+				.andExpect(status().isOk())
+				.andExpect(content().string("0"));
+	}
+
+	private Integer port(boolean readOnly) {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(readOnly);
+		return template.execute(status -> jdbcTemplate.queryForObject(PORT_SQL, Integer.class));
+	}
+
+	/**
+	 * Reads on the replica, then writes on the primary, in one request. With
+	 * open-in-view the write would reuse the read's replica connection and be
+	 * rejected as a write on a read-only connection.
+	 */
+	@RestController
+	static class ReadThenWriteController {
+
+		private final EntityManager entityManager;
+		private final TransactionTemplate readOnly;
+		private final TransactionTemplate readWrite;
+
+		ReadThenWriteController(EntityManager entityManager, PlatformTransactionManager transactionManager) {
+			this.entityManager = entityManager;
+			this.readOnly = new TransactionTemplate(transactionManager);
+			this.readOnly.setReadOnly(true);
+			this.readWrite = new TransactionTemplate(transactionManager);
+		}
+
+		@PostMapping("/test/replica/read-then-write")
+		int readThenWrite() {
+			readOnly.execute(status -> entityManager.createQuery("SELECT COUNT(r) FROM Role r", Long.class)
+					.getSingleResult());
+			return readWrite.execute(status -> {
+				status.setRollbackOnly();
+				return entityManager.createNativeQuery("UPDATE roles SET role_name = role_name WHERE 1 = 0")
+						.executeUpdate();
+			});
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.reallink.pump.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.reallink.pump.security.UserPrincipalCache;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Compares Tomcat on its default platform thread pool with Tomcat on virtual
+ * threads when every request blocks on a slow database call. Requests go
+ * through the real {@link JwtAuthenticationFilter}, and the handler checks on
+ * entry and after the blocking call that it sees its own request's tenant,
+ * so a tenant leaking between requests fails the run.
+ *
+ * The database round trip is simulated with a blocking sleep, which parks a
+ * virtual thread the same way a socket read does.
+ */
+@Tag("benchmark")
+class VirtualThreadRequestBenchmarkTest {
+
+	private static final Logger log = LoggerFactory.getLogger(VirtualThreadRequestBenchmarkTest.class);
+
+	private static final int CONCURRENT_REQUESTS = 1000;
+	private static final long DB_LATENCY_MS = 500;
+	private static final int PUMPS = 20;
+
+	@Test
+	void virtualThreadsServeSlowDatabaseRequestsFasterThanPlatformThreads() throws Exception {
+		// Warm up the JIT and the HTTP client before measuring
+		run(true);
+		Result platform = run(false);
+		Result virtual = run(true);
+
+		log.info("{} requests blocking {} ms each: platform threads {} ms, virtual threads {} ms",
+				CONCURRENT_REQUESTS, DB_LATENCY_MS, platform.elapsedMs, virtual.elapsedMs);
+		assertEquals(0, platform.tenantMismatches, "Tenant leaked between requests on platform threads");
+		assertEquals(0, virtual.tenantMismatches, "Tenant leaked between requests on virtual threads");
+		assertTrue(virtual.elapsedMs < platform.elapsedMs,
+				"Virtual threads took " + virtual.elapsedMs + " ms, platform threads " + platform.elapsedMs + " ms");
+	}
+
+	private Result run(boolean virtualThreads) throws Exception {
+		JwtConfig jwtConfig = new JwtConfig();
+		jwtConfig.setSecret("UGlzc2luZyBpcyBub3QgdGhlIHNvbHV0aW9uIHRvIHNlY3VyaXR5IHByb2JsZW1z");
+		jwtConfig.setExpiration(600_000);
+		jwtConfig.setStatelessAuth(true);
+		JwtUtil jwtUtil = new JwtUtil(jwtConfig);
+
+		List<UUID> pumps = new ArrayList<>();
+		List<String> tokens = new ArrayList<>();
+		for (int i = 0; i < PUMPS; i++) {
+			UUID pumpMasterId = UUID.randomUUID();
+			pumps.add(pumpMasterId);
+			tokens.add(jwtUtil.generateToken(UUID.randomUUID(), "manager" + i, pumpMasterId, "MANAGER",
+					"9999999999", "Pump " + i, i, "P" + i));
+		}
+		UserPrincipalCache principalCache = new UserPrincipalCache(null, jwtConfig) {
+			@Override
+			public CachedUser get(UUID userId) {
+				PumpClaims claims = PumpClaims.CURRENT.get();
+				return new CachedUser(userId, claims.username, claims.pumpMasterId, "MANAGER", true);
+			}
+		};
+		JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(jwtUtil, null, principalCache, jwtConfig);
+		AtomicInteger mismatches = new AtomicInteger();
+
+		TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+		if (virtualThreads) {
+			factory.addProtocolHandlerCustomizers(handler -> handler.setExecutor(new VirtualThreadExecutor("bench-")));
+		}
+		WebServer server = factory.getWebServer(context -> {
+			// Stands in for Spring Security's own filter, which clears the context after each request
+			Filter securityContextFilter = (request, response, chain) -> {
+				HttpServletRequest http = (HttpServletRequest) request;
+				int index = Integer.parseInt(http.getHeader("X-Pump-Index"));
+				PumpClaims.CURRENT.set(new PumpClaims("manager" + index, pumps.get(index)));
+				try {
+					chain.doFilter(request, response);
+				} finally {
+					PumpClaims.CURRENT.remove();
+					SecurityContextHolder.clearContext();
+				}
+			};
+			context.addFilter("securityContext", securityContextFilter).addMappingForUrlPatterns(null, false, "/*");
+			context.addFilter("jwt", jwtFilter).addMappingForUrlPatterns(null, true, "/*");
+			context.addServlet("slowDatabase", new HttpServlet() {
+				@Override
+				protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+					UUID expected = pumps.get(Integer.parseInt(request.getHeader("X-Pump-Index")));
+					if (!expected.equals(PumpSecurityContextHolder.getPumpMasterId())) {
+						mismatches.incrementAndGet();
+					}
+					try {
+						Thread.sleep(DB_LATENCY_MS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					if (!expected.equals(PumpSecurityContextHolder.getPumpMasterId())) {
+						mismatches.incrementAndGet();
+					}
+					response.getWriter().write("ok");
+				}
+			}).addMapping("/slow");
+		});
+		server.start();
+
+		try (ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+			HttpClient client = HttpClient.newBuilder()
+					.version(HttpClient.Version.HTTP_1_1)
+					.executor(clientExecutor)
+					.build();
+			URI uri = URI.create("http://localhost:" + server.getPort() + "/slow");
+
+			long started = System.nanoTime();
+			List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+			for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+				int index = i % PUMPS;
+				HttpRequest request = HttpRequest.newBuilder(uri)
+						.header("Authorization", "Bearer " + tokens.get(index))
+						.header("X-Pump-Index", Integer.toString(index))
+						.build();
+				responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+			}
+			for (CompletableFuture<HttpResponse<String>> response : responses) {
+				assertEquals(200, response.get().statusCode());
+			}
+			long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+			return new Result(elapsedMs, mismatches.get());
+		} finally {
+			server.stop();
+		}
+	}
+
+	private record Result(long elapsedMs, int tenantMismatches) {
+
+	}
+
+	private record PumpClaims(String username, UUID pumpMasterId) {
+
+		private static final ThreadLocal<PumpClaims> CURRENT = new ThreadLocal<>();
+	}
+}
@@ -0,0 +1,116 @@
+package com.reallink.pump.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reallink.pump.entities.Tank;
+import com.reallink.pump.entities.TankTransaction;
+import com.reallink.pump.entities.TankTransaction.TransactionType;
+import com.reallink.pump.support.TestFixtures;
+import com.reallink.pump.support.TestFixtures.Forecourt;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Month-end checkpoints missed over several months are all created, oldest
+ * first, and back-dated writes keep every checkpoint after them exact.
+ */
+@SpringBootTest
+@Import(TestFixtures.class)
+@Transactional
+@Tag("database")
+class BalanceCheckpointServiceTest {
+
+	private static final YearMonth THREE_MONTHS_AGO = YearMonth.now().minusMonths(3);
+	private static final YearMonth TWO_MONTHS_AGO = YearMonth.now().minusMonths(2);
+	private static final YearMonth LAST_MONTH = YearMonth.now().minusMonths(1);
+
+	@Autowired
+	private BalanceCheckpointService balanceCheckpointService;
+
+	@Autowired
+	private TankInventoryService tankInventoryService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private Forecourt forecourt;
+
+	@BeforeEach
+	void setUp() {
+		forecourt = fixtures.createForecourt(1);
+		tankInventoryService.post(List.of(
+				transaction(THREE_MONTHS_AGO.atDay(10), TransactionType.ADDITION, "100.00"),
+				transaction(TWO_MONTHS_AGO.atDay(5), TransactionType.REMOVAL, "30.00"),
+				transaction(LAST_MONTH.atDay(20), TransactionType.ADDITION, "50.00")));
+	}
+
+	@Test
+	void everyMissingMonthEndIsCreatedFromThePreviousOne() {
+		balanceCheckpointService.createCheckpoints(THREE_MONTHS_AGO, LAST_MONTH);
+
+		assertEquals(List.of(new BigDecimal("100.00"), new BigDecimal("70.00"), new BigDecimal("120.00")),
+				checkpoints());
+		assertNet("70.00", TWO_MONTHS_AGO.atEndOfMonth());
+		assertNet("120.00", LocalDate.now());
+	}
+
+	@Test
+	void backDatedWritesAdjustEveryLaterCheckpoint() {
+		balanceCheckpointService.createCheckpoints(THREE_MONTHS_AGO, LAST_MONTH);
+
+		tankInventoryService.post(List.of(transaction(THREE_MONTHS_AGO.atDay(12), TransactionType.REMOVAL, "10.00")));
+
+		assertEquals(List.of(new BigDecimal("90.00"), new BigDecimal("60.00"), new BigDecimal("110.00")),
+				checkpoints());
+		assertNet("60.00", TWO_MONTHS_AGO.atEndOfMonth());
+		assertNet("110.00", LocalDate.now());
+	}
+
+	@Test
+	void creatingCheckpointsAgainAddsNothing() {
+		balanceCheckpointService.createCheckpoints(THREE_MONTHS_AGO, LAST_MONTH);
+		List<BigDecimal> created = checkpoints();
+
+		balanceCheckpointService.createCheckpoints(THREE_MONTHS_AGO, LAST_MONTH);
+
+		assertEquals(created, checkpoints());
+	}
+
+	private TankTransaction transaction(LocalDate date, TransactionType type, String volume) {
+		TankTransaction transaction = new TankTransaction();
+		transaction.setTank(entityManager.getReference(Tank.class, forecourt.tankId()));
+		transaction.setTransactionType(type);
+		transaction.setVolume(new BigDecimal(volume));
+		transaction.setDescription("Checkpoint test");
+		transaction.setTransactionDate(date.atTime(10, 0));
+		return transaction;
+	}
+
+	private List<BigDecimal> checkpoints() {
+		return entityManager.createQuery("SELECT cp.cumulativeNet FROM TankLevelCheckpoint cp "
+				+ "WHERE cp.tank.id = :tankId ORDER BY cp.periodEnd", BigDecimal.class)
+				.setParameter("tankId", forecourt.tankId())
+				.getResultList();
+	}
+
+	private void assertNet(String expected, LocalDate date) {
+		BigDecimal net = balanceCheckpointService.getTankNets(List.of(forecourt.tankId()), date).get(forecourt.tankId());
+		assertEquals(0, new BigDecimal(expected).compareTo(net), "Net on " + date + " was " + net);
+	}
+}
@@ -0,0 +1,39 @@
+package com.reallink.pump.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * A job is skipped while another run of the same job holds the lock, and runs
+ * again once the lock is released.
+ */
+@SpringBootTest
+@Tag("database")
+class ClusterJobLockTest {
+
+	@Autowired
+	private ClusterJobLock clusterJobLock;
+
+	@Test
+	void secondRunOfAJobIsSkippedWhileTheFirstHoldsTheLock() {
+		String job = "test-" + UUID.randomUUID();
+		AtomicBoolean innerRan = new AtomicBoolean();
+		AtomicBoolean innerAccepted = new AtomicBoolean(true);
+
+		boolean outer = clusterJobLock.runExclusively(job,
+				() -> innerAccepted.set(clusterJobLock.runExclusively(job, () -> innerRan.set(true))));
+
+		assertTrue(outer);
+		assertFalse(innerAccepted.get());
+		assertFalse(innerRan.get());
+		assertTrue(clusterJobLock.runExclusively(job, () -> { }));
+	}
+}
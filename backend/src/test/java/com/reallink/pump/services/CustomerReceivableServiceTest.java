@@ -0,0 +1,115 @@
+package com.reallink.pump.services;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reallink.pump.entities.Customer;
+import com.reallink.pump.exception.PumpBusinessException;
+import com.reallink.pump.support.TestFixtures;
+import com.reallink.pump.support.TestFixtures.Forecourt;
+import com.reallink.pump.util.UuidBytes;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Credit-limit checks against the receivable row, the row lock that keeps
+ * concurrent bills from both passing the check, and the drift correction.
+ */
+@SpringBootTest
+@Import(TestFixtures.class)
+@Transactional
+@Tag("database")
+class CustomerReceivableServiceTest {
+
+	@Autowired
+	private CustomerReceivableService customerReceivableService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Customer customer;
+
+	@BeforeEach
+	void setUp() {
+		Forecourt forecourt = fixtures.createForecourt(1);
+		customer = entityManager.find(Customer.class, forecourt.customerId());
+		customer.setCreditLimit(1000d);
+		customer.setOpeningBalance(BigDecimal.ZERO);
+	}
+
+	@Test
+	void billsOverTheCreditLimitAreRejected() {
+		customerReceivableService.applyDelta(customer.getId(), new BigDecimal("600.00"));
+
+		assertDoesNotThrow(() -> customerReceivableService.enforceCreditLimit(customer, new BigDecimal("400.00")));
+		PumpBusinessException rejected = assertThrows(PumpBusinessException.class,
+				() -> customerReceivableService.enforceCreditLimit(customer, new BigDecimal("400.01")));
+		assertEquals("CREDIT_LIMIT_EXCEEDED", rejected.getErrorCode());
+	}
+
+	@Test
+	void checkingTheLimitLocksTheReceivableUntilTheTransactionEnds() throws Exception {
+		customerReceivableService.enforceCreditLimit(customer, new BigDecimal("100.00"));
+
+		// Another connection must wait for the row instead of reading a net
+		// that this transaction is about to change
+		CompletableFuture<Object> competingCheck = CompletableFuture.supplyAsync(() -> jdbcTemplate.execute(
+				(ConnectionCallback<Object>) connection -> {
+					try (Statement statement = connection.createStatement()) {
+						statement.execute("SET SESSION innodb_lock_wait_timeout = 1");
+					}
+					try (PreparedStatement statement = connection.prepareStatement(
+							"SELECT net_amount FROM pump_customer_receivable WHERE customer_id = ? FOR UPDATE")) {
+						statement.setBytes(1, UuidBytes.toBytes(customer.getId()));
+						statement.executeQuery();
+					}
+					return null;
+				}));
+
+		ExecutionException failure = assertThrows(ExecutionException.class, competingCheck::get);
+		assertTrue(failure.getCause() instanceof PessimisticLockingFailureException,
+				"Expected a lock wait timeout but got " + failure.getCause());
+	}
+
+	@Test
+	void customersWithoutACreditLimitAreNotChecked() {
+		customer.setCreditLimit(null);
+
+		assertDoesNotThrow(() -> customerReceivableService.enforceCreditLimit(customer, new BigDecimal("1000000.00")));
+	}
+
+	@Test
+	void driftedReceivablesAreCorrected() {
+		customerReceivableService.applyDelta(customer.getId(), new BigDecimal("250.00"));
+		assertEquals(1, customerReceivableService.correctReceivable(customer.getId()));
+		assertEquals(0, BigDecimal.ZERO.compareTo(customerReceivableService.getOutstanding(customer)),
+				"A receivable with no bills behind it must be corrected to zero");
+
+		assertEquals(0, customerReceivableService.correctReceivable(customer.getId()));
+	}
+}
@@ -0,0 +1,131 @@
+package com.reallink.pump.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reallink.pump.enums.ExportFormat;
+import com.reallink.pump.support.TestFixtures;
+import com.reallink.pump.support.TestFixtures.Forecourt;
+import com.reallink.pump.util.UuidBytes;
+
+/**
+ * Exports 200,000 tank transactions through {@link ExportService}, reading
+ * them from MySQL through the {@link StreamingQueryTemplate} cursor, and
+ * checks that the heap retained while streaming stays within a fixed budget.
+ * Runs in a rolled-back transaction; run with {@code mvn -Pbenchmark test}.
+ */
+@SpringBootTest
+@Import(TestFixtures.class)
+@Transactional
+@Tag("benchmark")
+class ExportServiceBenchmarkTest {
+
+	private static final Logger log = LoggerFactory.getLogger(ExportServiceBenchmarkTest.class);
+
+	private static final int ROWS = 200_000;
+	private static final int INSERT_BATCH = 1_000;
+	private static final long SAMPLE_EVERY_BYTES = 4L * 1024 * 1024;
+	private static final long HEAP_BUDGET_BYTES = 16L * 1024 * 1024;
+	private static final LocalDate DAY = LocalDate.now().minusDays(1);
+
+	@Autowired
+	private ExportService exportService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@ParameterizedTest
+	@EnumSource(ExportFormat.class)
+	void exportsFromTheDatabaseInConstantMemory(ExportFormat format) {
+		Forecourt forecourt = fixtures.createForecourt(1);
+		insertTankTransactions(forecourt.tankId());
+
+		HeapSamplingOutputStream sink = new HeapSamplingOutputStream(usedHeapAfterGc());
+		long started = System.nanoTime();
+		exportService.exportDataset("tank-transactions", forecourt.pumpMasterId(), DAY, DAY, format, () -> sink);
+		long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+		log.info("{} export of {} tank transactions: {} bytes, {} ms, peak retained heap {} bytes",
+				format, ROWS, sink.count, elapsedMs, sink.peak);
+		assertEquals(format == ExportFormat.CSV ? ROWS + 1 : ROWS, sink.lines);
+		assertTrue(sink.peak < HEAP_BUDGET_BYTES,
+				"Retained heap grew by " + sink.peak + " bytes while exporting " + ROWS + " rows");
+	}
+
+	// Plain JDBC, so the rows go in without loading entities or running the tank level listener
+	private void insertTankTransactions(UUID tankId) {
+		byte[] tank = UuidBytes.toBytes(tankId);
+		LocalDateTime start = DAY.atStartOfDay();
+		for (int offset = 0; offset < ROWS; offset += INSERT_BATCH) {
+			List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+			for (int i = offset; i < offset + INSERT_BATCH; i++) {
+				Timestamp at = Timestamp.valueOf(start.plusNanos(i * 400_000_000L));
+				batch.add(new Object[]{UuidBytes.toBytes(UUID.randomUUID()), tank, i % 2, i % 5000 + ".00",
+					"Export benchmark " + i, at, at, at});
+			}
+			jdbcTemplate.batchUpdate("INSERT INTO pump_tank_transaction_master (id, tank_id, transaction_type, volume,"
+					+ " description, transaction_date, created_at, updated_at, version, entry_by)"
+					+ " VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, 'benchmark')", batch);
+		}
+	}
+
+	private static long usedHeapAfterGc() {
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static final class HeapSamplingOutputStream extends OutputStream {
+
+		private final long baseline;
+		private long count;
+		private long lines;
+		private long nextSample = SAMPLE_EVERY_BYTES;
+		private long peak;
+
+		private HeapSamplingOutputStream(long baseline) {
+			this.baseline = baseline;
+		}
+
+		@Override
+		public void write(int b) {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			for (int i = off; i < off + len; i++) {
+				if (b[i] == '\n') {
+					lines++;
+				}
+			}
+			count += len;
+			if (count >= nextSample) {
+				peak = Math.max(peak, usedHeapAfterGc() - baseline);
+				nextSample += SAMPLE_EVERY_BYTES;
+			}
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package com.reallink.pump.services;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.reallink.pump.enums.ExportFormat;
+
+/**
+ * Streams a million synthetic rows through each export format, gzipped, and
+ * checks that the heap retained while writing stays within a fixed budget.
+ * Run with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+class ExportWriterBenchmarkTest {
+
+	private static final Logger log = LoggerFactory.getLogger(ExportWriterBenchmarkTest.class);
+
+	private static final int ROWS = 1_000_000;
+	private static final int SAMPLE_EVERY = 100_000;
+	private static final long HEAP_BUDGET_BYTES = 16L * 1024 * 1024;
+
+	private static final List<String> COLUMNS = List.of(
+			"id", "bill_no", "bill_date", "customer_name", "net_amount", "entry_by");
+
+	@ParameterizedTest
+	@EnumSource(ExportFormat.class)
+	void exportsMillionRowsInConstantMemory(ExportFormat format) throws IOException {
+		ObjectMapper objectMapper = new ObjectMapper()
+				.registerModule(new JavaTimeModule())
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		CountingOutputStream sink = new CountingOutputStream();
+		LocalDate day = LocalDate.of(2025, 1, 1);
+		Object[] row = new Object[COLUMNS.size()];
+
+		long baseline = usedHeapAfterGc();
+		long peak = 0;
+		long started = System.nanoTime();
+		try (ExportWriter writer = ExportWriter.create(format, new GZIPOutputStream(sink, 64 * 1024), COLUMNS,
+				objectMapper)) {
+			for (int i = 0; i < ROWS; i++) {
+				row[0] = new UUID(i, i);
+				row[1] = (long) i;
+				row[2] = day.plusDays(i % 365);
+				row[3] = "Customer, \"" + (i % 1000) + "\"";
+				row[4] = BigDecimal.valueOf(i, 2);
+				row[5] = "manager";
+				writer.writeRow(row);
+				if (i % SAMPLE_EVERY == 0) {
+					peak = Math.max(peak, usedHeapAfterGc() - baseline);
+				}
+			}
+		}
+		long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+		log.info("{} export: {} rows, {} gzipped bytes, {} ms, peak retained heap {} bytes",
+				format, ROWS, sink.count, elapsedMs, peak);
+		assertTrue(sink.closed, "Closing the writer must close the output");
+		assertTrue(sink.count > 0);
+		assertTrue(peak < HEAP_BUDGET_BYTES,
+				"Retained heap grew by " + peak + " bytes while exporting " + ROWS + " rows");
+	}
+
+	private static long usedHeapAfterGc() {
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static final class CountingOutputStream extends OutputStream {
+
+		private long count;
+		private boolean closed;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+}
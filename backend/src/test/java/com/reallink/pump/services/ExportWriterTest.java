@@ -0,0 +1,46 @@
+package com.reallink.pump.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reallink.pump.enums.ExportFormat;
+
+/**
+ * What each export format writes for an empty export, and how CSV cells that
+ * a spreadsheet would run as formulas are written.
+ */
+class ExportWriterTest {
+
+	private static final List<String> COLUMNS = List.of(
+			"id", "bill_no", "bill_date", "customer_name", "net_amount", "entry_by");
+
+	@ParameterizedTest
+	@EnumSource(ExportFormat.class)
+	void writesNothingButTheHeaderForNoRows(ExportFormat format) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ExportWriter.create(format, out, COLUMNS, new ObjectMapper()).close();
+		long expected = format == ExportFormat.CSV ? String.join(",", COLUMNS).length() + 2 : 0;
+		assertEquals(expected, out.size());
+	}
+
+	@Test
+	void csvCellsThatWouldRunAsFormulasAreWrittenAsText() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ExportWriter writer = ExportWriter.create(ExportFormat.CSV, out, List.of("a", "b", "c", "d", "e"),
+				new ObjectMapper())) {
+			writer.writeRow(new Object[]{"=HYPERLINK(\"http://x\")", "+1", "@SUM(A1)", new BigDecimal("-12.50"), "-"});
+		}
+		assertEquals("a,b,c,d,e\r\n\"'=HYPERLINK(\"\"http://x\"\")\",'+1,'@SUM(A1),-12.50,'-\r\n",
+				out.toString(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,111 @@
+package com.reallink.pump.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reallink.pump.entities.Expense;
+import com.reallink.pump.entities.ExpenseHead;
+import com.reallink.pump.entities.PumpInfoMaster;
+import com.reallink.pump.entities.SalesmanShift;
+import com.reallink.pump.support.TestFixtures;
+import com.reallink.pump.support.TestFixtures.Forecourt;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Rebuilding a day updates the rollup rows in place and removes the rows whose
+ * source rows are gone.
+ */
+@SpringBootTest
+@Import(TestFixtures.class)
+@Transactional
+@Tag("database")
+class ProfitRollupServiceTest {
+
+	private static final LocalDate DAY = LocalDate.now().minusDays(2);
+
+	@Autowired
+	private ProfitRollupService profitRollupService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private Forecourt forecourt;
+	private SalesmanShift shift;
+
+	@BeforeEach
+	void setUp() {
+		forecourt = fixtures.createForecourt(1);
+		shift = entityManager.find(SalesmanShift.class, fixtures.createOpenShift(forecourt));
+	}
+
+	@Test
+	void rebuildUpdatesRowsInPlaceAndDropsRowsWithoutSources() {
+		ExpenseHead fuelHead = expenseHead("Generator fuel");
+		ExpenseHead teaHead = expenseHead("Tea");
+		Expense generator = expense(fuelHead, "300.00");
+		expense(fuelHead, "200.00");
+		Expense tea = expense(teaHead, "40.00");
+		entityManager.flush();
+
+		profitRollupService.rebuild(forecourt.pumpMasterId(), DAY, DAY);
+		Map<UUID, Object[]> first = summaries();
+		assertEquals(2, first.size());
+		assertEquals(0, new BigDecimal("500.00").compareTo((BigDecimal) first.get(fuelHead.getId())[1]));
+		assertEquals(0, new BigDecimal("40.00").compareTo((BigDecimal) first.get(teaHead.getId())[1]));
+
+		generator.setAmount(new BigDecimal("350.00"));
+		entityManager.remove(tea);
+		entityManager.flush();
+
+		profitRollupService.rebuild(forecourt.pumpMasterId(), DAY, DAY);
+		Map<UUID, Object[]> second = summaries();
+		assertEquals(1, second.size(), "The tea row has no expenses left and must be removed");
+		assertEquals(0, new BigDecimal("550.00").compareTo((BigDecimal) second.get(fuelHead.getId())[1]));
+		assertEquals(first.get(fuelHead.getId())[0], second.get(fuelHead.getId())[0],
+				"The row should be updated in place, not deleted and inserted again");
+	}
+
+	private ExpenseHead expenseHead(String name) {
+		ExpenseHead head = new ExpenseHead(entityManager.getReference(PumpInfoMaster.class, forecourt.pumpMasterId()),
+				name, null);
+		entityManager.persist(head);
+		return head;
+	}
+
+	private Expense expense(ExpenseHead head, String amount) {
+		Expense expense = new Expense(entityManager.getReference(PumpInfoMaster.class, forecourt.pumpMasterId()), head,
+				Expense.ExpenseType.SALESMAN_SHIFT, DAY, new BigDecimal(amount), null);
+		expense.associateWithSalesmanShift(shift);
+		entityManager.persist(expense);
+		return expense;
+	}
+
+	// Expense head ID to [row ID, amount]
+	private Map<UUID, Object[]> summaries() {
+		Map<UUID, Object[]> rows = new HashMap<>();
+		entityManager.createQuery("SELECT s.id, s.expenseHead.id, s.amount FROM DailyExpenseSummary s "
+				+ "WHERE s.pumpMaster.id = :pumpMasterId AND s.date = :date", Object[].class)
+				.setParameter("pumpMasterId", forecourt.pumpMasterId())
+				.setParameter("date", DAY)
+				.getResultList()
+				.forEach(row -> rows.put((UUID) row[1], new Object[]{row[0], row[2]}));
+		return rows;
+	}
+}
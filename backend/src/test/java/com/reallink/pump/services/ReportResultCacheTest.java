@@ -0,0 +1,53 @@
+package com.reallink.pump.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.reallink.pump.config.ReportCacheConfig;
+
+/**
+ * Closed ranges are served from the cache until a write evicts them or their
+ * time to live runs out.
+ */
+class ReportResultCacheTest {
+
+	private static final UUID PUMP = UUID.randomUUID();
+	private static final LocalDate FROM = LocalDate.now().minusDays(10);
+	private static final LocalDate TO = LocalDate.now().minusDays(5);
+
+	@Test
+	void closedRangesAreServedUntilEvicted() {
+		ReportResultCache cache = new ReportResultCache(config(300));
+		AtomicInteger computed = new AtomicInteger();
+
+		cache.get(PUMP, "PROFIT", FROM, TO, null, computed::incrementAndGet);
+		cache.get(PUMP, "PROFIT", FROM, TO, null, computed::incrementAndGet);
+		assertEquals(1, computed.get());
+
+		cache.evict(PUMP, TO, TO);
+		cache.get(PUMP, "PROFIT", FROM, TO, null, computed::incrementAndGet);
+		assertEquals(2, computed.get());
+	}
+
+	@Test
+	void expiredResultsAreComputedAgain() {
+		ReportResultCache cache = new ReportResultCache(config(0));
+		AtomicInteger computed = new AtomicInteger();
+
+		cache.get(PUMP, "PROFIT", FROM, TO, null, computed::incrementAndGet);
+		cache.get(PUMP, "PROFIT", FROM, TO, null, computed::incrementAndGet);
+		assertEquals(2, computed.get());
+		assertEquals(0, cache.getStats().getHits());
+	}
+
+	private static ReportCacheConfig config(long ttlSeconds) {
+		ReportCacheConfig config = new ReportCacheConfig();
+		config.setTtlSeconds(ttlSeconds);
+		return config;
+	}
+}
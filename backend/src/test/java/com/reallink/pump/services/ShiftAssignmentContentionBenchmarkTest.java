@@ -0,0 +1,196 @@
+package com.reallink.pump.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import com.reallink.pump.entities.NozzleAssignment;
+import com.reallink.pump.entities.SalesmanShift;
+import com.reallink.pump.entities.TankTransaction;
+import com.reallink.pump.support.TestFixtures;
+import com.reallink.pump.support.TestFixtures.Forecourt;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Races shift starts, nozzle assignments and nozzle closes against each other
+ * on a freshly created pump and reports how many operations per second get
+ * through. Every round checks that no salesman got two open shifts, no nozzle
+ * got two open assignments and no assignment was closed twice.
+ *
+ * Commits its fixtures, so run it against a scratch database with
+ * {@code mvn -Pbenchmark test}.
+ */
+@SpringBootTest
+@Import(TestFixtures.class)
+@Tag("benchmark")
+class ShiftAssignmentContentionBenchmarkTest {
+
+	private static final Logger log = LoggerFactory.getLogger(ShiftAssignmentContentionBenchmarkTest.class);
+
+	private static final int SALESMEN = 8;
+	private static final int NOZZLES = 16;
+	private static final int ROUNDS = 10;
+	private static final int ATTEMPTS_PER_START = 4;
+	private static final BigDecimal DISPENSED_PER_ROUND = BigDecimal.TEN;
+
+	@Autowired
+	private SalesmanShiftService salesmanShiftService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	void concurrentShiftOperationsNeverDoubleAssignOrDoubleClose() throws Exception {
+		Forecourt forecourt = fixtures.createForecourt(NOZZLES);
+		List<UUID> salesmen = new ArrayList<>(List.of(forecourt.salesmanId()));
+		while (salesmen.size() < SALESMEN) {
+			salesmen.add(fixtures.createSalesman(forecourt));
+		}
+
+		int operations = 0;
+		long started = System.nanoTime();
+		for (int round = 0; round < ROUNDS; round++) {
+			BigDecimal opening = DISPENSED_PER_ROUND.multiply(BigDecimal.valueOf(round));
+
+			// Several devices start the same salesman's shift at once
+			List<Callable<SalesmanShift>> starts = new ArrayList<>();
+			for (UUID salesmanId : salesmen) {
+				for (int i = 0; i < ATTEMPTS_PER_START; i++) {
+					starts.add(() -> salesmanShiftService.startShift(salesmanId, BigDecimal.ZERO, null));
+				}
+			}
+			List<SalesmanShift> shifts = race(forecourt, starts);
+			operations += starts.size();
+			assertEquals(SALESMEN, shifts.size(), "Each salesman must get exactly one open shift");
+
+			// Every shift grabs for every nozzle
+			List<Callable<NozzleAssignment>> assigns = new ArrayList<>();
+			for (SalesmanShift shift : shifts) {
+				for (UUID nozzleId : forecourt.nozzleIds()) {
+					assigns.add(() -> salesmanShiftService.addNozzleToShift(shift.getId(), nozzleId, opening));
+				}
+			}
+			List<NozzleAssignment> assignments = race(forecourt, assigns);
+			operations += assigns.size();
+			assertEquals(NOZZLES, assignments.size(), "Each nozzle must get exactly one open assignment");
+			assertEquals(0, countNozzlesWithSeveralOpenAssignments(forecourt));
+
+			TestFixtures.authenticate(forecourt, "MANAGER");
+			for (NozzleAssignment assignment : assignments) {
+				salesmanShiftService.registerNozzleTest(assignment.getSalesmanShift().getId(),
+						assignment.getNozzle().getId(), LocalDateTime.now(), BigDecimal.ZERO, null);
+			}
+
+			// Each nozzle is closed twice at once while its whole shift is closed too
+			BigDecimal closing = opening.add(DISPENSED_PER_ROUND);
+			Map<UUID, Map<UUID, BigDecimal>> closingBalancesByShift = new HashMap<>();
+			List<Callable<Object>> closes = new ArrayList<>();
+			for (NozzleAssignment assignment : assignments) {
+				closingBalancesByShift.computeIfAbsent(assignment.getSalesmanShift().getId(), id -> new HashMap<>())
+						.put(assignment.getId(), closing);
+				closes.add(() -> salesmanShiftService.closeNozzleAssignment(assignment.getId(), closing, null));
+				closes.add(() -> salesmanShiftService.closeNozzleAssignment(assignment.getId(), closing, null));
+			}
+			closingBalancesByShift.forEach((shiftId, balances) -> closes.add(
+					() -> salesmanShiftService.closeShiftWithNozzles(shiftId, balances, null)));
+			race(forecourt, closes);
+			operations += closes.size();
+
+			// Shifts whose bulk close lost the race to a single nozzle close are still open
+			TestFixtures.authenticate(forecourt, "MANAGER");
+			for (SalesmanShift shift : shifts) {
+				if (salesmanShiftService.getShiftById(shift.getId()).isOpen()) {
+					salesmanShiftService.closeShift(shift.getId(), null);
+				}
+			}
+			TestFixtures.clearAuthentication();
+
+			long dispensings = countDispensings(forecourt);
+			assertEquals((long) NOZZLES * (round + 1), dispensings, "A nozzle assignment was closed more than once");
+		}
+		long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+		log.info("{} contended shift operations in {} ms ({} ops/s) across {} salesmen and {} nozzles",
+				operations, elapsedMs, operations * 1000L / elapsedMs, SALESMEN, NOZZLES);
+		assertTrue(operations > 0);
+	}
+
+	/**
+	 * Runs all tasks at once, each on its own thread authenticated as a
+	 * manager, and returns the results of those that succeeded. Tasks may only
+	 * fail with the service's own "already" rejections.
+	 */
+	private <T> List<T> race(Forecourt forecourt, List<? extends Callable<? extends T>> tasks) throws Exception {
+		CountDownLatch ready = new CountDownLatch(1);
+		List<Future<T>> futures = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (Callable<? extends T> task : tasks) {
+				futures.add(executor.submit(() -> {
+					TestFixtures.authenticate(forecourt, "MANAGER");
+					try {
+						ready.await();
+						return task.call();
+					} finally {
+						TestFixtures.clearAuthentication();
+					}
+				}));
+			}
+			ready.countDown();
+
+			List<T> results = new ArrayList<>();
+			for (Future<T> future : futures) {
+				try {
+					results.add(future.get());
+				} catch (ExecutionException e) {
+					if (!(e.getCause() instanceof IllegalStateException)
+							&& !(e.getCause() instanceof IllegalArgumentException)) {
+						throw e;
+					}
+				}
+			}
+			return results;
+		}
+	}
+
+	private long countNozzlesWithSeveralOpenAssignments(Forecourt forecourt) {
+		return entityManager.createQuery("SELECT na.nozzle.id FROM NozzleAssignment na "
+				+ "WHERE na.pumpMaster.id = :pumpMasterId AND na.status = 'OPEN' "
+				+ "GROUP BY na.nozzle.id HAVING COUNT(na) > 1", UUID.class)
+				.setParameter("pumpMasterId", forecourt.pumpMasterId())
+				.getResultList()
+				.size();
+	}
+
+	private long countDispensings(Forecourt forecourt) {
+		return entityManager.createQuery("SELECT COUNT(t) FROM TankTransaction t "
+				+ "WHERE t.tank.id = :tankId AND t.transactionType = :type", Long.class)
+				.setParameter("tankId", forecourt.tankId())
+				.setParameter("type", TankTransaction.TransactionType.REMOVAL)
+				.getSingleResult();
+	}
+}
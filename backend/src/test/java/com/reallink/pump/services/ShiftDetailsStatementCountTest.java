@@ -0,0 +1,111 @@
+package com.reallink.pump.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reallink.pump.dto.shift.ShiftDetailsResponse;
+import com.reallink.pump.entities.SalesmanShift;
+import com.reallink.pump.support.TestFixtures;
+import com.reallink.pump.support.TestFixtures.Forecourt;
+import com.reallink.pump.support.TestFixtures.Fuel;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the statements needed to load a shift and render its details, the
+ * way {@code GET /api/v1/salesman-shifts/{id}} does. The count must not grow
+ * with the number of assignments, nozzle tests, bills or payments on the
+ * shift, nor with how many customers and products they refer to.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(TestFixtures.class)
+@Transactional
+@Tag("database")
+class ShiftDetailsStatementCountTest {
+
+	// Header plus one query per collection: assignments, nozzle tests, credit bills, payments
+	private static final long FETCH_PLAN_STATEMENTS = 5;
+
+	@Autowired
+	private SalesmanShiftService salesmanShiftService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Forecourt forecourt;
+	private Fuel petrol;
+	private List<UUID> customerIds;
+	private List<UUID> productIds;
+
+	@BeforeEach
+	void setUp() {
+		forecourt = fixtures.createForecourt(4);
+		petrol = fixtures.createFuel(forecourt, "Petrol", 3);
+		customerIds = List.of(forecourt.customerId(), fixtures.createCustomer(forecourt), fixtures.createCustomer(forecourt));
+		productIds = List.of(forecourt.productId(), petrol.productId());
+		TestFixtures.authenticate(forecourt, "MANAGER");
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestFixtures.clearAuthentication();
+	}
+
+	@Test
+	void shiftDetailsUseAFixedNumberOfStatementsWhateverTheShiftSize() {
+		List<UUID> dieselNozzles = forecourt.nozzleIds();
+		List<UUID> petrolNozzles = petrol.nozzleIds();
+		UUID smallShift = shiftWith(List.of(dieselNozzles.get(0), petrolNozzles.get(0)), 1, 2, 2);
+		UUID largeShift = shiftWith(List.of(dieselNozzles.get(1), dieselNozzles.get(2), dieselNozzles.get(3),
+				petrolNozzles.get(1), petrolNozzles.get(2)), 4, 150, 60);
+
+		long small = statementsToRenderDetails(smallShift);
+		long large = statementsToRenderDetails(largeShift);
+
+		assertTrue(small <= FETCH_PLAN_STATEMENTS, "Loading shift details took " + small + " statements");
+		assertEquals(small, large, "Statement count grew with the size of the shift");
+	}
+
+	// Bills and payments are spread over every customer, bills over both products
+	private UUID shiftWith(List<UUID> nozzleIds, int testsPerAssignment, int bills, int payments) {
+		UUID shiftId = fixtures.createOpenShift(forecourt);
+		fixtures.createNozzleAssignments(forecourt, shiftId, nozzleIds, testsPerAssignment);
+		fixtures.createCreditBills(forecourt, shiftId, bills, customerIds, productIds);
+		fixtures.createPayments(forecourt, shiftId, payments, customerIds);
+		return shiftId;
+	}
+
+	private long statementsToRenderDetails(UUID shiftId) {
+		entityManager.flush();
+		entityManager.clear();
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		SalesmanShift shift = salesmanShiftService.getShiftDetails(shiftId);
+		ShiftDetailsResponse response = ShiftDetailsResponse.fromEntity(shift);
+
+		assertEquals(shiftId, response.getId());
+		return statistics.getPrepareStatementCount();
+	}
+}
@@ -0,0 +1,115 @@
+package com.reallink.pump.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reallink.pump.dto.shift.ShiftTotalsView;
+import com.reallink.pump.entities.SalesmanShift;
+import com.reallink.pump.support.TestFixtures;
+import com.reallink.pump.support.TestFixtures.Forecourt;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Compares {@link ShiftTotalsService} with summing a shift's collections in
+ * memory, on a shift with 500 credit bills. Runs in a rolled-back
+ * transaction; run with {@code mvn -Pbenchmark test}.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(TestFixtures.class)
+@Transactional
+@Tag("benchmark")
+class ShiftTotalsBenchmarkTest {
+
+	private static final Logger log = LoggerFactory.getLogger(ShiftTotalsBenchmarkTest.class);
+
+	private static final int BILLS = 500;
+	private static final int WARMUP = 5;
+	private static final int ITERATIONS = 50;
+
+	@Autowired
+	private ShiftTotalsService shiftTotalsService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void aggregateQueryBeatsWalkingTheEntityGraph() {
+		Forecourt forecourt = fixtures.createForecourt(2);
+		UUID shiftId = fixtures.createOpenShift(forecourt);
+		fixtures.createCreditBills(forecourt, shiftId, BILLS);
+		entityManager.flush();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		Measurement aggregate = measure(statistics, () -> shiftTotalsService.getTotals(shiftId).getTotalCredit());
+		Measurement graphWalk = measure(statistics, () -> {
+			SalesmanShift shift = entityManager.find(SalesmanShift.class, shiftId);
+			shift.calculateTotalFuelSales();
+			shift.calculateTotalPayments();
+			shift.calculateTotalExpenses();
+			shift.calculateTotalTestQuantity();
+			return shift.calculateTotalCredit();
+		});
+
+		log.info("Totals of a shift with {} bills: aggregate query {} us and {} statement(s), "
+				+ "entity graph {} us and {} statement(s)", BILLS, aggregate.micros, aggregate.statements,
+				graphWalk.micros, graphWalk.statements);
+		assertEquals(0, aggregate.total.compareTo(graphWalk.total));
+		assertEquals(1, aggregate.statements);
+		assertTrue(aggregate.micros < graphWalk.micros,
+				"Aggregate took " + aggregate.micros + " us, entity graph " + graphWalk.micros + " us");
+
+		ShiftTotalsView totals = shiftTotalsService.getTotals(shiftId);
+		assertEquals(0, new BigDecimal("950.00").multiply(BigDecimal.valueOf(BILLS)).compareTo(totals.getTotalCredit()));
+	}
+
+	/**
+	 * Mean time and statements per run, each run starting from an empty
+	 * persistence context.
+	 */
+	private Measurement measure(Statistics statistics, Supplier<BigDecimal> totals) {
+		for (int i = 0; i < WARMUP; i++) {
+			entityManager.clear();
+			totals.get();
+		}
+		BigDecimal total = null;
+		long nanos = 0;
+		long statements = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			entityManager.clear();
+			statistics.clear();
+			long started = System.nanoTime();
+			total = totals.get();
+			nanos += System.nanoTime() - started;
+			statements += statistics.getPrepareStatementCount();
+		}
+		return new Measurement(total, nanos / ITERATIONS / 1000, statements / ITERATIONS);
+	}
+
+	private record Measurement(BigDecimal total, long micros, long statements) {
+
+	}
+}
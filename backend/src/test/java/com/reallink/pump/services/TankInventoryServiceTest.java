@@ -0,0 +1,129 @@
+package com.reallink.pump.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reallink.pump.entities.Tank;
+import com.reallink.pump.entities.TankTransaction;
+import com.reallink.pump.entities.TankTransaction.TransactionType;
+import com.reallink.pump.repositories.TankTransactionRepository;
+import com.reallink.pump.support.TestFixtures;
+import com.reallink.pump.support.TestFixtures.Forecourt;
+import com.reallink.pump.util.UuidBytes;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Tank transactions written through any path land in the daily tank level,
+ * and the verification puts a day that drifted back in line.
+ */
+@SpringBootTest
+@Import(TestFixtures.class)
+@Transactional
+@Tag("database")
+class TankInventoryServiceTest {
+
+	private static final LocalDate DAY = LocalDate.now().minusDays(3);
+
+	@Autowired
+	private TankInventoryService tankInventoryService;
+
+	@Autowired
+	private TankTransactionRepository tankTransactionRepository;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Forecourt forecourt;
+
+	@BeforeEach
+	void setUp() {
+		forecourt = fixtures.createForecourt(1);
+	}
+
+	@Test
+	void writesOutsideTheServiceArePostedByTheListener() {
+		TankTransaction transaction = tankTransactionRepository.saveAndFlush(
+				transaction(DAY, TransactionType.ADDITION, "200.00"));
+		assertLevel("200.00", DAY);
+
+		transaction.setVolume(new BigDecimal("150.00"));
+		tankTransactionRepository.flush();
+		assertLevel("150.00", DAY);
+
+		transaction.setTransactionDate(DAY.plusDays(1).atTime(9, 0));
+		tankTransactionRepository.flush();
+		assertLevel("0.00", DAY);
+		assertLevel("150.00", DAY.plusDays(1));
+
+		tankTransactionRepository.delete(transaction);
+		tankTransactionRepository.flush();
+		assertLevel("0.00", DAY.plusDays(1));
+	}
+
+	@Test
+	void postAndRemoveApplyOneNetPerDay() {
+		List<TankTransaction> posted = tankInventoryService.post(List.of(
+				transaction(DAY, TransactionType.ADDITION, "500.00"),
+				transaction(DAY, TransactionType.REMOVAL, "120.00"),
+				transaction(DAY.plusDays(1), TransactionType.REMOVAL, "80.00")));
+		assertLevel("380.00", DAY);
+		assertLevel("-80.00", DAY.plusDays(1));
+
+		tankInventoryService.remove(posted.subList(1, 3));
+		assertLevel("500.00", DAY);
+		assertLevel("0.00", DAY.plusDays(1));
+	}
+
+	@Test
+	void verificationCorrectsADayThatDrifted() {
+		tankInventoryService.post(List.of(transaction(DAY, TransactionType.ADDITION, "75.00")));
+		jdbcTemplate.update("UPDATE pump_daily_tank_level_master SET daily_net = 10 WHERE tank_id = ? AND date = ?",
+				UuidBytes.toBytes(forecourt.tankId()), Date.valueOf(DAY));
+		assertLevel("10.00", DAY);
+
+		assertTrue(tankInventoryService.verifyDailyLevels(DAY, DAY) >= 1);
+		assertLevel("75.00", DAY);
+		assertEquals(0, tankInventoryService.verifyDailyLevels(DAY, DAY));
+	}
+
+	private TankTransaction transaction(LocalDate date, TransactionType type, String volume) {
+		TankTransaction transaction = new TankTransaction();
+		transaction.setTank(entityManager.getReference(Tank.class, forecourt.tankId()));
+		transaction.setTransactionType(type);
+		transaction.setVolume(new BigDecimal(volume));
+		transaction.setDescription("Inventory test");
+		transaction.setTransactionDate(date.atTime(10, 0));
+		return transaction;
+	}
+
+	private void assertLevel(String expected, LocalDate date) {
+		List<BigDecimal> nets = entityManager.createQuery("SELECT dtl.dailyNet FROM DailyTankLevel dtl "
+				+ "WHERE dtl.tank.id = :tankId AND dtl.date = :date", BigDecimal.class)
+				.setParameter("tankId", forecourt.tankId())
+				.setParameter("date", date)
+				.getResultList();
+		BigDecimal net = nets.isEmpty() ? BigDecimal.ZERO : nets.get(0);
+		assertEquals(0, new BigDecimal(expected).compareTo(net), "Level on " + date + " was " + net);
+	}
+}
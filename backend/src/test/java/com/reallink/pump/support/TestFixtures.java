@@ -0,0 +1,290 @@
+package com.reallink.pump.support;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reallink.pump.config.JwtPrincipal;
+import com.reallink.pump.config.PumpSecurityContextHolder;
+import com.reallink.pump.entities.BillingMode;
+import com.reallink.pump.entities.Customer;
+import com.reallink.pump.entities.Nozzle;
+import com.reallink.pump.entities.NozzleAssignment;
+import com.reallink.pump.entities.NozzleTest;
+import com.reallink.pump.entities.PaymentMethod;
+import com.reallink.pump.entities.PaymentType;
+import com.reallink.pump.entities.Product;
+import com.reallink.pump.entities.ProductType;
+import com.reallink.pump.entities.PumpInfoMaster;
+import com.reallink.pump.entities.RateType;
+import com.reallink.pump.entities.Role;
+import com.reallink.pump.entities.SalesmanBill;
+import com.reallink.pump.entities.SalesmanBillPayment;
+import com.reallink.pump.entities.SalesmanShift;
+import com.reallink.pump.entities.Tank;
+import com.reallink.pump.entities.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Builds a complete pump (salesman, fuel product, tank, nozzles and a credit
+ * customer) for tests that run against the database. Every pump gets a random
+ * code, so fixtures from different runs never collide.
+ *
+ * Methods join the caller's transaction when there is one and commit on
+ * their own otherwise. Import with {@code @Import(TestFixtures.class)}.
+ */
+@TestComponent
+public class TestFixtures {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Transactional
+	public Forecourt createForecourt(int nozzleCount) {
+		String code = Long.toString(ThreadLocalRandom.current().nextLong(1L << 40, 1L << 50), 36).toUpperCase();
+		PumpInfoMaster pump = new PumpInfoMaster(code, ThreadLocalRandom.current().nextInt(1, Integer.MAX_VALUE),
+				"Test pump " + code);
+		entityManager.persist(pump);
+
+		Role salesmanRole = entityManager.createQuery("SELECT r FROM Role r WHERE r.roleName = 'SALESMAN'", Role.class)
+				.getSingleResult();
+		User salesman = new User("salesman-" + code.toLowerCase(), "secret", "9" + randomDigits(9), salesmanRole, pump,
+				null, null, null);
+		entityManager.persist(salesman);
+
+		Product fuel = new Product("Diesel", "HSD", 0, new BigDecimal("90.00"), new BigDecimal("95.00"), "27101990",
+				"LITRE", "LITRE", BigDecimal.ONE, pump, ProductType.FUEL);
+		entityManager.persist(fuel);
+
+		Tank tank = new Tank("Tank 1", new BigDecimal("20000"), "Forecourt", fuel, pump);
+		tank.setOpeningLevel(new BigDecimal("10000"));
+		entityManager.persist(tank);
+
+		List<Nozzle> nozzles = new ArrayList<>();
+		for (int i = 1; i <= nozzleCount; i++) {
+			Nozzle nozzle = new Nozzle("Nozzle " + i, "Test", tank, pump);
+			entityManager.persist(nozzle);
+			nozzles.add(nozzle);
+		}
+
+		Customer customer = new Customer();
+		customer.setPumpMaster(pump);
+		customer.setCustomerName("Fleet " + code);
+		customer.setAddress("1 Test Road");
+		customer.setPincode("400001");
+		customer.setPhoneNumber("9" + randomDigits(9));
+		customer.setCreditLimit(1_000_000d);
+		customer.setOpeningBalanceDate(LocalDate.now().minusYears(1));
+		entityManager.persist(customer);
+
+		entityManager.flush();
+		return new Forecourt(pump.getId(), salesman.getId(), salesman.getUsername(), fuel.getId(), tank.getId(),
+				nozzles.stream().map(Nozzle::getId).toList(), customer.getId());
+	}
+
+	/**
+	 * Adds another salesman to the forecourt's pump.
+	 */
+	@Transactional
+	public UUID createSalesman(Forecourt forecourt) {
+		Role salesmanRole = entityManager.createQuery("SELECT r FROM Role r WHERE r.roleName = 'SALESMAN'", Role.class)
+				.getSingleResult();
+		User salesman = new User("salesman-" + randomDigits(12), "secret", "9" + randomDigits(9), salesmanRole,
+				entityManager.getReference(PumpInfoMaster.class, forecourt.pumpMasterId()), null, null, null);
+		entityManager.persist(salesman);
+		entityManager.flush();
+		return salesman.getId();
+	}
+
+	/**
+	 * Inserts an open shift directly, without going through the shift service.
+	 */
+	@Transactional
+	public UUID createOpenShift(Forecourt forecourt) {
+		SalesmanShift shift = new SalesmanShift(entityManager.getReference(User.class, forecourt.salesmanId()),
+				entityManager.getReference(PumpInfoMaster.class, forecourt.pumpMasterId()),
+				LocalDateTime.now().minusHours(1), BigDecimal.ZERO);
+		entityManager.persist(shift);
+		entityManager.flush();
+		return shift.getId();
+	}
+
+	/**
+	 * Adds another credit customer to the forecourt's pump.
+	 */
+	@Transactional
+	public UUID createCustomer(Forecourt forecourt) {
+		Customer customer = new Customer();
+		customer.setPumpMaster(entityManager.getReference(PumpInfoMaster.class, forecourt.pumpMasterId()));
+		customer.setCustomerName("Fleet " + randomDigits(12));
+		customer.setAddress("2 Test Road");
+		customer.setPincode("400001");
+		customer.setPhoneNumber("9" + randomDigits(9));
+		customer.setCreditLimit(1_000_000d);
+		customer.setOpeningBalanceDate(LocalDate.now().minusYears(1));
+		entityManager.persist(customer);
+		entityManager.flush();
+		return customer.getId();
+	}
+
+	/**
+	 * Adds another fuel product to the forecourt's pump, with its own tank and
+	 * nozzles.
+	 */
+	@Transactional
+	public Fuel createFuel(Forecourt forecourt, String productName, int nozzleCount) {
+		PumpInfoMaster pump = entityManager.getReference(PumpInfoMaster.class, forecourt.pumpMasterId());
+		Product fuel = new Product(productName, productName.substring(0, 2).toUpperCase(), 0, new BigDecimal("100.00"),
+				new BigDecimal("105.00"), "27101290", "LITRE", "LITRE", BigDecimal.ONE, pump, ProductType.FUEL);
+		entityManager.persist(fuel);
+
+		Tank tank = new Tank(productName + " tank", new BigDecimal("20000"), "Forecourt", fuel, pump);
+		tank.setOpeningLevel(new BigDecimal("10000"));
+		entityManager.persist(tank);
+
+		List<UUID> nozzleIds = new ArrayList<>();
+		for (int i = 1; i <= nozzleCount; i++) {
+			Nozzle nozzle = new Nozzle(productName + " nozzle " + i, "Test", tank, pump);
+			entityManager.persist(nozzle);
+			nozzleIds.add(nozzle.getId());
+		}
+		entityManager.flush();
+		return new Fuel(fuel.getId(), nozzleIds);
+	}
+
+	/**
+	 * Inserts one assignment per nozzle on the shift, each with
+	 * {@code testsPerAssignment} nozzle tests. Every other assignment is
+	 * closed, so the shift has both open and closed ones.
+	 */
+	@Transactional
+	public void createNozzleAssignments(Forecourt forecourt, UUID shiftId, List<UUID> nozzleIds,
+			int testsPerAssignment) {
+		PumpInfoMaster pump = entityManager.getReference(PumpInfoMaster.class, forecourt.pumpMasterId());
+		SalesmanShift shift = entityManager.getReference(SalesmanShift.class, shiftId);
+		LocalDateTime start = LocalDateTime.now().minusMinutes(50);
+		for (int i = 0; i < nozzleIds.size(); i++) {
+			NozzleAssignment assignment = new NozzleAssignment(shift, entityManager.find(Nozzle.class, nozzleIds.get(i)),
+					entityManager.getReference(User.class, forecourt.salesmanId()), pump, start, new BigDecimal("1000.000"));
+			for (int t = 1; t <= testsPerAssignment; t++) {
+				NozzleTest test = new NozzleTest();
+				test.setPumpMaster(pump);
+				test.setSalesmanShift(shift);
+				test.setNozzleAssignment(assignment);
+				test.setTestDatetime(start.plusMinutes(t));
+				test.setTestQuantity(new BigDecimal("5.000"));
+				assignment.getNozzleTests().add(test);
+			}
+			if (i % 2 == 1) {
+				assignment.closeAssignment(start.plusMinutes(40), new BigDecimal("1500.000"));
+			}
+			entityManager.persist(assignment);
+		}
+		entityManager.flush();
+	}
+
+	@Transactional
+	public void createCreditBills(Forecourt forecourt, UUID shiftId, int count) {
+		createCreditBills(forecourt, shiftId, count, List.of(forecourt.customerId()), List.of(forecourt.productId()));
+	}
+
+	/**
+	 * Inserts credit bills on the shift, spread round-robin over the given
+	 * customers and products.
+	 */
+	@Transactional
+	public void createCreditBills(Forecourt forecourt, UUID shiftId, int count, List<UUID> customerIds,
+			List<UUID> productIds) {
+		Long lastBillNo = entityManager.createQuery(
+				"SELECT COALESCE(MAX(b.billNo), 0) FROM SalesmanBill b WHERE b.pumpMaster.id = :pumpMasterId", Long.class)
+				.setParameter("pumpMasterId", forecourt.pumpMasterId())
+				.getSingleResult();
+		for (int i = 1; i <= count; i++) {
+			SalesmanBill bill = new SalesmanBill();
+			bill.setPumpMaster(entityManager.getReference(PumpInfoMaster.class, forecourt.pumpMasterId()));
+			bill.setBillNo(lastBillNo + i);
+			bill.setBillDate(LocalDate.now());
+			bill.setCustomer(entityManager.getReference(Customer.class, customerIds.get(i % customerIds.size())));
+			bill.setProduct(entityManager.getReference(Product.class, productIds.get(i % productIds.size())));
+			bill.setSalesmanShift(entityManager.getReference(SalesmanShift.class, shiftId));
+			bill.setRateType(RateType.INCLUDING_GST);
+			bill.setBillingMode(BillingMode.BY_QUANTITY);
+			bill.setPaymentType(PaymentType.CREDIT);
+			bill.setVehicleNo("MH01AB" + (1000 + i % 9000));
+			bill.setDriverName("Driver " + i);
+			bill.setQuantity(new BigDecimal("10.000"));
+			bill.setRate(new BigDecimal("95.00"));
+			bill.setAmount(new BigDecimal("950.00"));
+			bill.setNetAmount(new BigDecimal("950.00"));
+			entityManager.persist(bill);
+		}
+		entityManager.flush();
+	}
+
+	/**
+	 * Inserts payments taken on the shift, spread round-robin over the given
+	 * customers.
+	 */
+	@Transactional
+	public void createPayments(Forecourt forecourt, UUID shiftId, int count, List<UUID> customerIds) {
+		for (int i = 1; i <= count; i++) {
+			SalesmanBillPayment payment = new SalesmanBillPayment();
+			payment.setPumpMaster(entityManager.getReference(PumpInfoMaster.class, forecourt.pumpMasterId()));
+			payment.setSalesmanShift(entityManager.getReference(SalesmanShift.class, shiftId));
+			payment.setCustomer(entityManager.getReference(Customer.class, customerIds.get(i % customerIds.size())));
+			payment.setAmount(new BigDecimal("500.00"));
+			payment.setPaymentDate(LocalDateTime.now().minusMinutes(i % 50));
+			payment.setPaymentMethod(i % 2 == 0 ? PaymentMethod.CASH : PaymentMethod.UPI);
+			payment.setReferenceNumber("REF" + randomDigits(10));
+			entityManager.persist(payment);
+		}
+		entityManager.flush();
+	}
+
+	/**
+	 * Authenticates the current thread as a user of the forecourt's pump, the
+	 * way {@code JwtAuthenticationFilter} does for a request.
+	 */
+	public static void authenticate(Forecourt forecourt, String role) {
+		UUID userId = "SALESMAN".equals(role) ? forecourt.salesmanId() : UUID.randomUUID();
+		String username = "SALESMAN".equals(role) ? forecourt.salesmanUsername() : role.toLowerCase();
+		JwtPrincipal principal = new JwtPrincipal(userId, username, forecourt.pumpMasterId(), role, "access", null);
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, null,
+				List.of(new SimpleGrantedAuthority("ROLE_" + role))));
+		PumpSecurityContextHolder.setPumpMasterId(forecourt.pumpMasterId());
+	}
+
+	public static void clearAuthentication() {
+		SecurityContextHolder.clearContext();
+		PumpSecurityContextHolder.clear();
+	}
+
+	private static String randomDigits(int length) {
+		StringBuilder digits = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			digits.append(ThreadLocalRandom.current().nextInt(10));
+		}
+		return digits.toString();
+	}
+
+	public record Fuel(UUID productId, List<UUID> nozzleIds) {
+
+	}
+
+	public record Forecourt(UUID pumpMasterId, UUID salesmanId, String salesmanUsername, UUID productId, UUID tankId,
+			List<UUID> nozzleIds, UUID customerId) {
+
+	}
+}